@@ -19,6 +19,7 @@
 package org.apache.olingo.client.api;
 
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
 
 import org.apache.olingo.client.api.http.HttpClientFactory;
 import org.apache.olingo.client.api.http.HttpUriRequestFactory;
@@ -111,6 +112,27 @@ public interface Configuration {
    */
   void setHttpClientFactory(HttpClientFactory factory);
 
+  /**
+   * Gets whether connection pooling has been enabled with {@link #setConnectionPooling(boolean)}.
+   *
+   * @return whether connection pooling is used
+   */
+  boolean isConnectionPooling();
+
+  /**
+   * Sets whether the HttpClient factory keeps persistent connections in a pool shared by all requests.
+   * <br/>
+   * If no HttpClient factory has been set, enabling installs a pooling one with default settings;
+   * disabling releases that pool again and restores the default HttpClient factory.
+   * A factory that has been set explicitly is never replaced: it must already pool its connections
+   * (e.g., by wrapping a pooling factory), otherwise enabling fails with an {@link IllegalStateException}.
+   * Setting another HttpClient factory afterwards releases a pool installed by this method.
+   * Responses must be closed to return their connections to the pool.
+   *
+   * @param value whether connection pooling is to be used
+   */
+  void setConnectionPooling(boolean value);
+
   /**
    * Gets the HttpUriRequest factory for generating requests to be executed.
    *
@@ -172,6 +194,24 @@ public interface Configuration {
    */
   void setUseChuncked(boolean value);
 
+  /**
+   * Checks whether batch request payloads are buffered in memory and sent by the thread requesting the response.
+   *
+   * @return whether batch request payloads are buffered
+   */
+  boolean isBatchPayloadBuffering();
+
+  /**
+   * Sets whether batch request payloads are buffered in memory and sent by the thread requesting the response,
+   * instead of being piped to a request executor thread while the batch is built.
+   * <br/>
+   * Buffering avoids a thread hand-off and synchronization per write, at the cost of keeping the complete batch
+   * request payload in memory.
+   *
+   * @param value whether to buffer batch request payloads.
+   */
+  void setBatchPayloadBuffering(boolean value);
+
   /**
    * Checks whether URIs contain entity key between parentheses (standard) or instead as additional segment
    * (non-standard).
@@ -262,8 +302,40 @@ public interface Configuration {
 
   /**
    * Sets request executor service.
+   * The default executor service is shut down; executor services set with this method are never shut down
+   * by the configuration.
    *
    * @param executorService new executor services.
    */
   void setExecutor(ExecutorService executorService);
+
+  /**
+   * Gets the maximum number of requests executed concurrently by the default executor service.
+   *
+   * @return maximum number of concurrent requests.
+   */
+  int getMaxConcurrentRequests();
+
+  /**
+   * Sets the maximum number of requests executed concurrently; replaces the default executor service with a new
+   * one of the given size and shuts the previous one down after its submitted requests have been completed.
+   * An executor service set with {@link #setExecutor(ExecutorService)} is kept as it is.
+   *
+   * @param maxConcurrentRequests maximum number of concurrent requests.
+   */
+  void setMaxConcurrentRequests(int maxConcurrentRequests);
+
+  /**
+   * Retrieves the scheduled executor service used to delay asynchronous monitor checks.
+   *
+   * @return scheduled executor service.
+   */
+  ScheduledExecutorService getScheduledExecutor();
+
+  /**
+   * Sets the scheduled executor service used to delay asynchronous monitor checks.
+   *
+   * @param scheduledExecutorService new scheduled executor service.
+   */
+  void setScheduledExecutor(ScheduledExecutorService scheduledExecutorService);
 }
@@ -44,6 +44,17 @@ public interface ODataBasicRequest<T extends ODataResponse> extends ODataRequest
    */
   Future<T> asyncExecute();
 
+  /**
+   * Async request execute, notifying the given callback upon completion.
+   * <br/>
+   * The request is run by the configured executor service, see
+   * {@link org.apache.olingo.client.api.Configuration#getExecutor()}.
+   *
+   * @param callback callback to be notified, or <tt>null</tt>.
+   * @return <code>Future&lt;ODataResponse&gt;</code> about the executed request.
+   */
+  Future<T> asyncExecute(ResponseCallback<T> callback);
+
   /**
    * Override configured request Content-Type.
    *
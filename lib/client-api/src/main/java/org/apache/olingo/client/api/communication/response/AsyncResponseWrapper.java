@@ -19,6 +19,9 @@
 package org.apache.olingo.client.api.communication.response;
 
 import java.net.URI;
+import java.util.concurrent.Future;
+
+import org.apache.olingo.client.api.communication.request.ResponseCallback;
 
 public interface AsyncResponseWrapper<R extends ODataResponse> {
 
@@ -48,6 +51,18 @@ public interface AsyncResponseWrapper<R extends ODataResponse> {
    */
   R getODataResponse();
 
+  /**
+   * Gets the real response without blocking.
+   * <br />
+   * The monitor is checked on the configured scheduled executor service after the delay given by the 'Retry-After'
+   * header (or the default of 5 seconds), until the asynchronous processing has terminated or the returned future
+   * has been cancelled. No thread is blocked while waiting.
+   *
+   * @param callback callback to be notified about the real response, or <tt>null</tt>.
+   * @return future real OData response.
+   */
+  Future<R> asyncGetODataResponse(ResponseCallback<R> callback);
+
   /**
    * Specifies the location for the next monitor check.
    * <br />
@@ -55,4 +55,13 @@ public interface ClientODataDeserializer extends ODataDeserializer {
    * @throws ODataDeserializerException
    */
   ResWrap<Delta> toDelta(InputStream input) throws ODataDeserializerException;
+
+  /**
+   * Gets a reader for the entities of the entity set in the given InputStream.
+   *
+   * @param input stream to be de-serialized.
+   * @return {@link EntitySetReader} instance.
+   * @throws ODataDeserializerException
+   */
+  EntitySetReader toEntitySetReader(InputStream input) throws ODataDeserializerException;
 }
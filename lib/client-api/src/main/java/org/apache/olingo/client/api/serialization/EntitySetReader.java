@@ -0,0 +1,56 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.client.api.serialization;
+
+import java.io.Closeable;
+
+import org.apache.olingo.client.api.data.ResWrap;
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.commons.api.data.EntityCollection;
+
+/**
+ * Reads the entities of an entity set one after the other from a stream,
+ * without keeping the complete entity set in memory.
+ * <br/>
+ * <b>Please don't forget to call the <tt>close()</tt> method when not needed any more.</b>
+ */
+public interface EntitySetReader extends Closeable {
+
+  /**
+   * Reads the next entity.
+   *
+   * @return next entity, or <tt>null</tt> if all entities have been read
+   * @throws ODataDeserializerException if the stream cannot be read
+   */
+  ResWrap<Entity> next() throws ODataDeserializerException;
+
+  /**
+   * Gets the entity set without its entities, i.e., with count, links, and annotations.
+   * The information is complete only after all entities have been read.
+   *
+   * @return entity set without entities
+   */
+  ResWrap<EntityCollection> getEntitySet();
+
+  /**
+   * Closes the underlying stream.
+   */
+  @Override
+  void close();
+}
@@ -21,14 +21,18 @@ package org.apache.olingo.client.core;
 import org.apache.olingo.client.api.Configuration;
 import org.apache.olingo.client.api.http.HttpClientFactory;
 import org.apache.olingo.client.api.http.HttpUriRequestFactory;
+import org.apache.olingo.client.api.http.WrappingHttpClientFactory;
 import org.apache.olingo.client.core.http.DefaultHttpClientFactory;
 import org.apache.olingo.client.core.http.DefaultHttpUriRequestFactory;
+import org.apache.olingo.client.core.http.PoolingHttpClientFactory;
 import org.apache.olingo.commons.api.format.ContentType;
 
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
@@ -46,6 +50,8 @@ public class ConfigurationImpl implements Configuration {
 
   private static final String HTTP_URI_REQUEST_FACTORY = "httpUriRequestFactory";
 
+  private static final String CONNECTION_POOLING = "connectionPooling";
+
   private static final String USE_XHTTP_METHOD = "useHTTPMethod";
 
   private static final String KEY_AS_SEGMENT = "keyAsSegment";
@@ -58,13 +64,30 @@ public class ConfigurationImpl implements Configuration {
 
   private static final String CHUNKING = "chunking";
 
+  private static final String BATCH_PAYLOAD_BUFFERING = "batchPayloadBuffering";
+
   private static final String CONTINUE_ON_ERROR = "continueOnError";
 
+  private static final String MAX_CONCURRENT_REQUESTS = "maxConcurrentRequests";
+
+  private static final int DEFAULT_MAX_CONCURRENT_REQUESTS = 10;
+
   public static final int DEFAULT_BUFFER_SIZE = 4 * 1024 * 1024;  // 4MB
 
   private final Map<String, Object> CONF = new HashMap<String, Object>();
 
-  private transient ExecutorService executor = createExecutor(10);
+  /** Pooling factory created by {@link #setConnectionPooling(boolean)}; it is released by this class. */
+  private transient PoolingHttpClientFactory poolingHttpClientFactory;
+
+  private transient ExecutorService executor = createExecutor(DEFAULT_MAX_CONCURRENT_REQUESTS);
+
+  /** Whether {@link #executor} has been created by this class (and not been set by the user). */
+  private transient boolean executorCreated = true;
+
+  private transient ScheduledExecutorService scheduledExecutor;
+
+  /** Whether {@link #scheduledExecutor} has been created by this class (and not been set by the user). */
+  private transient boolean scheduledExecutorCreated;
 
   private ExecutorService createExecutor(final int threads) {
     final ThreadPoolExecutor tp = new ThreadPoolExecutor(
@@ -77,6 +100,13 @@ public class ConfigurationImpl implements Configuration {
     return tp;
   }
 
+  private ScheduledExecutorService createScheduledExecutor() {
+    final ScheduledThreadPoolExecutor tp = new ScheduledThreadPoolExecutor(1);
+    tp.setKeepAliveTime(5L, TimeUnit.SECONDS);
+    tp.allowCoreThreadTimeOut(true);
+    return tp;
+  }
+
   /**
    * Gets given configuration property.
    *
@@ -152,9 +182,55 @@ public class ConfigurationImpl implements Configuration {
 
   @Override
   public void setHttpClientFactory(final HttpClientFactory factory) {
+    if (poolingHttpClientFactory != null && factory != poolingHttpClientFactory) {
+      releasePoolingHttpClientFactory();
+      setProperty(CONNECTION_POOLING, false);
+    }
     setProperty(HTTP_CLIENT_FACTORY, factory);
   }
 
+  @Override
+  public boolean isConnectionPooling() {
+    return (Boolean) getProperty(CONNECTION_POOLING, false);
+  }
+
+  @Override
+  public void setConnectionPooling(final boolean value) {
+    if (value == isConnectionPooling()) {
+      return;
+    }
+    if (value) {
+      final Object factory = getProperty(HTTP_CLIENT_FACTORY, null);
+      if (factory == null) {
+        poolingHttpClientFactory = new PoolingHttpClientFactory();
+        setProperty(HTTP_CLIENT_FACTORY, poolingHttpClientFactory);
+      } else if (!isPooling(factory)) {
+        throw new IllegalStateException("Connection pooling cannot be added to the configured HttpClient factory "
+            + factory.getClass().getName() + "; let it use a " + PoolingHttpClientFactory.class.getSimpleName()
+            + " instead.");
+      }
+    } else {
+      releasePoolingHttpClientFactory();
+    }
+    setProperty(CONNECTION_POOLING, value);
+  }
+
+  private static boolean isPooling(final Object factory) {
+    return factory instanceof PoolingHttpClientFactory
+        || (factory instanceof WrappingHttpClientFactory
+            && isPooling(((WrappingHttpClientFactory) factory).getWrappedHttpClientFactory()));
+  }
+
+  private void releasePoolingHttpClientFactory() {
+    if (poolingHttpClientFactory != null) {
+      poolingHttpClientFactory.shutdown();
+      if (getProperty(HTTP_CLIENT_FACTORY, null) == poolingHttpClientFactory) {
+        CONF.remove(HTTP_CLIENT_FACTORY);
+      }
+      poolingHttpClientFactory = null;
+    }
+  }
+
   @Override
   public HttpUriRequestFactory getHttpUriRequestFactory() {
     return (HttpUriRequestFactory) getProperty(HTTP_URI_REQUEST_FACTORY, new DefaultHttpUriRequestFactory());
@@ -195,6 +271,16 @@ public class ConfigurationImpl implements Configuration {
     setProperty(CHUNKING, value);
   }
 
+  @Override
+  public boolean isBatchPayloadBuffering() {
+    return (Boolean) getProperty(BATCH_PAYLOAD_BUFFERING, false);
+  }
+
+  @Override
+  public void setBatchPayloadBuffering(final boolean value) {
+    setProperty(BATCH_PAYLOAD_BUFFERING, value);
+  }
+
   @Override
   public boolean isKeyAsSegment() {
     return (Boolean) getProperty(KEY_AS_SEGMENT, false);
@@ -236,12 +322,51 @@ public class ConfigurationImpl implements Configuration {
   }
 
   @Override
-  public ExecutorService getExecutor() {
+  public synchronized ExecutorService getExecutor() {
     return executor;
   }
 
   @Override
-  public void setExecutor(final ExecutorService executorService) {
+  public synchronized void setExecutor(final ExecutorService executorService) {
+    if (executorCreated && executor != executorService) {
+      // Already submitted requests are completed.
+      executor.shutdown();
+    }
     executor = executorService;
+    executorCreated = false;
+  }
+
+  @Override
+  public int getMaxConcurrentRequests() {
+    return (Integer) getProperty(MAX_CONCURRENT_REQUESTS, DEFAULT_MAX_CONCURRENT_REQUESTS);
+  }
+
+  @Override
+  public synchronized void setMaxConcurrentRequests(final int maxConcurrentRequests) {
+    setProperty(MAX_CONCURRENT_REQUESTS, maxConcurrentRequests);
+    if (executorCreated) {
+      final ExecutorService previous = executor;
+      executor = createExecutor(maxConcurrentRequests);
+      // Already submitted requests are completed.
+      previous.shutdown();
+    }
+  }
+
+  @Override
+  public synchronized ScheduledExecutorService getScheduledExecutor() {
+    if (scheduledExecutor == null) {
+      scheduledExecutor = createScheduledExecutor();
+      scheduledExecutorCreated = true;
+    }
+    return scheduledExecutor;
+  }
+
+  @Override
+  public synchronized void setScheduledExecutor(final ScheduledExecutorService scheduledExecutorService) {
+    if (scheduledExecutorCreated && scheduledExecutor != scheduledExecutorService) {
+      scheduledExecutor.shutdown();
+    }
+    scheduledExecutor = scheduledExecutorService;
+    scheduledExecutorCreated = false;
   }
 }
@@ -30,6 +30,7 @@ import org.apache.commons.lang3.StringUtils;
 import org.apache.olingo.client.api.ODataBatchConstants;
 import org.apache.olingo.client.api.ODataClient;
 import org.apache.olingo.client.api.communication.request.ODataBasicRequest;
+import org.apache.olingo.client.api.communication.request.ResponseCallback;
 import org.apache.olingo.client.api.communication.request.batch.ODataBatchRequest;
 import org.apache.olingo.client.api.communication.response.ODataResponse;
 import org.apache.olingo.commons.api.format.ContentType;
@@ -76,6 +77,18 @@ public abstract class AbstractODataBasicRequest<T extends ODataResponse>
     });
   }
 
+  @Override
+  public final Future<T> asyncExecute(final ResponseCallback<T> callback) {
+    final CallbackFuture<T> future = new CallbackFuture<T>(new Callable<T>() {
+      @Override
+      public T call() throws Exception { //NOSONAR
+        return execute();
+      }
+    }, callback);
+    odataClient.getConfiguration().getExecutor().execute(future);
+    return future;
+  }
+
   /**
    * Gets payload as an InputStream.
    *
@@ -316,6 +316,7 @@ public abstract class AbstractODataRequest extends AbstractRequest implements OD
       checkResponse(odataClient, response, getAccept());
     } catch (ODataRuntimeException e) {
       odataClient.getConfiguration().getHttpClientFactory().close(httpClient);
+      EntityUtils.consumeQuietly(response.getEntity());
       throw e;
     }
 
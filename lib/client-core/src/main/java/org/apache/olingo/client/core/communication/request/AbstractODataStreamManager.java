@@ -21,6 +21,7 @@ package org.apache.olingo.client.core.communication.request;
 import java.io.InputStream;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
@@ -30,6 +31,7 @@ import org.apache.olingo.client.api.communication.request.ODataPayloadManager;
 import org.apache.olingo.client.api.communication.response.ODataResponse;
 import org.apache.olingo.client.api.http.HttpClientException;
 import org.apache.olingo.client.core.ConfigurationImpl;
+import org.apache.olingo.client.core.communication.util.BufferedPipedOutputStream;
 import org.apache.olingo.client.core.communication.util.PipedInputStream;
 import org.apache.olingo.client.core.communication.util.PipedOutputStream;
 
@@ -75,10 +77,15 @@ public abstract class AbstractODataStreamManager<T extends ODataResponse> extend
     super(output);
 
     this.futureWrap = futureWrap;
-    try {
-      this.body = new PipedInputStream(getBodyStreamWriter(), ConfigurationImpl.DEFAULT_BUFFER_SIZE);
-    } catch (Exception e) {
-      throw new IllegalStateException(e);
+    if (output instanceof BufferedPipedOutputStream) {
+      // the payload is read only once complete: see getBody()
+      this.body = null;
+    } else {
+      try {
+        this.body = new PipedInputStream(getBodyStreamWriter(), ConfigurationImpl.DEFAULT_BUFFER_SIZE);
+      } catch (Exception e) {
+        throw new IllegalStateException(e);
+      }
     }
     this.defaultBody = this.body;
   }
@@ -102,6 +109,9 @@ public abstract class AbstractODataStreamManager<T extends ODataResponse> extend
    */
   @Override
   public InputStream getBody() {
+    if (getBodyStreamWriter() instanceof BufferedPipedOutputStream) {
+      return ((BufferedPipedOutputStream) getBodyStreamWriter()).getInputStream();
+    }
     return this.body == null ? this.defaultBody : this.body;
   }
 
@@ -122,7 +132,12 @@ public abstract class AbstractODataStreamManager<T extends ODataResponse> extend
    */
   protected HttpResponse getHttpResponse(final long timeout, final TimeUnit unit) {
     try {
-      return futureWrap.getWrapped().get(timeout, unit);
+      final Future<HttpResponse> future = futureWrap.getWrapped();
+      if (getBodyStreamWriter() instanceof BufferedPipedOutputStream && future instanceof FutureTask) {
+        // requests with buffered payload are sent by the calling thread once the payload is complete
+        ((FutureTask<HttpResponse>) future).run();
+      }
+      return future.get(timeout, unit);
     } catch (Exception e) {
       LOG.error("Failure executing request");
       throw new HttpClientException(e);
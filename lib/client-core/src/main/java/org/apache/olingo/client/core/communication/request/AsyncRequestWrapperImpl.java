@@ -20,6 +20,8 @@ package org.apache.olingo.client.core.communication.request;
 
 import java.io.IOException;
 import java.net.URI;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -38,6 +40,7 @@ import org.apache.olingo.client.api.communication.ODataClientErrorException;
 import org.apache.olingo.client.api.communication.header.ODataPreferences;
 import org.apache.olingo.client.api.communication.request.AsyncRequestWrapper;
 import org.apache.olingo.client.api.communication.request.ODataRequest;
+import org.apache.olingo.client.api.communication.request.ResponseCallback;
 import org.apache.olingo.client.api.communication.request.cud.ODataDeleteRequest;
 import org.apache.olingo.client.api.communication.response.AsyncResponseWrapper;
 import org.apache.olingo.client.api.communication.response.ODataDeleteResponse;
@@ -195,11 +198,7 @@ public class AsyncRequestWrapperImpl<R extends ODataResponse> extends AbstractRe
         res = checkMonitor(location);
 
         if (res.getStatusLine().getStatusCode() == HttpStatusCode.ACCEPTED.getStatusCode()) {
-
-          final Header[] headers = res.getHeaders(HttpHeader.RETRY_AFTER);
-          if (ArrayUtils.isNotEmpty(headers)) {
-            this.retryAfter = Integer.parseInt(headers[0].getValue());
-          }
+          retrieveRetryAfter(res);
 
           try {
             // wait for retry-after
@@ -221,6 +220,55 @@ public class AsyncRequestWrapperImpl<R extends ODataResponse> extends AbstractRe
       return response;
     }
 
+    @Override
+    public Future<R> asyncGetODataResponse(final ResponseCallback<R> callback) {
+      final CallbackFuture<R> future = new CallbackFuture<R>(callback);
+      if (response == null) {
+        scheduleMonitorCheck(future, 0);
+      } else {
+        future.complete(response);
+      }
+      return future;
+    }
+
+    /**
+     * Checks the monitor after the given delay; the check itself runs on the request executor service,
+     * so that the scheduler thread is never blocked by HTTP communication.
+     */
+    private void scheduleMonitorCheck(final CallbackFuture<R> future, final int delayInSeconds) {
+      final Runnable check = new Runnable() {
+        @Override
+        public void run() {
+          if (future.isDone()) {
+            return;
+          }
+          try {
+            final HttpResponse res = checkMonitor(location);
+            if (res.getStatusLine().getStatusCode() == HttpStatusCode.ACCEPTED.getStatusCode()) {
+              retrieveRetryAfter(res);
+              scheduleMonitorCheck(future, retryAfter);
+            } else {
+              location = null;
+              response = instantiateResponse(res);
+              future.complete(response);
+            }
+          } catch (final RuntimeException e) {
+            future.fail(e);
+          }
+        }
+      };
+      odataClient.getConfiguration().getScheduledExecutor().schedule(new Runnable() {
+        @Override
+        public void run() {
+          try {
+            odataClient.getConfiguration().getExecutor().execute(check);
+          } catch (final RuntimeException e) {
+            future.fail(e);
+          }
+        }
+      }, delayInSeconds, TimeUnit.SECONDS);
+    }
+
     @Override
     public ODataDeleteResponse delete() {
       final ODataDeleteRequest deleteRequest = odataClient.getCUDRequestFactory().getDeleteRequest(location);
@@ -255,6 +303,14 @@ public class AsyncRequestWrapperImpl<R extends ODataResponse> extends AbstractRe
       return odataResponse;
     }
 
+    private void retrieveRetryAfter(final HttpResponse res) {
+      final Header[] headers = res.getHeaders(HttpHeader.RETRY_AFTER);
+      if (ArrayUtils.isNotEmpty(headers)) {
+        this.retryAfter = Integer.parseInt(headers[0].getValue());
+      }
+      EntityUtils.consumeQuietly(res.getEntity());
+    }
+
     private void retrieveMonitorDetails(final HttpResponse res) {
       Header[] headers = res.getHeaders(HttpHeader.LOCATION);
       if (ArrayUtils.isNotEmpty(headers)) {
@@ -0,0 +1,97 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.client.core.communication.request;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+import org.apache.olingo.client.api.communication.request.ResponseCallback;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Future notifying a {@link ResponseCallback} upon completion.
+ * <br/>
+ * It can either be run as a task or be completed explicitly via {@link #complete(Object)} and {@link #fail(Throwable)}.
+ *
+ * @param <T> response type.
+ */
+class CallbackFuture<T> extends FutureTask<T> {
+
+  private static final Logger LOG = LoggerFactory.getLogger(CallbackFuture.class);
+
+  private final ResponseCallback<T> callback;
+
+  /**
+   * Constructor for a future to be completed explicitly.
+   *
+   * @param callback callback to be notified, or <tt>null</tt>.
+   */
+  CallbackFuture(final ResponseCallback<T> callback) {
+    this(new Callable<T>() {
+      @Override
+      public T call() {
+        throw new IllegalStateException("The future must be completed explicitly");
+      }
+    }, callback);
+  }
+
+  /**
+   * Constructor for a future running the given task.
+   *
+   * @param task task to be run.
+   * @param callback callback to be notified, or <tt>null</tt>.
+   */
+  CallbackFuture(final Callable<T> task, final ResponseCallback<T> callback) {
+    super(task);
+    this.callback = callback;
+  }
+
+  void complete(final T response) {
+    set(response);
+  }
+
+  void fail(final Throwable cause) {
+    setException(cause);
+  }
+
+  @Override
+  protected void done() {
+    if (callback == null || isCancelled()) {
+      return;
+    }
+    try {
+      final T response;
+      try {
+        response = get();
+      } catch (final ExecutionException e) {
+        callback.onFailure(e.getCause());
+        return;
+      } catch (final InterruptedException e) {
+        // cannot happen: the future is done
+        Thread.currentThread().interrupt();
+        return;
+      }
+      callback.onSuccess(response);
+    } catch (final RuntimeException e) {
+      LOG.error("Error notifying response callback", e);
+    }
+  }
+}
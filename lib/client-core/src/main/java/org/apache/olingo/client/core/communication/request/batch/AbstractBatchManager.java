@@ -31,6 +31,7 @@ import org.apache.olingo.client.api.communication.request.batch.ODataSingleReque
 import org.apache.olingo.client.api.communication.response.ODataBatchResponse;
 import org.apache.olingo.client.core.communication.request.AbstractODataStreamManager;
 import org.apache.olingo.client.core.communication.request.Wrapper;
+import org.apache.olingo.client.core.communication.util.PipedOutputStream;
 
 /**
  * Batch request payload management.
@@ -58,6 +59,22 @@ public abstract class AbstractBatchManager extends AbstractODataStreamManager<OD
     this.continueOnError = continueOnError;
   }
 
+  /**
+   * Constructor.
+   *
+   * @param req batch request.
+   * @param futureWrap wrapper of the Future object of the HttpResponse.
+   * @param continueOnError whether to continue on error.
+   * @param output stream the batch payload is written to.
+   */
+  protected AbstractBatchManager(final ODataBatchRequest req, final Wrapper<Future<HttpResponse>> futureWrap,
+      final boolean continueOnError, final PipedOutputStream output) {
+
+    super(futureWrap, output);
+    this.req = req;
+    this.continueOnError = continueOnError;
+  }
+
   /**
    * Gets a changeset batch item instance. A changeset can be submitted embedded into a batch request only.
    *
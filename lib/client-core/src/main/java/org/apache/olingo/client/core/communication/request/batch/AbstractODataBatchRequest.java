@@ -22,6 +22,12 @@ import java.net.URI;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.FutureTask;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpEntityEnclosingRequestBase;
+import org.apache.http.entity.ByteArrayEntity;
 
 import org.apache.olingo.client.api.ODataBatchConstants;
 import org.apache.olingo.client.api.ODataClient;
@@ -29,6 +35,8 @@ import org.apache.olingo.client.api.communication.request.ODataPayloadManager;
 import org.apache.olingo.client.api.communication.request.batch.ODataBatchRequest;
 import org.apache.olingo.client.api.communication.request.batch.ODataBatchResponseItem;
 import org.apache.olingo.client.api.communication.response.ODataResponse;
+import org.apache.olingo.client.core.ConfigurationImpl;
+import org.apache.olingo.client.core.communication.util.BufferedPipedOutputStream;
 import org.apache.olingo.client.core.communication.util.PipedOutputStream;
 import org.apache.olingo.client.core.communication.request.streamed.AbstractODataStreamedRequest;
 import org.apache.olingo.commons.api.format.ContentType;
@@ -45,6 +53,8 @@ public abstract class AbstractODataBatchRequest<V extends ODataResponse, T exten
    */
   protected final String boundary;
 
+  private static final int BUFFER_INITIAL_CAPACITY = 64 * 1024;
+
   /**
    * Expected batch response items.
    */
@@ -66,6 +76,43 @@ public abstract class AbstractODataBatchRequest<V extends ODataResponse, T exten
     setContentType(ContentType.MULTIPART_MIXED + ";" + ODataBatchConstants.BOUNDARY + "=" + boundary);
   }
 
+  /**
+   * {@inheritDoc}
+   * <br/>
+   * If batch payload buffering is configured, the request is not sent until the response is requested.
+   */
+  @Override
+  @SuppressWarnings("unchecked")
+  public T payloadManager() {
+    if (!odataClient.getConfiguration().isBatchPayloadBuffering()) {
+      return super.payloadManager();
+    }
+
+    payloadManager = getPayloadManager();
+    futureWrapper.setWrapped(new FutureTask<HttpResponse>(new Callable<HttpResponse>() {
+      @Override
+      public HttpResponse call() throws Exception { //NOSONAR
+        final BufferedPipedOutputStream payload = (BufferedPipedOutputStream) getOutputStream();
+        final ByteArrayEntity entity = new ByteArrayEntity(payload.getBuffer(), 0, payload.size());
+        entity.setChunked(odataClient.getConfiguration().isUseChuncked());
+        ((HttpEntityEnclosingRequestBase) request).setEntity(entity);
+        return doExecute();
+      }
+    }));
+    return (T) payloadManager;
+  }
+
+  /**
+   * Creates the stream the batch payload is written to.
+   *
+   * @return a buffering stream if batch payload buffering is configured; a piped stream otherwise.
+   */
+  protected PipedOutputStream createOutputStream() {
+    return odataClient.getConfiguration().isBatchPayloadBuffering()
+        ? new BufferedPipedOutputStream(BUFFER_INITIAL_CAPACITY)
+        : new PipedOutputStream(null, ConfigurationImpl.DEFAULT_BUFFER_SIZE);
+  }
+
   protected void addExpectedResItem(final ODataBatchResponseItem item) {
     expectedResItems.add(item);
   }
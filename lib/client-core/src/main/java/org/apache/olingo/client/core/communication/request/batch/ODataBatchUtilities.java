@@ -18,8 +18,6 @@
  */
 package org.apache.olingo.client.core.communication.request.batch;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.util.AbstractMap;
@@ -30,8 +28,6 @@ import java.util.TreeMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
-import org.apache.commons.io.IOUtils;
-import org.apache.commons.io.LineIterator;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.olingo.client.api.ODataBatchConstants;
 import org.apache.olingo.client.api.communication.request.batch.ODataBatchLineIterator;
@@ -183,20 +179,21 @@ public class ODataBatchUtilities {
   public static void readHeaders(
           final ODataBatchLineIterator iterator, final Map<String, Collection<String>> target) {
 
-    try {
-      final ByteArrayOutputStream baos = new ByteArrayOutputStream();
-      readBatchPart(new ODataBatchController(iterator, null), baos, true);
+    final ODataBatchController controller = new ODataBatchController(iterator, null);
 
-      final LineIterator headers = IOUtils.lineIterator(new ByteArrayInputStream(baos.toByteArray()), Constants.UTF8);
-      while (headers.hasNext()) {
-        final String line = headers.nextLine().trim();
-        if (StringUtils.isNotBlank(line)) {
-          addHeaderLine(line, target);
+    // header lines are parsed as they are read, up to the first blank line
+    synchronized (iterator) {
+      String line = iterator.getCurrent();
+      boolean notEndLine = isNotEndLine(controller, line);
+      while (notEndLine && iterator.hasNext()) {
+        line = iterator.nextLine();
+        LOG.debug("Read header line '{}'", line);
+
+        notEndLine = isNotEndLine(controller, line);
+        if (notEndLine && line != null) {
+          addHeaderLine(line.trim(), target);
         }
       }
-    } catch (Exception e) {
-      LOG.error("Error retrieving headers", e);
-      throw new IllegalStateException(e);
     }
   }
 
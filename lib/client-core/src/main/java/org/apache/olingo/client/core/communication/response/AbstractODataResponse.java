@@ -33,13 +33,11 @@ import org.apache.http.HttpResponse;
 import org.apache.http.HttpStatus;
 import org.apache.http.client.HttpClient;
 import org.apache.http.client.utils.HttpClientUtils;
+import org.apache.http.util.EntityUtils;
 import org.apache.olingo.client.api.ODataClient;
 import org.apache.olingo.client.api.communication.request.batch.ODataBatchLineIterator;
 import org.apache.olingo.client.api.communication.response.ODataResponse;
 import org.apache.olingo.client.api.http.NoContentException;
-import org.apache.olingo.client.core.ConfigurationImpl;
-import org.apache.olingo.client.core.communication.util.PipedInputStream;
-import org.apache.olingo.client.core.communication.util.PipedOutputStream;
 import org.apache.olingo.client.core.communication.request.batch.ODataBatchController;
 import org.apache.olingo.client.core.communication.request.batch.ODataBatchLineIteratorImpl;
 import org.apache.olingo.client.core.communication.request.batch.ODataBatchUtilities;
@@ -249,6 +247,10 @@ public abstract class AbstractODataResponse implements ODataResponse {
   @Override
   public void close() {
     odataClient.getConfiguration().getHttpClientFactory().close(httpClient);
+    // Releases the connection if the HttpClient factory keeps it for re-use.
+    if (res != null) {
+      EntityUtils.consumeQuietly(res.getEntity());
+    }
 
     if (batchInfo != null) {
       batchInfo.setValidBatch(false);
@@ -265,29 +267,10 @@ public abstract class AbstractODataResponse implements ODataResponse {
     }
 
     if (payload == null && batchInfo != null && batchInfo.isValidBatch()) {
-      // get input stream till the end of item
-      payload = new PipedInputStream(null);
-
-      try {
-        final PipedOutputStream os = new PipedOutputStream((PipedInputStream) payload,
-                ConfigurationImpl.DEFAULT_BUFFER_SIZE);
-
-        new Thread(new Runnable() {
-          @Override
-          public void run() {
-            try {
-              ODataBatchUtilities.readBatchPart(batchInfo, os, true);
-            } catch (Exception e) {
-              LOG.error("Error streaming batch item payload", e);
-            } finally {
-              IOUtils.closeQuietly(os);
-            }
-          }
-        }).start();
-      } catch (Exception e) {
-        LOG.error("Error streaming payload response", e);
-        throw new IllegalStateException(e);
-      }
+      // read the item up to its end: the batch stream has to be consumed in order anyway
+      final ByteArrayOutputStream os = new ByteArrayOutputStream();
+      ODataBatchUtilities.readBatchPart(batchInfo, os, true);
+      payload = new ByteArrayInputStream(os.toByteArray());
     } else if (payload != null) {
       ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
       try {
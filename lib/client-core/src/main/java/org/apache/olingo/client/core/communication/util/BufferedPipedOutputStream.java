@@ -0,0 +1,114 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.client.core.communication.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+/**
+ * A {@link PipedOutputStream} that is never connected to a reader: the written payload is buffered in memory and
+ * can be read once it is complete.
+ * <br/>
+ * It is meant for a single writer; in contrast to the piped stream no reader thread is needed and writes don't
+ * synchronize.
+ */
+public class BufferedPipedOutputStream extends PipedOutputStream {
+
+  private byte[] buffer;
+
+  private int count;
+
+  private boolean closed;
+
+  /**
+   * Creates a buffer with the given initial capacity; it grows as needed.
+   *
+   * @param initialCapacity initial capacity in bytes.
+   */
+  public BufferedPipedOutputStream(final int initialCapacity) {
+    super(null, 0);
+    buffer = new byte[initialCapacity];
+  }
+
+  @Override
+  public void connect(final PipedInputStream sink) throws IOException {
+    throw new IOException("A buffered stream cannot be connected");
+  }
+
+  @Override
+  public void write(final int b) throws IOException {
+    ensureCapacity(1);
+    buffer[count++] = (byte) b;
+  }
+
+  @Override
+  public void write(final byte[] b, final int off, final int len) throws IOException {
+    ensureCapacity(len);
+    System.arraycopy(b, off, buffer, count, len);
+    count += len;
+  }
+
+  private void ensureCapacity(final int len) throws IOException {
+    if (closed) {
+      throw new IOException("Stream closed");
+    }
+    if (count + len > buffer.length) {
+      buffer = Arrays.copyOf(buffer, Math.max(buffer.length << 1, count + len));
+    }
+  }
+
+  @Override
+  public void flush() {
+    // nothing to flush
+  }
+
+  @Override
+  public void close() {
+    closed = true;
+  }
+
+  /**
+   * Gets the internal buffer; only the first {@link #size()} bytes are valid.
+   *
+   * @return internal buffer.
+   */
+  public byte[] getBuffer() {
+    return buffer;
+  }
+
+  /**
+   * Gets the number of bytes written.
+   *
+   * @return number of bytes written.
+   */
+  public int size() {
+    return count;
+  }
+
+  /**
+   * Gets a stream reading the bytes written so far, without copying them.
+   *
+   * @return input stream.
+   */
+  public InputStream getInputStream() {
+    return new ByteArrayInputStream(buffer, 0, count);
+  }
+}
@@ -0,0 +1,144 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.client.core.http;
+
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.http.HttpHost;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.HttpClient;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.DefaultHttpClient;
+import org.apache.http.impl.conn.PoolingClientConnectionManager;
+import org.apache.http.params.CoreProtocolPNames;
+import org.apache.http.pool.PoolStats;
+import org.apache.http.protocol.HttpContext;
+import org.apache.olingo.commons.api.http.HttpMethod;
+
+/**
+ * <p>Implementation returning HttpClients that share one pool of persistent connections.</p>
+ * <p>Connections are kept alive between requests, so consecutive requests to the same host
+ * do not need a new TCP (and TLS) handshake. Connections which have been idle longer than the idle timeout
+ * or which have exceeded their keep-alive duration are closed when the next client is created.</p>
+ * <p>A connection is returned to the pool when the response is closed;
+ * therefore all responses must be closed. The pool is released by {@link #shutdown()}.</p>
+ */
+public class PoolingHttpClientFactory extends DefaultHttpClientFactory {
+
+  /** Default maximum number of connections. */
+  public static final int DEFAULT_MAX_TOTAL = 200;
+
+  /** Default maximum number of connections per route (i.e., per target host). */
+  public static final int DEFAULT_MAX_PER_ROUTE = 20;
+
+  /** Default keep-alive duration in milliseconds if the server does not send one. */
+  public static final long DEFAULT_KEEP_ALIVE = 30000;
+
+  /** Default time in milliseconds after which idle connections are closed. */
+  public static final long DEFAULT_IDLE_TIMEOUT = 60000;
+
+  private static final long EVICTION_INTERVAL = 1000;
+
+  private final PoolingClientConnectionManager connectionManager;
+
+  private final ConnectionKeepAliveStrategy keepAliveStrategy;
+
+  private final long idleTimeout;
+
+  private final AtomicLong lastEviction = new AtomicLong(System.currentTimeMillis());
+
+  public PoolingHttpClientFactory() {
+    this(DEFAULT_MAX_TOTAL, DEFAULT_MAX_PER_ROUTE, DEFAULT_KEEP_ALIVE, DEFAULT_IDLE_TIMEOUT);
+  }
+
+  /**
+   * @param maxTotal maximum number of connections
+   * @param maxPerRoute maximum number of connections per route
+   * @param keepAlive keep-alive duration in milliseconds to be used if the server does not send one
+   * @param idleTimeout time in milliseconds after which idle connections are closed
+   */
+  public PoolingHttpClientFactory(final int maxTotal, final int maxPerRoute,
+      final long keepAlive, final long idleTimeout) {
+
+    connectionManager = new PoolingClientConnectionManager();
+    connectionManager.setMaxTotal(maxTotal);
+    connectionManager.setDefaultMaxPerRoute(maxPerRoute);
+    keepAliveStrategy = new DefaultConnectionKeepAliveStrategy() {
+      @Override
+      public long getKeepAliveDuration(final HttpResponse response, final HttpContext context) {
+        final long duration = super.getKeepAliveDuration(response, context);
+        return duration > 0 ? duration : keepAlive;
+      }
+    };
+    this.idleTimeout = idleTimeout;
+  }
+
+  /**
+   * Sets the maximum number of connections to the given host.
+   *
+   * @param host target host
+   * @param max maximum number of connections
+   */
+  public void setMaxPerRoute(final HttpHost host, final int max) {
+    connectionManager.setMaxPerRoute(new HttpRoute(host), max);
+  }
+
+  /**
+   * Gets the statistics of the connection pool.
+   *
+   * @return statistics over all routes
+   */
+  public PoolStats getTotalStats() {
+    return connectionManager.getTotalStats();
+  }
+
+  @Override
+  public DefaultHttpClient create(final HttpMethod method, final URI uri) {
+    evictConnections();
+    final DefaultHttpClient client = new DefaultHttpClient(connectionManager);
+    client.getParams().setParameter(CoreProtocolPNames.USER_AGENT, USER_AGENT);
+    client.setKeepAliveStrategy(keepAliveStrategy);
+    return client;
+  }
+
+  @Override
+  public void close(final HttpClient httpClient) {
+    // The connection manager is shared; connections are released to the pool when the response is consumed.
+  }
+
+  /**
+   * Closes all connections and releases the pool; afterwards, no more requests can be executed.
+   */
+  public void shutdown() {
+    connectionManager.shutdown();
+  }
+
+  private void evictConnections() {
+    final long now = System.currentTimeMillis();
+    final long last = lastEviction.get();
+    if (now - last >= EVICTION_INTERVAL && lastEviction.compareAndSet(last, now)) {
+      connectionManager.closeExpiredConnections();
+      connectionManager.closeIdleConnections(idleTimeout, TimeUnit.MILLISECONDS);
+    }
+  }
+}
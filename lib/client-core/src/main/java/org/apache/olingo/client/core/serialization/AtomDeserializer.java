@@ -35,8 +35,10 @@ import javax.xml.stream.events.Attribute;
 import javax.xml.stream.events.StartElement;
 import javax.xml.stream.events.XMLEvent;
 
+import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.olingo.client.api.data.ResWrap;
+import org.apache.olingo.client.api.serialization.EntitySetReader;
 import org.apache.olingo.client.api.serialization.ODataDeserializer;
 import org.apache.olingo.client.api.serialization.ODataDeserializerException;
 import org.apache.olingo.commons.api.Constants;
@@ -92,12 +94,15 @@ public class AtomDeserializer implements ODataDeserializer {
       new QName(Constants.NS_ATOM_TOMBSTONE, Constants.ATOM_ELEM_DELETED_ENTRY);
 
   protected static final XMLInputFactory FACTORY = new InputFactoryImpl();
+  static {
+    // Configured once; the factory is thread-safe afterwards.
+    FACTORY.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    FACTORY.setProperty(XMLInputFactory.IS_REPLACING_ENTITY_REFERENCES, false);
+  }
 
   private final AtomGeoValueDeserializer geoDeserializer;
   
   protected XMLEventReader getReader(final InputStream input) throws XMLStreamException {
-    FACTORY.setProperty("javax.xml.stream.isSupportingExternalEntities", false);
-    FACTORY.setProperty("javax.xml.stream.isReplacingEntityReferences", false);
     return FACTORY.createXMLEventReader(input);
   }
 
@@ -770,48 +775,15 @@ public class AtomDeserializer implements ODataDeserializer {
     if (!Constants.QNAME_ATOM_ELEM_FEED.equals(start.getName())) {
       return null;
     }
-    final EntityCollection entitySet = new EntityCollection();
-    final Attribute xmlBase = start.getAttributeByName(Constants.QNAME_ATTR_XML_BASE);
-    if (xmlBase != null) {
-      entitySet.setBaseURI(URI.create(xmlBase.getValue()));
-    }
+    final EntityCollection entitySet = createEntitySet(start);
 
     boolean foundEndFeed = false;
     while (reader.hasNext() && !foundEndFeed) {
       final XMLEvent event = reader.nextEvent();
       if (event.isStartElement()) {
-        if (countQName.equals(event.asStartElement().getName())) {
-          count(reader, event.asStartElement(), entitySet);
-        } else if (Constants.QNAME_ATOM_ELEM_ID.equals(event.asStartElement().getName())) {
-          common(reader, event.asStartElement(), entitySet, "id");
-        } else if (Constants.QNAME_ATOM_ELEM_TITLE.equals(event.asStartElement().getName())) {
-          common(reader, event.asStartElement(), entitySet, "title");
-        } else if (Constants.QNAME_ATOM_ELEM_SUMMARY.equals(event.asStartElement().getName())) {
-          common(reader, event.asStartElement(), entitySet, "summary");
-        } else if (Constants.QNAME_ATOM_ELEM_UPDATED.equals(event.asStartElement().getName())) {
-          common(reader, event.asStartElement(), entitySet, "updated");
-        } else if (Constants.QNAME_ATOM_ELEM_LINK.equals(event.asStartElement().getName())) {
-          final Attribute rel = event.asStartElement().getAttributeByName(QName.valueOf(Constants.ATTR_REL));
-          if (rel != null) {
-            if (Constants.NEXT_LINK_REL.equals(rel.getValue())) {
-              final Attribute href = event.asStartElement().getAttributeByName(QName.valueOf(Constants.ATTR_HREF));
-              if (href != null) {
-                entitySet.setNext(URI.create(href.getValue()));
-              }
-            }
-            if (Constants.NS_DELTA_LINK_REL.equals(rel.getValue())) {
-              final Attribute href = event.asStartElement().getAttributeByName(QName.valueOf(Constants.ATTR_HREF));
-              if (href != null) {
-                entitySet.setDeltaLink(URI.create(href.getValue()));
-              }
-            }
-          }
-        } else if (Constants.QNAME_ATOM_ELEM_ENTRY.equals(event.asStartElement().getName())) {
-          entitySet.getEntities().add(entity(reader, event.asStartElement()));
-        } else if (entryRefQName.equals(event.asStartElement().getName())) {
-          entitySet.getEntities().add(entityRef(event.asStartElement()));
-        } else if (annotationQName.equals(event.asStartElement().getName())) {
-          entitySet.getAnnotations().add(annotation(reader, event.asStartElement()));
+        final Entity entity = feedElement(reader, event.asStartElement(), entitySet);
+        if (entity != null) {
+          entitySet.getEntities().add(entity);
         }
       }
 
@@ -823,6 +795,57 @@ public class AtomDeserializer implements ODataDeserializer {
     return entitySet;
   }
 
+  private EntityCollection createEntitySet(final StartElement start) {
+    final EntityCollection entitySet = new EntityCollection();
+    final Attribute xmlBase = start.getAttributeByName(Constants.QNAME_ATTR_XML_BASE);
+    if (xmlBase != null) {
+      entitySet.setBaseURI(URI.create(xmlBase.getValue()));
+    }
+    return entitySet;
+  }
+
+  /**
+   * Reads a child element of a feed.
+   * @return the entity if the element is an entry or an entry reference; <code>null</code> otherwise
+   */
+  private Entity feedElement(final XMLEventReader reader, final StartElement start,
+      final EntityCollection entitySet) throws XMLStreamException, EdmPrimitiveTypeException {
+    if (countQName.equals(start.getName())) {
+      count(reader, start, entitySet);
+    } else if (Constants.QNAME_ATOM_ELEM_ID.equals(start.getName())) {
+      common(reader, start, entitySet, "id");
+    } else if (Constants.QNAME_ATOM_ELEM_TITLE.equals(start.getName())) {
+      common(reader, start, entitySet, "title");
+    } else if (Constants.QNAME_ATOM_ELEM_SUMMARY.equals(start.getName())) {
+      common(reader, start, entitySet, "summary");
+    } else if (Constants.QNAME_ATOM_ELEM_UPDATED.equals(start.getName())) {
+      common(reader, start, entitySet, "updated");
+    } else if (Constants.QNAME_ATOM_ELEM_LINK.equals(start.getName())) {
+      final Attribute rel = start.getAttributeByName(QName.valueOf(Constants.ATTR_REL));
+      if (rel != null) {
+        if (Constants.NEXT_LINK_REL.equals(rel.getValue())) {
+          final Attribute href = start.getAttributeByName(QName.valueOf(Constants.ATTR_HREF));
+          if (href != null) {
+            entitySet.setNext(URI.create(href.getValue()));
+          }
+        }
+        if (Constants.NS_DELTA_LINK_REL.equals(rel.getValue())) {
+          final Attribute href = start.getAttributeByName(QName.valueOf(Constants.ATTR_HREF));
+          if (href != null) {
+            entitySet.setDeltaLink(URI.create(href.getValue()));
+          }
+        }
+      }
+    } else if (Constants.QNAME_ATOM_ELEM_ENTRY.equals(start.getName())) {
+      return entity(reader, start);
+    } else if (entryRefQName.equals(start.getName())) {
+      return entityRef(start);
+    } else if (annotationQName.equals(start.getName())) {
+      entitySet.getAnnotations().add(annotation(reader, start));
+    }
+    return null;
+  }
+
   @Override
   public ResWrap<EntityCollection> toEntitySet(final InputStream input) throws ODataDeserializerException {
     try {
@@ -836,6 +859,78 @@ public class AtomDeserializer implements ODataDeserializer {
     }
   }
 
+  /**
+   * Gets a reader for the entries of the feed in the given InputStream.
+   *
+   * @param input stream to be de-serialized.
+   * @return {@link EntitySetReader} instance.
+   * @throws ODataDeserializerException
+   */
+  public EntitySetReader toEntitySetReader(final InputStream input) throws ODataDeserializerException {
+    try {
+      final XMLEventReader reader = getReader(input);
+      return new AtomEntitySetReader(input, reader, skipBeforeFirstStartElement(reader));
+    } catch (XMLStreamException e) {
+      throw new ODataDeserializerException(e);
+    }
+  }
+
+  private class AtomEntitySetReader implements EntitySetReader {
+
+    private final InputStream input;
+    private final XMLEventReader reader;
+    private final StartElement start;
+    private final EntityCollection entitySet;
+    private boolean finished;
+
+    private AtomEntitySetReader(final InputStream input, final XMLEventReader reader, final StartElement start) {
+      this.input = input;
+      this.reader = reader;
+      this.start = start;
+      entitySet = createEntitySet(start);
+      finished = !Constants.QNAME_ATOM_ELEM_FEED.equals(start.getName());
+    }
+
+    @Override
+    public ResWrap<Entity> next() throws ODataDeserializerException {
+      try {
+        while (!finished && reader.hasNext()) {
+          final XMLEvent event = reader.nextEvent();
+          if (event.isStartElement()) {
+            final Entity entity = feedElement(reader, event.asStartElement(), entitySet);
+            if (entity != null) {
+              return getContainer(event.asStartElement(), entity);
+            }
+          }
+          if (event.isEndElement() && start.getName().equals(event.asEndElement().getName())) {
+            finished = true;
+          }
+        }
+      } catch (XMLStreamException e) {
+        throw new ODataDeserializerException(e);
+      } catch (final EdmPrimitiveTypeException e) {
+        throw new ODataDeserializerException(e);
+      }
+      finished = true;
+      return null;
+    }
+
+    @Override
+    public ResWrap<EntityCollection> getEntitySet() {
+      return getContainer(start, entitySet);
+    }
+
+    @Override
+    public void close() {
+      try {
+        reader.close();
+      } catch (final XMLStreamException e) {
+        // ignore
+      }
+      IOUtils.closeQuietly(input);
+    }
+  }
+
   private ODataError error(final XMLEventReader reader, final StartElement start) throws XMLStreamException {
     final ODataError error = new ODataError();
     error.setDetails(new ArrayList<ODataErrorDetail>(0));
@@ -32,6 +32,7 @@ import java.util.regex.Pattern;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.olingo.client.api.data.ResWrap;
+import org.apache.olingo.client.api.serialization.EntitySetReader;
 import org.apache.olingo.client.api.serialization.ODataDeserializer;
 import org.apache.olingo.client.api.serialization.ODataDeserializerException;
 import org.apache.olingo.commons.api.Constants;
@@ -63,14 +64,18 @@ import com.fasterxml.jackson.databind.node.ObjectNode;
 
 public class JsonDeserializer implements ODataDeserializer {
 
-  protected final Pattern CUSTOM_ANNOTATION = Pattern.compile("(.+)@(.+)\\.(.+)");
+  protected static final Pattern CUSTOM_ANNOTATION = Pattern.compile("(.+)@(.+)\\.(.+)");
+
+  /**
+   * Shared by all deserializers: factory and object mapper are thread-safe once configured
+   * and cache symbol tables and deserializers across parsers.
+   */
+  protected static final JsonFactory JSON_FACTORY = new JsonFactory(new ObjectMapper());
 
   protected final boolean serverMode;
 
   private JsonGeoValueDeserializer geoDeserializer;
 
-  private JsonParser parser;
-
   public JsonDeserializer(final boolean serverMode) {
     this.serverMode = serverMode;
   }
@@ -408,8 +413,32 @@ public class JsonDeserializer implements ODataDeserializer {
   @Override
   public ResWrap<EntityCollection> toEntitySet(final InputStream input) throws ODataDeserializerException {
     try {
-      parser = new JsonFactory(new ObjectMapper()).createParser(input);
-      return new JsonEntitySetDeserializer(serverMode).doDeserialize(parser);
+      final JsonEntitySetReader reader = new JsonEntitySetReader(JSON_FACTORY.createParser(input), serverMode);
+      final List<Entity> entities = new ArrayList<Entity>();
+      for (ResWrap<Entity> entity = reader.next(); entity != null; entity = reader.next()) {
+        entities.add(entity.getPayload());
+      }
+      if (!reader.hasValue()) {
+        return null;
+      }
+      final ResWrap<EntityCollection> entitySet = reader.buildEntitySet();
+      entitySet.getPayload().getEntities().addAll(entities);
+      return entitySet;
+    } catch (final IOException e) {
+      throw new ODataDeserializerException(e);
+    }
+  }
+
+  /**
+   * Gets a reader for the entities of the entity set in the given InputStream.
+   *
+   * @param input stream to be de-serialized.
+   * @return {@link EntitySetReader} instance.
+   * @throws ODataDeserializerException
+   */
+  public EntitySetReader toEntitySetReader(final InputStream input) throws ODataDeserializerException {
+    try {
+      return new JsonEntitySetReader(JSON_FACTORY.createParser(input), serverMode);
     } catch (final IOException e) {
       throw new ODataDeserializerException(e);
     }
@@ -418,8 +447,7 @@ public class JsonDeserializer implements ODataDeserializer {
   @Override
   public ResWrap<Entity> toEntity(final InputStream input) throws ODataDeserializerException {
     try {
-      parser = new JsonFactory(new ObjectMapper()).createParser(input);
-      return new JsonEntityDeserializer(serverMode).doDeserialize(parser);
+      return new JsonEntityDeserializer(serverMode).doDeserialize(JSON_FACTORY.createParser(input));
     } catch (final IOException e) {
       throw new ODataDeserializerException(e);
     }
@@ -428,8 +456,7 @@ public class JsonDeserializer implements ODataDeserializer {
   @Override
   public ResWrap<Property> toProperty(final InputStream input) throws ODataDeserializerException {
     try {
-      parser = new JsonFactory(new ObjectMapper()).createParser(input);
-      return new JsonPropertyDeserializer(serverMode).doDeserialize(parser);
+      return new JsonPropertyDeserializer(serverMode).doDeserialize(JSON_FACTORY.createParser(input));
     } catch (final IOException e) {
       throw new ODataDeserializerException(e);
     }
@@ -438,8 +465,7 @@ public class JsonDeserializer implements ODataDeserializer {
   @Override
   public ODataError toError(final InputStream input) throws ODataDeserializerException {
     try {
-      parser = new JsonFactory(new ObjectMapper()).createParser(input);
-      return new JsonODataErrorDeserializer(serverMode).doDeserialize(parser);
+      return new JsonODataErrorDeserializer(serverMode).doDeserialize(JSON_FACTORY.createParser(input));
     } catch (final IOException e) {
       throw new ODataDeserializerException(e);
     }
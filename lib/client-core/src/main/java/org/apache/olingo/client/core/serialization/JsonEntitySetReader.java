@@ -0,0 +1,135 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.client.core.serialization;
+
+import java.io.IOException;
+
+import org.apache.olingo.client.api.data.ResWrap;
+import org.apache.olingo.client.api.serialization.EntitySetReader;
+import org.apache.olingo.client.api.serialization.ODataDeserializerException;
+import org.apache.olingo.commons.api.Constants;
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.commons.api.data.EntityCollection;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Reads the entities of a JSON entity set one at a time from the token stream.
+ * <br/>
+ * Only the entity currently returned is held in memory; the top-level members of the entity set
+ * (context, count, next link, annotations, ...) are collected on the way and are available via
+ * {@link #getEntitySet()}.
+ */
+class JsonEntitySetReader implements EntitySetReader {
+
+  private final JsonParser parser;
+
+  private final boolean serverMode;
+
+  private final JsonEntityDeserializer entityDeserializer;
+
+  private final ObjectNode header = JsonNodeFactory.instance.objectNode();
+
+  private boolean inValue;
+
+  private boolean hasValue;
+
+  JsonEntitySetReader(final JsonParser parser, final boolean serverMode) throws IOException {
+    this.parser = parser;
+    this.serverMode = serverMode;
+    entityDeserializer = new JsonEntityDeserializer(serverMode);
+
+    if (parser.nextToken() != JsonToken.START_OBJECT) {
+      throw new JsonParseException(parser, "Expected OData Entity Set");
+    }
+    inValue = readMembers();
+    hasValue = inValue || header.has(Constants.VALUE);
+  }
+
+  /**
+   * @return whether the payload has a <tt>value</tt> member, i.e., actually is an entity set
+   */
+  boolean hasValue() {
+    return hasValue;
+  }
+
+  /**
+   * Reads top-level members into the header.
+   * @return <code>true</code> if the parser stopped at the start of the value array,
+   * <code>false</code> if the end of the entity set was reached
+   */
+  private boolean readMembers() throws IOException {
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      final String name = parser.getCurrentName();
+      if (parser.nextToken() == JsonToken.START_ARRAY && Constants.VALUE.equals(name)) {
+        return true;
+      }
+      header.set(name, parser.<JsonNode> readValueAsTree());
+    }
+    return false;
+  }
+
+  @Override
+  public ResWrap<Entity> next() throws ODataDeserializerException {
+    try {
+      if (inValue) {
+        final JsonToken token = parser.nextToken();
+        if (token == JsonToken.START_OBJECT) {
+          return entityDeserializer.doDeserialize(parser);
+        } else if (token != JsonToken.END_ARRAY) {
+          throw new JsonParseException(parser, "Expected OData Entity, found " + token);
+        }
+        inValue = false;
+        readMembers();
+      }
+      return null;
+    } catch (final IOException e) {
+      throw new ODataDeserializerException(e);
+    }
+  }
+
+  @Override
+  public ResWrap<EntityCollection> getEntitySet() {
+    try {
+      return buildEntitySet();
+    } catch (final IOException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  ResWrap<EntityCollection> buildEntitySet() throws IOException {
+    final ObjectNode tree = header.deepCopy();
+    tree.putArray(Constants.VALUE);
+    return new JsonEntitySetDeserializer(serverMode).doDeserialize(tree.traverse(parser.getCodec()));
+  }
+
+  @Override
+  public void close() {
+    try {
+      parser.close();
+    } catch (final IOException e) {
+      // ignore
+    }
+  }
+}
@@ -59,6 +59,12 @@ public class JsonSerializer implements ODataSerializer {
     EdmPrimitiveTypeKind.Int16, EdmPrimitiveTypeKind.Int32, EdmPrimitiveTypeKind.Int64,
     EdmPrimitiveTypeKind.Decimal);
 
+  /**
+   * Shared by all serializers: the factory is thread-safe once configured
+   * and recycles its buffers across generators.
+   */
+  private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
   private final JsonGeoValueSerializer geoSerializer = new JsonGeoValueSerializer();
 
   protected boolean serverMode;
@@ -78,7 +84,7 @@ public class JsonSerializer implements ODataSerializer {
   @Override
   public <T> void write(final Writer writer, final T obj) throws ODataSerializerException {
     try {
-      final JsonGenerator json = new JsonFactory().createGenerator(writer);
+      final JsonGenerator json = JSON_FACTORY.createGenerator(writer);
       if (obj instanceof EntityCollection) {
         new JsonEntitySetSerializer(serverMode, contentType).doSerialize((EntityCollection) obj, json);
       } else if (obj instanceof Entity) {
@@ -112,7 +118,7 @@ public class JsonSerializer implements ODataSerializer {
   public <T> void write(final Writer writer, final ResWrap<T> container) throws ODataSerializerException {
     final T obj = container == null ? null : container.getPayload();
     try {
-      final JsonGenerator json = new JsonFactory().createGenerator(writer);
+      final JsonGenerator json = JSON_FACTORY.createGenerator(writer);
       if (obj instanceof EntityCollection) {
         new JsonEntitySetSerializer(serverMode, contentType).doContainerSerialize(
             (ResWrap<EntityCollection>) container, json);
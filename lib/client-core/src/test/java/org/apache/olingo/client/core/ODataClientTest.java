@@ -19,11 +19,23 @@
 package org.apache.olingo.client.core;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.net.URI;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.apache.olingo.client.api.ODataClient;
 import org.apache.olingo.client.api.uri.SearchFactory;
+import org.apache.olingo.client.core.http.DefaultHttpClientFactory;
+import org.apache.olingo.client.core.http.BasicAuthHttpClientFactory;
+import org.apache.olingo.client.core.http.PoolingHttpClientFactory;
+import org.apache.olingo.client.core.http.ProxyWrappingHttpClientFactory;
 import org.apache.olingo.commons.api.edm.constants.ODataServiceVersion;
 import org.apache.olingo.commons.api.format.ContentType;
 import org.junit.Test;
@@ -99,6 +111,13 @@ public class ODataClientTest {
     assertEquals(true, config.isContinueOnError());
     config.setGzipCompression(true);
     assertEquals(true, config.isGzipCompression());
+    assertEquals(false, config.isConnectionPooling());
+    config.setConnectionPooling(true);
+    assertEquals(true, config.isConnectionPooling());
+    assertEquals(PoolingHttpClientFactory.class, config.getHttpClientFactory().getClass());
+    config.setConnectionPooling(false);
+    assertEquals(false, config.isConnectionPooling());
+    assertEquals(DefaultHttpClientFactory.class, config.getHttpClientFactory().getClass());
     config.setKeyAsSegment(true);
     assertEquals(true, config.isKeyAsSegment());
     config.setUseChuncked(true);
@@ -124,4 +143,56 @@ public class ODataClientTest {
     config.setProperty("key", "value");
     assertEquals("value", config.getProperty("key", "value"));
   }
+
+  @Test
+  public void connectionPoolingKeepsConfiguredFactory() {
+    ConfigurationImpl config = (ConfigurationImpl) ODataClientFactory.getClient().getConfiguration();
+    final BasicAuthHttpClientFactory basicAuth = new BasicAuthHttpClientFactory("user", "password");
+    config.setHttpClientFactory(basicAuth);
+    try {
+      config.setConnectionPooling(true);
+      fail("Expected IllegalStateException");
+    } catch (final IllegalStateException e) {
+      assertSame(basicAuth, config.getHttpClientFactory());
+      assertEquals(false, config.isConnectionPooling());
+    }
+
+    final PoolingHttpClientFactory pooling = new PoolingHttpClientFactory();
+    final ProxyWrappingHttpClientFactory proxy =
+        new ProxyWrappingHttpClientFactory(URI.create("http://proxy:8080"), pooling);
+    config.setHttpClientFactory(proxy);
+    config.setConnectionPooling(true);
+    assertEquals(true, config.isConnectionPooling());
+    assertSame(proxy, config.getHttpClientFactory());
+    config.setConnectionPooling(false);
+    assertEquals(false, config.isConnectionPooling());
+    assertSame(proxy, config.getHttpClientFactory());
+    pooling.shutdown();
+
+    config.setHttpClientFactory(null);
+    config.setConnectionPooling(true);
+    assertEquals(PoolingHttpClientFactory.class, config.getHttpClientFactory().getClass());
+    config.setHttpClientFactory(basicAuth);
+    assertEquals(false, config.isConnectionPooling());
+    assertSame(basicAuth, config.getHttpClientFactory());
+  }
+
+  @Test
+  public void maxConcurrentRequests() {
+    ConfigurationImpl config = (ConfigurationImpl) ODataClientFactory.getClient().getConfiguration();
+    final ExecutorService defaultExecutor = config.getExecutor();
+    config.setMaxConcurrentRequests(2);
+    assertEquals(2, config.getMaxConcurrentRequests());
+    assertTrue(defaultExecutor.isShutdown());
+    final ExecutorService resized = config.getExecutor();
+    assertFalse(resized.isShutdown());
+
+    final ExecutorService custom = Executors.newSingleThreadExecutor();
+    config.setExecutor(custom);
+    assertTrue(resized.isShutdown());
+    config.setMaxConcurrentRequests(4);
+    assertSame(custom, config.getExecutor());
+    assertFalse(custom.isShutdown());
+    custom.shutdown();
+  }
 }
@@ -20,12 +20,27 @@ package org.apache.olingo.client.core.communication.request;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.apache.olingo.client.api.ODataClient;
 import org.apache.olingo.client.api.communication.request.ODataBatchableRequest;
+import org.apache.olingo.client.api.communication.request.ResponseCallback;
+import org.apache.olingo.client.api.communication.request.retrieve.ODataEntitySetRequest;
+import org.apache.olingo.client.api.communication.response.AsyncResponseWrapper;
+import org.apache.olingo.client.api.communication.response.ODataRetrieveResponse;
+import org.apache.olingo.client.api.domain.ClientEntitySet;
 import org.apache.olingo.client.api.domain.ClientInvokeResult;
 import org.apache.olingo.client.core.ODataClientFactory;
 import org.apache.olingo.client.core.communication.request.AsyncRequestWrapperImpl.AsyncResponseWrapperImpl;
@@ -34,6 +49,10 @@ import org.apache.olingo.client.core.communication.request.invoke.ODataInvokeReq
 import org.apache.olingo.commons.api.http.HttpMethod;
 import org.junit.Test;
 
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
 public class AsyncRequestWrapperTest {
 
   @Test
@@ -85,5 +104,63 @@ public class AsyncRequestWrapperTest {
     AsyncRequestException  ex = new AsyncRequestException ("Exception");
     assertEquals("Exception", ex.getMessage());
   }
-  
+
+  @Test
+  public void asyncGetODataResponse() throws Exception {
+    final AtomicInteger monitorChecks = new AtomicInteger();
+    final HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    final String base = "http://localhost:" + server.getAddress().getPort();
+    server.createContext("/", new HttpHandler() {
+      @Override
+      public void handle(final HttpExchange exchange) throws IOException {
+        byte[] body = new byte[0];
+        if (exchange.getRequestURI().getPath().equals("/monitor") && monitorChecks.incrementAndGet() > 1) {
+          body = ("HTTP/1.1 200 OK\r\nContent-Type: application/json\r\n\r\n{\"value\":[]}").getBytes("UTF-8");
+          exchange.getResponseHeaders().add("Content-Type", "application/http");
+          exchange.sendResponseHeaders(200, body.length);
+        } else {
+          exchange.getResponseHeaders().add("Location", base + "/monitor");
+          exchange.getResponseHeaders().add("Retry-After", "0");
+          exchange.sendResponseHeaders(202, -1);
+        }
+        final OutputStream output = exchange.getResponseBody();
+        output.write(body);
+        output.close();
+      }
+    });
+    server.start();
+    try {
+      final ODataClient client = ODataClientFactory.getClient();
+      final ODataEntitySetRequest<ClientEntitySet> request =
+          client.getRetrieveRequestFactory().getEntitySetRequest(URI.create(base + "/ESAllPrim"));
+      final AsyncResponseWrapper<ODataRetrieveResponse<ClientEntitySet>> wrapper =
+          client.getAsyncRequestFactory().<ODataRetrieveResponse<ClientEntitySet>> getAsyncRequestWrapper(request)
+          .execute();
+
+      final AtomicReference<ODataRetrieveResponse<ClientEntitySet>> notified =
+          new AtomicReference<ODataRetrieveResponse<ClientEntitySet>>();
+      final CountDownLatch callbackDone = new CountDownLatch(1);
+      final Future<ODataRetrieveResponse<ClientEntitySet>> future = wrapper.asyncGetODataResponse(
+          new ResponseCallback<ODataRetrieveResponse<ClientEntitySet>>() {
+            @Override
+            public void onSuccess(final ODataRetrieveResponse<ClientEntitySet> response) {
+              notified.set(response);
+              callbackDone.countDown();
+            }
+
+            @Override
+            public void onFailure(final Throwable cause) {
+              // not expected
+            }
+          });
+
+      final ODataRetrieveResponse<ClientEntitySet> response = future.get(10, TimeUnit.SECONDS);
+      assertEquals(200, response.getStatusCode());
+      assertEquals(2, monitorChecks.get());
+      assertTrue(callbackDone.await(10, TimeUnit.SECONDS));
+      assertSame(response, notified.get());
+    } finally {
+      server.stop(0);
+    }
+  }
 }
@@ -0,0 +1,142 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.client.core.communication.request.batch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.olingo.client.api.ODataClient;
+import org.apache.olingo.client.api.communication.request.batch.BatchManager;
+import org.apache.olingo.client.api.communication.request.batch.ODataBatchRequest;
+import org.apache.olingo.client.api.communication.request.batch.ODataBatchResponseItem;
+import org.apache.olingo.client.api.communication.response.ODataBatchResponse;
+import org.apache.olingo.client.api.communication.response.ODataResponse;
+import org.apache.olingo.client.core.ODataClientFactory;
+import org.apache.olingo.commons.api.Constants;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+public class ODataBatchRequestTest {
+
+  private static final String CRLF = "\r\n";
+
+  private static final String RESPONSE = "--batch_response" + CRLF
+      + "Content-Type: application/http" + CRLF
+      + "Content-Transfer-Encoding: binary" + CRLF
+      + CRLF
+      + "HTTP/1.1 200 OK" + CRLF
+      + "Content-Type: application/json" + CRLF
+      + CRLF
+      + "{\"value\":1}" + CRLF
+      + "--batch_response" + CRLF
+      + "Content-Type: application/http" + CRLF
+      + "Content-Transfer-Encoding: binary" + CRLF
+      + CRLF
+      + "HTTP/1.1 200 OK" + CRLF
+      + "Content-Type: application/json" + CRLF
+      + CRLF
+      + "{\"value\":2}" + CRLF
+      + "--batch_response--" + CRLF;
+
+  private HttpServer server;
+  private URI serviceRoot;
+  private final AtomicReference<String> requestBody = new AtomicReference<String>();
+  private final AtomicReference<String> requestLength = new AtomicReference<String>();
+
+  @Before
+  public void startServer() throws IOException {
+    server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    server.createContext("/", new HttpHandler() {
+      @Override
+      public void handle(final HttpExchange exchange) throws IOException {
+        requestLength.set(exchange.getRequestHeaders().getFirst("Content-Length"));
+        requestBody.set(IOUtils.toString(exchange.getRequestBody(), Constants.UTF8));
+        final byte[] body = RESPONSE.getBytes(Constants.UTF8);
+        exchange.getResponseHeaders().add("Content-Type", "multipart/mixed;boundary=batch_response");
+        exchange.sendResponseHeaders(200, body.length);
+        final OutputStream output = exchange.getResponseBody();
+        output.write(body);
+        output.close();
+      }
+    });
+    server.start();
+    serviceRoot = URI.create("http://localhost:" + server.getAddress().getPort());
+  }
+
+  @After
+  public void stopServer() {
+    server.stop(0);
+  }
+
+  @Test
+  public void piped() throws Exception {
+    execute(ODataClientFactory.getClient());
+  }
+
+  @Test
+  public void buffered() throws Exception {
+    final ODataClient client = ODataClientFactory.getClient();
+    client.getConfiguration().setBatchPayloadBuffering(true);
+    client.getConfiguration().setUseChuncked(false);
+    execute(client);
+    assertEquals(String.valueOf(requestBody.get().getBytes(Constants.UTF8).length), requestLength.get());
+  }
+
+  private void execute(final ODataClient client) throws IOException {
+    final ODataBatchRequest request = client.getBatchRequestFactory().getBatchRequest(serviceRoot.toASCIIString());
+    final BatchManager payload = request.payloadManager();
+    payload.addRequest(client.getRetrieveRequestFactory().getEntitySetRequest(
+        client.newURIBuilder(serviceRoot.toASCIIString()).appendEntitySetSegment("ESAllPrim").build()));
+    payload.addRequest(client.getRetrieveRequestFactory().getEntitySetRequest(
+        client.newURIBuilder(serviceRoot.toASCIIString()).appendEntitySetSegment("ESTwoPrim").build()));
+    final ODataBatchResponse response = payload.getResponse();
+    assertEquals(200, response.getStatusCode());
+
+    assertTrue(requestBody.get().contains("GET " + serviceRoot + "/ESAllPrim"));
+    assertTrue(requestBody.get().contains("GET " + serviceRoot + "/ESTwoPrim"));
+
+    final Iterator<ODataBatchResponseItem> items = response.getBody();
+    for (int i = 1; i <= 2; i++) {
+      assertTrue(items.hasNext());
+      final ODataBatchResponseItem item = items.next();
+      assertTrue(item.hasNext());
+      final ODataResponse itemResponse = item.next();
+      assertNotNull(itemResponse);
+      assertEquals(200, itemResponse.getStatusCode());
+      assertEquals("{\"value\":" + i + "}", IOUtils.toString(itemResponse.getRawResponse(), Constants.UTF8).trim());
+    }
+    assertFalse(items.hasNext());
+    response.close();
+  }
+}
@@ -21,18 +21,28 @@ package org.apache.olingo.client.core.domain;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
 import java.net.URISyntaxException;
 import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.http.client.HttpClient;
 
 import org.apache.olingo.client.api.ODataClient;
 import org.apache.olingo.client.api.domain.ClientEntity;
 import org.apache.olingo.client.api.domain.ClientEntitySet;
 import org.apache.olingo.client.api.domain.ClientEntitySetIterator;
 import org.apache.olingo.client.core.ODataClientFactory;
+import org.apache.olingo.client.core.http.PoolingHttpClientFactory;
 import org.apache.olingo.commons.api.format.ContentType;
 import org.junit.Assert;
 import org.junit.Test;
 
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
 public class ClientEntitySetIteratorTest {
   
     @Test
@@ -203,4 +213,119 @@ public class ClientEntitySetIteratorTest {
         Assert.assertEquals("http://localhost:8082/odata-server-tecsvc/"
             + "odata.svc/ESServerSidePaging?%24skiptoken=1%2A10", entitySetIterator.getNext().toString());
     }
+
+    @Test
+    public void testGetEntitySetIteratorAtom() throws IOException {
+        final InputStream stream = getClass().getResourceAsStream("/org/apache/olingo/client/core/Customers.xml");
+        ODataClient oDataClient = ODataClientFactory.getClient();
+        ClientEntitySetIterator<ClientEntitySet, ClientEntity> entitySetIterator =
+            new ClientEntitySetIterator<ClientEntitySet, ClientEntity>(
+            oDataClient, stream, ContentType.APPLICATION_ATOM_XML);
+
+        ArrayList<ClientEntity> entities = new ArrayList<ClientEntity>();
+        while (entitySetIterator.hasNext()) {
+            entities.add(entitySetIterator.next());
+        }
+
+        Assert.assertEquals(2, entities.size());
+        Assert.assertNotNull(entities.get(0).getProperty("PersonID"));
+        Assert.assertNotNull(entities.get(1).getProperty("PersonID"));
+        Assert.assertNull(entitySetIterator.getNext());
+    }
+
+    @Test
+    public void testEntitySetIteratorFollowNextLinks() throws IOException {
+        final HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", new HttpHandler() {
+            @Override
+            public void handle(final HttpExchange exchange) throws IOException {
+                final byte[] body = ("{\"@odata.context\":\"$metadata#ESAllPrim\","
+                    + "\"value\":[{\"PropertyInt16\": 2},{\"PropertyInt16\": 3}]}").getBytes("UTF-8");
+                exchange.getResponseHeaders().add("Content-Type", ContentType.JSON.toContentTypeString());
+                exchange.sendResponseHeaders(200, body.length);
+                final OutputStream output = exchange.getResponseBody();
+                output.write(body);
+                output.close();
+            }
+        });
+        server.start();
+        try {
+            String str = "{\"@odata.context\":\"$metadata#ESAllPrim\","
+                + "\"value\":[{\"PropertyInt16\": 1}],"
+                + "\"@odata.nextLink\":\"http://localhost:" + server.getAddress().getPort()
+                + "/ESAllPrim?%24skiptoken=1\"}";
+
+            ODataClient oDataClient = ODataClientFactory.getClient();
+            ClientEntitySetIterator<ClientEntitySet, ClientEntity> entitySetIterator =
+                new ClientEntitySetIterator<ClientEntitySet, ClientEntity>(
+                oDataClient, new ByteArrayInputStream(str.getBytes()), ContentType.JSON)
+                .setFollowNextLinks(true);
+
+            ArrayList<ClientEntity> entities = new ArrayList<ClientEntity>();
+            while (entitySetIterator.hasNext()) {
+                entities.add(entitySetIterator.next());
+            }
+
+            Assert.assertEquals(3, entities.size());
+            Assert.assertEquals("3", entities.get(2).getProperty("PropertyInt16").getPrimitiveValue().toString());
+            Assert.assertNull(entitySetIterator.getNext());
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void testEntitySetIteratorFollowNextLinksClosesResponses() throws IOException {
+        final HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", new HttpHandler() {
+            @Override
+            public void handle(final HttpExchange exchange) throws IOException {
+                final int page = Integer.parseInt(exchange.getRequestURI().getQuery().replace("page=", ""));
+                final String next = page < 3 ? ",\"@odata.nextLink\":\"http://localhost:"
+                    + exchange.getLocalAddress().getPort() + "/ESAllPrim?page=" + (page + 1) + "\"" : "";
+                final byte[] body = ("{\"@odata.context\":\"$metadata#ESAllPrim\","
+                    + "\"value\":[{\"PropertyInt16\": " + page + "}]" + next + "}").getBytes("UTF-8");
+                exchange.getResponseHeaders().add("Content-Type", ContentType.JSON.toContentTypeString());
+                exchange.sendResponseHeaders(200, body.length);
+                final OutputStream output = exchange.getResponseBody();
+                output.write(body);
+                output.close();
+            }
+        });
+        server.start();
+        final AtomicInteger closed = new AtomicInteger();
+        final PoolingHttpClientFactory factory = new PoolingHttpClientFactory() {
+            @Override
+            public void close(final HttpClient httpClient) {
+                closed.incrementAndGet();
+                super.close(httpClient);
+            }
+        };
+        try {
+            String str = "{\"@odata.context\":\"$metadata#ESAllPrim\","
+                + "\"value\":[{\"PropertyInt16\": 0}],"
+                + "\"@odata.nextLink\":\"http://localhost:" + server.getAddress().getPort()
+                + "/ESAllPrim?page=1\"}";
+
+            ODataClient oDataClient = ODataClientFactory.getClient();
+            oDataClient.getConfiguration().setHttpClientFactory(factory);
+            ClientEntitySetIterator<ClientEntitySet, ClientEntity> entitySetIterator =
+                new ClientEntitySetIterator<ClientEntitySet, ClientEntity>(
+                oDataClient, new ByteArrayInputStream(str.getBytes()), ContentType.JSON)
+                .setFollowNextLinks(true);
+
+            int count = 0;
+            while (entitySetIterator.hasNext()) {
+                entitySetIterator.next();
+                count++;
+            }
+
+            Assert.assertEquals(4, count);
+            Assert.assertEquals(3, closed.get());
+            Assert.assertEquals(0, factory.getTotalStats().getLeased());
+        } finally {
+            factory.shutdown();
+            server.stop(0);
+        }
+    }
 }
@@ -3,6 +3,7 @@ package org.apache.olingo.client.core.serialization;
 import org.apache.olingo.client.api.data.ResWrap;
 import org.apache.olingo.commons.api.Constants;
 import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.commons.api.data.EntityCollection;
 import org.apache.olingo.commons.api.data.Property;
 import org.apache.olingo.commons.api.data.ValueType;
 import org.apache.olingo.commons.api.edm.geo.Geospatial;
@@ -104,4 +105,27 @@ public class JsonDeserializerTest {
     Assert.assertEquals("Unexpected GeospatialCollection type", ValueType.GEOSPATIAL, actualValueType);
     Assert.assertTrue(geometryCollection.asGeospatial() instanceof GeospatialCollection);
   }
+
+  @Test
+  public void toEntitySetWithMembersAfterValue() throws Exception {
+    final String json = "{\"@odata.context\":\"http://host/service/$metadata#ESAllPrim\","
+        + "\"value\":[{\"PropertyInt16\":1,\"Nav\":[{\"PropertyInt16\":11}]},{\"PropertyInt16\":2}],"
+        + "\"@odata.count\":2,\"@odata.nextLink\":\"http://host/service/ESAllPrim?$skiptoken=2\"}";
+
+    final ResWrap<EntityCollection> entitySet =
+        DESERIALIZER.toEntitySet(new ByteArrayInputStream(json.getBytes(Constants.UTF8)));
+
+    Assert.assertEquals("http://host/service/$metadata#ESAllPrim", entitySet.getContextURL().toASCIIString());
+    Assert.assertEquals(2, entitySet.getPayload().getEntities().size());
+    Assert.assertEquals(2, entitySet.getPayload().getEntities().get(1).getProperty("PropertyInt16").getValue());
+    Assert.assertEquals(Integer.valueOf(2), entitySet.getPayload().getCount());
+    Assert.assertEquals("http://host/service/ESAllPrim?$skiptoken=2",
+        entitySet.getPayload().getNext().toASCIIString());
+  }
+
+  @Test
+  public void toEntitySetWithoutValue() throws Exception {
+    Assert.assertNull(DESERIALIZER.toEntitySet(
+        new ByteArrayInputStream("{\"@odata.context\":\"$metadata#ESAllPrim\"}".getBytes(Constants.UTF8))));
+  }
 }
@@ -36,7 +36,7 @@ public class Entity extends Linked {
   private final List<Link> mediaEditLinks = new ArrayList<Link>();
   private final List<Operation> operations = new ArrayList<Operation>();
 
-  private final List<Property> properties = new ArrayList<Property>();
+  private final PropertyList properties = new PropertyList();
 
   private URI mediaContentSource;
   private String mediaContentType;
@@ -158,16 +158,7 @@ public class Entity extends Linked {
    * @return property with given name if found, null otherwise
    */
   public Property getProperty(final String name) {
-    Property result = null;
-
-    for (Property property : properties) {
-      if (name.equals(property.getName())) {
-        result = property;
-        break;
-      }
-    }
-
-    return result;
+    return properties.getProperty(name);
   }
 
   /**
@@ -0,0 +1,129 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.commons.api.data;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * List of properties that supports looking up a property by its name.
+ * For larger lists the lookup uses an index by name; the index is built on the first lookup
+ * and discarded on every modification of the list.
+ * Properties must not be renamed while they are contained in the list.
+ * <p>Like other lists, the list can be read by several threads concurrently as long as it is not modified;
+ * the index is never changed once built and is published through a volatile field.</p>
+ */
+public final class PropertyList extends AbstractList<Property> implements RandomAccess {
+
+  /** Lists with fewer properties are searched sequentially. */
+  private static final int INDEX_THRESHOLD = 8;
+
+  private final ArrayList<Property> properties = new ArrayList<Property>();
+  private volatile Map<String, Property> index;
+
+  /**
+   * Gets the property with the given name.
+   * If the list contains several properties with the same name, the first one is returned.
+   * @param name property name
+   * @return property with given name if found, null otherwise
+   */
+  public Property getProperty(final String name) {
+    if (properties.size() < INDEX_THRESHOLD) {
+      for (final Property property : properties) {
+        if (name.equals(property.getName())) {
+          return property;
+        }
+      }
+      return null;
+    }
+    Map<String, Property> currentIndex = index;
+    if (currentIndex == null) {
+      currentIndex = createIndex();
+      index = currentIndex;
+    }
+    return currentIndex.get(name);
+  }
+
+  private Map<String, Property> createIndex() {
+    final Map<String, Property> newIndex = new HashMap<String, Property>((int) (properties.size() / 0.75F) + 1);
+    for (int position = properties.size() - 1; position >= 0; position--) {
+      final Property property = properties.get(position);
+      newIndex.put(property.getName(), property);
+    }
+    return newIndex;
+  }
+
+  /**
+   * Gets the property with the given name from the list.
+   * @param properties list of properties
+   * @param name property name
+   * @return property with given name if found, null otherwise
+   */
+  public static Property getProperty(final Iterable<Property> properties, final String name) {
+    if (properties instanceof PropertyList) {
+      return ((PropertyList) properties).getProperty(name);
+    }
+    for (final Property property : properties) {
+      if (name.equals(property.getName())) {
+        return property;
+      }
+    }
+    return null;
+  }
+
+  @Override
+  public Property get(final int position) {
+    return properties.get(position);
+  }
+
+  @Override
+  public int size() {
+    return properties.size();
+  }
+
+  @Override
+  public Property set(final int position, final Property property) {
+    index = null;
+    return properties.set(position, property);
+  }
+
+  @Override
+  public void add(final int position, final Property property) {
+    index = null;
+    modCount++;
+    properties.add(position, property);
+  }
+
+  @Override
+  public Property remove(final int position) {
+    index = null;
+    modCount++;
+    return properties.remove(position);
+  }
+
+  @Override
+  public void clear() {
+    index = null;
+    modCount++;
+    properties.clear();
+  }
+}
@@ -0,0 +1,144 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.commons.api.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+public class PropertyListTest {
+
+  @Test
+  public void smallList() {
+    final Entity entity = new Entity();
+    final Property first = createProperty("A");
+    entity.addProperty(first).addProperty(createProperty("B")).addProperty(createProperty("A"));
+
+    assertSame(first, entity.getProperty("A"));
+    assertEquals("B", entity.getProperty("B").getName());
+    assertNull(entity.getProperty("C"));
+  }
+
+  @Test
+  public void indexFollowsModifications() {
+    final Entity entity = new Entity();
+    for (int index = 0; index < 20; index++) {
+      entity.addProperty(createProperty("P" + index));
+    }
+    assertEquals("P15", entity.getProperty("P15").getName());
+    assertNull(entity.getProperty("P20"));
+
+    entity.addProperty(createProperty("P20"));
+    assertEquals("P20", entity.getProperty("P20").getName());
+
+    final Property replacement = createProperty("Q");
+    entity.getProperties().set(15, replacement);
+    assertNull(entity.getProperty("P15"));
+    assertSame(replacement, entity.getProperty("Q"));
+
+    entity.getProperties().remove(replacement);
+    assertNull(entity.getProperty("Q"));
+
+    for (final Iterator<Property> iterator = entity.getProperties().iterator(); iterator.hasNext();) {
+      if ("P3".equals(iterator.next().getName())) {
+        iterator.remove();
+      }
+    }
+    assertNull(entity.getProperty("P3"));
+    assertEquals(19, entity.getProperties().size());
+
+    entity.getProperties().subList(0, 10).clear();
+    assertNull(entity.getProperty("P0"));
+    assertEquals("P11", entity.getProperty("P11").getName());
+
+    entity.getProperties().clear();
+    assertNull(entity.getProperty("P11"));
+  }
+
+  @Test
+  public void concurrentLookups() throws Exception {
+    final Entity entity = new Entity();
+    for (int index = 0; index < 20; index++) {
+      entity.addProperty(createProperty("P" + index));
+    }
+    final int threadCount = 8;
+    final CountDownLatch start = new CountDownLatch(1);
+    final ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+    try {
+      final List<Future<Boolean>> futures = new ArrayList<Future<Boolean>>();
+      for (int thread = 0; thread < threadCount; thread++) {
+        futures.add(executor.submit(new Callable<Boolean>() {
+          @Override
+          public Boolean call() throws Exception {
+            start.await();
+            for (int index = 0; index < 20; index++) {
+              if (!("P" + index).equals(entity.getProperty("P" + index).getName())) {
+                return false;
+              }
+            }
+            return true;
+          }
+        }));
+      }
+      start.countDown();
+      for (final Future<Boolean> future : futures) {
+        assertEquals(Boolean.TRUE, future.get());
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void firstPropertyWithNameIsFound() {
+    final ComplexValue complexValue = new ComplexValue();
+    final Property first = createProperty("Duplicate");
+    complexValue.getValue().add(first);
+    for (int index = 0; index < 10; index++) {
+      complexValue.getValue().add(createProperty("Duplicate"));
+    }
+    assertSame(first, complexValue.getProperty("Duplicate"));
+  }
+
+  @Test
+  public void equalsOtherLists() {
+    final Property property = createProperty("A");
+    final Entity entity = new Entity().addProperty(property);
+    final List<Property> list = Arrays.asList(property);
+    assertEquals(list, entity.getProperties());
+    assertEquals(list.hashCode(), entity.getProperties().hashCode());
+    assertSame(property, PropertyList.getProperty(list, "A"));
+  }
+
+  private Property createProperty(final String name) {
+    return new Property(null, name, ValueType.PRIMITIVE, name);
+  }
+}
@@ -0,0 +1,110 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.commons.core;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+
+/**
+ * Provides the StAX factories shared by the XML serializers and deserializers of the server.
+ * <p>
+ * Looking up a StAX implementation (<code>XMLInputFactory.newFactory()</code> and
+ * <code>XMLOutputFactory.newFactory()</code>) scans the class path on every call,
+ * while the created factories are thread-safe once configured.
+ * The factories are therefore looked up only once and reused afterwards.
+ * </p>
+ * <p>
+ * By default the standard StAX lookup is used, so the implementation can be chosen with the
+ * <code>javax.xml.stream.XMLInputFactory</code> and <code>javax.xml.stream.XMLOutputFactory</code>
+ * system properties. Other implementations, e.g., Aalto, are used only if they are set explicitly
+ * with {@link #setInputFactory(XMLInputFactory)} and {@link #setOutputFactory(XMLOutputFactory)}.
+ * Factories handed out by this class must not be reconfigured afterwards.
+ * </p>
+ */
+public final class XmlFactoryProvider {
+
+  private static volatile XMLInputFactory inputFactory;
+  private static volatile XMLOutputFactory outputFactory;
+
+  private XmlFactoryProvider() {
+    // Private constructor for utility classes
+  }
+
+  /**
+   * Returns the shared input factory.
+   * Unless set explicitly, it neither supports external entities nor replaces entity references.
+   * @return the shared {@link XMLInputFactory}
+   */
+  public static XMLInputFactory getInputFactory() {
+    XMLInputFactory factory = inputFactory;
+    if (factory == null) {
+      synchronized (XmlFactoryProvider.class) {
+        factory = inputFactory;
+        if (factory == null) {
+          factory = XMLInputFactory.newFactory();
+          factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+          factory.setProperty(XMLInputFactory.IS_REPLACING_ENTITY_REFERENCES, false);
+          inputFactory = factory;
+        }
+      }
+    }
+    return factory;
+  }
+
+  /**
+   * Returns the shared output factory.
+   * @return the shared {@link XMLOutputFactory}
+   */
+  public static XMLOutputFactory getOutputFactory() {
+    XMLOutputFactory factory = outputFactory;
+    if (factory == null) {
+      synchronized (XmlFactoryProvider.class) {
+        factory = outputFactory;
+        if (factory == null) {
+          factory = XMLOutputFactory.newFactory();
+          outputFactory = factory;
+        }
+      }
+    }
+    return factory;
+  }
+
+  /**
+   * Replaces the input factory shared by <em>all</em> XML deserializers and parsers in this class loader,
+   * i.e., process-wide for all OData services.
+   * It should be called once at start-up, before the first XML document is read.
+   * The factory must be fully configured, including the handling of external entities;
+   * <code>null</code> restores the standard lookup.
+   * @param factory the factory to share
+   */
+  public static void setInputFactory(final XMLInputFactory factory) {
+    inputFactory = factory;
+  }
+
+  /**
+   * Replaces the output factory shared by <em>all</em> XML serializers in this class loader,
+   * i.e., process-wide for all OData services.
+   * It should be called once at start-up, before the first XML document is written.
+   * The factory must be fully configured; <code>null</code> restores the standard lookup.
+   * @param factory the factory to share
+   */
+  public static void setOutputFactory(final XMLOutputFactory factory) {
+    outputFactory = factory;
+  }
+}
@@ -23,6 +23,11 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
 
 import org.apache.olingo.commons.api.edm.Edm;
 import org.apache.olingo.commons.api.edm.EdmAction;
@@ -31,6 +36,7 @@ import org.apache.olingo.commons.api.edm.EdmComplexType;
 import org.apache.olingo.commons.api.edm.EdmEntityContainer;
 import org.apache.olingo.commons.api.edm.EdmEntityType;
 import org.apache.olingo.commons.api.edm.EdmEnumType;
+import org.apache.olingo.commons.api.edm.EdmException;
 import org.apache.olingo.commons.api.edm.EdmFunction;
 import org.apache.olingo.commons.api.edm.EdmParameter;
 import org.apache.olingo.commons.api.edm.EdmSchema;
@@ -41,61 +47,68 @@ import org.apache.olingo.commons.api.edm.provider.CsdlAnnotation;
 
 public abstract class AbstractEdm implements Edm {
 
-  protected Map<String, EdmSchema> schemas;
-  protected List<EdmSchema> schemaList;
+  protected volatile Map<String, EdmSchema> schemas;
+  protected volatile List<EdmSchema> schemaList;
   private boolean isEntityDerivedFromES;
   private boolean isComplexDerivedFromES;
   private boolean isPreviousES;
 
-  private final Map<FullQualifiedName, EdmEntityContainer> entityContainers =
-      Collections.synchronizedMap(new HashMap<FullQualifiedName, EdmEntityContainer>());
+  private final ConcurrentMap<FullQualifiedName, EdmEntityContainer> entityContainers =
+      new ConcurrentHashMap<FullQualifiedName, EdmEntityContainer>();
 
-  private final Map<FullQualifiedName, EdmEnumType> enumTypes =
-      Collections.synchronizedMap(new HashMap<FullQualifiedName, EdmEnumType>());
+  private final ConcurrentMap<FullQualifiedName, EdmEnumType> enumTypes =
+      new ConcurrentHashMap<FullQualifiedName, EdmEnumType>();
 
-  private final Map<FullQualifiedName, EdmTypeDefinition> typeDefinitions =
-      Collections.synchronizedMap(new HashMap<FullQualifiedName, EdmTypeDefinition>());
+  private final ConcurrentMap<FullQualifiedName, EdmTypeDefinition> typeDefinitions =
+      new ConcurrentHashMap<FullQualifiedName, EdmTypeDefinition>();
 
-  private final Map<FullQualifiedName, EdmEntityType> entityTypes =
-      Collections.synchronizedMap(new HashMap<FullQualifiedName, EdmEntityType>());
+  private final ConcurrentMap<FullQualifiedName, EdmEntityType> entityTypes =
+      new ConcurrentHashMap<FullQualifiedName, EdmEntityType>();
 
-  private final Map<FullQualifiedName, EdmComplexType> complexTypes =
-      Collections.synchronizedMap(new HashMap<FullQualifiedName, EdmComplexType>());
+  private final ConcurrentMap<FullQualifiedName, EdmComplexType> complexTypes =
+      new ConcurrentHashMap<FullQualifiedName, EdmComplexType>();
 
-  private final Map<FullQualifiedName, EdmAction> unboundActions =
-      Collections.synchronizedMap(new HashMap<FullQualifiedName, EdmAction>());
+  private final ConcurrentMap<FullQualifiedName, EdmAction> unboundActions =
+      new ConcurrentHashMap<FullQualifiedName, EdmAction>();
 
-  private final Map<FullQualifiedName, List<EdmFunction>> unboundFunctionsByName =
-      Collections.synchronizedMap(new HashMap<FullQualifiedName, List<EdmFunction>>());
+  private final ConcurrentMap<FullQualifiedName, List<EdmFunction>> unboundFunctionsByName =
+      new ConcurrentHashMap<FullQualifiedName, List<EdmFunction>>();
 
-  private final Map<FunctionMapKey, EdmFunction> unboundFunctionsByKey =
-      Collections.synchronizedMap(new HashMap<FunctionMapKey, EdmFunction>());
+  private final ConcurrentMap<FunctionMapKey, EdmFunction> unboundFunctionsByKey =
+      new ConcurrentHashMap<FunctionMapKey, EdmFunction>();
 
-  private final Map<ActionMapKey, EdmAction> boundActions =
-      Collections.synchronizedMap(new HashMap<ActionMapKey, EdmAction>());
+  private final ConcurrentMap<ActionMapKey, EdmAction> boundActions =
+      new ConcurrentHashMap<ActionMapKey, EdmAction>();
 
-  private final Map<FunctionMapKey, EdmFunction> boundFunctions =
-      Collections.synchronizedMap(new HashMap<FunctionMapKey, EdmFunction>());
+  private final ConcurrentMap<FunctionMapKey, EdmFunction> boundFunctions =
+      new ConcurrentHashMap<FunctionMapKey, EdmFunction>();
 
-  private final Map<FullQualifiedName, EdmTerm> terms =
-      Collections.synchronizedMap(new HashMap<FullQualifiedName, EdmTerm>());
+  private final ConcurrentMap<FullQualifiedName, EdmTerm> terms =
+      new ConcurrentHashMap<FullQualifiedName, EdmTerm>();
 
-  private final Map<TargetQualifierMapKey, EdmAnnotations> annotationGroups =
-      Collections.synchronizedMap(new HashMap<TargetQualifierMapKey, EdmAnnotations>());
+  private final ConcurrentMap<TargetQualifierMapKey, EdmAnnotations> annotationGroups =
+      new ConcurrentHashMap<TargetQualifierMapKey, EdmAnnotations>();
 
-  private Map<String, String> aliasToNamespaceInfo = null;
+  private volatile ConcurrentMap<String, String> aliasToNamespaceInfo = null;
+
+  private volatile EdmEntityContainer defaultEntityContainer;
+  private final Object defaultEntityContainerLock = new Object();
+
+  /** The resolutions in progress, per cache and key. */
+  private final ConcurrentMap<ResolutionKey, Resolution<?>> resolutions =
+      new ConcurrentHashMap<ResolutionKey, Resolution<?>>();
   
-  private final Map<FullQualifiedName, EdmEntityType> entityTypesWithAnnotations =
-      Collections.synchronizedMap(new HashMap<FullQualifiedName, EdmEntityType>());
+  private final ConcurrentMap<FullQualifiedName, EdmEntityType> entityTypesWithAnnotations =
+      new ConcurrentHashMap<FullQualifiedName, EdmEntityType>();
   
-  private final Map<FullQualifiedName, EdmEntityType> entityTypesDerivedFromES =
-      Collections.synchronizedMap(new HashMap<FullQualifiedName, EdmEntityType>());
+  private final ConcurrentMap<FullQualifiedName, EdmEntityType> entityTypesDerivedFromES =
+      new ConcurrentHashMap<FullQualifiedName, EdmEntityType>();
   
-  private final Map<FullQualifiedName, EdmComplexType> complexTypesWithAnnotations =
-      Collections.synchronizedMap(new HashMap<FullQualifiedName, EdmComplexType>());
+  private final ConcurrentMap<FullQualifiedName, EdmComplexType> complexTypesWithAnnotations =
+      new ConcurrentHashMap<FullQualifiedName, EdmComplexType>();
   
-  private final Map<FullQualifiedName, EdmComplexType> complexTypesDerivedFromES =
-      Collections.synchronizedMap(new HashMap<FullQualifiedName, EdmComplexType>());
+  private final ConcurrentMap<FullQualifiedName, EdmComplexType> complexTypesDerivedFromES =
+      new ConcurrentHashMap<FullQualifiedName, EdmComplexType>();
 
   private Map<String, List<CsdlAnnotation>> annotationMap = 
       new HashMap<String, List<CsdlAnnotation>>();
@@ -114,24 +127,109 @@ public abstract class AbstractEdm implements Edm {
       initSchemas();
     }
 
+    if (namespace == null) {
+      return null;
+    }
     EdmSchema schema = schemas.get(namespace);
     if (schema == null) {
-      schema = schemas.get(aliasToNamespaceInfo.get(namespace));
+      final String aliasedNamespace = get(aliasToNamespaceInfo, namespace);
+      schema = aliasedNamespace == null ? null : schemas.get(aliasedNamespace);
     }
     return schema;
   }
 
-  private void initSchemas() {
+  private synchronized void initSchemas() {
+    if (schemas != null) {
+      return;
+    }
     loadAliasToNamespaceInfo();
     Map<String, EdmSchema> localSchemas = createSchemas();
-    schemas = Collections.synchronizedMap(localSchemas);
-
-    schemaList = Collections.unmodifiableList(new ArrayList<EdmSchema>(schemas.values()));
+    // The list is assigned first since readers of the list check the map.
+    schemaList = Collections.unmodifiableList(new ArrayList<EdmSchema>(localSchemas.values()));
+    schemas = concurrentCopy(localSchemas);
   }
 
   private void loadAliasToNamespaceInfo() {
     Map<String, String> localAliasToNamespaceInfo = createAliasToNamespaceInfo();
-    aliasToNamespaceInfo = Collections.synchronizedMap(localAliasToNamespaceInfo);
+    aliasToNamespaceInfo = concurrentCopy(localAliasToNamespaceInfo);
+  }
+
+  /** Copies the map into a concurrent map; concurrent maps support neither <code>null</code> keys nor values. */
+  private static <K, V> ConcurrentMap<K, V> concurrentCopy(final Map<K, V> map) {
+    final ConcurrentMap<K, V> copy = new ConcurrentHashMap<K, V>();
+    for (final Map.Entry<K, V> entry : map.entrySet()) {
+      if (entry.getKey() != null && entry.getValue() != null) {
+        copy.put(entry.getKey(), entry.getValue());
+      }
+    }
+    return copy;
+  }
+
+  private static <K, V> V get(final ConcurrentMap<K, V> cache, final K key) {
+    return key == null ? null : cache.get(key);
+  }
+
+  /**
+   * Returns the cached value for the key or creates and caches it.
+   * <p>Each key is resolved only once: a thread asking for a key that another thread is resolving
+   * waits for the result of that resolution.
+   * A thread asking again for a key it is resolving itself creates the value anew instead of waiting for itself.
+   * A <code>null</code> value is not cached, so it is created again on the next request.</p>
+   */
+  private <K, V> V resolve(final ConcurrentMap<K, V> cache, final K key, final Callable<V> creator) {
+    if (key == null) {
+      return call(creator);
+    }
+    final V value = cache.get(key);
+    if (value != null) {
+      return value;
+    }
+    final ResolutionKey resolutionKey = new ResolutionKey(cache, key);
+    final Resolution<V> resolution = new Resolution<V>(new Callable<V>() {
+      @Override
+      public V call() {
+        // The value may have been cached after the check above.
+        final V cachedValue = cache.get(key);
+        return cachedValue == null ? cache(cache, key, AbstractEdm.call(creator)) : cachedValue;
+      }
+    });
+    final Resolution<?> running = resolutions.putIfAbsent(resolutionKey, resolution);
+    if (running == null) {
+      try {
+        resolution.run();
+        return resolution.getValue();
+      } finally {
+        resolutions.remove(resolutionKey, resolution);
+      }
+    } else if (running.isRunBy(Thread.currentThread())) {
+      return cache(cache, key, call(creator));
+    } else {
+      @SuppressWarnings("unchecked")
+      final Resolution<V> runningResolution = (Resolution<V>) running;
+      return runningResolution.getValue();
+    }
+  }
+
+  private static <V> V call(final Callable<V> creator) {
+    try {
+      return creator.call();
+    } catch (final RuntimeException e) {
+      throw e;
+    } catch (final Exception e) {
+      throw new EdmException(e);
+    }
+  }
+
+  /**
+   * Caches the created value unless another thread has been faster;
+   * in both cases the instance in the cache is returned so that there is only one instance per key.
+   */
+  private static <K, V> V cache(final ConcurrentMap<K, V> cache, final K key, final V value) {
+    if (key == null || value == null) {
+      return value;
+    }
+    final V cachedValue = cache.putIfAbsent(key, value);
+    return cachedValue == null ? value : cachedValue;
   }
 
   @Override
@@ -142,13 +240,25 @@ public abstract class AbstractEdm implements Edm {
   @Override
   public EdmEntityContainer getEntityContainer(final FullQualifiedName namespaceOrAliasFQN) {
     final FullQualifiedName fqn = resolvePossibleAlias(namespaceOrAliasFQN);
-    EdmEntityContainer container = entityContainers.get(fqn);
+    if (fqn != null) {
+      return resolve(entityContainers, fqn, new Callable<EdmEntityContainer>() {
+        @Override
+        public EdmEntityContainer call() {
+          return createEntityContainer(fqn);
+        }
+      });
+    }
+    EdmEntityContainer container = defaultEntityContainer;
     if (container == null) {
-      container = createEntityContainer(fqn);
-      if (container != null) {
-        entityContainers.put(fqn, container);
-        if (fqn == null) {
-          entityContainers.put(new FullQualifiedName(container.getNamespace(), container.getName()), container);
+      synchronized (defaultEntityContainerLock) {
+        container = defaultEntityContainer;
+        if (container == null) {
+          container = createEntityContainer(null);
+          if (container != null) {
+            container = cache(entityContainers,
+                new FullQualifiedName(container.getNamespace(), container.getName()), container);
+            defaultEntityContainer = container;
+          }
         }
       }
     }
@@ -158,52 +268,48 @@ public abstract class AbstractEdm implements Edm {
   @Override
   public EdmEnumType getEnumType(final FullQualifiedName namespaceOrAliasFQN) {
     final FullQualifiedName fqn = resolvePossibleAlias(namespaceOrAliasFQN);
-    EdmEnumType enumType = enumTypes.get(fqn);
-    if (enumType == null) {
-      enumType = createEnumType(fqn);
-      if (enumType != null) {
-        enumTypes.put(fqn, enumType);
+    final EdmEnumType enumType = resolve(enumTypes, fqn, new Callable<EdmEnumType>() {
+      @Override
+      public EdmEnumType call() {
+        return createEnumType(fqn);
       }
-    }
+    });
     return enumType;
   }
 
   @Override
   public EdmTypeDefinition getTypeDefinition(final FullQualifiedName namespaceOrAliasFQN) {
     final FullQualifiedName fqn = resolvePossibleAlias(namespaceOrAliasFQN);
-    EdmTypeDefinition typeDefinition = typeDefinitions.get(fqn);
-    if (typeDefinition == null) {
-      typeDefinition = createTypeDefinition(fqn);
-      if (typeDefinition != null) {
-        typeDefinitions.put(fqn, typeDefinition);
+    final EdmTypeDefinition typeDefinition = resolve(typeDefinitions, fqn, new Callable<EdmTypeDefinition>() {
+      @Override
+      public EdmTypeDefinition call() {
+        return createTypeDefinition(fqn);
       }
-    }
+    });
     return typeDefinition;
   }
 
   @Override
   public EdmEntityType getEntityType(final FullQualifiedName namespaceOrAliasFQN) {
     final FullQualifiedName fqn = resolvePossibleAlias(namespaceOrAliasFQN);
-    EdmEntityType entityType = entityTypes.get(fqn);
-    if (entityType == null) {
-      entityType = createEntityType(fqn);
-      if (entityType != null) {
-        entityTypes.put(fqn, entityType);
+    final EdmEntityType entityType = resolve(entityTypes, fqn, new Callable<EdmEntityType>() {
+      @Override
+      public EdmEntityType call() {
+        return createEntityType(fqn);
       }
-    }
+    });
     return entityType;
   }
 
   @Override
   public EdmEntityType getEntityTypeWithAnnotations(final FullQualifiedName namespaceOrAliasFQN) {
     final FullQualifiedName fqn = resolvePossibleAlias(namespaceOrAliasFQN);
-    EdmEntityType entityType = entityTypesWithAnnotations.get(fqn);
-    if (entityType == null) {
-      entityType = createEntityType(fqn);
-      if (entityType != null) {
-          entityTypesWithAnnotations.put(fqn, entityType);
+    final EdmEntityType entityType = resolve(entityTypesWithAnnotations, fqn, new Callable<EdmEntityType>() {
+      @Override
+      public EdmEntityType call() {
+        return createEntityType(fqn);
       }
-    }
+    });
     setIsPreviousES(false);
     return entityType;
   }
@@ -215,13 +321,12 @@ public abstract class AbstractEdm implements Edm {
     if (!isPreviousES() && getEntityContainer() != null) {
        getEntityContainer().getEntitySetsWithAnnotations();
     }
-    EdmEntityType entityType = entityTypesDerivedFromES.get(fqn);
-    if (entityType == null) {
-      entityType = createEntityType(fqn);
-      if (entityType != null) {
-          entityTypesDerivedFromES.put(fqn, entityType);
+    final EdmEntityType entityType = resolve(entityTypesDerivedFromES, fqn, new Callable<EdmEntityType>() {
+      @Override
+      public EdmEntityType call() {
+        return createEntityType(fqn);
       }
-    }
+    });
     this.isEntityDerivedFromES = false;
     return entityType;
   }
@@ -233,13 +338,12 @@ public abstract class AbstractEdm implements Edm {
     if (!isPreviousES() && getEntityContainer() != null) {
        getEntityContainer().getEntitySetsWithAnnotations();
     }
-    EdmComplexType complexType = complexTypesDerivedFromES.get(fqn);
-    if (complexType == null) {
-      complexType = createComplexType(fqn);
-      if (complexType != null) {
-          complexTypesDerivedFromES.put(fqn, complexType);
+    final EdmComplexType complexType = resolve(complexTypesDerivedFromES, fqn, new Callable<EdmComplexType>() {
+      @Override
+      public EdmComplexType call() {
+        return createComplexType(fqn);
       }
-    }
+    });
     this.isComplexDerivedFromES = false;
     return complexType;
   }
@@ -247,26 +351,24 @@ public abstract class AbstractEdm implements Edm {
   @Override
   public EdmComplexType getComplexType(final FullQualifiedName namespaceOrAliasFQN) {
     final FullQualifiedName fqn = resolvePossibleAlias(namespaceOrAliasFQN);
-    EdmComplexType complexType = complexTypes.get(fqn);
-    if (complexType == null) {
-      complexType = createComplexType(fqn);
-      if (complexType != null) {
-        complexTypes.put(fqn, complexType);
+    final EdmComplexType complexType = resolve(complexTypes, fqn, new Callable<EdmComplexType>() {
+      @Override
+      public EdmComplexType call() {
+        return createComplexType(fqn);
       }
-    }
+    });
     return complexType;
   }
 
   @Override
   public EdmComplexType getComplexTypeWithAnnotations(final FullQualifiedName namespaceOrAliasFQN) {
     final FullQualifiedName fqn = resolvePossibleAlias(namespaceOrAliasFQN);
-    EdmComplexType complexType = complexTypesWithAnnotations.get(fqn);
-    if (complexType == null) {
-      complexType = createComplexType(fqn);
-      if (complexType != null) {
-          complexTypesWithAnnotations.put(fqn, complexType);
+    final EdmComplexType complexType = resolve(complexTypesWithAnnotations, fqn, new Callable<EdmComplexType>() {
+      @Override
+      public EdmComplexType call() {
+        return createComplexType(fqn);
       }
-    }
+    });
     setIsPreviousES(false);
     return complexType;
   }
@@ -274,13 +376,12 @@ public abstract class AbstractEdm implements Edm {
   @Override
   public EdmAction getUnboundAction(final FullQualifiedName actionName) {
     final FullQualifiedName fqn = resolvePossibleAlias(actionName);
-    EdmAction action = unboundActions.get(fqn);
-    if (action == null) {
-      action = createUnboundAction(fqn);
-      if (action != null) {
-        unboundActions.put(actionName, action);
+    final EdmAction action = resolve(unboundActions, fqn, new Callable<EdmAction>() {
+      @Override
+      public EdmAction call() {
+        return createUnboundAction(fqn);
       }
-    }
+    });
 
     return action;
   }
@@ -292,13 +393,12 @@ public abstract class AbstractEdm implements Edm {
     final FullQualifiedName actionFqn = resolvePossibleAlias(actionName);
     final FullQualifiedName bindingParameterTypeFqn = resolvePossibleAlias(bindingParameterTypeName);
     final ActionMapKey key = new ActionMapKey(actionFqn, bindingParameterTypeFqn, isBindingParameterCollection);
-    EdmAction action = boundActions.get(key);
-    if (action == null) {
-      action = createBoundAction(actionFqn, bindingParameterTypeFqn, isBindingParameterCollection);
-      if (action != null) {
-        boundActions.put(key, action);
+    final EdmAction action = resolve(boundActions, key, new Callable<EdmAction>() {
+      @Override
+      public EdmAction call() {
+        return createBoundAction(actionFqn, bindingParameterTypeFqn, isBindingParameterCollection);
       }
-    }
+    });
 
     return action;
   }
@@ -307,24 +407,25 @@ public abstract class AbstractEdm implements Edm {
   public List<EdmFunction> getUnboundFunctions(final FullQualifiedName functionName) {
     final FullQualifiedName functionFqn = resolvePossibleAlias(functionName);
 
-    List<EdmFunction> functions = unboundFunctionsByName.get(functionFqn);
-    if (functions == null) {
-      functions = createUnboundFunctions(functionFqn);
-      if (functions != null) {
-        unboundFunctionsByName.put(functionFqn, functions);
-
+    // The cached lists are never modified but replaced, so callers can iterate over them without locking.
+    return resolve(unboundFunctionsByName, functionFqn, new Callable<List<EdmFunction>>() {
+      @Override
+      public List<EdmFunction> call() {
+        final List<EdmFunction> functions = createUnboundFunctions(functionFqn);
+        if (functions == null || functionFqn == null) {
+          return functions;
+        }
         for (EdmFunction unbound : functions) {
           final FunctionMapKey key = new FunctionMapKey(
               new FullQualifiedName(unbound.getNamespace(), unbound.getName()),
               unbound.getBindingParameterTypeFqn(),
               unbound.isBindingParameterTypeCollection(),
               unbound.getParameterNames());
-          unboundFunctionsByKey.put(key, unbound);
+          unboundFunctionsByKey.putIfAbsent(key, unbound);
         }
+        return Collections.unmodifiableList(new ArrayList<EdmFunction>(functions));
       }
-    }
-
-    return functions;
+    });
   }
 
   @Override
@@ -332,13 +433,12 @@ public abstract class AbstractEdm implements Edm {
     final FullQualifiedName functionFqn = resolvePossibleAlias(functionName);
 
     final FunctionMapKey key = new FunctionMapKey(functionFqn, null, null, parameterNames);
-    EdmFunction function = unboundFunctionsByKey.get(key);
-    if (function == null) {
-      function = createUnboundFunction(functionFqn, parameterNames);
-      if (function != null) {
-        unboundFunctionsByKey.put(key, function);
+    final EdmFunction function = resolve(unboundFunctionsByKey, key, new Callable<EdmFunction>() {
+      @Override
+      public EdmFunction call() {
+        return createUnboundFunction(functionFqn, parameterNames);
       }
-    }
+    });
 
     return function;
   }
@@ -352,14 +452,13 @@ public abstract class AbstractEdm implements Edm {
     final FullQualifiedName bindingParameterTypeFqn = resolvePossibleAlias(bindingParameterTypeName);
     final FunctionMapKey key =
         new FunctionMapKey(functionFqn, bindingParameterTypeFqn, isBindingParameterCollection, parameterNames);
-    EdmFunction function = boundFunctions.get(key);
-    if (function == null) {
-      function = createBoundFunction(functionFqn, bindingParameterTypeFqn, isBindingParameterCollection,
-          parameterNames);
-      if (function != null) {
-        boundFunctions.put(key, function);
+    final EdmFunction function = resolve(boundFunctions, key, new Callable<EdmFunction>() {
+      @Override
+      public EdmFunction call() {
+        return createBoundFunction(functionFqn, bindingParameterTypeFqn, isBindingParameterCollection,
+            parameterNames);
       }
-    }
+    });
 
     return function;
   }
@@ -367,27 +466,25 @@ public abstract class AbstractEdm implements Edm {
   @Override
   public EdmTerm getTerm(final FullQualifiedName termName) {
     final FullQualifiedName fqn = resolvePossibleAlias(termName);
-    EdmTerm term = terms.get(fqn);
-    if (term == null) {
-      term = createTerm(fqn);
-      if (term != null) {
-        terms.put(fqn, term);
+    final EdmTerm term = resolve(terms, fqn, new Callable<EdmTerm>() {
+      @Override
+      public EdmTerm call() {
+        return createTerm(fqn);
       }
-    }
+    });
     return term;
   }
 
   @Override
-  public EdmAnnotations getAnnotationGroup(final FullQualifiedName targetName, String qualifier) {
+  public EdmAnnotations getAnnotationGroup(final FullQualifiedName targetName, final String qualifier) {
     final FullQualifiedName fqn = resolvePossibleAlias(targetName);
     TargetQualifierMapKey key = new TargetQualifierMapKey(fqn, qualifier);
-    EdmAnnotations _annotations = annotationGroups.get(key);
-    if (_annotations == null) {
-      _annotations = createAnnotationGroup(fqn, qualifier);
-      if (_annotations != null) {
-        annotationGroups.put(key, _annotations);
+    final EdmAnnotations _annotations = resolve(annotationGroups, key, new Callable<EdmAnnotations>() {
+      @Override
+      public EdmAnnotations call() {
+        return createAnnotationGroup(fqn, qualifier);
       }
-    }
+    });
     return _annotations;
   }
 
@@ -397,7 +494,7 @@ public abstract class AbstractEdm implements Edm {
     }
     FullQualifiedName finalFQN = null;
     if (namespaceOrAliasFQN != null) {
-      final String namespace = aliasToNamespaceInfo.get(namespaceOrAliasFQN.getNamespace());
+      final String namespace = get(aliasToNamespaceInfo, namespaceOrAliasFQN.getNamespace());
       // If not contained in info it must be a namespace
       if (namespace == null) {
         finalFQN = namespaceOrAliasFQN;
@@ -419,7 +516,11 @@ public abstract class AbstractEdm implements Edm {
   protected abstract EdmEntityContainer createEntityContainer(FullQualifiedName containerName);
 
   public void cacheEntityContainer(final FullQualifiedName containerFQN, final EdmEntityContainer container) {
-    entityContainers.put(containerFQN, container);
+    if (containerFQN == null) {
+      defaultEntityContainer = container;
+    } else {
+      entityContainers.put(containerFQN, container);
+    }
   }
 
   protected abstract EdmEnumType createEnumType(FullQualifiedName enumName);
@@ -468,10 +569,19 @@ public abstract class AbstractEdm implements Edm {
     if (function.isBound()) {
       boundFunctions.put(key, function);
     } else {
-      if (!unboundFunctionsByName.containsKey(functionName)) {
-        unboundFunctionsByName.put(functionName, new ArrayList<EdmFunction>());
-      }
-      unboundFunctionsByName.get(functionName).add(function);
+      // The list is replaced instead of modified since callers iterate over it without locking.
+      List<EdmFunction> functions;
+      List<EdmFunction> extendedFunctions;
+      do {
+        functions = unboundFunctionsByName.get(functionName);
+        extendedFunctions = functions == null ?
+            new ArrayList<EdmFunction>() :
+            new ArrayList<EdmFunction>(functions);
+        extendedFunctions.add(function);
+        extendedFunctions = Collections.unmodifiableList(extendedFunctions);
+      } while (functions == null ?
+          unboundFunctionsByName.putIfAbsent(functionName, extendedFunctions) != null :
+          !unboundFunctionsByName.replace(functionName, functions, extendedFunctions));
 
       unboundFunctionsByKey.put(key, function);
     }
@@ -555,4 +665,63 @@ public abstract class AbstractEdm implements Edm {
   protected Map<String, List<CsdlAnnotation>> getAnnotationsMap() {
     return annotationMap;
   }
+
+  /** Identifies the resolution of a key of a cache; caches are compared by identity. */
+  private static final class ResolutionKey {
+    private final Object cache;
+    private final Object key;
+
+    ResolutionKey(final Object cache, final Object key) {
+      this.cache = cache;
+      this.key = key;
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+      return obj instanceof ResolutionKey
+          && cache == ((ResolutionKey) obj).cache && key.equals(((ResolutionKey) obj).key);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * System.identityHashCode(cache) + key.hashCode();
+    }
+  }
+
+  /** The resolution of a key; other threads asking for the key wait for its value. */
+  private static final class Resolution<V> extends FutureTask<V> {
+    private volatile Thread thread;
+
+    Resolution(final Callable<V> creator) {
+      super(creator);
+    }
+
+    @Override
+    public void run() {
+      thread = Thread.currentThread();
+      super.run();
+    }
+
+    boolean isRunBy(final Thread candidate) {
+      return thread == candidate && !isDone();
+    }
+
+    V getValue() {
+      try {
+        return get();
+      } catch (final InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new EdmException(e);
+      } catch (final ExecutionException e) {
+        final Throwable cause = e.getCause();
+        if (cause instanceof RuntimeException) {
+          throw (RuntimeException) cause;
+        } else if (cause instanceof Error) {
+          throw (Error) cause;
+        } else {
+          throw new EdmException(e);
+        }
+      }
+    }
+  }
 }
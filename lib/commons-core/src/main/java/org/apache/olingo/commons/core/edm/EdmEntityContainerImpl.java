@@ -20,9 +20,9 @@ package org.apache.olingo.commons.core.edm;
 
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.olingo.commons.api.edm.Edm;
 import org.apache.olingo.commons.api.edm.EdmActionImport;
@@ -57,22 +57,16 @@ public class EdmEntityContainerImpl extends AbstractEdmNamed implements EdmEntit
   private final FullQualifiedName parentContainerName;
 
   private List<EdmSingleton> singletons;
-  private final Map<String, EdmSingleton> singletonCache = Collections.synchronizedMap(
-      new LinkedHashMap<String, EdmSingleton>());
+  private final Map<String, EdmSingleton> singletonCache = new ConcurrentHashMap<String, EdmSingleton>();
   private List<EdmEntitySet> entitySets;
-  private final Map<String, EdmEntitySet> entitySetCache = Collections.synchronizedMap(
-      new LinkedHashMap<String, EdmEntitySet>());
+  private final Map<String, EdmEntitySet> entitySetCache = new ConcurrentHashMap<String, EdmEntitySet>();
   private List<EdmActionImport> actionImports;
-  private final Map<String, EdmActionImport> actionImportCache = Collections.synchronizedMap(
-      new LinkedHashMap<String, EdmActionImport>());
+  private final Map<String, EdmActionImport> actionImportCache = new ConcurrentHashMap<String, EdmActionImport>();
   private List<EdmFunctionImport> functionImports;
-  private final Map<String, EdmFunctionImport> functionImportCache = Collections.synchronizedMap(
-      new LinkedHashMap<String, EdmFunctionImport>());
+  private final Map<String, EdmFunctionImport> functionImportCache = new ConcurrentHashMap<String, EdmFunctionImport>();
 	  private boolean isAnnotationsIncluded = false;
-  private final Map<String, EdmEntitySet> entitySetWithAnnotationsCache = Collections.synchronizedMap(
-      new LinkedHashMap<String, EdmEntitySet>());
-  private final Map<String, EdmSingleton> singletonWithAnnotationsCache = Collections.synchronizedMap(
-      new LinkedHashMap<String, EdmSingleton>());
+  private final Map<String, EdmEntitySet> entitySetWithAnnotationsCache = new ConcurrentHashMap<String, EdmEntitySet>();
+  private final Map<String, EdmSingleton> singletonWithAnnotationsCache = new ConcurrentHashMap<String, EdmSingleton>();
   private boolean isSingletonAnnotationsIncluded = false;
   private final String SLASH = "/";
   private final String DOT = ".";
@@ -105,18 +99,29 @@ public class EdmEntityContainerImpl extends AbstractEdmNamed implements EdmEntit
     return entityContainerName;
   }
 
+  /** The caches are concurrent maps which support no <code>null</code> keys. */
+  private static <T> T get(final Map<String, T> cache, final String name) {
+    return name == null ? null : cache.get(name);
+  }
+
+  private static <T> void put(final Map<String, T> cache, final String name, final T value) {
+    if (name != null) {
+      cache.put(name, value);
+    }
+  }
+
   @Override
   public EdmSingleton getSingleton(final String singletonName) {
-    EdmSingleton singleton = singletonWithAnnotationsCache.get(singletonName);
+    EdmSingleton singleton = get(singletonWithAnnotationsCache, singletonName);
     if (singleton == null) {
-      singleton = singletonCache.get(singletonName);
+      singleton = get(singletonCache, singletonName);
       if (singleton == null) {
         singleton = createSingleton(singletonName);
         if (singleton != null) {
           if (isSingletonAnnotationsIncluded) {
-            singletonWithAnnotationsCache.put(singletonName, singleton);
+            put(singletonWithAnnotationsCache, singletonName, singleton);
           } else {
-            singletonCache.put(singletonName, singleton);
+            put(singletonCache, singletonName, singleton);
           }
         }
       }
@@ -126,16 +131,16 @@ public class EdmEntityContainerImpl extends AbstractEdmNamed implements EdmEntit
 
   @Override
   public EdmEntitySet getEntitySet(final String entitySetName) {
-    EdmEntitySet entitySet = entitySetWithAnnotationsCache.get(entitySetName);
+    EdmEntitySet entitySet = get(entitySetWithAnnotationsCache, entitySetName);
     if (entitySet == null) {
-      entitySet = entitySetCache.get(entitySetName);
+      entitySet = get(entitySetCache, entitySetName);
       if (entitySet == null) {
         entitySet = createEntitySet(entitySetName);
         if (entitySet != null) {
           if (isAnnotationsIncluded) {
-            entitySetWithAnnotationsCache.put(entitySetName, entitySet);
+            put(entitySetWithAnnotationsCache, entitySetName, entitySet);
           } else {
-            entitySetCache.put(entitySetName, entitySet);
+            put(entitySetCache, entitySetName, entitySet);
           }
         }
       }
@@ -146,11 +151,11 @@ public class EdmEntityContainerImpl extends AbstractEdmNamed implements EdmEntit
 
   @Override
   public EdmActionImport getActionImport(final String actionImportName) {
-    EdmActionImport actionImport = actionImportCache.get(actionImportName);
+    EdmActionImport actionImport = get(actionImportCache, actionImportName);
     if (actionImport == null) {
       actionImport = createActionImport(actionImportName);
       if (actionImport != null) {
-        actionImportCache.put(actionImportName, actionImport);
+        put(actionImportCache, actionImportName, actionImport);
       }
     }
     return actionImport;
@@ -158,11 +163,11 @@ public class EdmEntityContainerImpl extends AbstractEdmNamed implements EdmEntit
 
   @Override
   public EdmFunctionImport getFunctionImport(final String functionImportName) {
-    EdmFunctionImport functionImport = functionImportCache.get(functionImportName);
+    EdmFunctionImport functionImport = get(functionImportCache, functionImportName);
     if (functionImport == null) {
       functionImport = createFunctionImport(functionImportName);
       if (functionImport != null) {
-        functionImportCache.put(functionImportName, functionImport);
+        put(functionImportCache, functionImportName, functionImport);
       }
     }
     return functionImport;
@@ -841,9 +846,9 @@ public class EdmEntityContainerImpl extends AbstractEdmNamed implements EdmEntit
 		addEntitySetAnnotations(entitySet, entityContainerName);
         final EdmEntitySetImpl impl = new EdmEntitySetImpl(edm, this, entitySet);
         if (isAnnotationsIncluded) {
-          entitySetWithAnnotationsCache.put(impl.getName(), impl);
+          put(entitySetWithAnnotationsCache, impl.getName(), impl);
         } else {
-          entitySetCache.put(impl.getName(), impl);
+          put(entitySetCache, impl.getName(), impl);
         }
         entitySetsLocal.add(impl);
       }
@@ -861,7 +866,7 @@ public class EdmEntityContainerImpl extends AbstractEdmNamed implements EdmEntit
       for (CsdlFunctionImport functionImport : providerFunctionImports) {
         addOperationImportAnnotations(functionImport, entityContainerName);
         EdmFunctionImportImpl impl = new EdmFunctionImportImpl(edm, this, functionImport);
-        functionImportCache.put(impl.getName(), impl);
+        put(functionImportCache, impl.getName(), impl);
         functionImportsLocal.add(impl);
       }
       functionImports = functionImportsLocal;
@@ -877,7 +882,7 @@ public class EdmEntityContainerImpl extends AbstractEdmNamed implements EdmEntit
       for (CsdlSingleton singleton : providerSingletons) {
         addSingletonAnnotations(singleton, entityContainerName);
         final EdmSingletonImpl impl = new EdmSingletonImpl(edm, this, singleton);
-        singletonCache.put(singleton.getName(), impl);
+        put(singletonCache, singleton.getName(), impl);
         singletonsLocal.add(impl);
       }
       singletons = singletonsLocal;
@@ -893,7 +898,7 @@ public class EdmEntityContainerImpl extends AbstractEdmNamed implements EdmEntit
       for (CsdlActionImport actionImport : providerActionImports) {
         addOperationImportAnnotations(actionImport, entityContainerName);
 		final EdmActionImportImpl impl = new EdmActionImportImpl(edm, this, actionImport);
-        actionImportCache.put(actionImport.getName(), impl);
+        put(actionImportCache, actionImport.getName(), impl);
         actionImportsLocal.add(impl);
       }
       actionImports = actionImportsLocal;
@@ -24,16 +24,28 @@ import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.apache.olingo.commons.api.edm.EdmAction;
+import org.apache.olingo.commons.api.edm.EdmActionImport;
 import org.apache.olingo.commons.api.edm.EdmAnnotations;
+import org.apache.olingo.commons.api.edm.EdmBindingTarget;
 import org.apache.olingo.commons.api.edm.EdmComplexType;
 import org.apache.olingo.commons.api.edm.EdmEntityContainer;
+import org.apache.olingo.commons.api.edm.EdmEntitySet;
 import org.apache.olingo.commons.api.edm.EdmEntityType;
 import org.apache.olingo.commons.api.edm.EdmEnumType;
 import org.apache.olingo.commons.api.edm.EdmException;
 import org.apache.olingo.commons.api.edm.EdmFunction;
+import org.apache.olingo.commons.api.edm.EdmFunctionImport;
+import org.apache.olingo.commons.api.edm.EdmNavigationProperty;
+import org.apache.olingo.commons.api.edm.EdmNavigationPropertyBinding;
+import org.apache.olingo.commons.api.edm.EdmOperation;
+import org.apache.olingo.commons.api.edm.EdmProperty;
 import org.apache.olingo.commons.api.edm.EdmSchema;
+import org.apache.olingo.commons.api.edm.EdmSingleton;
+import org.apache.olingo.commons.api.edm.EdmStructuredType;
 import org.apache.olingo.commons.api.edm.EdmTerm;
 import org.apache.olingo.commons.api.edm.EdmTypeDefinition;
 import org.apache.olingo.commons.api.edm.FullQualifiedName;
@@ -62,10 +74,10 @@ import org.apache.olingo.commons.api.ex.ODataException;
 public class EdmProviderImpl extends AbstractEdm {
 
   private final CsdlEdmProvider provider;
-  private final Map<FullQualifiedName, List<CsdlAction>> actionsMap =
-      Collections.synchronizedMap(new HashMap<FullQualifiedName, List<CsdlAction>>());
-  private final Map<FullQualifiedName, List<CsdlFunction>> functionsMap =
-      Collections.synchronizedMap(new HashMap<FullQualifiedName, List<CsdlFunction>>());
+  private final ConcurrentMap<FullQualifiedName, List<CsdlAction>> actionsMap =
+      new ConcurrentHashMap<FullQualifiedName, List<CsdlAction>>();
+  private final ConcurrentMap<FullQualifiedName, List<CsdlFunction>> functionsMap =
+      new ConcurrentHashMap<FullQualifiedName, List<CsdlFunction>>();
   private List<CsdlSchema> termSchemaDefinition = new ArrayList<CsdlSchema>();
 
   private final String SLASH = "/";
@@ -81,6 +93,89 @@ public class EdmProviderImpl extends AbstractEdm {
     populateAnnotationMap();
   }
 
+  /**
+   * Resolves the complete EDM at once: all schemas with their types, properties, navigation properties,
+   * operations, and the entity container with its navigation-property bindings.
+   * Afterwards lookups of elements defined in the schemas are answered from the caches without calling the provider.
+   */
+  public void preload() {
+    for (final EdmSchema schema : getSchemas()) {
+      for (final EdmEnumType enumType : schema.getEnumTypes()) {
+        enumType.getMemberNames();
+        enumType.getUnderlyingType();
+      }
+      for (final EdmTypeDefinition typeDefinition : schema.getTypeDefinitions()) {
+        typeDefinition.getUnderlyingType();
+      }
+      for (final EdmComplexType complexType : schema.getComplexTypes()) {
+        preloadStructuredType(complexType);
+      }
+      for (final EdmEntityType entityType : schema.getEntityTypes()) {
+        preloadStructuredType(entityType);
+        entityType.getKeyPropertyRefs();
+      }
+      for (final EdmAction action : schema.getActions()) {
+        preloadOperation(action);
+      }
+      for (final EdmFunction function : schema.getFunctions()) {
+        preloadOperation(function);
+      }
+      for (final EdmTerm term : schema.getTerms()) {
+        term.getType();
+      }
+      if (schema.getEntityContainer() != null) {
+        preloadEntityContainer(schema.getEntityContainer());
+      }
+    }
+    getEntityContainer();
+  }
+
+  private void preloadStructuredType(final EdmStructuredType structuredType) {
+    structuredType.getBaseType();
+    for (final String propertyName : structuredType.getPropertyNames()) {
+      final EdmProperty property = structuredType.getStructuralProperty(propertyName);
+      if (property != null) {
+        property.getType();
+      }
+    }
+    for (final String navigationPropertyName : structuredType.getNavigationPropertyNames()) {
+      final EdmNavigationProperty navigationProperty = structuredType.getNavigationProperty(navigationPropertyName);
+      navigationProperty.getType();
+      navigationProperty.getPartner();
+    }
+  }
+
+  private void preloadOperation(final EdmOperation operation) {
+    for (final String parameterName : operation.getParameterNames()) {
+      operation.getParameter(parameterName).getType();
+    }
+    if (operation.getReturnType() != null) {
+      operation.getReturnType().getType();
+    }
+  }
+
+  private void preloadEntityContainer(final EdmEntityContainer container) {
+    for (final EdmEntitySet entitySet : container.getEntitySets()) {
+      preloadBindingTarget(entitySet);
+    }
+    for (final EdmSingleton singleton : container.getSingletons()) {
+      preloadBindingTarget(singleton);
+    }
+    for (final EdmFunctionImport functionImport : container.getFunctionImports()) {
+      functionImport.getUnboundFunctions();
+    }
+    for (final EdmActionImport actionImport : container.getActionImports()) {
+      actionImport.getUnboundAction();
+    }
+  }
+
+  private void preloadBindingTarget(final EdmBindingTarget bindingTarget) {
+    bindingTarget.getEntityType();
+    for (final EdmNavigationPropertyBinding binding : bindingTarget.getNavigationPropertyBindings()) {
+      bindingTarget.getRelatedBindingTarget(binding.getPath());
+    }
+  }
+
   @Override
   public EdmEntityContainer createEntityContainer(final FullQualifiedName containerName) {
     try {
@@ -614,14 +709,9 @@ public class EdmProviderImpl extends AbstractEdm {
       final FullQualifiedName bindingParameterTypeName, final Boolean isBindingParameterCollection) {
 
     try {
-      List<CsdlAction> actions = actionsMap.get(actionName);
+      final List<CsdlAction> actions = getActions(actionName);
       if (actions == null) {
-        actions = provider.getActions(actionName);
-        if (actions == null) {
-          return null;
-        } else {
-          actionsMap.put(actionName, actions);
-        }
+        return null;
       }
       // Search for bound action where binding parameter matches
       for (CsdlAction action : actions) {
@@ -747,14 +837,9 @@ public class EdmProviderImpl extends AbstractEdm {
       final List<String> parameterNames) {
 
     try {
-      List<CsdlFunction> functions = functionsMap.get(functionName);
+      final List<CsdlFunction> functions = getFunctions(functionName);
       if (functions == null) {
-        functions = provider.getFunctions(functionName);
-        if (functions == null) {
-          return null;
-        } else {
-          functionsMap.put(functionName, functions);
-        }
+        return null;
       }
       final List<String> parameterNamesCopy =
           parameterNames == null ? Collections.<String> emptyList() : parameterNames;
@@ -806,17 +891,46 @@ public class EdmProviderImpl extends AbstractEdm {
     return aliasToNamespaceInfos;
   }
 
+  private List<CsdlAction> getActions(final FullQualifiedName actionName) throws ODataException {
+    if (actionName == null) {
+      return provider.getActions(actionName);
+    }
+    List<CsdlAction> actions = actionsMap.get(actionName);
+    if (actions == null) {
+      actions = provider.getActions(actionName);
+      if (actions != null) {
+        final List<CsdlAction> cachedActions = actionsMap.putIfAbsent(actionName, actions);
+        if (cachedActions != null) {
+          actions = cachedActions;
+        }
+      }
+    }
+    return actions;
+  }
+
+  private List<CsdlFunction> getFunctions(final FullQualifiedName functionName) throws ODataException {
+    if (functionName == null) {
+      return provider.getFunctions(functionName);
+    }
+    List<CsdlFunction> functions = functionsMap.get(functionName);
+    if (functions == null) {
+      functions = provider.getFunctions(functionName);
+      if (functions != null) {
+        final List<CsdlFunction> cachedFunctions = functionsMap.putIfAbsent(functionName, functions);
+        if (cachedFunctions != null) {
+          functions = cachedFunctions;
+        }
+      }
+    }
+    return functions;
+  }
+
   @Override
   protected EdmAction createUnboundAction(final FullQualifiedName actionName) {
     try {
-      List<CsdlAction> actions = actionsMap.get(actionName);
+      final List<CsdlAction> actions = getActions(actionName);
       if (actions == null) {
-        actions = provider.getActions(actionName);
-        if (actions == null) {
-          return null;
-        } else {
-          actionsMap.put(actionName, actions);
-        }
+        return null;
       }
       // Search for first unbound action
       for (CsdlAction action : actions) {
@@ -836,13 +950,7 @@ public class EdmProviderImpl extends AbstractEdm {
     List<EdmFunction> result = new ArrayList<EdmFunction>();
 
     try {
-      List<CsdlFunction> functions = functionsMap.get(functionName);
-      if (functions == null) {
-        functions = provider.getFunctions(functionName);
-        if (functions != null) {
-          functionsMap.put(functionName, functions);
-        }
-      }
+      final List<CsdlFunction> functions = getFunctions(functionName);
       if (functions != null) {
         for (CsdlFunction function : functions) {
           if (!function.isBound()) {
@@ -861,14 +969,9 @@ public class EdmProviderImpl extends AbstractEdm {
   @Override
   protected EdmFunction createUnboundFunction(final FullQualifiedName functionName, final List<String> parameterNames) {
     try {
-      List<CsdlFunction> functions = functionsMap.get(functionName);
+      final List<CsdlFunction> functions = getFunctions(functionName);
       if (functions == null) {
-        functions = provider.getFunctions(functionName);
-        if (functions == null) {
-          return null;
-        } else {
-          functionsMap.put(functionName, functions);
-        }
+        return null;
       }
 
       final List<String> parameterNamesCopy =
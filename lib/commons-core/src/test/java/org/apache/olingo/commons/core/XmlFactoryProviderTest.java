@@ -0,0 +1,86 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.commons.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class XmlFactoryProviderTest {
+
+  @After
+  public void reset() {
+    XmlFactoryProvider.setInputFactory(null);
+    XmlFactoryProvider.setOutputFactory(null);
+  }
+
+  @Test
+  public void sharedFactories() throws Exception {
+    final XMLInputFactory inputFactory = XmlFactoryProvider.getInputFactory();
+    assertNotNull(inputFactory);
+    assertSame(inputFactory, XmlFactoryProvider.getInputFactory());
+    assertFalse((Boolean) inputFactory.getProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES));
+
+    final XMLOutputFactory outputFactory = XmlFactoryProvider.getOutputFactory();
+    assertNotNull(outputFactory);
+    assertSame(outputFactory, XmlFactoryProvider.getOutputFactory());
+
+    final StringWriter writer = new StringWriter();
+    final XMLStreamWriter streamWriter = outputFactory.createXMLStreamWriter(writer);
+    streamWriter.writeStartElement("a");
+    streamWriter.writeCharacters("b");
+    streamWriter.writeEndElement();
+    streamWriter.close();
+
+    final XMLStreamReader streamReader = inputFactory.createXMLStreamReader(new StringReader(writer.toString()));
+    streamReader.nextTag();
+    assertEquals("a", streamReader.getLocalName());
+    assertEquals("b", streamReader.getElementText());
+    streamReader.close();
+  }
+
+  @Test
+  public void standardLookupByDefault() {
+    assertEquals(XMLInputFactory.newFactory().getClass(), XmlFactoryProvider.getInputFactory().getClass());
+    assertEquals(XMLOutputFactory.newFactory().getClass(), XmlFactoryProvider.getOutputFactory().getClass());
+  }
+
+  @Test
+  public void pluggableFactories() {
+    final XMLInputFactory inputFactory = XMLInputFactory.newInstance();
+    XmlFactoryProvider.setInputFactory(inputFactory);
+    assertSame(inputFactory, XmlFactoryProvider.getInputFactory());
+
+    final XMLOutputFactory outputFactory = XMLOutputFactory.newInstance();
+    XmlFactoryProvider.setOutputFactory(outputFactory);
+    assertSame(outputFactory, XmlFactoryProvider.getOutputFactory());
+  }
+}
@@ -19,6 +19,7 @@
 package org.apache.olingo.commons.core.edm;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertTrue;
@@ -30,6 +31,12 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.olingo.commons.api.edm.Edm;
 import org.apache.olingo.commons.api.edm.EdmAction;
@@ -280,6 +287,103 @@ public class EdmImplCachingTest {
     assertNotSame(annotationGroup1, annotationGroup2);
   }
 
+  @Test
+  public void concurrentLookupsReturnOneInstance() throws Exception {
+    final int threadCount = 8;
+    final CountDownLatch start = new CountDownLatch(1);
+    final List<Callable<List<Object>>> lookups = new ArrayList<Callable<List<Object>>>();
+    for (int index = 0; index < threadCount; index++) {
+      lookups.add(new Callable<List<Object>>() {
+        @Override
+        public List<Object> call() throws Exception {
+          start.await();
+          final List<Object> result = new ArrayList<Object>();
+          result.add(edm.getEntityContainer());
+          result.add(edm.getEntityType(NAME1));
+          result.add(edm.getComplexType(NAME1));
+          result.add(edm.getBoundFunction(NAME1, NAME2, true, null));
+          result.add(edm.getUnboundFunctions(NAME1));
+          return result;
+        }
+      });
+    }
+    final ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+    try {
+      final List<Future<List<Object>>> futures = new ArrayList<Future<List<Object>>>();
+      for (final Callable<List<Object>> lookup : lookups) {
+        futures.add(executor.submit(lookup));
+      }
+      start.countDown();
+      final List<Object> expected = futures.get(0).get();
+      for (final Future<List<Object>> future : futures) {
+        final List<Object> actual = future.get();
+        for (int index = 0; index < expected.size(); index++) {
+          assertNotNull(actual.get(index));
+          assertTrue(expected.get(index) == actual.get(index));
+        }
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void concurrentLookupsResolveOnce() throws Exception {
+    final int threadCount = 8;
+    final AtomicInteger creations = new AtomicInteger();
+    final CountDownLatch start = new CountDownLatch(1);
+    edm = new LocalEdm() {
+      @Override
+      public EdmEntityType createEntityType(final FullQualifiedName fqn) {
+        creations.incrementAndGet();
+        try {
+          // Gives the other threads time to ask for the same key.
+          Thread.sleep(50);
+        } catch (final InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        return super.createEntityType(fqn);
+      }
+    };
+    final ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+    try {
+      final List<Future<EdmEntityType>> futures = new ArrayList<Future<EdmEntityType>>();
+      for (int index = 0; index < threadCount; index++) {
+        futures.add(executor.submit(new Callable<EdmEntityType>() {
+          @Override
+          public EdmEntityType call() throws Exception {
+            start.await();
+            return edm.getEntityType(NAME1);
+          }
+        }));
+      }
+      start.countDown();
+      final EdmEntityType expected = futures.get(0).get();
+      for (final Future<EdmEntityType> future : futures) {
+        assertTrue(expected == future.get());
+      }
+    } finally {
+      executor.shutdown();
+    }
+    assertEquals(1, creations.get());
+  }
+
+  @Test
+  public void cacheFunctionReplacesFunctionList() {
+    final List<EdmFunction> functions = edm.getUnboundFunctions(NAME1);
+    assertEquals(1, functions.size());
+
+    final EdmFunction function = mock(EdmFunction.class);
+    when(function.isBound()).thenReturn(false);
+    ((AbstractEdm) edm).cacheFunction(NAME1, function);
+
+    final List<EdmFunction> extendedFunctions = edm.getUnboundFunctions(NAME1);
+    assertEquals(2, extendedFunctions.size());
+    assertTrue(function == extendedFunctions.get(1));
+    assertEquals(1, functions.size());
+    assertFalse(functions == extendedFunctions);
+  }
+
   @Before
   public void setup() {
     edm = new LocalEdm();
@@ -0,0 +1,145 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.edm.provider;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.olingo.commons.api.edm.EdmEntityContainer;
+import org.apache.olingo.commons.api.edm.EdmEntitySet;
+import org.apache.olingo.commons.api.edm.EdmEntityType;
+import org.apache.olingo.commons.api.edm.EdmPrimitiveTypeKind;
+import org.apache.olingo.commons.api.edm.FullQualifiedName;
+import org.apache.olingo.commons.api.edm.provider.CsdlAbstractEdmProvider;
+import org.apache.olingo.commons.api.edm.provider.CsdlEntityContainer;
+import org.apache.olingo.commons.api.edm.provider.CsdlEntityContainerInfo;
+import org.apache.olingo.commons.api.edm.provider.CsdlEntitySet;
+import org.apache.olingo.commons.api.edm.provider.CsdlEntityType;
+import org.apache.olingo.commons.api.edm.provider.CsdlNavigationProperty;
+import org.apache.olingo.commons.api.edm.provider.CsdlNavigationPropertyBinding;
+import org.apache.olingo.commons.api.edm.provider.CsdlProperty;
+import org.apache.olingo.commons.api.edm.provider.CsdlPropertyRef;
+import org.apache.olingo.commons.api.edm.provider.CsdlSchema;
+import org.apache.olingo.commons.api.ex.ODataException;
+import org.apache.olingo.commons.core.edm.EdmProviderImpl;
+import org.junit.Test;
+
+public class EdmProviderImplPreloadTest {
+
+  private static final String NAMESPACE = "Namespace";
+  private static final FullQualifiedName CONTAINER = new FullQualifiedName(NAMESPACE, "Container");
+  private static final int TYPE_COUNT = 1000;
+
+  @Test
+  public void preloadResolvesLargeSchema() {
+    final CountingProvider provider = new CountingProvider();
+    final EdmProviderImpl edm = new EdmProviderImpl(provider);
+    edm.preload();
+    final int callsAfterPreload = provider.calls;
+
+    final EdmEntityContainer container = edm.getEntityContainer();
+    assertNotNull(container);
+    assertEquals(TYPE_COUNT, container.getEntitySets().size());
+    for (int index = 0; index < TYPE_COUNT; index++) {
+      final EdmEntityType entityType = edm.getEntityType(new FullQualifiedName(NAMESPACE, "ET" + index));
+      assertNotNull(entityType);
+      assertEquals(Collections.singletonList("ID"), entityType.getKeyPredicateNames());
+      assertNotNull(entityType.getStructuralProperty("Name").getType());
+      final EdmEntityType nextType = entityType.getNavigationProperty("Next").getType();
+      assertEquals("ET" + ((index + 1) % TYPE_COUNT), nextType.getName());
+
+      final EdmEntitySet entitySet = container.getEntitySet("ES" + index);
+      assertTrue(entityType == entitySet.getEntityType());
+      assertEquals("ES" + ((index + 1) % TYPE_COUNT), entitySet.getRelatedBindingTarget("Next").getName());
+    }
+
+    assertEquals(callsAfterPreload, provider.calls);
+  }
+
+  private static class CountingProvider extends CsdlAbstractEdmProvider {
+    private final Map<FullQualifiedName, CsdlEntityType> entityTypes =
+        new LinkedHashMap<FullQualifiedName, CsdlEntityType>();
+    private final CsdlEntityContainer container = new CsdlEntityContainer().setName(CONTAINER.getName());
+    private int calls = 0;
+
+    CountingProvider() {
+      final List<CsdlEntitySet> entitySets = new ArrayList<CsdlEntitySet>();
+      for (int index = 0; index < TYPE_COUNT; index++) {
+        final String next = Integer.toString((index + 1) % TYPE_COUNT);
+        entityTypes.put(new FullQualifiedName(NAMESPACE, "ET" + index), new CsdlEntityType()
+            .setName("ET" + index)
+            .setKey(Collections.singletonList(new CsdlPropertyRef().setName("ID")))
+            .setProperties(Arrays.asList(
+                new CsdlProperty().setName("ID").setType(EdmPrimitiveTypeKind.Int32.getFullQualifiedName()),
+                new CsdlProperty().setName("Name").setType(EdmPrimitiveTypeKind.String.getFullQualifiedName())))
+            .setNavigationProperties(Collections.singletonList(new CsdlNavigationProperty()
+                .setName("Next").setType(new FullQualifiedName(NAMESPACE, "ET" + next)))));
+        entitySets.add(new CsdlEntitySet().setName("ES" + index)
+            .setType(new FullQualifiedName(NAMESPACE, "ET" + index))
+            .setNavigationPropertyBindings(Collections.singletonList(
+                new CsdlNavigationPropertyBinding().setPath("Next").setTarget("ES" + next))));
+      }
+      container.setEntitySets(entitySets);
+    }
+
+    @Override
+    public CsdlEntityType getEntityType(final FullQualifiedName entityTypeName) throws ODataException {
+      calls++;
+      return entityTypes.get(entityTypeName);
+    }
+
+    @Override
+    public CsdlEntitySet getEntitySet(final FullQualifiedName entityContainer, final String entitySetName)
+        throws ODataException {
+      calls++;
+      return container.getEntitySet(entitySetName);
+    }
+
+    @Override
+    public CsdlEntityContainer getEntityContainer() throws ODataException {
+      calls++;
+      return container;
+    }
+
+    @Override
+    public CsdlEntityContainerInfo getEntityContainerInfo(final FullQualifiedName entityContainerName)
+        throws ODataException {
+      calls++;
+      return entityContainerName == null || CONTAINER.equals(entityContainerName) ?
+          new CsdlEntityContainerInfo().setContainerName(CONTAINER) :
+          null;
+    }
+
+    @Override
+    public List<CsdlSchema> getSchemas() throws ODataException {
+      calls++;
+      return Collections.singletonList(new CsdlSchema().setNamespace(NAMESPACE)
+          .setEntityTypes(new ArrayList<CsdlEntityType>(entityTypes.values()))
+          .setEntityContainer(container));
+    }
+  }
+}
@@ -19,9 +19,12 @@
 package org.apache.olingo.netty.server.api;
 
 import java.util.Map;
+import java.util.concurrent.Executor;
 
+import org.apache.olingo.server.api.OlingoExtension;
 import org.apache.olingo.server.api.processor.Processor;
 
+import io.netty.channel.ChannelHandler;
 import io.netty.handler.codec.http.HttpRequest;
 import io.netty.handler.codec.http.HttpResponse;
 
@@ -36,6 +39,21 @@ public interface ODataNettyHandler {
    * @param response - HTTP OData response
    */
   void processNettyRequest(HttpRequest request, HttpResponse response, Map<String, String> requestParameters);
+
+  /**
+   * <p>Creates a channel handler processing the OData requests of one channel.</p>
+   * <p>The handler is meant to follow an HTTP server codec in the channel pipeline;
+   * it must not be preceded by an aggregator if request bodies are to be streamed.
+   * Requests are processed by the given executor as soon as their headers have arrived
+   * while their bodies are still being received; responses are written as chunks
+   * whenever their length is not known in advance, waiting for the channel to become writable.
+   * The handler keeps state per channel and therefore must not be shared between channels.</p>
+   * @param requestParameters - the same parameters as for
+   *                            {@link #processNettyRequest(HttpRequest, HttpResponse, Map)}
+   * @param executor - executor for request processing; must not run tasks on the event loop of the channel
+   * @return a new channel handler
+   */
+  ChannelHandler createChannelHandler(Map<String, String> requestParameters, Executor executor);
   
   /**
    * <p>Registers additional custom processor implementations for handling OData requests.</p>
@@ -43,5 +61,12 @@ public interface ODataNettyHandler {
    * "not implemented" exception will happen.</p>
    */
   void register(Processor processor);
+
+  /**
+   * <p>Registers additional extensions for handling OData requests.</p>
+   * <p>This method is used for registration of all possible extensions,
+   * e.g., the compression of responses.</p>
+   */
+  void register(OlingoExtension extension);
   
 }
@@ -0,0 +1,150 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.api;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Handle of an {@link ODataResponse} that is completed after the processor has returned.
+ * <p>A processor that cannot fill the response on the calling thread, e.g., because it waits for a
+ * database, calls {@link ODataResponse#defer()} and returns. Later it fills the response from any thread
+ * and calls {@link #complete()}, or {@link #fail(Exception)} if the response cannot be provided.</p>
+ * <p>In the asynchronous mode of the {@link ODataHttpHandler}, the container thread is released
+ * in the meantime; in all other cases the handler waits for the completion, but not longer than
+ * its timeout (see {@link ODataHttpHandler#setAsyncTimeout(long)}).</p>
+ */
+public final class DeferredResponse {
+
+  /**
+   * Listener notified on completion of a deferred response.
+   */
+  public interface Listener {
+
+    /**
+     * Called on the thread that completes the response.
+     * @param failure the exception given to {@link DeferredResponse#fail(Exception)},
+     *                or <code>null</code> if the response has been completed successfully
+     */
+    void onCompletion(Exception failure);
+  }
+
+  private boolean done = false;
+  private Exception failure;
+  private Listener listener;
+
+  DeferredResponse() {
+    // Instances are created by ODataResponse.
+  }
+
+  /**
+   * Completes the response after the processor has filled it.
+   * @throws IllegalStateException if the response has already been completed
+   */
+  public void complete() {
+    finish(null);
+  }
+
+  /**
+   * Completes the response with a failure; an error response is sent instead of the deferred response.
+   * @param exception the cause of the failure, e.g., an {@link ODataApplicationException}
+   * @throws IllegalStateException if the response has already been completed
+   */
+  public void fail(final Exception exception) {
+    if (exception == null) {
+      throw new IllegalArgumentException("The cause of the failure is required.");
+    }
+    finish(exception);
+  }
+
+  /**
+   * Returns whether the response has been completed.
+   */
+  public synchronized boolean isDone() {
+    return done;
+  }
+
+  /**
+   * Sets the listener to be notified on completion.
+   * If the response has already been completed, the listener is notified immediately on the calling thread.
+   * @param listener the listener
+   */
+  public void setListener(final Listener listener) {
+    synchronized (this) {
+      if (!done) {
+        this.listener = listener;
+        return;
+      }
+    }
+    listener.onCompletion(failure);
+  }
+
+  /**
+   * Waits until the response has been completed.
+   * @return the exception given to {@link #fail(Exception)}, or <code>null</code>
+   * @throws InterruptedException if the waiting thread has been interrupted
+   */
+  public synchronized Exception await() throws InterruptedException {
+    while (!done) {
+      wait();
+    }
+    return failure;
+  }
+
+  /**
+   * Waits until the response has been completed, but not longer than the given time.
+   * @param timeout the maximum time to wait; zero or less means to wait without limit
+   * @param unit the unit of the timeout
+   * @return the exception given to {@link #fail(Exception)}, or <code>null</code>
+   * @throws InterruptedException if the waiting thread has been interrupted
+   * @throws TimeoutException if the response has not been completed in time
+   */
+  public synchronized Exception await(final long timeout, final TimeUnit unit)
+      throws InterruptedException, TimeoutException {
+    if (timeout <= 0) {
+      return await();
+    }
+    final long deadline = System.nanoTime() + unit.toNanos(timeout);
+    while (!done) {
+      final long remaining = deadline - System.nanoTime();
+      if (remaining <= 0) {
+        throw new TimeoutException("The response has not been completed within " + timeout + " " + unit + ".");
+      }
+      TimeUnit.NANOSECONDS.timedWait(this, remaining);
+    }
+    return failure;
+  }
+
+  private void finish(final Exception exception) {
+    final Listener toNotify;
+    synchronized (this) {
+      if (done) {
+        throw new IllegalStateException("The response has already been completed.");
+      }
+      done = true;
+      failure = exception;
+      toNotify = listener;
+      listener = null;
+      notifyAll();
+    }
+    if (toNotify != null) {
+      toNotify.onCompletion(exception);
+    }
+  }
+}
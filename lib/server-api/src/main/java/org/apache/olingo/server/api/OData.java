@@ -40,6 +40,7 @@ import org.apache.olingo.server.api.serializer.FixedFormatSerializer;
 import org.apache.olingo.server.api.serializer.ODataSerializer;
 import org.apache.olingo.server.api.serializer.SerializerException;
 import org.apache.olingo.server.api.uri.UriHelper;
+import org.apache.olingo.server.api.uri.UriInfoCache;
 
 /**
  * Root object for serving factory tasks and support loose coupling of implementation (core) from the API.
@@ -136,6 +137,20 @@ public abstract class OData {
   public abstract ServiceMetadata createServiceMetadata(CsdlEdmProvider edmProvider, List<EdmxReference> references,
       ServiceMetadataETagSupport serviceMetadataETagSupport);
 
+  /**
+   * Creates a metadata object for this service.
+   * If <code>preloadEdm</code> is set, the complete EDM is resolved from the provider at once,
+   * so that requests do not have to load metadata elements on first access.
+   *
+   * @param edmProvider a custom or default implementation for creating metadata
+   * @param references list of edmx references
+   * @param serviceMetadataETagSupport
+   * @param preloadEdm whether the EDM is resolved completely before this method returns
+   * @return a service metadata implementation
+   */
+  public abstract ServiceMetadata createServiceMetadata(CsdlEdmProvider edmProvider, List<EdmxReference> references,
+      ServiceMetadataETagSupport serviceMetadataETagSupport, boolean preloadEdm);
+
   /**
    * Creates a new URI helper object for performing URI-related tasks.
    * It can be used in Processor implementations.
@@ -225,4 +240,12 @@ public abstract class OData {
    */
   public abstract EdmDeltaSerializer createEdmDeltaSerializer(final ContentType contentType,
       final List<String> versions) throws SerializerException;
+
+  /**
+   * Creates a new cache for parsed request URIs.
+   * It can be registered at the ODataHttpHandler and should be shared between requests.
+   * @param maximumSize maximum number of cached URIs
+   * @return a new {@link UriInfoCache} instance
+   */
+  public abstract UriInfoCache createUriInfoCache(int maximumSize);
 }
@@ -39,6 +39,32 @@ public interface ODataHttpHandler extends ODataHandler {
    * @param response - HTTP OData response
    */
   void process(HttpServletRequest request, HttpServletResponse response);
+
+  /**
+   * <p>Processes a HttpServletRequest as an OData request in asynchronous mode.</p>
+   * <p>Processing is the same as in {@link #process(HttpServletRequest, HttpServletResponse)}, but
+   * if the processor defers its response (see {@link ODataResponse#defer()}), asynchronous processing of
+   * the servlet request is started and the method returns; the response is written on the thread that
+   * completes the deferred response.
+   * This requires a Servlet 3.0 container; if the servlet does not support asynchronous processing,
+   * the handler waits for deferred responses as in {@link #process(HttpServletRequest, HttpServletResponse)}.</p>
+   * <p>If the deferred response is not completed within the timeout (see {@link #setAsyncTimeout(long)}),
+   * the handler sends a 503 (Service Unavailable) error response; if the container reports an error,
+   * it sends a 500 (Internal Server Error) error response. A later completion is ignored.</p>
+   * @param request - must be a HTTP OData request
+   * @param response - HTTP OData response
+   */
+  void processAsync(HttpServletRequest request, HttpServletResponse response);
+
+  /**
+   * Sets the timeout for deferred responses.
+   * <p>It applies in asynchronous mode as well as to the synchronous wait for a deferred response,
+   * e.g., in {@link #process(HttpServletRequest, HttpServletResponse)} or for the parts of a batch request;
+   * in both cases a 503 (Service Unavailable) error response is sent when the timeout expires.</p>
+   * @param timeout the timeout in milliseconds; zero or less means no timeout; default is 30 seconds
+   * @see #processAsync(HttpServletRequest, HttpServletResponse)
+   */
+  void setAsyncTimeout(long timeout);
   
   /**
    * Sets the split parameter which is used for service resolution.
@@ -32,6 +32,8 @@ public class ODataResponse {
   private int statusCode = HttpStatusCode.INTERNAL_SERVER_ERROR.getStatusCode();
   private final HttpHeaders headers = new HttpHeaders();
   private InputStream content;
+  private ODataContent odataContent;
+  private DeferredResponse deferredResponse;
 
   /**
    * Sets the status code.
@@ -131,8 +133,6 @@ public class ODataResponse {
     return content;
   }
 
-  private ODataContent odataContent;
-
   public void setODataContent(ODataContent result) {
     odataContent = result;
   }
@@ -140,4 +140,25 @@ public class ODataResponse {
   public ODataContent getODataContent() {
     return odataContent;
   }
+
+  /**
+   * Defers the completion of this response beyond the return of the processor.
+   * The processor must complete the response with the returned handle when it has filled it.
+   * @return the handle to complete the response with; the same handle is returned on repeated calls
+   * @see DeferredResponse
+   */
+  public DeferredResponse defer() {
+    if (deferredResponse == null) {
+      deferredResponse = new DeferredResponse();
+    }
+    return deferredResponse;
+  }
+
+  /**
+   * Gets the handle of a deferred response.
+   * @return the handle, or <code>null</code> if the completion of this response has not been deferred
+   */
+  public DeferredResponse getDeferredResponse() {
+    return deferredResponse;
+  }
 }
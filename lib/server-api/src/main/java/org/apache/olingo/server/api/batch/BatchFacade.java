@@ -17,6 +17,8 @@
  * under the License.
  */package org.apache.olingo.server.api.batch;
 
+ import java.util.List;
+
  import org.apache.olingo.server.api.ODataApplicationException;
  import org.apache.olingo.server.api.ODataLibraryException;
  import org.apache.olingo.server.api.ODataRequest;
@@ -60,6 +62,23 @@
    public ODataResponsePart handleBatchRequest(BatchRequestPart request)
        throws ODataApplicationException, ODataLibraryException;
 
+   /**
+    * Handles the BatchRequestParts of a batch request and returns the responses in the same order.
+    * If {@link ParallelBatchExecutionSupport} is registered, consecutive query operations are executed
+    * in parallel; change sets are always executed one after the other.
+    * Unless <code>continueOnError</code> is set, processing stops at the first part with an error
+    * response, and no responses are returned for the parts following it.
+    * This method is meant for batch processors that parse the whole batch request before processing it;
+    * processors that handle each part as soon as it has been read use {@link #handleBatchRequest(BatchRequestPart)}.
+    * @param requests Requests to process
+    * @param continueOnError whether processing continues after an error response
+    * @return list of corresponding {@link ODataResponsePart}s
+    * @throws ODataApplicationException
+    * @throws ODataLibraryException
+    */
+   public List<ODataResponsePart> handleBatchRequests(List<BatchRequestPart> requests, boolean continueOnError)
+       throws ODataApplicationException, ODataLibraryException;
+
    /**
     * Extracts the boundary of a multipart/mixed header.
     * See RFC 2046#5.1
@@ -0,0 +1,48 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.api.batch;
+
+import java.util.concurrent.Executor;
+
+import org.apache.olingo.server.api.OlingoExtension;
+
+/**
+ * <p>Enables the parallel execution of query operations within a batch request.</p>
+ *
+ * <p>Query operations outside of change sets are independent of each other, so
+ * {@link BatchFacade#handleBatchRequests(java.util.List, boolean)} executes consecutive query operations
+ * concurrently if this extension is registered. Change sets are still executed one after the other,
+ * each one on the calling thread. The responses are returned in the order of the request parts.</p>
+ *
+ * <p>The registered processors must be able to process requests concurrently.</p>
+ */
+public interface ParallelBatchExecutionSupport extends OlingoExtension {
+
+  /**
+   * Returns the executor that runs the query operations.
+   * @return executor
+   */
+  Executor getExecutor();
+
+  /**
+   * Returns the maximum number of query operations of a single batch request that are executed at the same time.
+   * @return maximum parallelism; values lower than two lead to sequential execution
+   */
+  int getMaxParallelism();
+}
@@ -0,0 +1,41 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.api.deserializer.batch;
+
+/**
+ * Reads the parts of a batch request one at a time from the underlying input stream,
+ * so that each part can be processed before the next one has been received.
+ * @see org.apache.olingo.server.api.deserializer.FixedFormatDeserializer#batchRequestPartReader(java.io.InputStream,
+ * String, BatchOptions)
+ */
+public interface BatchRequestPartReader {
+
+  /**
+   * Reads the next part of the batch request.
+   * The underlying input stream is closed as soon as the close delimiter has been read.
+   * @return the next part or <code>null</code> if there are no more parts
+   * @throws BatchDeserializerException if the part is not valid
+   */
+  BatchRequestPart next() throws BatchDeserializerException;
+
+  /**
+   * Closes the underlying input stream; parts that have not been read are discarded.
+   */
+  void close();
+}
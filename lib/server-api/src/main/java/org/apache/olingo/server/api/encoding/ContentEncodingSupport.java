@@ -0,0 +1,70 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.api.encoding;
+
+import org.apache.olingo.commons.api.format.ContentType;
+import org.apache.olingo.server.api.OlingoExtension;
+
+/**
+ * <p>Enables the compression of responses and the decompression of request bodies.</p>
+ *
+ * <p>If this extension is registered, responses are encoded with <code>gzip</code> or <code>deflate</code>
+ * as negotiated from the <code>Accept-Encoding</code> header of the request.
+ * Responses that already have a <code>Content-Encoding</code>, responses without content,
+ * and responses with a content type that is not compressible are sent unchanged.
+ * Content given as input stream is only compressed if it has at least the minimum size;
+ * streamed content has no known size and is always compressed.</p>
+ *
+ * <p>Request bodies with the content encoding <code>gzip</code> or <code>deflate</code> are decompressed
+ * before they are handed to the processors; the headers <code>Content-Encoding</code> and
+ * <code>Content-Length</code> of the encoded body are removed from the request.
+ * A request whose decompressed body exceeds the maximum decoded size fails
+ * with status code 413 (Payload Too Large).</p>
+ *
+ * @see DefaultContentEncodingSupport
+ */
+public interface ContentEncodingSupport extends OlingoExtension {
+
+  /**
+   * Returns the minimum number of bytes of a response to be worth compressing.
+   * @return minimum size in bytes
+   */
+  int getMinimumSize();
+
+  /**
+   * Returns the compression level to be used.
+   * @return compression level between 0 (no compression) and 9 (best compression),
+   *         or -1 for the default level
+   * @see java.util.zip.Deflater
+   */
+  int getCompressionLevel();
+
+  /**
+   * Determines whether responses with the given content type are compressed.
+   * @param contentType content type of the response
+   * @return <code>true</code> if the response should be compressed
+   */
+  boolean isCompressible(ContentType contentType);
+
+  /**
+   * Returns the maximum number of bytes a decompressed request body may have.
+   * @return maximum size in bytes, or a value less than or equal to zero for no limit
+   */
+  long getMaximumDecodedSize();
+}
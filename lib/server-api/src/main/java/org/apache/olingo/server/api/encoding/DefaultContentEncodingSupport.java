@@ -0,0 +1,86 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.api.encoding;
+
+import java.util.zip.Deflater;
+
+import org.apache.olingo.commons.api.format.ContentType;
+
+/**
+ * Compresses textual responses (text, JSON, XML, and multipart documents) of at least the minimum size
+ * with the default compression level and decompresses request bodies up to the maximum decoded size.
+ */
+public class DefaultContentEncodingSupport implements ContentEncodingSupport {
+
+  /** Default minimum response size in bytes. */
+  public static final int DEFAULT_MINIMUM_SIZE = 1024;
+  /** Default maximum size in bytes of decompressed request bodies. */
+  public static final long DEFAULT_MAXIMUM_DECODED_SIZE = 100L * 1024 * 1024;
+
+  private final int minimumSize;
+  private final long maximumDecodedSize;
+
+  public DefaultContentEncodingSupport() {
+    this(DEFAULT_MINIMUM_SIZE);
+  }
+
+  /**
+   * @param minimumSize minimum size in bytes of responses to be compressed
+   */
+  public DefaultContentEncodingSupport(final int minimumSize) {
+    this(minimumSize, DEFAULT_MAXIMUM_DECODED_SIZE);
+  }
+
+  /**
+   * @param minimumSize minimum size in bytes of responses to be compressed
+   * @param maximumDecodedSize maximum size in bytes of decompressed request bodies;
+   *                           a value less than or equal to zero means no limit
+   */
+  public DefaultContentEncodingSupport(final int minimumSize, final long maximumDecodedSize) {
+    this.minimumSize = minimumSize;
+    this.maximumDecodedSize = maximumDecodedSize;
+  }
+
+  @Override
+  public int getMinimumSize() {
+    return minimumSize;
+  }
+
+  @Override
+  public int getCompressionLevel() {
+    return Deflater.DEFAULT_COMPRESSION;
+  }
+
+  @Override
+  public boolean isCompressible(final ContentType contentType) {
+    final String type = contentType.getType();
+    final String subtype = contentType.getSubtype().toLowerCase();
+    return "text".equalsIgnoreCase(type)
+        || "multipart".equalsIgnoreCase(type)
+        || "application".equalsIgnoreCase(type)
+        && (subtype.equals("json") || subtype.endsWith("+json")
+            || subtype.equals("xml") || subtype.endsWith("+xml")
+            || subtype.equals("http"));
+  }
+
+  @Override
+  public long getMaximumDecodedSize() {
+    return maximumDecodedSize;
+  }
+}
@@ -19,6 +19,7 @@
 package org.apache.olingo.server.api.serializer;
 
 import java.io.InputStream;
+import java.util.Iterator;
 import java.util.List;
 
 import org.apache.olingo.commons.api.edm.EdmPrimitiveType;
@@ -57,6 +58,18 @@ public interface FixedFormatSerializer {
    */
   InputStream batchResponse(List<ODataResponsePart> batchResponses, String boundary) throws BatchSerializerException;
 
+  /**
+   * Serializes a batch response while it is written to the response output.
+   * Each response part is taken from the iterator and written directly,
+   * so the memory needed does not depend on the size of the batch response.
+   * Only small part bodies are buffered, so that they carry a Content-Length header;
+   * bigger part bodies are streamed without one.
+   * @param batchResponses the response parts; the iterator may produce them lazily
+   * @param boundary the boundary between the parts
+   * @return the streamed response content
+   */
+  SerializerStreamResult batchResponseStreamed(Iterator<ODataResponsePart> batchResponses, String boundary);
+
   /**
    * Serializes a ODataResponse into an async response.
    * @param odataResponse the response parts
@@ -0,0 +1,58 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.api.uri;
+
+import org.apache.olingo.server.api.OlingoExtension;
+
+/**
+ * <p>Bounded cache of parsed request URIs.</p>
+ * <p>If registered at the ODataHttpHandler, the result of parsing the resource path and the query options
+ * of a request is kept and re-used for later requests with the same path, query, base URI, and EDM instance.
+ * The least recently used entry is removed when the maximum size has been reached.
+ * URIs that could not be parsed are not cached.</p>
+ * <p>The same instance should be registered for all requests; it can be shared between threads.
+ * Since cached {@link UriInfo} instances are shared between requests,
+ * processors must not modify them.</p>
+ * <p>Instances can be obtained by calling {@link org.apache.olingo.server.api.OData#createUriInfoCache(int)}.</p>
+ */
+public interface UriInfoCache extends OlingoExtension {
+
+  /**
+   * Gets the number of lookups that have been answered from the cache.
+   * @return number of cache hits
+   */
+  long getHitCount();
+
+  /**
+   * Gets the number of lookups that required parsing the URI.
+   * @return number of cache misses
+   */
+  long getMissCount();
+
+  /**
+   * Gets the number of cached entries.
+   * @return number of entries
+   */
+  int size();
+
+  /**
+   * Removes all entries; to be called, e.g., after the EDM has changed.
+   */
+  void clear();
+}
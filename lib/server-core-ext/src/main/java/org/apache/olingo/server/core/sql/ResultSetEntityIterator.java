@@ -0,0 +1,205 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.sql;
+
+import java.io.Closeable;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.commons.api.data.EntityIterator;
+import org.apache.olingo.commons.api.data.Property;
+import org.apache.olingo.commons.api.data.ValueType;
+import org.apache.olingo.commons.api.edm.EdmEntityType;
+import org.apache.olingo.commons.api.edm.EdmEnumType;
+import org.apache.olingo.commons.api.edm.EdmPrimitiveTypeKind;
+import org.apache.olingo.commons.api.edm.EdmProperty;
+import org.apache.olingo.commons.api.edm.EdmType;
+import org.apache.olingo.commons.api.edm.EdmTypeDefinition;
+import org.apache.olingo.commons.api.edm.constants.EdmTypeKind;
+import org.apache.olingo.commons.api.ex.ODataRuntimeException;
+
+/**
+ * Iterates over the rows of a result set, creating an entity from each row.
+ * <p>The columns of the result set correspond in their order to the given properties.
+ * The values are read with the getter of the result set that fits the primitive type of the property
+ * (the underlying type for enumeration types and type definitions).
+ * The result set is read row by row, so only one row is held in memory at any time.</p>
+ * <p>The result set is closed when the last row has been read or when {@link #close()} is called.</p>
+ */
+public class ResultSetEntityIterator extends EntityIterator implements Closeable {
+
+  private final ResultSet resultSet;
+  private final String typeName;
+  private final List<EdmProperty> properties;
+  private final EdmPrimitiveTypeKind[] kinds;
+  private final boolean closeStatement;
+  private boolean fetched;
+  private boolean hasRow;
+  private boolean closed;
+
+  /**
+   * Creates an iterator over the rows of a result set.
+   * @param resultSet the result set
+   * @param entityType the entity type of the created entities
+   * @param properties the properties that correspond to the columns of the result set
+   */
+  public ResultSetEntityIterator(final ResultSet resultSet, final EdmEntityType entityType,
+      final List<EdmProperty> properties) {
+    this(resultSet, entityType, properties, false);
+  }
+
+  ResultSetEntityIterator(final ResultSet resultSet, final EdmEntityType entityType,
+      final List<EdmProperty> properties, final boolean closeStatement) {
+    this.resultSet = resultSet;
+    typeName = entityType.getFullQualifiedName().getFullQualifiedNameAsString();
+    this.properties = properties;
+    kinds = new EdmPrimitiveTypeKind[properties.size()];
+    for (int index = 0; index < kinds.length; index++) {
+      kinds[index] = getKind(properties.get(index).getType());
+    }
+    this.closeStatement = closeStatement;
+  }
+
+  @Override
+  public boolean hasNext() {
+    if (!fetched) {
+      try {
+        hasRow = !closed && resultSet.next();
+      } catch (final SQLException e) {
+        throw new ODataRuntimeException("Reading the next row failed.", e);
+      }
+      fetched = true;
+      if (!hasRow) {
+        close();
+      }
+    }
+    return hasRow;
+  }
+
+  @Override
+  public Entity next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    fetched = false;
+    Entity entity = new Entity();
+    entity.setType(typeName);
+    try {
+      for (int index = 0; index < kinds.length; index++) {
+        final EdmProperty property = properties.get(index);
+        entity.addProperty(new Property(property.getType().getFullQualifiedName().getFullQualifiedNameAsString(),
+            property.getName(),
+            property.getType().getKind() == EdmTypeKind.ENUM ? ValueType.ENUM : ValueType.PRIMITIVE,
+            readValue(index + 1, kinds[index])));
+      }
+    } catch (final SQLException e) {
+      throw new ODataRuntimeException("Reading the row failed.", e);
+    }
+    return entity;
+  }
+
+  private Object readValue(final int column, final EdmPrimitiveTypeKind kind) throws SQLException {
+    Object value;
+    switch (kind) {
+    case Boolean:
+      value = resultSet.getBoolean(column);
+      break;
+    case SByte:
+      value = resultSet.getByte(column);
+      break;
+    case Byte:
+    case Int16:
+      value = resultSet.getShort(column);
+      break;
+    case Int32:
+      value = resultSet.getInt(column);
+      break;
+    case Int64:
+      value = resultSet.getLong(column);
+      break;
+    case Single:
+      value = resultSet.getFloat(column);
+      break;
+    case Double:
+      value = resultSet.getDouble(column);
+      break;
+    case Decimal:
+      value = resultSet.getBigDecimal(column);
+      break;
+    case String:
+      value = resultSet.getString(column);
+      break;
+    case Binary:
+      value = resultSet.getBytes(column);
+      break;
+    case Date:
+      value = resultSet.getDate(column);
+      break;
+    case TimeOfDay:
+      value = resultSet.getTime(column);
+      break;
+    case DateTimeOffset:
+      value = resultSet.getTimestamp(column);
+      break;
+    case Guid:
+      final String guid = resultSet.getString(column);
+      value = guid == null ? null : UUID.fromString(guid);
+      break;
+    default:
+      value = resultSet.getObject(column);
+      break;
+    }
+    return resultSet.wasNull() ? null : value;
+  }
+
+  /**
+   * Closes the result set, and the statement if it has been created by {@link SqlQuery#execute}.
+   */
+  @Override
+  public void close() {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    hasRow = false;
+    fetched = true;
+    try {
+      final Statement statement = closeStatement ? resultSet.getStatement() : null;
+      resultSet.close();
+      if (statement != null) {
+        statement.close();
+      }
+    } catch (final SQLException e) {
+      throw new ODataRuntimeException("Closing the result set failed.", e);
+    }
+  }
+
+  /** Gets the primitive type kind of a primitive type, or of the underlying type of an enumeration or definition. */
+  static EdmPrimitiveTypeKind getKind(final EdmType type) {
+    final EdmType primitiveType = type.getKind() == EdmTypeKind.ENUM ? ((EdmEnumType) type).getUnderlyingType() :
+        type.getKind() == EdmTypeKind.DEFINITION ? ((EdmTypeDefinition) type).getUnderlyingType() :
+        type;
+    return EdmPrimitiveTypeKind.valueOfFQN(primitiveType.getFullQualifiedName());
+  }
+}
@@ -0,0 +1,423 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.sql;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+import org.apache.olingo.commons.api.edm.EdmEntitySet;
+import org.apache.olingo.commons.api.edm.EdmEnumType;
+import org.apache.olingo.commons.api.edm.EdmPrimitiveType;
+import org.apache.olingo.commons.api.edm.EdmPrimitiveTypeException;
+import org.apache.olingo.commons.api.edm.EdmPrimitiveTypeKind;
+import org.apache.olingo.commons.api.edm.EdmProperty;
+import org.apache.olingo.commons.api.edm.EdmType;
+import org.apache.olingo.commons.api.edm.constants.EdmTypeKind;
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.uri.UriResource;
+import org.apache.olingo.server.api.uri.UriResourceKind;
+import org.apache.olingo.server.api.uri.UriResourceProperty;
+import org.apache.olingo.server.api.uri.queryoption.expression.BinaryOperatorKind;
+import org.apache.olingo.server.api.uri.queryoption.expression.Expression;
+import org.apache.olingo.server.api.uri.queryoption.expression.ExpressionVisitException;
+import org.apache.olingo.server.api.uri.queryoption.expression.ExpressionVisitor;
+import org.apache.olingo.server.api.uri.queryoption.expression.Literal;
+import org.apache.olingo.server.api.uri.queryoption.expression.Member;
+import org.apache.olingo.server.api.uri.queryoption.expression.MethodKind;
+import org.apache.olingo.server.api.uri.queryoption.expression.UnaryOperatorKind;
+
+/**
+ * Translates an expression into an SQL fragment with parameters.
+ * <p>Literals become parameters, members become the mapped columns, and operators and methods
+ * become their standard SQL counterparts. Everything without an SQL counterpart is rejected
+ * with the status code 501 (Not Implemented).</p>
+ * <p>Null values are handled as in OData, where null is equal to null and unequal to all other values:
+ * <code>eq</code> and <code>ne</code> on nullable operands check for <code>NULL</code> explicitly,
+ * and <code>not</code> treats a condition that is unknown in SQL as false.
+ * All other comparisons with null values are unknown in SQL, which excludes the row just like false.</p>
+ */
+class SqlExpressionVisitor implements ExpressionVisitor<SqlExpressionVisitor.Fragment> {
+
+  private static final char LIKE_ESCAPE = '\\';
+
+  private final EdmEntitySet entitySet;
+  private final TableMapping mapping;
+
+  SqlExpressionVisitor(final EdmEntitySet entitySet, final TableMapping mapping) {
+    this.entitySet = entitySet;
+    this.mapping = mapping;
+  }
+
+  /** Translates an expression that is used as condition. */
+  Fragment translateCondition(final Expression expression) throws ODataApplicationException {
+    return condition(translate(expression));
+  }
+
+  Fragment translate(final Expression expression) throws ODataApplicationException {
+    try {
+      return expression.accept(this);
+    } catch (final ExpressionVisitException e) {
+      throw new ODataApplicationException("Exception in SQL translation",
+          HttpStatusCode.INTERNAL_SERVER_ERROR.getStatusCode(), Locale.ROOT);
+    }
+  }
+
+  /** Gets the column of a primitive property. */
+  String getColumnName(final EdmProperty property) throws ODataApplicationException {
+    final String column = mapping.getColumnName(entitySet, property);
+    if (column == null) {
+      throw notImplemented("The property '" + property.getName() + "' is not mapped to a column.");
+    }
+    return column;
+  }
+
+  @Override
+  public Fragment visitBinaryOperator(final BinaryOperatorKind operator, final Fragment left, final Fragment right)
+      throws ODataApplicationException {
+    switch (operator) {
+    case AND:
+      return Fragment.join("(", condition(left), " AND ", condition(right), ")");
+    case OR:
+      return Fragment.join("(", condition(left), " OR ", condition(right), ")");
+    case EQ:
+    case NE:
+      if (left.isNull || right.isNull) {
+        return left.isNull && right.isNull ?
+            Fragment.join(operator == BinaryOperatorKind.EQ ? "(1 = 1)" : "(1 = 0)") :
+            Fragment.join("(", left.isNull ? right : left,
+                operator == BinaryOperatorKind.EQ ? " IS NULL)" : " IS NOT NULL)").notNullable();
+      }
+      return operator == BinaryOperatorKind.EQ ? equal(left, right) : notEqual(left, right);
+    case LT:
+      return Fragment.join("(", left, " < ", right, ")");
+    case LE:
+      return Fragment.join("(", left, " <= ", right, ")");
+    case GT:
+      return Fragment.join("(", left, " > ", right, ")");
+    case GE:
+      return Fragment.join("(", left, " >= ", right, ")");
+    case ADD:
+      return Fragment.join("(", left, " + ", right, ")");
+    case SUB:
+      return Fragment.join("(", left, " - ", right, ")");
+    case MUL:
+      return Fragment.join("(", left, " * ", right, ")");
+    case DIV:
+      return Fragment.join("(", left, " / ", right, ")");
+    case MOD:
+      return Fragment.join("MOD(", left, ", ", right, ")");
+    default:
+      throw notImplemented("The operator '" + operator + "' is not supported.");
+    }
+  }
+
+  @Override
+  public Fragment visitBinaryOperator(final BinaryOperatorKind operator, final Fragment left,
+      final List<Fragment> right) throws ODataApplicationException {
+    if (operator != BinaryOperatorKind.IN) {
+      throw notImplemented("The operator '" + operator + "' is not supported.");
+    }
+    List<Object> parts = new ArrayList<Object>();
+    parts.add("(");
+    parts.add(left);
+    parts.add(" IN (");
+    for (int index = 0; index < right.size(); index++) {
+      if (index > 0) {
+        parts.add(", ");
+      }
+      parts.add(right.get(index));
+    }
+    parts.add("))");
+    return Fragment.join(parts.toArray());
+  }
+
+  @Override
+  public Fragment visitUnaryOperator(final UnaryOperatorKind operator, final Fragment operand)
+      throws ODataApplicationException {
+    switch (operator) {
+    case NOT:
+      final Fragment condition = condition(operand);
+      // NOT of an unknown condition would be unknown again, but it must be true.
+      return condition.isNullable ?
+          Fragment.join("(CASE WHEN ", condition, " THEN 0 ELSE 1 END = 1)").notNullable() :
+          Fragment.join("(NOT ", condition, ")");
+    case MINUS:
+      return Fragment.join("(-", operand, ")");
+    default:
+      throw notImplemented("The operator '" + operator + "' is not supported.");
+    }
+  }
+
+  /** Translates <code>eq</code>; two null values are equal. */
+  private static Fragment equal(final Fragment left, final Fragment right) {
+    return left.isNullable && right.isNullable ?
+        Fragment.join("((", left, " = ", right, ") OR (", left, " IS NULL AND ", right, " IS NULL))") :
+        Fragment.join("(", left, " = ", right, ")");
+  }
+
+  /** Translates <code>ne</code>; a null value is unequal to all values except null. */
+  private static Fragment notEqual(final Fragment left, final Fragment right) {
+    if (left.isNullable && right.isNullable) {
+      return Fragment.join("((", left, " <> ", right, ") OR (", left, " IS NULL AND ", right, " IS NOT NULL)",
+          " OR (", left, " IS NOT NULL AND ", right, " IS NULL))");
+    } else if (left.isNullable || right.isNullable) {
+      final Fragment nullable = left.isNullable ? left : right;
+      return Fragment.join("((", left, " <> ", right, ") OR (", nullable, " IS NULL))").notNullable();
+    } else {
+      return Fragment.join("(", left, " <> ", right, ")");
+    }
+  }
+
+  @Override
+  public Fragment visitMethodCall(final MethodKind methodCall, final List<Fragment> parameters)
+      throws ODataApplicationException {
+    switch (methodCall) {
+    case CONTAINS:
+      return like(parameters, true, true);
+    case STARTSWITH:
+      return like(parameters, false, true);
+    case ENDSWITH:
+      return like(parameters, true, false);
+    case LENGTH:
+      return Fragment.join("CHAR_LENGTH(", parameters.get(0), ")");
+    case INDEXOF:
+      return Fragment.join("(POSITION(", parameters.get(1), " IN ", parameters.get(0), ") - 1)");
+    case SUBSTRING:
+      // OData positions start with zero, SQL positions with one.
+      return parameters.size() == 2 ?
+          Fragment.join("SUBSTRING(", parameters.get(0), " FROM ", parameters.get(1), " + 1)") :
+          Fragment.join("SUBSTRING(", parameters.get(0), " FROM ", parameters.get(1), " + 1 FOR ",
+              parameters.get(2), ")");
+    case TOLOWER:
+      return Fragment.join("LOWER(", parameters.get(0), ")");
+    case TOUPPER:
+      return Fragment.join("UPPER(", parameters.get(0), ")");
+    case TRIM:
+      return Fragment.join("TRIM(", parameters.get(0), ")");
+    case CONCAT:
+      return Fragment.join("(", parameters.get(0), " || ", parameters.get(1), ")");
+    case YEAR:
+    case MONTH:
+    case DAY:
+    case HOUR:
+    case MINUTE:
+    case SECOND:
+      return Fragment.join("EXTRACT(" + methodCall.name() + " FROM ", parameters.get(0), ")");
+    case ROUND:
+      return Fragment.join("ROUND(", parameters.get(0), ")");
+    case FLOOR:
+      return Fragment.join("FLOOR(", parameters.get(0), ")");
+    case CEILING:
+      return Fragment.join("CEILING(", parameters.get(0), ")");
+    case NOW:
+      return Fragment.join("CURRENT_TIMESTAMP");
+    default:
+      throw notImplemented("The method '" + methodCall + "' is not supported.");
+    }
+  }
+
+  /** Translates a string-matching method into LIKE with an escaped pattern; only literal patterns are supported. */
+  private Fragment like(final List<Fragment> parameters, final boolean anyPrefix, final boolean anySuffix)
+      throws ODataApplicationException {
+    final Fragment pattern = parameters.get(1);
+    if (!(pattern.literalValue instanceof String)) {
+      throw notImplemented("Only string literals are supported as second parameter of string-matching methods.");
+    }
+    StringBuilder likePattern = new StringBuilder();
+    if (anyPrefix) {
+      likePattern.append('%');
+    }
+    for (final char character : ((String) pattern.literalValue).toCharArray()) {
+      if (character == '%' || character == '_' || character == LIKE_ESCAPE) {
+        likePattern.append(LIKE_ESCAPE);
+      }
+      likePattern.append(character);
+    }
+    if (anySuffix) {
+      likePattern.append('%');
+    }
+    return Fragment.join("(", parameters.get(0), " LIKE ", Fragment.parameter(likePattern.toString()),
+        " ESCAPE '" + LIKE_ESCAPE + "')");
+  }
+
+  @Override
+  public Fragment visitLiteral(final Literal literal) throws ODataApplicationException {
+    final EdmType type = literal.getType();
+    if (type == null) {
+      if ("null".equals(literal.getText())) {
+        return Fragment.NULL;
+      }
+      throw notImplemented("Literals without type are not supported.");
+    }
+    final EdmPrimitiveTypeKind kind =
+        type.getKind() == EdmTypeKind.PRIMITIVE ? ResultSetEntityIterator.getKind(type) : null;
+    if (kind == null || kind == EdmPrimitiveTypeKind.Duration || kind.isGeospatial()) {
+      throw notImplemented("Literals of type '" + type.getFullQualifiedName() + "' are not supported.");
+    }
+    final EdmPrimitiveType primitiveType = (EdmPrimitiveType) type;
+    try {
+      return Fragment.parameter(primitiveType.valueOfString(primitiveType.fromUriLiteral(literal.getText()),
+          null, null, Integer.MAX_VALUE, Integer.MAX_VALUE, null, getParameterClass(kind, primitiveType)));
+    } catch (final EdmPrimitiveTypeException e) {
+      throw new ODataApplicationException("Invalid literal '" + literal.getText() + "'.",
+          HttpStatusCode.BAD_REQUEST.getStatusCode(), Locale.ROOT);
+    }
+  }
+
+  /** Gets the class of the JDBC parameter value for a literal. */
+  private static Class<?> getParameterClass(final EdmPrimitiveTypeKind kind, final EdmPrimitiveType type) {
+    switch (kind) {
+    case Date:
+      return java.sql.Date.class;
+    case TimeOfDay:
+      return java.sql.Time.class;
+    case DateTimeOffset:
+      return java.sql.Timestamp.class;
+    case Guid:
+      return String.class;
+    default:
+      return type.getDefaultType();
+    }
+  }
+
+  @Override
+  public Fragment visitMember(final Member member) throws ODataApplicationException {
+    final List<UriResource> parts = member.getResourcePath().getUriResourceParts();
+    if (member.getStartTypeFilter() != null || parts.size() != 1
+        || parts.get(0).getKind() != UriResourceKind.primitiveProperty
+        || ((UriResourceProperty) parts.get(0)).getProperty().isCollection()) {
+      throw notImplemented("Only single-valued primitive properties of the entity are supported as members.");
+    }
+    final EdmProperty property = ((UriResourceProperty) parts.get(0)).getProperty();
+    return Fragment.column(getColumnName(property),
+        property.getType().getKind() == EdmTypeKind.PRIMITIVE
+            && ResultSetEntityIterator.getKind(property.getType()) == EdmPrimitiveTypeKind.Boolean,
+        property.isNullable());
+  }
+
+  @Override
+  public Fragment visitEnum(final EdmEnumType type, final List<String> enumValues)
+      throws ODataApplicationException {
+    StringBuilder value = new StringBuilder();
+    for (final String enumValue : enumValues) {
+      if (value.length() > 0) {
+        value.append(',');
+      }
+      value.append(enumValue);
+    }
+    try {
+      // Enumeration values are stored as values of the underlying type.
+      return Fragment.parameter(type.valueOfString(value.toString(), null, null, null, null, null,
+          type.getUnderlyingType().getDefaultType()));
+    } catch (final EdmPrimitiveTypeException e) {
+      throw new ODataApplicationException("Invalid enumeration value '" + value + "'.",
+          HttpStatusCode.BAD_REQUEST.getStatusCode(), Locale.ROOT);
+    }
+  }
+
+  @Override
+  public Fragment visitLambdaExpression(final String lambdaFunction, final String lambdaVariable,
+      final Expression expression) throws ODataApplicationException {
+    throw notImplemented("Lambda expressions are not supported.");
+  }
+
+  @Override
+  public Fragment visitAlias(final String aliasName) throws ODataApplicationException {
+    throw notImplemented("Aliases are not supported.");
+  }
+
+  @Override
+  public Fragment visitTypeLiteral(final EdmType type) throws ODataApplicationException {
+    throw notImplemented("Type literals are not supported.");
+  }
+
+  @Override
+  public Fragment visitLambdaReference(final String variableName) throws ODataApplicationException {
+    throw notImplemented("Lambda references are not supported.");
+  }
+
+  /** A Boolean column on its own is not a condition in all databases, so it is compared with true. */
+  private static Fragment condition(final Fragment fragment) {
+    return fragment.isBooleanColumn ?
+        Fragment.join("(", fragment, " = ", Fragment.parameter(Boolean.TRUE), ")") :
+        fragment;
+  }
+
+  private static ODataApplicationException notImplemented(final String message) {
+    return new ODataApplicationException(message, HttpStatusCode.NOT_IMPLEMENTED.getStatusCode(), Locale.ROOT);
+  }
+
+  /** SQL text with the values of its parameters. */
+  static final class Fragment {
+
+    static final Fragment NULL = new Fragment("NULL", Collections.<Object> emptyList(), true, null, false, true);
+
+    final String sql;
+    final List<Object> parameters;
+    final boolean isNull;
+    /** The value of a literal parameter, or <code>null</code> if the fragment is not a literal. */
+    final Object literalValue;
+    final boolean isBooleanColumn;
+    /** Whether the value can be <code>NULL</code>, or the condition can be unknown. */
+    final boolean isNullable;
+
+    private Fragment(final String sql, final List<Object> parameters, final boolean isNull,
+        final Object literalValue, final boolean isBooleanColumn, final boolean isNullable) {
+      this.sql = sql;
+      this.parameters = parameters;
+      this.isNull = isNull;
+      this.literalValue = literalValue;
+      this.isBooleanColumn = isBooleanColumn;
+      this.isNullable = isNullable;
+    }
+
+    static Fragment parameter(final Object value) {
+      return new Fragment("?", Collections.singletonList(value), false, value, false, false);
+    }
+
+    static Fragment column(final String column, final boolean isBoolean, final boolean isNullable) {
+      return new Fragment(column, Collections.<Object> emptyList(), false, null, isBoolean, isNullable);
+    }
+
+    /** Joins SQL text given as strings and fragments; the result is nullable if one of the fragments is. */
+    static Fragment join(final Object... parts) {
+      StringBuilder sql = new StringBuilder();
+      List<Object> parameters = new ArrayList<Object>();
+      boolean isNullable = false;
+      for (final Object part : parts) {
+        if (part instanceof Fragment) {
+          sql.append(((Fragment) part).sql);
+          parameters.addAll(((Fragment) part).parameters);
+          isNullable |= ((Fragment) part).isNullable;
+        } else {
+          sql.append(part);
+        }
+      }
+      return new Fragment(sql.toString(), parameters, false, null, false, isNullable);
+    }
+
+    /** Marks a fragment that is never <code>NULL</code> although it contains nullable fragments. */
+    Fragment notNullable() {
+      return new Fragment(sql, parameters, false, null, false, false);
+    }
+  }
+}
@@ -0,0 +1,112 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.sql;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.olingo.commons.api.edm.EdmEntityType;
+import org.apache.olingo.commons.api.edm.EdmProperty;
+
+/**
+ * A parameterized SQL query created by the {@link SqlQueryBuilder}.
+ */
+public final class SqlQuery {
+
+  private final String sql;
+  private final List<Object> parameters;
+  private final EdmEntityType entityType;
+  private final List<EdmProperty> columns;
+
+  SqlQuery(final String sql, final List<Object> parameters, final EdmEntityType entityType,
+      final List<EdmProperty> columns) {
+    this.sql = sql;
+    this.parameters = Collections.unmodifiableList(parameters);
+    this.entityType = entityType;
+    this.columns = Collections.unmodifiableList(columns);
+  }
+
+  /**
+   * Gets the SQL text with a question mark for each parameter.
+   * @return the SQL text
+   */
+  public String getSql() {
+    return sql;
+  }
+
+  /**
+   * Gets the values of the parameters in the order of their occurrence in the SQL text.
+   * @return the parameter values
+   */
+  public List<Object> getParameters() {
+    return parameters;
+  }
+
+  /**
+   * Gets the properties of the selected columns, in the order of the columns.
+   * @return the properties, empty for a count query
+   */
+  public List<EdmProperty> getColumns() {
+    return columns;
+  }
+
+  /**
+   * Prepares the statement and binds the parameters.
+   * @param connection the connection
+   * @return the prepared statement, to be closed by the caller
+   * @throws SQLException if the statement cannot be prepared
+   */
+  public PreparedStatement prepare(final Connection connection) throws SQLException {
+    final PreparedStatement statement = connection.prepareStatement(sql);
+    try {
+      for (int index = 0; index < parameters.size(); index++) {
+        statement.setObject(index + 1, parameters.get(index));
+      }
+    } catch (final SQLException e) {
+      statement.close();
+      throw e;
+    }
+    return statement;
+  }
+
+  /**
+   * Executes the query and returns an iterator over the entities read from the result set.
+   * The statement is closed when the iterator is exhausted or closed.
+   * @param connection the connection
+   * @return the entity iterator
+   * @throws SQLException if the statement cannot be executed
+   */
+  public ResultSetEntityIterator execute(final Connection connection) throws SQLException {
+    final PreparedStatement statement = prepare(connection);
+    try {
+      return new ResultSetEntityIterator(statement.executeQuery(), entityType, columns, true);
+    } catch (final SQLException e) {
+      statement.close();
+      throw e;
+    }
+  }
+
+  @Override
+  public String toString() {
+    return sql + " " + parameters;
+  }
+}
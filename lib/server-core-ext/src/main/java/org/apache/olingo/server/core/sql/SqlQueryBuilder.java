@@ -0,0 +1,196 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.sql;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import org.apache.olingo.commons.api.edm.EdmEntitySet;
+import org.apache.olingo.commons.api.edm.EdmEntityType;
+import org.apache.olingo.commons.api.edm.EdmKeyPropertyRef;
+import org.apache.olingo.commons.api.edm.EdmPrimitiveTypeKind;
+import org.apache.olingo.commons.api.edm.EdmProperty;
+import org.apache.olingo.commons.api.edm.constants.EdmTypeKind;
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.uri.UriInfoResource;
+import org.apache.olingo.server.api.uri.UriResource;
+import org.apache.olingo.server.api.uri.UriResourceKind;
+import org.apache.olingo.server.api.uri.UriResourceProperty;
+import org.apache.olingo.server.api.uri.queryoption.FilterOption;
+import org.apache.olingo.server.api.uri.queryoption.OrderByItem;
+import org.apache.olingo.server.api.uri.queryoption.OrderByOption;
+import org.apache.olingo.server.api.uri.queryoption.SelectItem;
+import org.apache.olingo.server.api.uri.queryoption.SelectOption;
+import org.apache.olingo.server.core.sql.SqlExpressionVisitor.Fragment;
+
+/**
+ * Translates the system query options $filter, $orderby, $top, $skip, and $select
+ * of a request to an entity set into a parameterized SQL query on the mapped table,
+ * so that the database returns only the requested rows and columns.
+ * <p>$filter becomes the WHERE clause, $orderby the ORDER BY clause, $top and $skip
+ * the LIMIT and OFFSET clauses, and $select the list of columns; the key properties are always selected.
+ * Only single-valued primitive properties of the entity type are read; all other query options
+ * have to be handled by the caller.</p>
+ * <p>Expressions that cannot be translated are rejected with an {@link ODataApplicationException}
+ * with the status code 501 (Not Implemented).</p>
+ */
+public class SqlQueryBuilder {
+
+  private final EdmEntitySet entitySet;
+  private final TableMapping mapping;
+
+  /**
+   * Creates a builder for queries on an entity set.
+   * @param entitySet the entity set
+   * @param mapping the mapping of the entity set to its table
+   */
+  public SqlQueryBuilder(final EdmEntitySet entitySet, final TableMapping mapping) {
+    this.entitySet = entitySet;
+    this.mapping = mapping;
+  }
+
+  /**
+   * Builds the query for the entities requested with the query options.
+   * @param uriInfo the URI info with the query options
+   * @return the query
+   * @throws ODataApplicationException if a query option cannot be translated
+   */
+  public SqlQuery buildSelect(final UriInfoResource uriInfo) throws ODataApplicationException {
+    final SqlExpressionVisitor visitor = new SqlExpressionVisitor(entitySet, mapping);
+    final List<EdmProperty> columns = getColumns(uriInfo.getSelectOption());
+    StringBuilder sql = new StringBuilder("SELECT ");
+    for (int index = 0; index < columns.size(); index++) {
+      if (index > 0) {
+        sql.append(", ");
+      }
+      sql.append(visitor.getColumnName(columns.get(index)));
+    }
+    sql.append(" FROM ").append(mapping.getTableName(entitySet));
+    List<Object> parameters = new ArrayList<Object>();
+    appendWhere(sql, parameters, uriInfo.getFilterOption(), visitor);
+    appendOrderBy(sql, parameters, uriInfo.getOrderByOption(), visitor);
+    if (uriInfo.getTopOption() != null || uriInfo.getSkipOption() != null) {
+      // Not all databases accept OFFSET without LIMIT, so $skip alone gets an unbounded limit.
+      sql.append(" LIMIT ?");
+      parameters.add(uriInfo.getTopOption() == null ? Integer.MAX_VALUE : uriInfo.getTopOption().getValue());
+    }
+    if (uriInfo.getSkipOption() != null) {
+      sql.append(" OFFSET ?");
+      parameters.add(uriInfo.getSkipOption().getValue());
+    }
+    return new SqlQuery(sql.toString(), parameters, entitySet.getEntityType(), columns);
+  }
+
+  /**
+   * Builds the query for the number of entities that match the $filter option, as needed for $count.
+   * @param uriInfo the URI info with the query options
+   * @return the query, with a single column in its result
+   * @throws ODataApplicationException if the $filter option cannot be translated
+   */
+  public SqlQuery buildCount(final UriInfoResource uriInfo) throws ODataApplicationException {
+    StringBuilder sql = new StringBuilder("SELECT COUNT(*) FROM ").append(mapping.getTableName(entitySet));
+    List<Object> parameters = new ArrayList<Object>();
+    appendWhere(sql, parameters, uriInfo.getFilterOption(), new SqlExpressionVisitor(entitySet, mapping));
+    return new SqlQuery(sql.toString(), parameters, entitySet.getEntityType(), new ArrayList<EdmProperty>());
+  }
+
+  private void appendWhere(final StringBuilder sql, final List<Object> parameters, final FilterOption filterOption,
+      final SqlExpressionVisitor visitor) throws ODataApplicationException {
+    if (filterOption != null) {
+      final Fragment condition = visitor.translateCondition(filterOption.getExpression());
+      sql.append(" WHERE ").append(condition.sql);
+      parameters.addAll(condition.parameters);
+    }
+  }
+
+  private void appendOrderBy(final StringBuilder sql, final List<Object> parameters,
+      final OrderByOption orderByOption, final SqlExpressionVisitor visitor) throws ODataApplicationException {
+    if (orderByOption == null || orderByOption.getOrders().isEmpty()) {
+      return;
+    }
+    sql.append(" ORDER BY ");
+    boolean first = true;
+    for (final OrderByItem item : orderByOption.getOrders()) {
+      if (!first) {
+        sql.append(", ");
+      }
+      first = false;
+      final Fragment expression = visitor.translate(item.getExpression());
+      sql.append(expression.sql).append(item.isDescending() ? " DESC" : " ASC");
+      parameters.addAll(expression.parameters);
+    }
+  }
+
+  /** Gets the selected properties, with the key properties, in the order of the entity type. */
+  private List<EdmProperty> getColumns(final SelectOption selectOption) throws ODataApplicationException {
+    final EdmEntityType entityType = entitySet.getEntityType();
+    Set<String> selected = null;
+    if (selectOption != null) {
+      selected = new LinkedHashSet<String>();
+      for (final SelectItem item : selectOption.getSelectItems()) {
+        if (item.isStar()) {
+          selected = null;
+          break;
+        }
+        selected.add(getSelectedProperty(item).getName());
+      }
+    }
+    if (selected != null) {
+      for (final EdmKeyPropertyRef keyPropertyRef : entityType.getKeyPropertyRefs()) {
+        selected.add(keyPropertyRef.getName());
+      }
+    }
+    List<EdmProperty> columns = new ArrayList<EdmProperty>();
+    for (final String name : entityType.getPropertyNames()) {
+      final EdmProperty property = entityType.getStructuralProperty(name);
+      if (selected == null ?
+          isColumn(property) && mapping.getColumnName(entitySet, property) != null :
+          selected.contains(name)) {
+        columns.add(property);
+      }
+    }
+    return columns;
+  }
+
+  private EdmProperty getSelectedProperty(final SelectItem item) throws ODataApplicationException {
+    final List<UriResource> parts = item.getResourcePath() == null ?
+        null :
+        item.getResourcePath().getUriResourceParts();
+    if (item.getStartTypeFilter() == null && parts != null && parts.size() == 1
+        && (parts.get(0).getKind() == UriResourceKind.primitiveProperty)) {
+      final EdmProperty property = ((UriResourceProperty) parts.get(0)).getProperty();
+      if (isColumn(property)) {
+        return property;
+      }
+    }
+    throw new ODataApplicationException("Only single-valued primitive properties can be selected.",
+        HttpStatusCode.NOT_IMPLEMENTED.getStatusCode(), Locale.ROOT);
+  }
+
+  private static boolean isColumn(final EdmProperty property) {
+    final EdmTypeKind kind = property.getType().getKind();
+    return !property.isCollection()
+        && (kind == EdmTypeKind.PRIMITIVE || kind == EdmTypeKind.ENUM || kind == EdmTypeKind.DEFINITION)
+        && ResultSetEntityIterator.getKind(property.getType()) != EdmPrimitiveTypeKind.Stream;
+  }
+}
@@ -0,0 +1,46 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.sql;
+
+import org.apache.olingo.commons.api.edm.EdmEntitySet;
+import org.apache.olingo.commons.api.edm.EdmProperty;
+
+/**
+ * Maps entity sets to tables and their primitive properties to columns, for the translation of
+ * query options into SQL by the {@link SqlQueryBuilder}.
+ * The returned names are inserted into the SQL statements as they are,
+ * so they must be quoted by the implementation if necessary.
+ */
+public interface TableMapping {
+
+  /**
+   * Gets the name of the table that stores the entities of an entity set.
+   * @param entitySet the entity set
+   * @return the table name
+   */
+  String getTableName(EdmEntitySet entitySet);
+
+  /**
+   * Gets the name of the column that stores a primitive property.
+   * @param entitySet the entity set
+   * @param property a single-valued primitive or enumeration property of the entity type of the entity set
+   * @return the column name, or <code>null</code> if the property is not stored in a column
+   */
+  String getColumnName(EdmEntitySet entitySet, EdmProperty property);
+}
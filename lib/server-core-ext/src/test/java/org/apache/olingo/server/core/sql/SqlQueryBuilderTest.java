@@ -0,0 +1,212 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.sql;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.FileReader;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.Arrays;
+
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.commons.api.edm.Edm;
+import org.apache.olingo.commons.api.edm.EdmEntitySet;
+import org.apache.olingo.commons.api.edm.EdmProperty;
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.server.api.OData;
+import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.core.MetadataParser;
+import org.apache.olingo.server.core.uri.parser.Parser;
+import org.junit.Before;
+import org.junit.Test;
+
+public class SqlQueryBuilderTest {
+
+  private static final TableMapping MAPPING = new TableMapping() {
+    @Override
+    public String getTableName(final EdmEntitySet entitySet) {
+      return "PRODUCTS";
+    }
+
+    @Override
+    public String getColumnName(final EdmEntitySet entitySet, final EdmProperty property) {
+      return "Notes".equals(property.getName()) ? null : property.getName().toUpperCase();
+    }
+  };
+
+  private final OData odata = OData.newInstance();
+  private Edm edm;
+
+  @Before
+  public void before() throws Exception {
+    edm = new MetadataParser().buildServiceMetadata(new FileReader("src/test/resources/products.xml")).getEdm();
+  }
+
+  @Test
+  public void allColumns() throws Exception {
+    final SqlQuery query = buildSelect(null);
+    assertEquals("SELECT ID, NAME, PRICE, AVAILABLE, COLOR, RELEASED FROM PRODUCTS", query.getSql());
+    assertTrue(query.getParameters().isEmpty());
+    assertEquals(6, query.getColumns().size());
+  }
+
+  @Test
+  public void filterOrderByTopSkipSelect() throws Exception {
+    final SqlQuery query = buildSelect("$filter=Price gt 10 and contains(Name,'50%25_off')"
+        + "&$orderby=Name desc,Id&$top=5&$skip=10&$select=Name");
+    assertEquals("SELECT ID, NAME FROM PRODUCTS WHERE ((PRICE > ?) AND (NAME LIKE ? ESCAPE '\\'))"
+        + " ORDER BY NAME DESC, ID ASC LIMIT ? OFFSET ?", query.getSql());
+    assertEquals(4, query.getParameters().size());
+    assertEquals(10, ((Number) query.getParameters().get(0)).intValue());
+    assertEquals("%50\\%\\_off%", query.getParameters().get(1));
+    assertEquals(Arrays.<Object> asList(5, 10), query.getParameters().subList(2, 4));
+  }
+
+  @Test
+  public void nullBooleanAndEnum() throws Exception {
+    final SqlQuery query = buildSelect("$filter=Name eq null or not Available"
+        + " or Color eq org.apache.olingo.sql.Color'Blue'&$select=Id");
+    assertEquals("SELECT ID FROM PRODUCTS WHERE (((NAME IS NULL)"
+        + " OR (CASE WHEN (AVAILABLE = ?) THEN 0 ELSE 1 END = 1)) OR (COLOR = ?))",
+        query.getSql());
+    assertEquals(Arrays.<Object> asList(Boolean.TRUE, 2), query.getParameters());
+  }
+
+  @Test
+  public void methodsAndLiterals() throws Exception {
+    final SqlQuery query = buildSelect("$filter=year(Released) eq 2020 and Released lt 2020-06-01"
+        + " and toupper(Name) ne 'X' and Price mul 2 le 1.5&$select=Id");
+    assertEquals("SELECT ID FROM PRODUCTS WHERE ((((EXTRACT(YEAR FROM RELEASED) = ?) AND (RELEASED < ?))"
+        + " AND ((UPPER(NAME) <> ?) OR (UPPER(NAME) IS NULL))) AND ((PRICE * ?) <= ?))", query.getSql());
+    assertEquals(java.sql.Date.class, query.getParameters().get(1).getClass());
+    assertEquals("2020-06-01", query.getParameters().get(1).toString());
+    assertEquals(new BigDecimal("1.5"), query.getParameters().get(4));
+  }
+
+  @Test
+  public void skipWithoutTop() throws Exception {
+    final SqlQuery query = buildSelect("$skip=3&$select=Id");
+    assertEquals("SELECT ID FROM PRODUCTS LIMIT ? OFFSET ?", query.getSql());
+    assertEquals(Arrays.<Object> asList(Integer.MAX_VALUE, 3), query.getParameters());
+  }
+
+  @Test
+  public void equalityOnNullableColumns() throws Exception {
+    assertEquals("SELECT ID FROM PRODUCTS WHERE (ID <> ?)", buildSelect("$filter=Id ne 1&$select=Id").getSql());
+    assertEquals("SELECT ID FROM PRODUCTS WHERE ((NAME <> ?) OR (NAME IS NULL))",
+        buildSelect("$filter=Name ne 'x'&$select=Id").getSql());
+    assertEquals("SELECT ID FROM PRODUCTS WHERE ((NAME = UPPER(NAME)) OR (NAME IS NULL AND UPPER(NAME) IS NULL))",
+        buildSelect("$filter=Name eq toupper(Name)&$select=Id").getSql());
+    assertEquals("SELECT ID FROM PRODUCTS WHERE ((NAME <> UPPER(NAME))"
+        + " OR (NAME IS NULL AND UPPER(NAME) IS NOT NULL) OR (NAME IS NOT NULL AND UPPER(NAME) IS NULL))",
+        buildSelect("$filter=Name ne toupper(Name)&$select=Id").getSql());
+  }
+
+  @Test
+  public void notOnNullableColumns() throws Exception {
+    assertEquals("SELECT ID FROM PRODUCTS WHERE (NOT (ID > ?))",
+        buildSelect("$filter=not (Id gt 10)&$select=Id").getSql());
+    assertEquals("SELECT ID FROM PRODUCTS WHERE (CASE WHEN (PRICE > ?) THEN 0 ELSE 1 END = 1)",
+        buildSelect("$filter=not (Price gt 10)&$select=Id").getSql());
+    assertEquals("SELECT ID FROM PRODUCTS WHERE (NOT ((NAME <> ?) OR (NAME IS NULL)))",
+        buildSelect("$filter=not (Name ne 'x')&$select=Id").getSql());
+    assertEquals("SELECT ID FROM PRODUCTS WHERE (NOT (NAME IS NULL))",
+        buildSelect("$filter=not (Name eq null)&$select=Id").getSql());
+  }
+
+  @Test
+  public void count() throws Exception {
+    final SqlQuery query = new SqlQueryBuilder(getEntitySet(), MAPPING)
+        .buildCount(new Parser(edm, odata).parseUri("Products", "$filter=Name in ('a','b')&$top=1", null, null));
+    assertEquals("SELECT COUNT(*) FROM PRODUCTS WHERE (NAME IN (?, ?))", query.getSql());
+    assertEquals(2, query.getParameters().size());
+  }
+
+  @Test
+  public void notTranslatable() throws Exception {
+    assertNotImplemented("$filter=Notes eq 'x'");
+    assertNotImplemented("$filter=Tags/any(t:t eq 'a')");
+    assertNotImplemented("$filter=Address/City eq 'a'");
+    assertNotImplemented("$filter=contains(Name,Notes)");
+    assertNotImplemented("$select=Address");
+    assertNotImplemented("$select=Notes");
+  }
+
+  @Test
+  public void executeAndIterate() throws Exception {
+    final SqlQuery query = buildSelect("$filter=Name ne 'x'&$select=Name,Price");
+    Connection connection = mock(Connection.class);
+    PreparedStatement statement = mock(PreparedStatement.class);
+    ResultSet resultSet = mock(ResultSet.class);
+    when(connection.prepareStatement(anyString())).thenReturn(statement);
+    when(statement.executeQuery()).thenReturn(resultSet);
+    when(resultSet.getStatement()).thenReturn(statement);
+    when(resultSet.next()).thenReturn(true, true, false);
+    when(resultSet.getInt(1)).thenReturn(1, 2);
+    when(resultSet.getString(2)).thenReturn("a", (String) null);
+    when(resultSet.getBigDecimal(3)).thenReturn(BigDecimal.ONE, BigDecimal.TEN);
+    when(resultSet.wasNull()).thenReturn(false, false, false, false, true, false);
+
+    final ResultSetEntityIterator iterator = query.execute(connection);
+    verify(connection).prepareStatement(
+        "SELECT ID, NAME, PRICE FROM PRODUCTS WHERE ((NAME <> ?) OR (NAME IS NULL))");
+    verify(statement).setObject(1, "x");
+    assertTrue(iterator.hasNext());
+    final Entity first = iterator.next();
+    assertEquals("org.apache.olingo.sql.Product", first.getType());
+    assertEquals(1, first.getProperty("Id").getValue());
+    assertEquals("a", first.getProperty("Name").getValue());
+    assertEquals(BigDecimal.ONE, first.getProperty("Price").getValue());
+    final Entity second = iterator.next();
+    assertNull(second.getProperty("Name").getValue());
+    assertEquals(BigDecimal.TEN, second.getProperty("Price").getValue());
+    assertFalse(iterator.hasNext());
+    verify(resultSet).close();
+    verify(statement).close();
+  }
+
+  private void assertNotImplemented(final String queryOptions) throws Exception {
+    try {
+      buildSelect(queryOptions);
+      fail("Expected exception not thrown for " + queryOptions);
+    } catch (final ODataApplicationException e) {
+      assertEquals(queryOptions, HttpStatusCode.NOT_IMPLEMENTED.getStatusCode(), e.getStatusCode());
+    }
+  }
+
+  private SqlQuery buildSelect(final String queryOptions) throws Exception {
+    return new SqlQueryBuilder(getEntitySet(), MAPPING)
+        .buildSelect(new Parser(edm, odata).parseUri("Products", queryOptions, null, null));
+  }
+
+  private EdmEntitySet getEntitySet() {
+    return edm.getEntityContainer().getEntitySet("Products");
+  }
+}
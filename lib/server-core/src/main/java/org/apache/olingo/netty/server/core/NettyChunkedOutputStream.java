@@ -0,0 +1,188 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.netty.server.core;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.http.DefaultHttpContent;
+import io.netty.handler.codec.http.DefaultLastHttpContent;
+import io.netty.handler.codec.http.LastHttpContent;
+
+/**
+ * Writes response content as HTTP chunks of direct buffers taken from the channel's allocator.
+ * <p>Before a chunk is written, the writing thread waits as long as the channel is not writable
+ * so that a slow client does not make the response pile up in memory.
+ * The stream must not be used on the event loop of the channel
+ * since the event loop itself is needed to make the channel writable again.</p>
+ */
+class NettyChunkedOutputStream extends OutputStream {
+
+  private static final long WRITABILITY_CHECK_INTERVAL = 100;
+
+  private final ChannelHandlerContext context;
+  private final int chunkSize;
+  private final Object writabilityLock;
+  private ByteBuf chunk;
+  private ChannelFuture lastFuture;
+  private boolean closed = false;
+
+  /**
+   * @param context context of the handler writing the response
+   * @param chunkSize maximum size of a chunk in bytes
+   * @param writabilityLock monitor notified when the writability of the channel changes
+   */
+  NettyChunkedOutputStream(final ChannelHandlerContext context, final int chunkSize,
+      final Object writabilityLock) {
+    this.context = context;
+    this.chunkSize = chunkSize;
+    this.writabilityLock = writabilityLock;
+  }
+
+  @Override
+  public void write(final int b) throws IOException {
+    currentChunk().writeByte(b);
+    writeFullChunk();
+  }
+
+  @Override
+  public void write(final byte[] bytes, final int offset, final int length) throws IOException {
+    int position = offset;
+    final int end = offset + length;
+    while (position < end) {
+      final ByteBuf current = currentChunk();
+      final int count = Math.min(end - position, current.writableBytes());
+      current.writeBytes(bytes, position, count);
+      position += count;
+      writeFullChunk();
+    }
+  }
+
+  /**
+   * Reads the input directly into the chunk buffers, without intermediate copy.
+   * The input is not closed.
+   * @param input content to be written
+   */
+  void transferFrom(final InputStream input) throws IOException {
+    while (true) {
+      final ByteBuf current = currentChunk();
+      if (current.writeBytes(input, current.writableBytes()) < 0) {
+        return;
+      }
+      writeFullChunk();
+    }
+  }
+
+  /** Writes the buffered content as a chunk, even if the chunk is not full. */
+  @Override
+  public void flush() throws IOException {
+    if (chunk != null && chunk.isReadable()) {
+      writeChunk();
+    }
+  }
+
+  /**
+   * Writes the buffered content and the end of the response content.
+   * Closing the stream does not wait for the end of the response to be written;
+   * see {@link #getLastFuture()}.
+   */
+  @Override
+  public void close() throws IOException {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    if (chunk != null && chunk.isReadable()) {
+      awaitWritable();
+      lastFuture = context.writeAndFlush(new DefaultLastHttpContent(chunk));
+    } else {
+      releaseChunk();
+      lastFuture = context.writeAndFlush(LastHttpContent.EMPTY_LAST_CONTENT);
+    }
+    chunk = null;
+  }
+
+  /**
+   * Releases the buffered content without writing it.
+   * Used if the response content cannot be completed.
+   */
+  void discard() {
+    closed = true;
+    releaseChunk();
+  }
+
+  /** Returns the future of the last write, or <code>null</code> if the stream has not been closed. */
+  ChannelFuture getLastFuture() {
+    return lastFuture;
+  }
+
+  private ByteBuf currentChunk() throws IOException {
+    if (closed) {
+      throw new IOException("Response content has already been completed.");
+    }
+    if (chunk == null) {
+      chunk = context.alloc().directBuffer(chunkSize, chunkSize);
+    }
+    return chunk;
+  }
+
+  private void writeFullChunk() throws IOException {
+    if (!chunk.isWritable()) {
+      writeChunk();
+    }
+  }
+
+  private void writeChunk() throws IOException {
+    awaitWritable();
+    final ByteBuf content = chunk;
+    chunk = null;
+    context.writeAndFlush(new DefaultHttpContent(content));
+  }
+
+  private void awaitWritable() throws IOException {
+    final Channel channel = context.channel();
+    synchronized (writabilityLock) {
+      while (!channel.isWritable()) {
+        if (!channel.isActive()) {
+          discard();
+          throw new IOException("Channel has been closed.");
+        }
+        try {
+          writabilityLock.wait(WRITABILITY_CHECK_INTERVAL);
+        } catch (final InterruptedException e) {
+          Thread.currentThread().interrupt();
+          discard();
+          throw new IOException("Interrupted while waiting for the channel to become writable.", e);
+        }
+      }
+    }
+  }
+
+  private void releaseChunk() {
+    if (chunk != null) {
+      chunk.release();
+      chunk = null;
+    }
+  }
+}
@@ -0,0 +1,199 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.netty.server.core;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.Queue;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * Request body fed with the content buffers of a streamed Netty request.
+ * <p>The event loop offers buffers as they arrive while the processing thread reads them;
+ * reading blocks until content is available or the request has ended.
+ * Buffers are released as soon as they have been read.</p>
+ * <p>{@link #isFull()} tells the event loop to stop reading from the channel;
+ * the resume task is run by the reading thread once enough content has been consumed.</p>
+ */
+class NettyRequestBodyInputStream extends InputStream {
+
+  private final Queue<ByteBuf> buffers = new ArrayDeque<ByteBuf>();
+  private final int maxBufferedBytes;
+  private Runnable resumeTask;
+  private int bufferedBytes = 0;
+  private boolean suspended = false;
+  private boolean ended = false;
+  private boolean closed = false;
+  private IOException failure;
+
+  NettyRequestBodyInputStream(final int maxBufferedBytes) {
+    this.maxBufferedBytes = maxBufferedBytes;
+  }
+
+  /**
+   * Sets the task to be run when reading can be resumed after the stream has been full.
+   * The task is run by the reading thread.
+   */
+  synchronized void setResumeTask(final Runnable resumeTask) {
+    this.resumeTask = resumeTask;
+  }
+
+  /**
+   * Adds content; the stream takes over the ownership of the buffer.
+   * @param buffer content buffer
+   */
+  synchronized void offer(final ByteBuf buffer) {
+    if (closed || ended || !buffer.isReadable()) {
+      buffer.release();
+      return;
+    }
+    buffers.add(buffer);
+    bufferedBytes += buffer.readableBytes();
+    notifyAll();
+  }
+
+  /** Marks the end of the request content. */
+  synchronized void end() {
+    ended = true;
+    notifyAll();
+  }
+
+  /**
+   * Marks the request content as broken; the next read fails with the given exception.
+   * @param exception cause of the failure
+   */
+  synchronized void fail(final IOException exception) {
+    failure = exception;
+    ended = true;
+    notifyAll();
+  }
+
+  synchronized boolean isEnded() {
+    return ended;
+  }
+
+  /**
+   * Returns whether the buffered content has reached its limit.
+   * If so, the caller is expected to stop reading and the resume task will be run
+   * once half of the buffered content has been consumed.
+   */
+  synchronized boolean isFull() {
+    if (bufferedBytes >= maxBufferedBytes && !closed) {
+      suspended = true;
+    }
+    return suspended;
+  }
+
+  @Override
+  public int read() throws IOException {
+    final byte[] single = new byte[1];
+    return read(single, 0, 1) == -1 ? -1 : single[0] & 0xFF;
+  }
+
+  @Override
+  public int read(final byte[] bytes, final int offset, final int length) throws IOException {
+    if (length == 0) {
+      return 0;
+    }
+    Runnable resume = null;
+    int count;
+    synchronized (this) {
+      ByteBuf buffer = awaitBuffer();
+      if (buffer == null) {
+        return -1;
+      }
+      count = Math.min(length, buffer.readableBytes());
+      buffer.readBytes(bytes, offset, count);
+      if (!buffer.isReadable()) {
+        buffers.remove().release();
+      }
+      bufferedBytes -= count;
+      if (suspended && bufferedBytes < maxBufferedBytes / 2) {
+        suspended = false;
+        resume = resumeTask;
+      }
+    }
+    if (resume != null) {
+      resume.run();
+    }
+    return count;
+  }
+
+  @Override
+  public synchronized int available() {
+    return bufferedBytes;
+  }
+
+  /**
+   * Discards all buffered and further offered content.
+   * The resume task is run if the stream has been full so that the rest of the request can be read.
+   */
+  @Override
+  public void close() {
+    Runnable resume = null;
+    synchronized (this) {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      releaseBuffers();
+      if (suspended) {
+        suspended = false;
+        resume = resumeTask;
+      }
+      notifyAll();
+    }
+    if (resume != null) {
+      resume.run();
+    }
+  }
+
+  private ByteBuf awaitBuffer() throws IOException {
+    while (true) {
+      if (closed) {
+        throw new IOException("Request body has been closed.");
+      }
+      if (!buffers.isEmpty()) {
+        return buffers.peek();
+      }
+      if (failure != null) {
+        throw failure;
+      }
+      if (ended) {
+        return null;
+      }
+      try {
+        wait();
+      } catch (final InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IOException("Interrupted while waiting for request content.", e);
+      }
+    }
+  }
+
+  private void releaseBuffers() {
+    ByteBuf buffer;
+    while ((buffer = buffers.poll()) != null) {
+      buffer.release();
+    }
+    bufferedBytes = 0;
+  }
+}
@@ -0,0 +1,285 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.netty.server.core;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.apache.olingo.commons.api.http.HttpHeader;
+import org.apache.olingo.server.api.ODataResponse;
+import org.apache.olingo.server.api.encoding.ContentEncodingSupport;
+import org.apache.olingo.server.core.ContentEncodingHelper;
+
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.handler.codec.http.DefaultFullHttpResponse;
+import io.netty.handler.codec.http.DefaultHttpResponse;
+import io.netty.handler.codec.http.HttpContent;
+import io.netty.handler.codec.http.HttpRequest;
+import io.netty.handler.codec.http.HttpResponse;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpUtil;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.handler.codec.http.LastHttpContent;
+import io.netty.util.ReferenceCountUtil;
+
+/**
+ * Processes the OData requests of one channel with streamed request and response content.
+ * <p>Request processing is handed to an executor as soon as the request headers have arrived;
+ * the request body is fed to the processor while it is being received, and reading from the channel
+ * is suspended while too much of it is waiting to be consumed.
+ * Response content is written in chunks of pooled direct buffers whenever its length is not known,
+ * and the processing thread waits while the channel is not writable.</p>
+ * <p>Requests of one channel are processed one after another; messages of a pipelined request
+ * are kept until the response to the previous request has been written.
+ * All fields except the writability lock are accessed on the event loop only.</p>
+ */
+class ODataNettyChannelHandler extends ChannelInboundHandlerAdapter {
+
+  static final int CHUNK_SIZE = ODataNettyHandlerImpl.COPY_BUFFER_SIZE;
+  static final int MAX_BUFFERED_REQUEST_BYTES = 64 * 1024;
+
+  private final ODataNettyHandlerImpl handler;
+  private final Map<String, String> requestParameters;
+  private final Executor executor;
+  private final Object writabilityLock = new Object();
+  private final Queue<Object> pendingMessages = new ArrayDeque<Object>();
+  private NettyRequestBodyInputStream body;
+  private boolean processing = false;
+
+  ODataNettyChannelHandler(final ODataNettyHandlerImpl handler, final Map<String, String> requestParameters,
+      final Executor executor) {
+    if (executor == null) {
+      throw new IllegalArgumentException("An executor is required for request processing.");
+    }
+    this.handler = handler;
+    this.requestParameters = requestParameters;
+    this.executor = executor;
+  }
+
+  @Override
+  public void channelRead(final ChannelHandlerContext context, final Object message) {
+    if (!(message instanceof HttpRequest) && !(message instanceof HttpContent)) {
+      context.fireChannelRead(message);
+      return;
+    }
+    if (isAwaitingResponse()) {
+      // A pipelined request: its messages have to wait until the current response has been written.
+      pendingMessages.add(message);
+    } else {
+      read(context, message);
+    }
+    updateAutoRead(context);
+  }
+
+  @Override
+  public void channelWritabilityChanged(final ChannelHandlerContext context) {
+    synchronized (writabilityLock) {
+      writabilityLock.notifyAll();
+    }
+    context.fireChannelWritabilityChanged();
+  }
+
+  @Override
+  public void channelInactive(final ChannelHandlerContext context) {
+    if (body != null) {
+      body.fail(new IOException("Channel has been closed."));
+    }
+    Object message;
+    while ((message = pendingMessages.poll()) != null) {
+      ReferenceCountUtil.release(message);
+    }
+    synchronized (writabilityLock) {
+      writabilityLock.notifyAll();
+    }
+    context.fireChannelInactive();
+  }
+
+  @Override
+  public void exceptionCaught(final ChannelHandlerContext context, final Throwable cause) {
+    context.close();
+  }
+
+  private void read(final ChannelHandlerContext context, final Object message) {
+    if (message instanceof HttpRequest) {
+      final HttpRequest request = (HttpRequest) message;
+      if (request.decoderResult().isFailure()) {
+        ReferenceCountUtil.release(message);
+        context.writeAndFlush(new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.BAD_REQUEST))
+            .addListener(ChannelFutureListener.CLOSE);
+        return;
+      }
+      startRequest(context, request);
+    }
+    if (message instanceof HttpContent) {
+      if (body == null) {
+        ReferenceCountUtil.release(message);
+        return;
+      }
+      // The body takes over the content buffer and releases it once it has been read.
+      body.offer(((HttpContent) message).content());
+      if (message instanceof LastHttpContent) {
+        body.end();
+      }
+    }
+  }
+
+  private void startRequest(final ChannelHandlerContext context, final HttpRequest request) {
+    final NettyRequestBodyInputStream requestBody = new NettyRequestBodyInputStream(MAX_BUFFERED_REQUEST_BYTES);
+    requestBody.setResumeTask(new Runnable() {
+      @Override
+      public void run() {
+        context.executor().execute(new Runnable() {
+          @Override
+          public void run() {
+            updateAutoRead(context);
+          }
+        });
+      }
+    });
+    body = requestBody;
+    processing = true;
+    try {
+      executor.execute(new Runnable() {
+        @Override
+        public void run() {
+          respond(context, request, requestBody);
+        }
+      });
+    } catch (final RejectedExecutionException e) {
+      requestBody.close();
+      context.writeAndFlush(new DefaultFullHttpResponse(HttpVersion.HTTP_1_1,
+          HttpResponseStatus.SERVICE_UNAVAILABLE)).addListener(ChannelFutureListener.CLOSE);
+    }
+  }
+
+  /** Processes a request and writes its response; runs on the executor. */
+  private void respond(final ChannelHandlerContext context, final HttpRequest request,
+      final NettyRequestBodyInputStream requestBody) {
+    final ODataResponse odResponse = handler.process(request, requestBody, requestParameters);
+    final ContentEncodingSupport contentEncodingSupport = handler.getContentEncodingSupport();
+    final HttpResponse response = new DefaultHttpResponse(request.protocolVersion(), HttpResponseStatus.OK);
+    final String encoding = ODataNettyHandlerImpl.convertStatusAndHeaders(response, odResponse,
+        request.headers().getAll(HttpHeader.ACCEPT_ENCODING), contentEncodingSupport);
+
+    boolean keepAlive = HttpUtil.isKeepAlive(request);
+    final boolean hasContent = odResponse.getContent() != null || odResponse.getODataContent() != null;
+    if (!hasContent) {
+      if (!HttpUtil.isContentLengthSet(response)) {
+        HttpUtil.setContentLength(response, 0);
+      }
+    } else if (encoding != null || !HttpUtil.isContentLengthSet(response)) {
+      if (request.protocolVersion().equals(HttpVersion.HTTP_1_0)) {
+        // Without chunks, the end of the content is marked by closing the connection.
+        keepAlive = false;
+      } else {
+        HttpUtil.setTransferEncodingChunked(response, true);
+      }
+    }
+    HttpUtil.setKeepAlive(response, keepAlive);
+
+    final NettyChunkedOutputStream output = new NettyChunkedOutputStream(context, CHUNK_SIZE, writabilityLock);
+    try {
+      context.write(response);
+      writeContent(odResponse, output, encoding,
+          encoding == null ? 0 : contentEncodingSupport.getCompressionLevel());
+    } catch (final IOException e) {
+      output.discard();
+      context.close();
+      return;
+    } catch (final RuntimeException e) {
+      // The status has already been sent; the client can only learn about the error from the closed connection.
+      output.discard();
+      context.close();
+      return;
+    } finally {
+      requestBody.close();
+      closeContent(odResponse);
+    }
+
+    final boolean closeAfterResponse = !keepAlive;
+    output.getLastFuture().addListener(new ChannelFutureListener() {
+      @Override
+      public void operationComplete(final ChannelFuture future) {
+        if (closeAfterResponse || !future.isSuccess()) {
+          context.close();
+        } else {
+          finishRequest(context);
+        }
+      }
+    });
+  }
+
+  private static void writeContent(final ODataResponse odResponse, final NettyChunkedOutputStream output,
+      final String encoding, final int level) throws IOException {
+    final OutputStream encodedOutput = ContentEncodingHelper.encode(output, encoding, level);
+    if (odResponse.getContent() != null) {
+      if (encodedOutput == output) {
+        output.transferFrom(odResponse.getContent());
+      } else {
+        final byte[] buffer = new byte[CHUNK_SIZE];
+        int count;
+        while ((count = odResponse.getContent().read(buffer)) > 0) {
+          encodedOutput.write(buffer, 0, count);
+        }
+      }
+    } else if (odResponse.getODataContent() != null) {
+      odResponse.getODataContent().write(encodedOutput);
+    }
+    encodedOutput.close();
+    output.close();
+  }
+
+  private static void closeContent(final ODataResponse odResponse) {
+    final InputStream content = odResponse.getContent();
+    if (content != null) {
+      try {
+        content.close();
+      } catch (final IOException e) {
+        // ignore
+      }
+    }
+  }
+
+  /** Continues with pipelined requests after a response has been written; runs on the event loop. */
+  private void finishRequest(final ChannelHandlerContext context) {
+    processing = false;
+    while (!pendingMessages.isEmpty() && !isAwaitingResponse()) {
+      read(context, pendingMessages.poll());
+    }
+    updateAutoRead(context);
+  }
+
+  /** Whether the current request has been read completely but its response is not yet written. */
+  private boolean isAwaitingResponse() {
+    return processing && body != null && body.isEnded();
+  }
+
+  private void updateAutoRead(final ChannelHandlerContext context) {
+    context.channel().config().setAutoRead(!isAwaitingResponse() && (body == null || !body.isFull()));
+  }
+}
@@ -20,6 +20,7 @@ package org.apache.olingo.netty.server.core;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.ByteBuffer;
 import java.nio.channels.Channel;
 import java.nio.channels.Channels;
@@ -30,6 +31,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.Executor;
 
 import org.apache.olingo.commons.api.ex.ODataRuntimeException;
 import org.apache.olingo.commons.api.http.HttpHeader;
@@ -41,16 +43,20 @@ import org.apache.olingo.server.api.ODataLibraryException;
 import org.apache.olingo.server.api.ODataRequest;
 import org.apache.olingo.server.api.ODataResponse;
 import org.apache.olingo.server.api.ODataServerError;
+import org.apache.olingo.server.api.OlingoExtension;
 import org.apache.olingo.server.api.ServiceMetadata;
+import org.apache.olingo.server.api.deserializer.DeserializerException;
+import org.apache.olingo.server.api.encoding.ContentEncodingSupport;
 import org.apache.olingo.server.api.processor.Processor;
+import org.apache.olingo.server.core.ContentEncodingHelper;
 import org.apache.olingo.server.core.ODataExceptionHelper;
 import org.apache.olingo.server.core.ODataHandlerException;
 import org.apache.olingo.server.core.ODataHandlerImpl;
 import org.apache.olingo.server.core.debug.ServerCoreDebugger;
 
-import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufInputStream;
 import io.netty.buffer.ByteBufOutputStream;
+import io.netty.channel.ChannelHandler;
 import io.netty.handler.codec.http.HttpContent;
 import io.netty.handler.codec.http.HttpMessage;
 import io.netty.handler.codec.http.HttpRequest;
@@ -61,8 +67,11 @@ public class ODataNettyHandlerImpl implements ODataNettyHandler {
 
   public static final int COPY_BUFFER_SIZE = 8192;
 
+  private final OData odata;
+  /** Keeps the registered processors and extensions; requests are processed by copies of it. */
   private final ODataHandlerImpl handler;
-  private final ServerCoreDebugger debugger;
+  /** Copy of the handler with initialized processors; guarded by this handler, reset on registration. */
+  private ODataHandlerImpl initializedHandler;
   
   private static final String CONTEXT_PATH = "contextPath";
   private static final String SPLIT = "split";
@@ -70,11 +79,31 @@ public class ODataNettyHandlerImpl implements ODataNettyHandler {
   private int split = 0;
 
   public ODataNettyHandlerImpl(final OData odata, final ServiceMetadata serviceMetadata) {
-    debugger = new ServerCoreDebugger(odata);
-    handler = new ODataHandlerImpl(odata, serviceMetadata, debugger);
+    this.odata = odata;
+    handler = new ODataHandlerImpl(odata, serviceMetadata, new ServerCoreDebugger(odata));
   }
-  
-  private ODataResponse handleException(final ODataRequest odRequest, final Exception e) {
+
+  /**
+   * Creates the handler for one request.
+   * A handler keeps the state of the request it processes, so requests processed concurrently,
+   * e.g., on different channels, must not share one; the debugger is not shared either.
+   * The processors are initialized once for all requests following a registration.
+   * @param debugger debugger of the request
+   * @return new handler
+   */
+  private ODataHandlerImpl createRequestHandler(final ServerCoreDebugger debugger) {
+    final ODataHandlerImpl initialized;
+    synchronized (this) {
+      if (initializedHandler == null) {
+        initializedHandler = handler.copy();
+      }
+      initialized = initializedHandler;
+    }
+    return initialized.copy(debugger);
+  }
+
+  private static ODataResponse handleException(final ODataHandlerImpl handler, final ODataRequest odRequest,
+      final Exception e) {
     ODataResponse resp = new ODataResponse();
     ODataServerError serverError;
     if (e instanceof ODataHandlerException) {
@@ -109,14 +138,73 @@ public class ODataNettyHandlerImpl implements ODataNettyHandler {
 	    }
 	  }
   
+  /**
+   * Convert the OData Response to Netty Response, encoding the content as negotiated
+   * @param response
+   * @param odResponse
+   * @param acceptEncodings values of the Accept-Encoding header of the request
+   * @param contentEncodingSupport content-encoding support or <code>null</code>
+   */
+  static void convertToHttp(final HttpResponse response, final ODataResponse odResponse,
+      final List<String> acceptEncodings, final ContentEncodingSupport contentEncodingSupport) {
+    final String encoding = convertStatusAndHeaders(response, odResponse, acceptEncodings, contentEncodingSupport);
+    final int level = encoding == null ? 0 : contentEncodingSupport.getCompressionLevel();
+    if (odResponse.getContent() != null) {
+      copyContent(Channels.newChannel(odResponse.getContent()), response, encoding, level);
+    } else if (odResponse.getODataContent() != null) {
+      writeContent(odResponse, response, encoding, level);
+    }
+  }
+
+  /**
+   * Copy status and headers of the OData Response to the Netty Response, negotiating the content encoding
+   * @param response
+   * @param odResponse
+   * @param acceptEncodings values of the Accept-Encoding header of the request
+   * @param contentEncodingSupport content-encoding support or <code>null</code>
+   * @return the content encoding of the response or <code>null</code>
+   */
+  static String convertStatusAndHeaders(final HttpResponse response, final ODataResponse odResponse,
+      final List<String> acceptEncodings, final ContentEncodingSupport contentEncodingSupport) {
+    final String encoding = contentEncodingSupport == null ? null :
+        ContentEncodingHelper.prepareResponse(odResponse, acceptEncodings, contentEncodingSupport);
+    response.setStatus(HttpResponseStatus.valueOf(odResponse.getStatusCode()));
+
+    for (Entry<String, List<String>> entry : odResponse.getAllHeaders().entrySet()) {
+      if (encoding != null && HttpHeader.CONTENT_LENGTH.equalsIgnoreCase(entry.getKey())) {
+        continue;
+      }
+      for (String headerValue : entry.getValue()) {
+        ((HttpMessage)response).headers().add(entry.getKey(), headerValue);
+      }
+    }
+    return encoding;
+  }
+
   /**
    * Write the odata content to netty response content
    * @param odataResponse
    * @param response
    */
   static void writeContent(final ODataResponse odataResponse, final HttpResponse response) {
-    ODataContent res = odataResponse.getODataContent();
-    res.write(Channels.newChannel(new ByteBufOutputStream(((HttpContent)response).content())));
+    writeContent(odataResponse, response, null, 0);
+  }
+
+  private static void writeContent(final ODataResponse odataResponse, final HttpResponse response,
+      final String encoding, final int level) {
+    OutputStream output = null;
+    try {
+      ODataContent res = odataResponse.getODataContent();
+      output = ContentEncodingHelper.encode(new ByteBufOutputStream(((HttpContent)response).content()),
+          encoding, level);
+      res.write(Channels.newChannel(output));
+    } catch (IOException e) {
+      throw new ODataRuntimeException("Error on reading request content", e);
+    } finally {
+      if (encoding != null) {
+        closeStream(output);
+      }
+    }
   }
   
   static void copyContent(final InputStream inputStream, final HttpResponse response) {
@@ -129,10 +217,16 @@ public class ODataNettyHandlerImpl implements ODataNettyHandler {
    * @param response
    */
   static void copyContent(final ReadableByteChannel input, final HttpResponse response) {
+    copyContent(input, response, null, 0);
+  }
+
+  private static void copyContent(final ReadableByteChannel input, final HttpResponse response,
+      final String encoding, final int level) {
     WritableByteChannel output = null;
     try {
       ByteBuffer inBuffer = ByteBuffer.allocate(COPY_BUFFER_SIZE);
-      output = Channels.newChannel(new ByteBufOutputStream(((HttpContent)response).content()));
+      output = Channels.newChannel(ContentEncodingHelper.encode(
+          new ByteBufOutputStream(((HttpContent)response).content()), encoding, level));
       while (input.read(inBuffer) > 0) {
         inBuffer.flip();
         output.write(inBuffer);
@@ -155,34 +249,47 @@ public class ODataNettyHandlerImpl implements ODataNettyHandler {
       }
     }
   }
+
+  private static void closeStream(final OutputStream closeable) {
+    if (closeable != null) {
+      try {
+        closeable.close();
+      } catch (IOException e) {
+        // ignore
+      }
+    }
+  }
   
   /**
    * Extract the information part of Netty Request and fill OData Request
+   * @param debugger debugger of the request
    * @param odRequest
    * @param httpRequest
+   * @param inputStream request body
    * @param split
    * @param contextPath
    * @return
    * @throws ODataLibraryException
    */
-  private ODataRequest fillODataRequest(final ODataRequest odRequest, final HttpRequest httpRequest,
-	      final int split, final String contextPath) throws ODataLibraryException {
+  private ODataRequest fillODataRequest(final ServerCoreDebugger debugger, final ODataRequest odRequest,
+      final HttpRequest httpRequest, final InputStream inputStream, final int split, final String contextPath)
+      throws ODataLibraryException {
 	    final int requestHandle = debugger.startRuntimeMeasurement("ODataHttpHandlerImpl", "fillODataRequest");
 	    try {
-	    	ByteBuf byteBuf = ((HttpContent)httpRequest).content();
-	    	ByteBufInputStream inputStream = new ByteBufInputStream(byteBuf);
-	      odRequest.setBody(inputStream);
-	      
 	      odRequest.setProtocol(httpRequest.protocolVersion().text());
 	      odRequest.setMethod(extractMethod(httpRequest));
 	      int innerHandle = debugger.startRuntimeMeasurement("ODataNettyHandlerImpl", "copyHeaders");
 	      copyHeaders(odRequest, httpRequest);
 	      debugger.stopRuntimeMeasurement(innerHandle);
+	      ContentEncodingHelper.setDecodedBody(odRequest, inputStream, handler.getContentEncodingSupport());
 	      innerHandle = debugger.startRuntimeMeasurement("ODataNettyHandlerImpl", "fillUriInformation");
 	      fillUriInformationFromHttpRequest(odRequest, httpRequest, split, contextPath);
 	      debugger.stopRuntimeMeasurement(innerHandle);
 
 	      return odRequest;
+	    } catch (final IOException e) {
+	      throw new DeserializerException("An I/O exception occurred.", e,
+	          DeserializerException.MessageKeys.IO_EXCEPTION);
 	    } finally {
 	      debugger.stopRuntimeMeasurement(requestHandle);
 	    }
@@ -297,38 +404,67 @@ public class ODataNettyHandlerImpl implements ODataNettyHandler {
 	  }
   }
   
-@SuppressWarnings("unused")
 @Override
 public void processNettyRequest(HttpRequest request, HttpResponse response, 
 		Map<String, String> requestParameters) {
-	  ODataRequest odRequest = new ODataRequest();
-    Exception exception = null;
+    final ODataResponse odResponse = process(request,
+        new ByteBufInputStream(((HttpContent) request).content()), requestParameters);
+    convertToHttp(response, odResponse, request.headers().getAll(HttpHeader.ACCEPT_ENCODING),
+        handler.getContentEncodingSupport());
+  }
+
+  @Override
+  public ChannelHandler createChannelHandler(final Map<String, String> requestParameters, final Executor executor) {
+    return new ODataNettyChannelHandler(this, requestParameters, executor);
+  }
+
+  /**
+   * Process a Netty Request whose body is given separately, e.g., because it is still being received
+   * @param request
+   * @param body request body
+   * @param requestParameters
+   * @return the OData Response; processing errors are converted to error responses
+   */
+  ODataResponse process(final HttpRequest request, final InputStream body,
+      final Map<String, String> requestParameters) {
+    ODataRequest odRequest = new ODataRequest();
     ODataResponse odResponse;
-    
+
+    final ServerCoreDebugger debugger = new ServerCoreDebugger(odata);
+    final ODataHandlerImpl requestHandler = createRequestHandler(debugger);
     final int processMethodHandle = 
     		debugger.startRuntimeMeasurement("ODataNettyHandlerImpl", "process");
     try {
-      fillODataRequest(odRequest, request, 
+      fillODataRequest(debugger, odRequest, request, body,
           requestParameters.get(SPLIT) != null? Integer.parseInt(requestParameters.get(SPLIT)) : split, 
               requestParameters.get(CONTEXT_PATH));
 
-      odResponse = process(odRequest);
+      odResponse = requestHandler.process(odRequest);
       // ALL future methods after process must not throw exceptions!
     } catch (Exception e) {
-      exception = e;
-      odResponse = handleException(odRequest, e);
+      odResponse = handleException(requestHandler, odRequest, e);
     }
     debugger.stopRuntimeMeasurement(processMethodHandle);
+    return odResponse;
+  }
 
-    convertToHttp(response, odResponse);
+  ContentEncodingSupport getContentEncodingSupport() {
+    return handler.getContentEncodingSupport();
   }
 
   public ODataResponse process(ODataRequest request) {
-    return handler.process(request);
+    return createRequestHandler(new ServerCoreDebugger(odata)).process(request);
   }
 
   @Override
-  public void register(Processor processor) {
+  public synchronized void register(Processor processor) {
     handler.register(processor);
+    initializedHandler = null;
+  }
+
+  @Override
+  public synchronized void register(OlingoExtension extension) {
+    handler.register(extension);
+    initializedHandler = null;
   }
 }
@@ -46,6 +46,7 @@ import org.apache.olingo.server.api.serializer.FixedFormatSerializer;
 import org.apache.olingo.server.api.serializer.ODataSerializer;
 import org.apache.olingo.server.api.serializer.SerializerException;
 import org.apache.olingo.server.api.uri.UriHelper;
+import org.apache.olingo.server.api.uri.UriInfoCache;
 
 public class ODataNettyImpl extends ODataNetty {
   
@@ -114,6 +115,12 @@ public class ODataNettyImpl extends ODataNetty {
     return odata.createServiceMetadata(edmProvider, references, serviceMetadataETagSupport);
   }
 
+  @Override
+  public ServiceMetadata createServiceMetadata(CsdlEdmProvider edmProvider, List<EdmxReference> references,
+      ServiceMetadataETagSupport serviceMetadataETagSupport, boolean preloadEdm) {
+    return odata.createServiceMetadata(edmProvider, references, serviceMetadataETagSupport, preloadEdm);
+  }
+
   @Override
   public UriHelper createUriHelper() {
     return odata.createUriHelper();
@@ -145,6 +152,11 @@ public class ODataNettyImpl extends ODataNetty {
     return odata.createPreferences(preferHeaders);
   }
 
+  @Override
+  public UriInfoCache createUriInfoCache(int maximumSize) {
+    return odata.createUriInfoCache(maximumSize);
+  }
+
   @Override
   public DebugResponseHelper createDebugResponseHelper(String debugFormat) {
     return odata.createDebugResponseHelper(debugFormat);
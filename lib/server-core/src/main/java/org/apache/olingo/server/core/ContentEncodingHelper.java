@@ -0,0 +1,305 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import org.apache.olingo.commons.api.ex.ODataRuntimeException;
+import org.apache.olingo.commons.api.format.ContentType;
+import org.apache.olingo.commons.api.http.HttpHeader;
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.server.api.ODataRequest;
+import org.apache.olingo.server.api.ODataResponse;
+import org.apache.olingo.server.api.encoding.ContentEncodingSupport;
+
+/**
+ * Negotiates the content encoding of responses and encodes and decodes content accordingly.
+ * Shared by the servlet and the Netty handler.
+ */
+public final class ContentEncodingHelper {
+
+  public static final String GZIP = "gzip";
+  public static final String DEFLATE = "deflate";
+
+  private static final String X_GZIP = "x-gzip";
+  private static final String ANY = "*";
+  private static final int BUFFER_SIZE = 8192;
+
+  private ContentEncodingHelper() {
+    // Private constructor for utility classes.
+  }
+
+  /**
+   * Selects the content encoding of a response from the values of the <code>Accept-Encoding</code> header.
+   * <code>gzip</code> is preferred over <code>deflate</code> if both have the same quality.
+   * @param acceptEncodings header values; can be <code>null</code>
+   * @return {@link #GZIP}, {@link #DEFLATE}, or <code>null</code> if no compression is acceptable
+   */
+  public static String negotiate(final List<String> acceptEncodings) {
+    if (acceptEncodings == null) {
+      return null;
+    }
+    float gzip = -1;
+    float deflate = -1;
+    float any = -1;
+    for (final String acceptEncoding : acceptEncodings) {
+      for (final String range : acceptEncoding.split(",")) {
+        final String[] parts = range.split(";");
+        final String coding = parts[0].trim().toLowerCase(Locale.ROOT);
+        final float quality = getQuality(parts);
+        if (GZIP.equals(coding) || X_GZIP.equals(coding)) {
+          gzip = Math.max(gzip, quality);
+        } else if (DEFLATE.equals(coding)) {
+          deflate = Math.max(deflate, quality);
+        } else if (ANY.equals(coding)) {
+          any = Math.max(any, quality);
+        }
+      }
+    }
+    gzip = gzip < 0 ? any : gzip;
+    deflate = deflate < 0 ? any : deflate;
+    return gzip > 0 && gzip >= deflate ? GZIP : deflate > 0 ? DEFLATE : null;
+  }
+
+  private static float getQuality(final String[] parts) {
+    for (int i = 1; i < parts.length; i++) {
+      final String parameter = parts[i].trim().toLowerCase(Locale.ROOT);
+      if (parameter.startsWith("q=")) {
+        try {
+          return Float.parseFloat(parameter.substring(2).trim());
+        } catch (final NumberFormatException e) {
+          return 0;
+        }
+      }
+    }
+    return 1;
+  }
+
+  /**
+   * <p>Determines the content encoding of a response and sets the according headers.</p>
+   * <p>Content given as input stream is read up to the minimum size of the encoding support
+   * to decide whether it is large enough; the response content is replaced
+   * by a stream that still delivers the complete content.</p>
+   * @param response the response
+   * @param acceptEncodings values of the <code>Accept-Encoding</code> header of the request
+   * @param support the content-encoding support
+   * @return the content encoding to be applied, or <code>null</code> if the content is sent unchanged
+   */
+  public static String prepareResponse(final ODataResponse response, final List<String> acceptEncodings,
+      final ContentEncodingSupport support) {
+    if (response.getContent() == null && response.getODataContent() == null
+        || response.getStatusCode() == HttpStatusCode.NO_CONTENT.getStatusCode()
+        || response.getStatusCode() == HttpStatusCode.NOT_MODIFIED.getStatusCode()
+        || response.getHeader(HttpHeader.CONTENT_ENCODING) != null
+        || !isCompressible(response.getHeader(HttpHeader.CONTENT_TYPE), support)) {
+      return null;
+    }
+    response.addHeader(HttpHeader.VARY, Collections.singletonList(HttpHeader.ACCEPT_ENCODING));
+    final String encoding = negotiate(acceptEncodings);
+    if (encoding == null) {
+      return null;
+    }
+    if (response.getContent() != null) {
+      final InputStream content = response.getContent();
+      final byte[] prefix = readPrefix(content, support.getMinimumSize());
+      response.setContent(prefix.length == 0 ? content :
+          new SequenceInputStream(new ByteArrayInputStream(prefix), content));
+      if (prefix.length < support.getMinimumSize()) {
+        return null;
+      }
+    }
+    response.setHeader(HttpHeader.CONTENT_ENCODING, encoding);
+    return encoding;
+  }
+
+  private static boolean isCompressible(final String contentTypeHeader, final ContentEncodingSupport support) {
+    final ContentType contentType = contentTypeHeader == null ? null : ContentType.parse(contentTypeHeader);
+    return contentType != null && support.isCompressible(contentType);
+  }
+
+  private static byte[] readPrefix(final InputStream content, final int size) {
+    final byte[] buffer = new byte[Math.max(size, 0)];
+    int length = 0;
+    try {
+      int count = 0;
+      while (length < buffer.length && (count = content.read(buffer, length, buffer.length - length)) >= 0) {
+        length += count;
+      }
+    } catch (final IOException e) {
+      throw new ODataRuntimeException("Error on reading response content", e);
+    }
+    return length == buffer.length ? buffer : Arrays.copyOf(buffer, length);
+  }
+
+  /**
+   * Wraps an output stream so that everything written to it is encoded.
+   * The returned stream must be closed to write the end of the encoded content.
+   * @param output the output stream
+   * @param encoding {@link #GZIP}, {@link #DEFLATE}, or <code>null</code>
+   * @param level compression level
+   * @return the encoding stream, or the given stream if the encoding is <code>null</code>
+   * @throws IOException if the header of the encoded content cannot be written
+   */
+  public static OutputStream encode(final OutputStream output, final String encoding, final int level)
+      throws IOException {
+    if (GZIP.equals(encoding)) {
+      return new LeveledGZIPOutputStream(output, level);
+    } else if (DEFLATE.equals(encoding)) {
+      return new LeveledDeflaterOutputStream(output, level);
+    } else {
+      return output;
+    }
+  }
+
+  /**
+   * <p>Sets the body of a request, decoded according to the <code>Content-Encoding</code> header of the request.</p>
+   * <p>If the body is decoded, the headers <code>Content-Encoding</code> and <code>Content-Length</code>
+   * are removed from the request since they describe the encoded body.</p>
+   * @param request the request with all its headers
+   * @param body the request body as received
+   * @param support the content-encoding support; if <code>null</code>, the body is set unchanged
+   * @throws IOException if the header of the encoded content cannot be read
+   */
+  public static void setDecodedBody(final ODataRequest request, final InputStream body,
+      final ContentEncodingSupport support) throws IOException {
+    final InputStream decoded = support == null ? body :
+        decode(body, request.getHeader(HttpHeader.CONTENT_ENCODING), support.getMaximumDecodedSize());
+    if (decoded != body) {
+      request.removeHeader(HttpHeader.CONTENT_ENCODING);
+      request.removeHeader(HttpHeader.CONTENT_LENGTH);
+    }
+    request.setBody(decoded);
+  }
+
+  /**
+   * Wraps the body of a request so that it is decoded according to its content encoding.
+   * Reading from the decoding stream fails with a {@link DecodedSizeExceededException}
+   * as soon as more than the maximum number of bytes have been decoded.
+   * @param body the request body
+   * @param contentEncoding value of the <code>Content-Encoding</code> header; can be <code>null</code>
+   * @param maximumSize maximum size in bytes of the decoded content; no limit if less than or equal to zero
+   * @return the decoding stream, or the given stream if the content encoding is not supported
+   * @throws IOException if the header of the encoded content cannot be read
+   */
+  public static InputStream decode(final InputStream body, final String contentEncoding, final long maximumSize)
+      throws IOException {
+    final String coding = contentEncoding == null ? null : contentEncoding.trim().toLowerCase(Locale.ROOT);
+    InputStream decoded;
+    if (GZIP.equals(coding) || X_GZIP.equals(coding)) {
+      decoded = new GZIPInputStream(body, BUFFER_SIZE);
+    } else if (DEFLATE.equals(coding)) {
+      decoded = new InflaterInputStream(body);
+    } else {
+      return body;
+    }
+    return maximumSize > 0 ? new SizeLimitedInputStream(decoded, maximumSize) : decoded;
+  }
+
+  /**
+   * Signals that a decoded request body exceeds the maximum size of the content-encoding support.
+   */
+  public static class DecodedSizeExceededException extends IOException {
+    private static final long serialVersionUID = 4735162985462918374L;
+
+    private final long maximumSize;
+
+    public DecodedSizeExceededException(final long maximumSize) {
+      super("The decoded content exceeds the maximum size of " + maximumSize + " bytes.");
+      this.maximumSize = maximumSize;
+    }
+
+    public long getMaximumSize() {
+      return maximumSize;
+    }
+  }
+
+  private static class SizeLimitedInputStream extends FilterInputStream {
+    private final long maximumSize;
+    private long size;
+
+    SizeLimitedInputStream(final InputStream input, final long maximumSize) {
+      super(input);
+      this.maximumSize = maximumSize;
+    }
+
+    @Override
+    public int read() throws IOException {
+      final int result = super.read();
+      if (result >= 0) {
+        count(1);
+      }
+      return result;
+    }
+
+    @Override
+    public int read(final byte[] buffer, final int offset, final int length) throws IOException {
+      final int count = super.read(buffer, offset, length);
+      if (count > 0) {
+        count(count);
+      }
+      return count;
+    }
+
+    @Override
+    public long skip(final long length) throws IOException {
+      final long count = super.skip(length);
+      count(count);
+      return count;
+    }
+
+    @Override
+    public boolean markSupported() {
+      return false;
+    }
+
+    private void count(final long count) throws DecodedSizeExceededException {
+      size += count;
+      if (size > maximumSize) {
+        throw new DecodedSizeExceededException(maximumSize);
+      }
+    }
+  }
+
+  private static class LeveledGZIPOutputStream extends GZIPOutputStream {
+    LeveledGZIPOutputStream(final OutputStream output, final int level) throws IOException {
+      super(output, BUFFER_SIZE);
+      def.setLevel(level);
+    }
+  }
+
+  private static class LeveledDeflaterOutputStream extends DeflaterOutputStream {
+    LeveledDeflaterOutputStream(final OutputStream output, final int level) {
+      super(output);
+      def.setLevel(level);
+    }
+  }
+}
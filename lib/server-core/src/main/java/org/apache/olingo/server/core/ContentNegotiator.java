@@ -23,6 +23,8 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.regex.Pattern;
 
 import org.apache.olingo.commons.api.format.AcceptCharset;
@@ -53,13 +55,26 @@ public final class ContentNegotiator {
           ContentType.APPLICATION_ATOM_XML,
           ContentType.APPLICATION_XML));
 
+  private static final List<ContentType> METADATA_SUPPORTED_CONTENT_TYPES =
+      Collections.unmodifiableList(Arrays.asList(ContentType.APPLICATION_XML, ContentType.APPLICATION_JSON));
+
+  private static final int MAXIMUM_NEGOTIATED_TYPES = 256;
+
+  /**
+   * Results of content negotiation without custom content-type support, keyed by representation type,
+   * $format, Accept, and Accept-Charset values.
+   * Lookups do not block; once the map reaches its maximum size it is emptied and filled again
+   * so that arbitrary header values cannot grow it without limit.
+   */
+  private static final ConcurrentMap<List<Object>, ContentType> NEGOTIATED_TYPES =
+      new ConcurrentHashMap<List<Object>, ContentType>();
+
   private ContentNegotiator() {}
 
   private static List<ContentType> getDefaultSupportedContentTypes(final RepresentationType type) {
     switch (type) {
     case METADATA:
-      return Collections.unmodifiableList(Arrays.asList(ContentType.APPLICATION_XML,
-          ContentType.APPLICATION_JSON));
+      return METADATA_SUPPORTED_CONTENT_TYPES;
     case MEDIA:
     case BINARY:
       return Collections.singletonList(ContentType.APPLICATION_OCTET_STREAM);
@@ -90,6 +105,27 @@ public final class ContentNegotiator {
   public static ContentType doContentNegotiation(final FormatOption formatOption, final ODataRequest request,
       final CustomContentTypeSupport customContentTypeSupport, final RepresentationType representationType)
           throws ContentNegotiatorException {
+    if (customContentTypeSupport != null) {
+      return negotiate(formatOption, request, customContentTypeSupport, representationType);
+    }
+    // Without custom support, the result only depends on the request values in the key.
+    final List<Object> key = Arrays.<Object> asList(representationType,
+        formatOption == null ? null : formatOption.getFormat(),
+        request.getHeader(HttpHeader.ACCEPT), request.getHeader(HttpHeader.ACCEPT_CHARSET));
+    ContentType result = NEGOTIATED_TYPES.get(key);
+    if (result == null) {
+      result = negotiate(formatOption, request, null, representationType);
+      if (NEGOTIATED_TYPES.size() >= MAXIMUM_NEGOTIATED_TYPES) {
+        NEGOTIATED_TYPES.clear();
+      }
+      NEGOTIATED_TYPES.put(key, result);
+    }
+    return result;
+  }
+
+  private static ContentType negotiate(final FormatOption formatOption, final ODataRequest request,
+      final CustomContentTypeSupport customContentTypeSupport, final RepresentationType representationType)
+          throws ContentNegotiatorException {
     final List<ContentType> supportedContentTypes =
         getSupportedContentTypes(customContentTypeSupport, representationType);
     final String acceptHeaderValue = request.getHeader(HttpHeader.ACCEPT);
@@ -44,7 +44,9 @@ public class ODataHandlerException extends ODataLibraryException {
     /** parameter: version */
     ODATA_VERSION_NOT_SUPPORTED,
     /** parameter: prefer header */
-    INVALID_PREFER_HEADER;
+    INVALID_PREFER_HEADER,
+    /** parameter: maximum size */
+    PAYLOAD_TOO_LARGE;
 
     @Override
     public String getKey() {
@@ -18,14 +18,19 @@
  */
 package org.apache.olingo.server.core;
 
+import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import org.apache.olingo.commons.api.edm.constants.ODataServiceVersion;
 import org.apache.olingo.commons.api.ex.ODataRuntimeException;
 import org.apache.olingo.commons.api.format.ContentType;
 import org.apache.olingo.commons.api.http.HttpHeader;
 import org.apache.olingo.commons.api.http.HttpMethod;
+import org.apache.olingo.commons.api.http.HttpStatusCode;
 import org.apache.olingo.server.api.OData;
 import org.apache.olingo.server.api.ODataApplicationException;
 import org.apache.olingo.server.api.ODataHandler;
@@ -35,6 +40,8 @@ import org.apache.olingo.server.api.ODataResponse;
 import org.apache.olingo.server.api.ODataServerError;
 import org.apache.olingo.server.api.OlingoExtension;
 import org.apache.olingo.server.api.ServiceMetadata;
+import org.apache.olingo.server.api.batch.ParallelBatchExecutionSupport;
+import org.apache.olingo.server.api.encoding.ContentEncodingSupport;
 import org.apache.olingo.server.api.deserializer.DeserializerException;
 import org.apache.olingo.server.api.etag.CustomETagSupport;
 import org.apache.olingo.server.api.etag.PreconditionException;
@@ -45,9 +52,11 @@ import org.apache.olingo.server.api.serializer.CustomContentTypeSupport;
 import org.apache.olingo.server.api.serializer.RepresentationType;
 import org.apache.olingo.server.api.serializer.SerializerException;
 import org.apache.olingo.server.api.uri.UriInfo;
+import org.apache.olingo.server.api.uri.UriInfoCache;
 import org.apache.olingo.server.api.uri.queryoption.FormatOption;
 import org.apache.olingo.server.api.uri.queryoption.SystemQueryOptionKind;
 import org.apache.olingo.server.core.debug.ServerCoreDebugger;
+import org.apache.olingo.server.core.uri.UriInfoCacheImpl;
 import org.apache.olingo.server.core.uri.parser.Parser;
 import org.apache.olingo.server.core.uri.parser.UriParserException;
 import org.apache.olingo.server.core.uri.parser.UriParserSemanticException;
@@ -58,13 +67,29 @@ import org.apache.olingo.server.core.uri.validator.UriValidator;
 
 public class ODataHandlerImpl implements ODataHandler {
 
+  /** Default timeout in milliseconds for the wait for deferred responses. */
+  public static final long DEFAULT_DEFERRED_RESPONSE_TIMEOUT = 30000;
+
   private final OData odata;
   private final ServiceMetadata serviceMetadata;
+  /** The validator is stateless and can be shared by all handlers. */
+  private static final UriValidator URI_VALIDATOR = new UriValidator();
+
   private final List<Processor> processors = new LinkedList<Processor>();
+  /** Processors already selected for a processor interface; cleared whenever a processor is registered. */
+  private final Map<Class<? extends Processor>, Processor> processorTable =
+      new HashMap<Class<? extends Processor>, Processor>();
+  /** Whether the processors have been initialized already when this handler was copied. */
+  private boolean processorsInitialized = false;
   private final ServerCoreDebugger debugger;
+  private Parser parser;
 
   private CustomContentTypeSupport customContentTypeSupport;
   private CustomETagSupport customETagSupport;
+  private ParallelBatchExecutionSupport parallelBatchExecutionSupport;
+  private UriInfoCacheImpl uriInfoCache;
+  private ContentEncodingSupport contentEncodingSupport;
+  private long deferredResponseTimeout = DEFAULT_DEFERRED_RESPONSE_TIMEOUT;
 
   private UriInfo uriInfo;
   private Exception lastThrownException;
@@ -79,6 +104,41 @@ public class ODataHandlerImpl implements ODataHandler {
   }
 
   public ODataResponse process(final ODataRequest request) {
+    final ODataResponse response = processDeferrable(request);
+    return response.getDeferredResponse() == null ? response : awaitDeferred(request, response);
+  }
+
+  /**
+   * Waits for the completion of a deferred response, but not longer than the timeout
+   * (see {@link #setDeferredResponseTimeout(long)}).
+   * @param request the OData request
+   * @param response the deferred response
+   * @return the response, or an error response if it has been completed with a failure
+   *         or has not been completed in time
+   */
+  public ODataResponse awaitDeferred(final ODataRequest request, final ODataResponse response) {
+    Exception failure;
+    try {
+      failure = response.getDeferredResponse().await(deferredResponseTimeout, TimeUnit.MILLISECONDS);
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      failure = e;
+    } catch (final TimeoutException e) {
+      final ODataResponse errorResponse = new ODataResponse();
+      handleException(request, errorResponse, ODataExceptionHelper.createServerErrorObject(e)
+          .setStatusCode(HttpStatusCode.SERVICE_UNAVAILABLE.getStatusCode()), e);
+      return errorResponse;
+    }
+    return failure == null ? response : handleDeferredFailure(request, failure);
+  }
+
+  /**
+   * Processes a request like {@link #process(ODataRequest)} but does not wait for the completion
+   * of a response the processor has deferred.
+   * @param request the OData request
+   * @return the response; it is deferred if {@link ODataResponse#getDeferredResponse()} is not <code>null</code>
+   */
+  public ODataResponse processDeferrable(final ODataRequest request) {
     ODataResponse response = new ODataResponse();
     final int responseHandle = debugger.startRuntimeMeasurement("ODataHandler", "process");
     try {
@@ -139,8 +199,7 @@ public class ODataHandlerImpl implements ODataHandler {
 
     final int measurementUriParser = debugger.startRuntimeMeasurement("Parser", "parseUri");
     try {
-      uriInfo = new Parser(serviceMetadata.getEdm(), odata)
-          .parseUri(request.getRawODataPath(), request.getRawQueryPath(), null, request.getRawBaseUri());
+      uriInfo = parseUri(request);
     } catch (final ODataLibraryException e) {
       debugger.stopRuntimeMeasurement(measurementUriParser);
       debugger.stopRuntimeMeasurement(measurementHandle);
@@ -151,7 +210,7 @@ public class ODataHandlerImpl implements ODataHandler {
     final int measurementUriValidator = debugger.startRuntimeMeasurement("UriValidator", "validate");
     final HttpMethod method = request.getMethod();
     try {
-      new UriValidator().validate(uriInfo, method);
+      URI_VALIDATOR.validate(uriInfo, method);
     } catch (final UriValidationException e) {
       debugger.stopRuntimeMeasurement(measurementUriValidator);
       debugger.stopRuntimeMeasurement(measurementHandle);
@@ -168,6 +227,56 @@ public class ODataHandlerImpl implements ODataHandler {
     }
   }
 
+  private Parser getParser() {
+    if (parser == null) {
+      parser = new Parser(serviceMetadata.getEdm(), odata);
+    }
+    return parser;
+  }
+
+  private UriInfo parseUri(final ODataRequest request) throws ODataLibraryException {
+    if (uriInfoCache == null) {
+      return getParser()
+          .parseUri(request.getRawODataPath(), request.getRawQueryPath(), null, request.getRawBaseUri());
+    }
+    final UriInfo cachedUriInfo = uriInfoCache.get(serviceMetadata.getEdm(),
+        request.getRawODataPath(), request.getRawQueryPath(), request.getRawBaseUri());
+    final int measurementHandle = debugger.startRuntimeMeasurement("UriInfoCache",
+        cachedUriInfo == null ? "miss" : "hit");
+    try {
+      if (cachedUriInfo != null) {
+        return cachedUriInfo;
+      }
+      final UriInfo parsedUriInfo = getParser()
+          .parseUri(request.getRawODataPath(), request.getRawQueryPath(), null, request.getRawBaseUri());
+      uriInfoCache.put(serviceMetadata.getEdm(),
+          request.getRawODataPath(), request.getRawQueryPath(), request.getRawBaseUri(), parsedUriInfo);
+      return parsedUriInfo;
+    } finally {
+      debugger.stopRuntimeMeasurement(measurementHandle);
+    }
+  }
+
+  /**
+   * Creates the error response for a deferred response that has been completed with a failure.
+   * @param request the OData request
+   * @param failure the exception the deferred response has been failed with
+   * @return the error response
+   */
+  public ODataResponse handleDeferredFailure(final ODataRequest request, final Exception failure) {
+    final ODataResponse response = new ODataResponse();
+    final ODataServerError serverError;
+    if (failure instanceof ODataApplicationException) {
+      serverError = ODataExceptionHelper.createServerErrorObject((ODataApplicationException) failure);
+    } else if (failure instanceof ODataLibraryException) {
+      serverError = ODataExceptionHelper.createServerErrorObject((ODataLibraryException) failure, null);
+    } else {
+      serverError = ODataExceptionHelper.createServerErrorObject(failure);
+    }
+    handleException(request, response, serverError, failure);
+    return response;
+  }
+
   public void handleException(final ODataRequest request, final ODataResponse response,
       final ODataServerError serverError, final Exception exception) {
     final int measurementHandle = debugger.startRuntimeMeasurement("ODataHandler", "handleException");
@@ -190,11 +299,30 @@ public class ODataHandlerImpl implements ODataHandler {
       requestedContentType = ContentType.JSON;
     }
     final int measurementError = debugger.startRuntimeMeasurement("ErrorProcessor", "processError");
-    exceptionProcessor.processError(request, response, serverError, requestedContentType);
+    exceptionProcessor.processError(request, response, getPayloadTooLargeError(serverError, exception),
+        requestedContentType);
     debugger.stopRuntimeMeasurement(measurementError);
     debugger.stopRuntimeMeasurement(measurementHandle);
   }
 
+  /**
+   * Replaces the given server error by a 413 (Payload Too Large) error if the exception has been caused
+   * by a request body that exceeds the maximum decoded size, wherever the body has been read.
+   */
+  private static ODataServerError getPayloadTooLargeError(final ODataServerError serverError,
+      final Throwable exception) {
+    for (Throwable cause = exception; cause != null; cause = cause.getCause()) {
+      if (cause instanceof ContentEncodingHelper.DecodedSizeExceededException) {
+        final long maximumSize = ((ContentEncodingHelper.DecodedSizeExceededException) cause).getMaximumSize();
+        return ODataExceptionHelper.createServerErrorObject(
+            new ODataHandlerException(cause.getMessage(), cause,
+                ODataHandlerException.MessageKeys.PAYLOAD_TOO_LARGE, String.valueOf(maximumSize)),
+            null);
+      }
+    }
+    return serverError;
+  }
+
   /**
    * Extract format option from either <code>uriInfo</code> (if not <code>NULL</code>)
    * or query from <code>request</code> (if not <code>NULL</code>).
@@ -241,18 +369,30 @@ public class ODataHandlerImpl implements ODataHandler {
   }
 
   <T extends Processor> T selectProcessor(final Class<T> cls) throws ODataHandlerException {
-    for (final Processor processor : processors) {
-      if (cls.isAssignableFrom(processor.getClass())) {
-        processor.init(odata, serviceMetadata);
-        return cls.cast(processor);
+    Processor selected = processorTable.get(cls);
+    if (selected == null) {
+      for (final Processor processor : processors) {
+        if (cls.isAssignableFrom(processor.getClass())) {
+          selected = processor;
+          processorTable.put(cls, processor);
+          break;
+        }
       }
     }
-    throw new ODataHandlerException("Processor: " + cls.getSimpleName() + " not registered.",
-        ODataHandlerException.MessageKeys.PROCESSOR_NOT_IMPLEMENTED, cls.getSimpleName());
+    if (selected == null) {
+      throw new ODataHandlerException("Processor: " + cls.getSimpleName() + " not registered.",
+          ODataHandlerException.MessageKeys.PROCESSOR_NOT_IMPLEMENTED, cls.getSimpleName());
+    }
+    if (!processorsInitialized) {
+      selected.init(odata, serviceMetadata);
+    }
+    return cls.cast(selected);
   }
 
   public void register(final Processor processor) {
     processors.add(0, processor);
+    processorTable.clear();
+    processorsInitialized = false;
   }
 
   @Override
@@ -261,6 +401,14 @@ public class ODataHandlerImpl implements ODataHandler {
       this.customContentTypeSupport = (CustomContentTypeSupport) extension;
     } else if(extension instanceof CustomETagSupport) {
       this.customETagSupport = (CustomETagSupport) extension;
+    } else if(extension instanceof ParallelBatchExecutionSupport) {
+      this.parallelBatchExecutionSupport = (ParallelBatchExecutionSupport) extension;
+    } else if(extension instanceof UriInfoCacheImpl) {
+      this.uriInfoCache = (UriInfoCacheImpl) extension;
+    } else if(extension instanceof UriInfoCache) {
+      throw new ODataRuntimeException("Only URI caches created with OData.createUriInfoCache are supported.");
+    } else if(extension instanceof ContentEncodingSupport) {
+      this.contentEncodingSupport = (ContentEncodingSupport) extension;
     } else {
       throw new ODataRuntimeException("Got not supported exception with class name " +
           extension.getClass().getSimpleName());
@@ -275,6 +423,66 @@ public class ODataHandlerImpl implements ODataHandler {
     return customETagSupport;
   }
 
+  public boolean isDebugMode() {
+    return debugger.isDebugMode();
+  }
+
+  public ParallelBatchExecutionSupport getParallelBatchExecutionSupport() {
+    return parallelBatchExecutionSupport;
+  }
+
+  public ContentEncodingSupport getContentEncodingSupport() {
+    return contentEncodingSupport;
+  }
+
+  /**
+   * Sets the timeout for the wait for deferred responses.
+   * @param timeout the timeout in milliseconds; zero or less means no timeout
+   */
+  public void setDeferredResponseTimeout(final long timeout) {
+    deferredResponseTimeout = timeout;
+  }
+
+  /**
+   * Creates a handler with the same processors and extensions as this handler.
+   * Since a handler keeps the state of the request it processes, requests that are processed
+   * concurrently need handlers of their own.
+   * The processors are shared, so they are initialized once here on the calling thread;
+   * the copy and its own copies do not initialize them again.
+   * @return new handler
+   */
+  public ODataHandlerImpl copy() {
+    return copy(debugger);
+  }
+
+  /**
+   * Creates a handler with the same processors and extensions as this handler, see {@link #copy()},
+   * but with the given debugger, so that the copy does not share any request state with this handler.
+   * @param debugger debugger of the new handler
+   * @return new handler
+   */
+  public ODataHandlerImpl copy(final ServerCoreDebugger debugger) {
+    if (!processorsInitialized) {
+      for (final Processor processor : processors) {
+        processor.init(odata, serviceMetadata);
+      }
+    }
+    final ODataHandlerImpl handler = new ODataHandlerImpl(odata, serviceMetadata, debugger);
+    handler.processorsInitialized = true;
+    handler.processors.clear();
+    handler.processors.addAll(processors);
+    handler.processorTable.clear();
+    handler.processorTable.putAll(processorTable);
+    handler.parser = parser;
+    handler.customContentTypeSupport = customContentTypeSupport;
+    handler.customETagSupport = customETagSupport;
+    handler.parallelBatchExecutionSupport = parallelBatchExecutionSupport;
+    handler.uriInfoCache = uriInfoCache;
+    handler.contentEncodingSupport = contentEncodingSupport;
+    handler.deferredResponseTimeout = deferredResponseTimeout;
+    return handler;
+  }
+
   public Exception getLastThrownException() {
     return lastThrownException;
   }
@@ -20,6 +20,7 @@ package org.apache.olingo.server.core;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.ByteBuffer;
 import java.nio.channels.Channel;
 import java.nio.channels.Channels;
@@ -31,13 +32,19 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
 import org.apache.olingo.commons.api.ex.ODataRuntimeException;
 import org.apache.olingo.commons.api.http.HttpHeader;
 import org.apache.olingo.commons.api.http.HttpMethod;
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.server.api.DeferredResponse;
 import org.apache.olingo.server.api.OData;
 import org.apache.olingo.server.api.ODataContent;
 import org.apache.olingo.server.api.ODataHttpHandler;
@@ -49,6 +56,7 @@ import org.apache.olingo.server.api.OlingoExtension;
 import org.apache.olingo.server.api.ServiceMetadata;
 import org.apache.olingo.server.api.debug.DebugSupport;
 import org.apache.olingo.server.api.deserializer.DeserializerException;
+import org.apache.olingo.server.api.encoding.ContentEncodingSupport;
 import org.apache.olingo.server.api.etag.CustomETagSupport;
 import org.apache.olingo.server.api.processor.Processor;
 import org.apache.olingo.server.api.serializer.CustomContentTypeSupport;
@@ -57,12 +65,15 @@ import org.apache.olingo.server.core.debug.ServerCoreDebugger;
 public class ODataHttpHandlerImpl implements ODataHttpHandler {
 
   public static final int COPY_BUFFER_SIZE = 8192;
+  /** Default timeout in milliseconds for deferred responses in asynchronous mode. */
+  public static final long DEFAULT_ASYNC_TIMEOUT = ODataHandlerImpl.DEFAULT_DEFERRED_RESPONSE_TIMEOUT;
   private static final String REQUESTMAPPING = "requestMapping";
 
   private final ODataHandlerImpl handler;
   private final ServerCoreDebugger debugger;
 
   private int split = 0;
+  private long asyncTimeout = DEFAULT_ASYNC_TIMEOUT;
 
   public ODataHttpHandlerImpl(final OData odata, final ServiceMetadata serviceMetadata) {
     debugger = new ServerCoreDebugger(odata);
@@ -76,7 +87,17 @@ public class ODataHttpHandlerImpl implements ODataHttpHandler {
 
   @Override
   public void process(final HttpServletRequest request, final HttpServletResponse response) {
-    ODataRequest odRequest = new ODataRequest();
+    process(request, response, false);
+  }
+
+  @Override
+  public void processAsync(final HttpServletRequest request, final HttpServletResponse response) {
+    process(request, response, request.isAsyncSupported());
+  }
+
+  private void process(final HttpServletRequest request, final HttpServletResponse response,
+      final boolean async) {
+    final ODataRequest odRequest = new ODataRequest();
     Exception exception = null;
     ODataResponse odResponse;
     debugger.resolveDebugMode(request);
@@ -85,7 +106,7 @@ public class ODataHttpHandlerImpl implements ODataHttpHandler {
     try {
       fillODataRequest(odRequest, request, split);
 
-      odResponse = process(odRequest);
+      odResponse = async ? handler.processDeferrable(odRequest) : process(odRequest);
       // ALL future methods after process must not throw exceptions!
     } catch (Exception e) {
       exception = e;
@@ -93,18 +114,93 @@ public class ODataHttpHandlerImpl implements ODataHttpHandler {
     }
     debugger.stopRuntimeMeasurement(processMethodHandle);
 
+    final DeferredResponse deferredResponse = odResponse.getDeferredResponse();
+    if (async && deferredResponse != null && !deferredResponse.isDone()) {
+      // The container thread is released; the response is written by the thread completing it.
+      final AsyncContext asyncContext = request.startAsync(request, response);
+      asyncContext.setTimeout(asyncTimeout);
+      final ODataResponse deferredODataResponse = odResponse;
+      // The response is written only once: on completion, or on timeout or error of the asynchronous processing.
+      final AtomicBoolean written = new AtomicBoolean(false);
+      asyncContext.addListener(new AsyncListener() {
+        @Override
+        public void onTimeout(final AsyncEvent event) {
+          if (written.compareAndSet(false, true)) {
+            writeAsyncError(request, asyncContext, odRequest, HttpStatusCode.SERVICE_UNAVAILABLE,
+                new ODataRuntimeException("The response has not been completed within " + asyncTimeout + " ms."));
+          }
+        }
+
+        @Override
+        public void onError(final AsyncEvent event) {
+          if (written.compareAndSet(false, true)) {
+            final Throwable cause = event.getThrowable();
+            writeAsyncError(request, asyncContext, odRequest, HttpStatusCode.INTERNAL_SERVER_ERROR,
+                cause instanceof Exception ? (Exception) cause :
+                    new ODataRuntimeException("The asynchronous processing of the request failed."));
+          }
+        }
+
+        @Override
+        public void onStartAsync(final AsyncEvent event) {
+          // Nothing to do.
+        }
+
+        @Override
+        public void onComplete(final AsyncEvent event) {
+          // Nothing to do.
+        }
+      });
+      deferredResponse.setListener(new DeferredResponse.Listener() {
+        @Override
+        public void onCompletion(final Exception failure) {
+          if (!written.compareAndSet(false, true)) {
+            // Completed too late; the error response has been sent already.
+            return;
+          }
+          try {
+            writeResponse(request, (HttpServletResponse) asyncContext.getResponse(), odRequest,
+                failure == null ? deferredODataResponse : handler.handleDeferredFailure(odRequest, failure),
+                failure);
+          } finally {
+            asyncContext.complete();
+          }
+        }
+      });
+    } else if (async && deferredResponse != null) {
+      writeResponse(request, response, odRequest, handler.awaitDeferred(odRequest, odResponse), null);
+    } else {
+      writeResponse(request, response, odRequest, odResponse, exception);
+    }
+  }
+
+  private void writeAsyncError(final HttpServletRequest request, final AsyncContext asyncContext,
+      final ODataRequest odRequest, final HttpStatusCode status, final Exception exception) {
+    final ODataServerError serverError = ODataExceptionHelper.createServerErrorObject(exception)
+        .setStatusCode(status.getStatusCode());
+    final ODataResponse errorResponse = new ODataResponse();
+    try {
+      handler.handleException(odRequest, errorResponse, serverError, exception);
+      writeResponse(request, (HttpServletResponse) asyncContext.getResponse(), odRequest, errorResponse, exception);
+    } finally {
+      asyncContext.complete();
+    }
+  }
+
+  private void writeResponse(final HttpServletRequest request, final HttpServletResponse response,
+      final ODataRequest odRequest, final ODataResponse odResponse, final Exception exception) {
+    ODataResponse httpResponse = odResponse;
     if (debugger.isDebugMode()) {
       Map<String, String> serverEnvironmentVariables = createEnvironmentVariablesMap(request);
-      if (exception == null) {
-        // This is to ensure that we have access to the thrown OData Exception
-        exception = handler.getLastThrownException();
-      }
-      odResponse =
-          debugger.createDebugResponse(odRequest, odResponse, exception, handler.getUriInfo(),
+      // This is to ensure that we have access to the thrown OData Exception
+      final Exception debugException = exception == null ? handler.getLastThrownException() : exception;
+      httpResponse =
+          debugger.createDebugResponse(odRequest, odResponse, debugException, handler.getUriInfo(),
               serverEnvironmentVariables);
     }
 
-    convertToHttp(response, odResponse);
+    convertToHttp(response, httpResponse, odRequest.getHeaders(HttpHeader.ACCEPT_ENCODING),
+        handler.getContentEncodingSupport());
   }
 
   private Map<String, String> createEnvironmentVariablesMap(final HttpServletRequest request) {
@@ -135,6 +231,12 @@ public class ODataHttpHandlerImpl implements ODataHttpHandler {
     this.split = split;
   }
 
+  @Override
+  public void setAsyncTimeout(final long timeout) {
+    asyncTimeout = timeout;
+    handler.setDeferredResponseTimeout(timeout);
+  }
+
   private ODataResponse handleException(final ODataRequest odRequest, final Exception e) {
     ODataResponse resp = new ODataResponse();
     ODataServerError serverError;
@@ -150,27 +252,49 @@ public class ODataHttpHandlerImpl implements ODataHttpHandler {
   }
 
   static void convertToHttp(final HttpServletResponse response, final ODataResponse odResponse) {
+    convertToHttp(response, odResponse, null, null);
+  }
+
+  static void convertToHttp(final HttpServletResponse response, final ODataResponse odResponse,
+      final List<String> acceptEncodings, final ContentEncodingSupport contentEncodingSupport) {
+    final String encoding = contentEncodingSupport == null ? null :
+        ContentEncodingHelper.prepareResponse(odResponse, acceptEncodings, contentEncodingSupport);
     response.setStatus(odResponse.getStatusCode());
 
     for (Entry<String, List<String>> entry : odResponse.getAllHeaders().entrySet()) {
+      if (encoding != null && HttpHeader.CONTENT_LENGTH.equalsIgnoreCase(entry.getKey())) {
+        continue;
+      }
       for (String headerValue : entry.getValue()) {
         response.addHeader(entry.getKey(), headerValue);
       }
     }
 
+    final int level = encoding == null ? 0 : contentEncodingSupport.getCompressionLevel();
     if (odResponse.getContent() != null) {
-      copyContent(odResponse.getContent(), response);
+      copyContent(Channels.newChannel(odResponse.getContent()), response, encoding, level);
     } else if (odResponse.getODataContent() != null) {
-      writeContent(odResponse, response);
+      writeContent(odResponse, response, encoding, level);
     }
   }
-  
+
   static void writeContent(final ODataResponse odataResponse, final HttpServletResponse servletResponse) {
+    writeContent(odataResponse, servletResponse, null, 0);
+  }
+
+  private static void writeContent(final ODataResponse odataResponse, final HttpServletResponse servletResponse,
+      final String encoding, final int level) {
+    OutputStream output = null;
     try {
       ODataContent res = odataResponse.getODataContent();
-      res.write(Channels.newChannel(servletResponse.getOutputStream()));
+      output = ContentEncodingHelper.encode(servletResponse.getOutputStream(), encoding, level);
+      res.write(Channels.newChannel(output));
     } catch (IOException e) {
       throw new ODataRuntimeException("Error on reading request content", e);
+    } finally {
+      if (encoding != null) {
+        closeStream(output);
+      }
     }
   }
 
@@ -179,10 +303,16 @@ public class ODataHttpHandlerImpl implements ODataHttpHandler {
   }
 
   static void copyContent(final ReadableByteChannel input, final HttpServletResponse servletResponse) {
+    copyContent(input, servletResponse, null, 0);
+  }
+
+  private static void copyContent(final ReadableByteChannel input, final HttpServletResponse servletResponse,
+      final String encoding, final int level) {
     WritableByteChannel output = null;
     try {
       ByteBuffer inBuffer = ByteBuffer.allocate(COPY_BUFFER_SIZE);
-      output = Channels.newChannel(servletResponse.getOutputStream());
+      output = Channels.newChannel(
+          ContentEncodingHelper.encode(servletResponse.getOutputStream(), encoding, level));
       while (input.read(inBuffer) > 0) {
         inBuffer.flip();
         output.write(inBuffer);
@@ -205,17 +335,28 @@ public class ODataHttpHandlerImpl implements ODataHttpHandler {
       }
     }
   }
+
+  private static void closeStream(final OutputStream closeable) {
+    if (closeable != null) {
+      try {
+        closeable.close();
+      } catch (IOException e) {
+        // ignore
+      }
+    }
+  }
   
   private ODataRequest fillODataRequest(final ODataRequest odRequest, final HttpServletRequest httpRequest,
       final int split) throws ODataLibraryException {
     final int requestHandle = debugger.startRuntimeMeasurement("ODataHttpHandlerImpl", "fillODataRequest");
     try {
-      odRequest.setBody(httpRequest.getInputStream());
       odRequest.setProtocol(httpRequest.getProtocol());
       odRequest.setMethod(extractMethod(httpRequest));
       int innerHandle = debugger.startRuntimeMeasurement("ODataHttpHandlerImpl", "copyHeaders");
       copyHeaders(odRequest, httpRequest);
       debugger.stopRuntimeMeasurement(innerHandle);
+      ContentEncodingHelper.setDecodedBody(odRequest, httpRequest.getInputStream(),
+          handler.getContentEncodingSupport());
       innerHandle = debugger.startRuntimeMeasurement("ODataHttpHandlerImpl", "fillUriInformation");
       fillUriInformation(odRequest, httpRequest, split);
       debugger.stopRuntimeMeasurement(innerHandle);
@@ -47,23 +47,52 @@ import org.apache.olingo.server.api.serializer.FixedFormatSerializer;
 import org.apache.olingo.server.api.serializer.ODataSerializer;
 import org.apache.olingo.server.api.serializer.SerializerException;
 import org.apache.olingo.server.api.uri.UriHelper;
+import org.apache.olingo.server.api.uri.UriInfoCache;
 import org.apache.olingo.server.core.debug.DebugResponseHelperImpl;
 import org.apache.olingo.server.core.debug.ServerCoreDebugger;
 import org.apache.olingo.server.core.deserializer.FixedFormatDeserializerImpl;
 import org.apache.olingo.server.core.deserializer.json.ODataJsonDeserializer;
+import org.apache.olingo.server.core.deserializer.json.ODataJsonStreamDeserializer;
 import org.apache.olingo.server.core.deserializer.xml.ODataXmlDeserializer;
 import org.apache.olingo.server.core.etag.ETagHelperImpl;
 import org.apache.olingo.server.core.prefer.PreferencesImpl;
 import org.apache.olingo.server.core.serializer.FixedFormatSerializerImpl;
 import org.apache.olingo.server.core.serializer.json.EdmAssistedJsonSerializer;
+import org.apache.olingo.server.core.serializer.json.ODataJsonFactory;
 import org.apache.olingo.server.core.serializer.json.ODataJsonSerializer;
 import org.apache.olingo.server.core.serializer.json.JsonDeltaSerializer;
 import org.apache.olingo.server.core.serializer.json.JsonDeltaSerializerWithNavigations;
 import org.apache.olingo.server.core.serializer.xml.ODataXmlSerializer;
 import org.apache.olingo.server.core.uri.UriHelperImpl;
+import org.apache.olingo.server.core.uri.UriInfoCacheImpl;
+
+import com.fasterxml.jackson.core.JsonFactory;
 
 public class ODataImpl extends OData {
 
+  private JsonFactory jsonFactory = ODataJsonFactory.getDefault();
+  private boolean jsonStreamDeserialization = false;
+
+  /**
+   * Sets the {@link JsonFactory} used by the JSON serializers created by this instance.
+   * The factory should be created once (see {@link ODataJsonFactory#create(java.util.Map)})
+   * and then shared between all requests; by default the shared factory with default features is used.
+   * @param jsonFactory the factory to use
+   */
+  public void setJsonFactory(final JsonFactory jsonFactory) {
+    this.jsonFactory = jsonFactory == null ? ODataJsonFactory.getDefault() : jsonFactory;
+  }
+
+  /**
+   * Sets whether the JSON deserializers created by this instance read entities and entity collections
+   * directly from the JSON token stream (see {@link ODataJsonStreamDeserializer}) instead of
+   * reading the whole payload into a JSON tree first.
+   * @param jsonStreamDeserialization <code>true</code> to use the streaming deserializer
+   */
+  public void setJsonStreamDeserialization(final boolean jsonStreamDeserialization) {
+    this.jsonStreamDeserialization = jsonStreamDeserialization;
+  }
+
   @Override
   public ODataSerializer createSerializer(final ContentType contentType) throws SerializerException {
     ODataSerializer serializer = null;
@@ -74,7 +103,7 @@ public class ODataImpl extends OData {
           || ContentType.VALUE_ODATA_METADATA_MINIMAL.equalsIgnoreCase(metadata)
           || ContentType.VALUE_ODATA_METADATA_NONE.equalsIgnoreCase(metadata)
           || ContentType.VALUE_ODATA_METADATA_FULL.equalsIgnoreCase(metadata)) {
-        serializer = new ODataJsonSerializer(contentType, new Constantsv00());
+        serializer = new ODataJsonSerializer(contentType, new Constantsv00(), jsonFactory);
       }
     } else if (contentType.isCompatible(ContentType.APPLICATION_XML)
         || contentType.isCompatible(ContentType.APPLICATION_ATOM_XML)) {
@@ -103,7 +132,7 @@ public class ODataImpl extends OData {
           || ContentType.VALUE_ODATA_METADATA_MINIMAL.equalsIgnoreCase(metadata)
           || ContentType.VALUE_ODATA_METADATA_NONE.equalsIgnoreCase(metadata)
           || ContentType.VALUE_ODATA_METADATA_FULL.equalsIgnoreCase(metadata)) {
-        serializer = new ODataJsonSerializer(contentType, constants);
+        serializer = new ODataJsonSerializer(contentType, constants, jsonFactory);
       }
     } else if (contentType.isCompatible(ContentType.APPLICATION_XML)
         || contentType.isCompatible(ContentType.APPLICATION_ATOM_XML)) {
@@ -126,7 +155,7 @@ public class ODataImpl extends OData {
   @Override
   public EdmAssistedSerializer createEdmAssistedSerializer(final ContentType contentType) throws SerializerException {
     if (contentType.isCompatible(ContentType.APPLICATION_JSON)) {
-      return new EdmAssistedJsonSerializer(contentType);
+      return new EdmAssistedJsonSerializer(contentType, jsonFactory);
     }
     throw new SerializerException("Unsupported format: " + contentType.toContentTypeString(),
         SerializerException.MessageKeys.UNSUPPORTED_FORMAT, contentType.toContentTypeString());
@@ -138,10 +167,10 @@ public class ODataImpl extends OData {
       throws SerializerException {
     if (contentType.isCompatible(ContentType.APPLICATION_JSON)) {
       if(versions!=null && !versions.isEmpty()){
-       return getMaxVersion(versions)>4 ?  new JsonDeltaSerializerWithNavigations(contentType):
-         new JsonDeltaSerializer(contentType);
+       return getMaxVersion(versions)>4 ?  new JsonDeltaSerializerWithNavigations(contentType, jsonFactory):
+         new JsonDeltaSerializer(contentType, jsonFactory);
       }
-      return new JsonDeltaSerializerWithNavigations(contentType);
+      return new JsonDeltaSerializerWithNavigations(contentType, jsonFactory);
     }
     throw new SerializerException("Unsupported format: " + contentType.toContentTypeString(),
         SerializerException.MessageKeys.UNSUPPORTED_FORMAT, contentType.toContentTypeString());
@@ -181,6 +210,13 @@ public class ODataImpl extends OData {
     return new ServiceMetadataImpl(edmProvider, references, serviceMetadataETagSupport);
   }
 
+  @Override
+  public ServiceMetadata createServiceMetadata(final CsdlEdmProvider edmProvider,
+      final List<EdmxReference> references, final ServiceMetadataETagSupport serviceMetadataETagSupport,
+      final boolean preloadEdm) {
+    return new ServiceMetadataImpl(edmProvider, references, serviceMetadataETagSupport, preloadEdm);
+  }
+
   @Override
   public FixedFormatDeserializer createFixedFormatDeserializer() {
     return new FixedFormatDeserializerImpl();
@@ -194,7 +230,9 @@ public class ODataImpl extends OData {
   @Override
   public ODataDeserializer createDeserializer(final ContentType contentType) throws DeserializerException {
     if (contentType.isCompatible(ContentType.JSON)) {
-      return new ODataJsonDeserializer(contentType);
+      return jsonStreamDeserialization ?
+          new ODataJsonStreamDeserializer(contentType) :
+          new ODataJsonDeserializer(contentType);
     } else if (contentType.isCompatible(ContentType.APPLICATION_XML)
         || contentType.isCompatible(ContentType.APPLICATION_ATOM_XML)) {
       return new ODataXmlDeserializer();
@@ -207,7 +245,9 @@ public class ODataImpl extends OData {
   public ODataDeserializer createDeserializer(final ContentType contentType,
       ServiceMetadata metadata) throws DeserializerException {
     if (contentType.isCompatible(ContentType.JSON)) {
-      return new ODataJsonDeserializer(contentType, metadata);
+      return jsonStreamDeserialization ?
+          new ODataJsonStreamDeserializer(contentType, metadata) :
+          new ODataJsonDeserializer(contentType, metadata);
     } else if (contentType.isCompatible(ContentType.APPLICATION_XML)
         || contentType.isCompatible(ContentType.APPLICATION_ATOM_XML)) {
       return new ODataXmlDeserializer(metadata);
@@ -227,6 +267,11 @@ public class ODataImpl extends OData {
     return new ETagHelperImpl();
   }
 
+  @Override
+  public UriInfoCache createUriInfoCache(final int maximumSize) {
+    return new UriInfoCacheImpl(maximumSize);
+  }
+
   @Override
   public Preferences createPreferences(final Collection<String> preferHeaders) {
     return new PreferencesImpl(preferHeaders);
@@ -247,7 +292,9 @@ public class ODataImpl extends OData {
       constants = new Constantsv01() ;
     }
     if (contentType.isCompatible(ContentType.JSON)) {
-      return new ODataJsonDeserializer(contentType, constants);
+      return jsonStreamDeserialization ?
+          new ODataJsonStreamDeserializer(contentType, constants) :
+          new ODataJsonDeserializer(contentType, constants);
     } else if (contentType.isCompatible(ContentType.APPLICATION_XML)
         || contentType.isCompatible(ContentType.APPLICATION_ATOM_XML)) {
       return new ODataXmlDeserializer();
@@ -266,7 +313,9 @@ public class ODataImpl extends OData {
       constants = new Constantsv01() ;
     }
     if (contentType.isCompatible(ContentType.JSON)) {
-      return new ODataJsonDeserializer(contentType, metadata, constants);
+      return jsonStreamDeserialization ?
+          new ODataJsonStreamDeserializer(contentType, metadata, constants) :
+          new ODataJsonDeserializer(contentType, metadata, constants);
     } else if (contentType.isCompatible(ContentType.APPLICATION_XML)
         || contentType.isCompatible(ContentType.APPLICATION_ATOM_XML)) {
       return new ODataXmlDeserializer(metadata);
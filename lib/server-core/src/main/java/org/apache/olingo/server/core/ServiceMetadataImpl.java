@@ -29,6 +29,7 @@ import org.apache.olingo.commons.api.edmx.EdmxReference;
 import org.apache.olingo.commons.core.edm.EdmProviderImpl;
 import org.apache.olingo.server.api.ServiceMetadata;
 import org.apache.olingo.server.api.etag.ServiceMetadataETagSupport;
+import org.apache.olingo.server.core.serializer.SerializedDocumentCache;
 
 /**
  */
@@ -37,10 +38,20 @@ public class ServiceMetadataImpl implements ServiceMetadata {
   private final Edm edm;
   private final List<EdmxReference> references;
   private final ServiceMetadataETagSupport serviceMetadataETagSupport;
+  private final SerializedDocumentCache serializedDocumentCache = new SerializedDocumentCache();
 
   public ServiceMetadataImpl(final CsdlEdmProvider edmProvider, final List<EdmxReference> references,
       final ServiceMetadataETagSupport serviceMetadataETagSupport) {
-    edm = new EdmProviderImpl(edmProvider);
+    this(edmProvider, references, serviceMetadataETagSupport, false);
+  }
+
+  public ServiceMetadataImpl(final CsdlEdmProvider edmProvider, final List<EdmxReference> references,
+      final ServiceMetadataETagSupport serviceMetadataETagSupport, final boolean preloadEdm) {
+    final EdmProviderImpl edmProviderImpl = new EdmProviderImpl(edmProvider);
+    if (preloadEdm) {
+      edmProviderImpl.preload();
+    }
+    edm = edmProviderImpl;
     this.references = new ArrayList<EdmxReference>();
     this.references.addAll(references);
     this.serviceMetadataETagSupport = serviceMetadataETagSupport;
@@ -65,4 +76,13 @@ public class ServiceMetadataImpl implements ServiceMetadata {
   public ServiceMetadataETagSupport getServiceMetadataETagSupport() {
     return serviceMetadataETagSupport;
   }
+
+  /**
+   * Gets the cache of serialized metadata and service documents;
+   * documents are only cached if the ETag support delivers ETags for them.
+   * @return document cache
+   */
+  public SerializedDocumentCache getSerializedDocumentCache() {
+    return serializedDocumentCache;
+  }
 }
@@ -18,20 +18,26 @@
  */
 package org.apache.olingo.server.core.batchhandler;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.apache.olingo.server.api.ODataApplicationException;
 import org.apache.olingo.server.api.ODataHandler;
 import org.apache.olingo.server.api.ODataLibraryException;
 import org.apache.olingo.server.api.ODataRequest;
 import org.apache.olingo.server.api.ODataResponse;
 import org.apache.olingo.server.api.batch.BatchFacade;
+import org.apache.olingo.server.api.batch.ParallelBatchExecutionSupport;
 import org.apache.olingo.server.api.deserializer.batch.BatchDeserializerException;
 import org.apache.olingo.server.api.deserializer.batch.BatchRequestPart;
 import org.apache.olingo.server.api.deserializer.batch.ODataResponsePart;
 import org.apache.olingo.server.api.processor.BatchProcessor;
+import org.apache.olingo.server.core.ODataHandlerImpl;
 import org.apache.olingo.server.core.deserializer.batch.BatchParserCommon;
 
 public class BatchFacadeImpl implements BatchFacade {
   private final BatchPartHandler partHandler;
+  private final ParallelBatchPartExecutor parallelExecutor;
 
   /**
    * Creates a new BatchFacade.
@@ -42,6 +48,21 @@ public class BatchFacadeImpl implements BatchFacade {
   public BatchFacadeImpl(final ODataHandler oDataHandler, final BatchProcessor batchProcessor,
                          final boolean isStrict) {
     partHandler = new BatchPartHandler(oDataHandler, batchProcessor, this);
+    parallelExecutor = null;
+  }
+
+  /**
+   * Creates a new BatchFacade which executes query operations in parallel.
+   * @param oDataHandler      handler
+   * @param batchProcessor    batch processor
+   * @param isStrict          mode switch (currently not used)
+   * @param parallelExecution parallel execution settings; <code>null</code> for sequential execution
+   */
+  public BatchFacadeImpl(final ODataHandlerImpl oDataHandler, final BatchProcessor batchProcessor,
+                         final boolean isStrict, final ParallelBatchExecutionSupport parallelExecution) {
+    partHandler = new BatchPartHandler(oDataHandler, batchProcessor, this);
+    parallelExecutor = parallelExecution == null || parallelExecution.getMaxParallelism() < 2 ? null :
+        new ParallelBatchPartExecutor(oDataHandler, batchProcessor, this, parallelExecution);
   }
 
   @Override
@@ -56,6 +77,28 @@ public class BatchFacadeImpl implements BatchFacade {
     return partHandler.handleBatchRequest(request);
   }
 
+  @Override
+  public List<ODataResponsePart> handleBatchRequests(final List<BatchRequestPart> requests,
+      final boolean continueOnError) throws ODataApplicationException, ODataLibraryException {
+    if (parallelExecutor != null) {
+      return parallelExecutor.execute(requests, continueOnError);
+    }
+    final List<ODataResponsePart> responseParts = new ArrayList<ODataResponsePart>();
+    for (final BatchRequestPart request : requests) {
+      final ODataResponsePart responsePart = handleBatchRequest(request);
+      responseParts.add(responsePart); // Also add failed responses.
+      if (!continueOnError && isError(responsePart)) {
+        break;
+      }
+    }
+    return responseParts;
+  }
+
+  static boolean isError(final ODataResponsePart responsePart) {
+    final int statusCode = responsePart.getResponses().get(0).getStatusCode();
+    return statusCode >= 400 && statusCode <= 600;
+  }
+
   @Override
   public String extractBoundaryFromContentType(final String contentType) throws BatchDeserializerException {
     return BatchParserCommon.getBoundary(contentType, 0);
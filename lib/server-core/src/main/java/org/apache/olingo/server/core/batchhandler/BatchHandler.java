@@ -52,7 +52,9 @@ public class BatchHandler {
     validateRequest(request);
     validatePreferHeader(request);
 
-    final BatchFacade operation = new BatchFacadeImpl(oDataHandler, batchProcessor, isStrict);
+    // The runtime measurements of the debug output cannot be recorded concurrently.
+    final BatchFacade operation = new BatchFacadeImpl(oDataHandler, batchProcessor, isStrict,
+        oDataHandler.isDebugMode() ? null : oDataHandler.getParallelBatchExecutionSupport());
     batchProcessor.processBatch(operation, request, response);
   }
   
@@ -0,0 +1,187 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.batchhandler;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+
+import org.apache.olingo.commons.api.ex.ODataRuntimeException;
+import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.ODataLibraryException;
+import org.apache.olingo.server.api.batch.BatchFacade;
+import org.apache.olingo.server.api.batch.ParallelBatchExecutionSupport;
+import org.apache.olingo.server.api.deserializer.batch.BatchRequestPart;
+import org.apache.olingo.server.api.deserializer.batch.ODataResponsePart;
+import org.apache.olingo.server.api.processor.BatchProcessor;
+import org.apache.olingo.server.core.ODataHandlerImpl;
+
+/**
+ * Executes the parts of a batch request. Consecutive query operations are executed in parallel,
+ * each one with a handler of its own; change sets are executed one after the other on the calling thread.
+ * The result is the same as for sequential execution: the responses are in the order of the request parts,
+ * and without <code>continue-on-error</code> there are no responses for parts following the first failed one.
+ */
+public class ParallelBatchPartExecutor {
+  private final ODataHandlerImpl oDataHandler;
+  private final BatchProcessor batchProcessor;
+  private final BatchFacade batchFacade;
+  private final ParallelBatchExecutionSupport parallelExecution;
+
+  public ParallelBatchPartExecutor(final ODataHandlerImpl oDataHandler, final BatchProcessor batchProcessor,
+      final BatchFacade batchFacade, final ParallelBatchExecutionSupport parallelExecution) {
+    this.oDataHandler = oDataHandler;
+    this.batchProcessor = batchProcessor;
+    this.batchFacade = batchFacade;
+    this.parallelExecution = parallelExecution;
+  }
+
+  public List<ODataResponsePart> execute(final List<BatchRequestPart> requests, final boolean continueOnError)
+      throws ODataApplicationException, ODataLibraryException {
+    final List<ODataResponsePart> responseParts = new ArrayList<ODataResponsePart>();
+    int index = 0;
+    while (index < requests.size()) {
+      if (requests.get(index).isChangeSet()) {
+        final ODataResponsePart responsePart = batchFacade.handleBatchRequest(requests.get(index));
+        responseParts.add(responsePart);
+        if (!continueOnError && BatchFacadeImpl.isError(responsePart)) {
+          break;
+        }
+        index++;
+      } else {
+        int end = index;
+        while (end < requests.size() && !requests.get(end).isChangeSet()) {
+          end++;
+        }
+        final List<ODataResponsePart> queryResponseParts =
+            executeQueryOperations(requests.subList(index, end), continueOnError);
+        responseParts.addAll(queryResponseParts);
+        if (queryResponseParts.size() < end - index) {
+          break;
+        }
+        index = end;
+      }
+    }
+    return responseParts;
+  }
+
+  /**
+   * Executes query operations in parallel, with at most the configured number running at the same time.
+   * Operations are started in request order; once an operation has failed (and processing does not continue
+   * on errors), no further operations are started.
+   * @return the responses in request order, up to and including the first failed operation
+   */
+  private List<ODataResponsePart> executeQueryOperations(final List<BatchRequestPart> operations,
+      final boolean continueOnError) throws ODataApplicationException, ODataLibraryException {
+    final int maxParallelism = parallelExecution.getMaxParallelism();
+    final CompletionService<ODataResponsePart> completionService =
+        new ExecutorCompletionService<ODataResponsePart>(parallelExecution.getExecutor());
+    final Map<Future<ODataResponsePart>, Integer> indexes = new HashMap<Future<ODataResponsePart>, Integer>();
+    // The processors are shared by all operations, so they are initialized before the operations are started.
+    final ODataHandlerImpl initializedHandler = oDataHandler.copy();
+    final ODataResponsePart[] results = new ODataResponsePart[operations.size()];
+    Throwable failure = null;
+    int failureIndex = operations.size();
+    // Operations at or behind this index are not needed anymore.
+    int limit = operations.size();
+    int next = 0;
+
+    while (next < limit && indexes.size() < maxParallelism || !indexes.isEmpty()) {
+      while (next < limit && indexes.size() < maxParallelism) {
+        indexes.put(completionService.submit(new QueryOperation(initializedHandler, operations.get(next))), next);
+        next++;
+      }
+      final Future<ODataResponsePart> future = take(completionService);
+      final int index = indexes.remove(future);
+      try {
+        results[index] = future.get();
+        if (!continueOnError && BatchFacadeImpl.isError(results[index])) {
+          limit = Math.min(limit, index + 1);
+        }
+      } catch (final ExecutionException e) {
+        if (index < failureIndex) {
+          failure = e.getCause();
+          failureIndex = index;
+        }
+        limit = Math.min(limit, index + 1);
+      } catch (final InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new ODataRuntimeException("Interrupted while executing batch request parts", e);
+      }
+    }
+
+    final List<ODataResponsePart> responseParts = new ArrayList<ODataResponsePart>();
+    for (int index = 0; index < limit; index++) {
+      if (index == failureIndex) {
+        rethrow(failure);
+      }
+      responseParts.add(results[index]);
+    }
+    return responseParts;
+  }
+
+  private Future<ODataResponsePart> take(final CompletionService<ODataResponsePart> completionService) {
+    try {
+      return completionService.take();
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new ODataRuntimeException("Interrupted while executing batch request parts", e);
+    }
+  }
+
+  private void rethrow(final Throwable failure) throws ODataApplicationException, ODataLibraryException {
+    if (failure instanceof ODataApplicationException) {
+      throw (ODataApplicationException) failure;
+    } else if (failure instanceof ODataLibraryException) {
+      throw (ODataLibraryException) failure;
+    } else if (failure instanceof RuntimeException) {
+      throw (RuntimeException) failure;
+    } else if (failure instanceof Error) {
+      throw (Error) failure;
+    } else {
+      throw new ODataRuntimeException((Exception) failure);
+    }
+  }
+
+  /**
+   * Executes a single query operation with a handler of its own,
+   * since a handler must not process several requests at the same time.
+   */
+  private class QueryOperation implements Callable<ODataResponsePart> {
+    private final ODataHandlerImpl initializedHandler;
+    private final BatchRequestPart request;
+
+    QueryOperation(final ODataHandlerImpl initializedHandler, final BatchRequestPart request) {
+      this.initializedHandler = initializedHandler;
+      this.request = request;
+    }
+
+    @Override
+    public ODataResponsePart call() throws ODataApplicationException, ODataLibraryException {
+      return new BatchPartHandler(initializedHandler.copy(), batchProcessor, batchFacade)
+          .handleBatchRequest(request);
+    }
+  }
+}
@@ -18,6 +18,7 @@
  */
 package org.apache.olingo.server.core.deserializer.batch;
 
+import java.io.IOException;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -28,23 +29,29 @@ import org.apache.olingo.server.api.deserializer.batch.BatchDeserializerExceptio
 public class BatchBodyPart implements BatchPart {
   private final String boundary;
   private final boolean isStrict;
-  private final List<Line> remainingMessage = new LinkedList<Line>();
+  private final BatchStreamReader reader;
 
   private Header headers;
   private boolean isChangeSet;
   private List<BatchQueryOperation> requests;
 
-  public BatchBodyPart(final List<Line> message, final String boundary, final boolean isStrict) {
+  /**
+   * Creates a body part that is read from the given reader up to the next delimiter of the given boundary.
+   * @param reader the reader positioned behind the delimiter that starts this body part
+   * @param boundary the boundary of the enclosing multipart message
+   * @param isStrict whether the parser is strict
+   */
+  public BatchBodyPart(final BatchStreamReader reader, final String boundary, final boolean isStrict) {
+    this.reader = reader;
     this.boundary = boundary;
     this.isStrict = isStrict;
-    remainingMessage.addAll(message);
   }
 
-  public BatchBodyPart parse() throws BatchDeserializerException {
-    headers = BatchParserCommon.consumeHeaders(remainingMessage);
-    BatchParserCommon.consumeBlankLine(remainingMessage, isStrict);
+  public BatchBodyPart parse() throws IOException, BatchDeserializerException {
+    headers = BatchParserCommon.consumeHeaders(reader);
+    BatchParserCommon.consumeBlankLine(reader, isStrict);
     isChangeSet = isChangeSet(headers);
-    requests = consumeRequest(remainingMessage);
+    requests = consumeRequest();
 
     return this;
   }
@@ -67,31 +74,46 @@ public class BatchBodyPart implements BatchPart {
     return changeSet;
   }
 
-  private List<BatchQueryOperation> consumeRequest(final List<Line> remainingMessage)
-      throws BatchDeserializerException {
-    return isChangeSet ? consumeChangeSet(remainingMessage) : consumeQueryOperation(remainingMessage);
+  private List<BatchQueryOperation> consumeRequest() throws IOException, BatchDeserializerException {
+    return isChangeSet ? consumeChangeSet() : consumeQueryOperation();
   }
 
-  private List<BatchQueryOperation> consumeChangeSet(final List<Line> remainingMessage)
-      throws BatchDeserializerException {
-    final List<List<Line>> changeRequests = splitChangeSet(remainingMessage);
-    final List<BatchQueryOperation> requestList = new LinkedList<BatchQueryOperation>();
+  private List<BatchQueryOperation> consumeChangeSet() throws IOException, BatchDeserializerException {
+    final HeaderField contentTypeField = headers.getHeaderField(HttpHeader.CONTENT_TYPE);
+    final String changeSetBoundary = BatchParserCommon.getBoundary(contentTypeField.getValue(),
+        contentTypeField.getLineNumber());
+    validateChangeSetBoundary(changeSetBoundary, headers);
 
-    for (List<Line> changeRequest : changeRequests) {
-      requestList.add(new BatchChangeSetPart(changeRequest, isStrict).parse());
+    final List<BatchQueryOperation> requestList = new LinkedList<BatchQueryOperation>();
+    reader.pushBoundary(changeSetBoundary);
+    try {
+      // Skip the preamble.
+      while (reader.hasLine() && reader.getBoundaryDepth() == -1) {
+        reader.consume();
+      }
+      while (isChangeSetDelimiter() && !reader.isCloseDelimiter()) {
+        reader.consume();
+        requestList.add(new BatchChangeSetPart(reader, isStrict).parse());
+      }
+      if (!isChangeSetDelimiter()) {
+        throw new BatchDeserializerException("Missing close boundary delimiter",
+            BatchDeserializerException.MessageKeys.MISSING_CLOSE_DELIMITER,
+            Integer.toString(contentTypeField.getLineNumber()));
+      }
+      reader.consume();
+    } finally {
+      reader.popBoundary();
+    }
+    // Skip the epilogue.
+    while (reader.hasLine() && reader.getBoundaryDepth() == -1) {
+      reader.consume();
     }
 
     return requestList;
   }
 
-  private List<List<Line>> splitChangeSet(final List<Line> remainingMessage) throws BatchDeserializerException {
-
-    final HeaderField contentTypeField = headers.getHeaderField(HttpHeader.CONTENT_TYPE);
-    final String changeSetBoundary = BatchParserCommon.getBoundary(contentTypeField.getValue(),
-        contentTypeField.getLineNumber());
-    validateChangeSetBoundary(changeSetBoundary, headers);
-
-    return BatchParserCommon.splitMessageByBoundary(remainingMessage, changeSetBoundary);
+  private boolean isChangeSetDelimiter() throws IOException {
+    return reader.hasLine() && reader.getBoundaryDepth() == 0;
   }
 
   private void validateChangeSetBoundary(final String changeSetBoundary, final Header header)
@@ -103,10 +125,9 @@ public class BatchBodyPart implements BatchPart {
     }
   }
 
-  private List<BatchQueryOperation> consumeQueryOperation(final List<Line> remainingMessage)
-      throws BatchDeserializerException {
+  private List<BatchQueryOperation> consumeQueryOperation() throws IOException, BatchDeserializerException {
     final List<BatchQueryOperation> requestList = new LinkedList<BatchQueryOperation>();
-    requestList.add(new BatchQueryOperation(remainingMessage, isStrict).parse());
+    requestList.add(new BatchQueryOperation(reader, isStrict).parse());
 
     return requestList;
   }
@@ -18,23 +18,23 @@
  */
 package org.apache.olingo.server.core.deserializer.batch;
 
-import java.util.List;
+import java.io.IOException;
 
 import org.apache.olingo.server.api.deserializer.batch.BatchDeserializerException;
 
 public class BatchChangeSetPart extends BatchQueryOperation {
   private BatchQueryOperation request;
 
-  public BatchChangeSetPart(final List<Line> message, final boolean isStrict) throws BatchDeserializerException {
-    super(message, isStrict);
+  public BatchChangeSetPart(final BatchStreamReader reader, final boolean isStrict) {
+    super(reader, isStrict);
   }
 
   @Override
-  public BatchChangeSetPart parse() throws BatchDeserializerException {
-    headers = BatchParserCommon.consumeHeaders(message);
-    BatchParserCommon.consumeBlankLine(message, isStrict);
+  public BatchChangeSetPart parse() throws IOException, BatchDeserializerException {
+    headers = BatchParserCommon.consumeHeaders(reader);
+    BatchParserCommon.consumeBlankLine(reader, isStrict);
 
-    request = new BatchQueryOperation(message, isStrict).parse();
+    request = new BatchQueryOperation(reader, isStrict).parse();
 
     return this;
   }
@@ -44,10 +44,15 @@ public class BatchChangeSetPart extends BatchQueryOperation {
   }
 
   @Override
-  public List<Line> getBody() {
+  public byte[] getBody() {
     return request.getBody();
   }
 
+  @Override
+  public int getBodyLineCount() {
+    return request.getBodyLineCount();
+  }
+
   @Override
   public Line getHttpStatusLine() {
     return request.getHttpStatusLine();
@@ -19,6 +19,7 @@
 package org.apache.olingo.server.core.deserializer.batch;
 
 import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.Charset;
 import java.util.Iterator;
@@ -59,6 +60,7 @@ public class BatchParserCommon {
 
   protected static final String BOUNDARY = "boundary";
   public static final String BINARY_ENCODING = "binary";
+  private static final String CRLF = "\r\n";
 
   private BatchParserCommon() { /* private constructor for helper class */ }
 
@@ -173,28 +175,48 @@ public class BatchParserCommon {
     final int headerLineNumber = !remainingMessage.isEmpty() ? remainingMessage.get(0).getLineNumber() : 0;
     final Header headers = new Header(headerLineNumber);
     final Iterator<Line> iter = remainingMessage.iterator();
-    Line currentLine;
     boolean isHeader = true;
 
     while (iter.hasNext() && isHeader) {
-      currentLine = iter.next();
-      final Matcher headerMatcher = PATTERN_HEADER_LINE.matcher(currentLine.toString());
-
-      if (headerMatcher.matches() && headerMatcher.groupCount() == 2) {
+      isHeader = consumeHeader(headers, iter.next());
+      if (isHeader) {
         iter.remove();
+      }
+    }
 
-        String headerName = headerMatcher.group(1).trim();
-        String headerValue = headerMatcher.group(2).trim();
+    return headers;
+  }
 
-        headers.addHeader(headerName, Header.splitValuesByComma(headerValue), currentLine.getLineNumber());
-      } else {
-        isHeader = false;
-      }
+  /**
+   * Reads header lines from the stream until a line is found that is not a header or a boundary delimiter.
+   * @param reader the reader positioned at the first header line
+   * @return the headers read
+   */
+  public static Header consumeHeaders(final BatchStreamReader reader) throws IOException {
+    final int headerLineNumber = reader.hasLine() ? reader.getLineNumber() : 0;
+    final Header headers = new Header(headerLineNumber);
+
+    while (reader.hasLine() && reader.getBoundaryDepth() == -1 && consumeHeader(headers, reader.getLine())) {
+      reader.consume();
     }
 
     return headers;
   }
 
+  private static boolean consumeHeader(final Header headers, final Line currentLine) {
+    final Matcher headerMatcher = PATTERN_HEADER_LINE.matcher(currentLine.toString());
+
+    if (headerMatcher.matches() && headerMatcher.groupCount() == 2) {
+      String headerName = headerMatcher.group(1).trim();
+      String headerValue = headerMatcher.group(2).trim();
+
+      headers.addHeader(headerName, Header.splitValuesByComma(headerValue), currentLine.getLineNumber());
+      return true;
+    } else {
+      return false;
+    }
+  }
+
   public static void consumeBlankLine(final List<Line> remainingMessage, final boolean isStrict)
       throws BatchDeserializerException {
     if (!remainingMessage.isEmpty() && remainingMessage.get(0).toString().matches("\\s*\r?\n\\s*")) {
@@ -208,6 +230,24 @@ public class BatchParserCommon {
     }
   }
 
+  public static void consumeBlankLine(final BatchStreamReader reader, final boolean isStrict)
+      throws IOException, BatchDeserializerException {
+    if (reader.hasLine() && reader.getBoundaryDepth() == -1
+        && reader.getLine().toString().matches("\\s*\r?\n\\s*")) {
+      final boolean endsWithCRLF = reader.getLine().toString().endsWith(CRLF);
+      reader.consume();
+      // The line break directly preceding a boundary delimiter belongs to the delimiter.
+      if (!endsWithCRLF || !reader.hasLine() || reader.getBoundaryDepth() == -1) {
+        return;
+      }
+    }
+    if (isStrict) {
+      final int lineNumber = reader.hasLine() ? reader.getLineNumber() : 0;
+      throw new BatchDeserializerException("Missing blank line",
+          BatchDeserializerException.MessageKeys.MISSING_BLANK_LINE, "[None]", Integer.toString(lineNumber));
+    }
+  }
+
   public static InputStream convertLineListToInputStream(final List<Line> messageList, final Charset charset) {
     final String message = lineListToString(messageList);
 
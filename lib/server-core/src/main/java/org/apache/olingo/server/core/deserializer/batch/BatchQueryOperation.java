@@ -18,7 +18,8 @@
  */
 package org.apache.olingo.server.core.deserializer.batch;
 
-import java.util.List;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 
 import org.apache.olingo.server.api.deserializer.batch.BatchDeserializerException;
 
@@ -27,47 +28,69 @@ public class BatchQueryOperation implements BatchPart {
   protected final boolean isStrict;
   protected Line httpStatusLine;
   protected Header headers;
-  protected List<Line> body;
-  protected int bodySize;
-  protected List<Line> message;
+  protected byte[] body;
+  protected int bodyLineCount;
+  protected final BatchStreamReader reader;
 
-  public BatchQueryOperation(final List<Line> message, final boolean isStrict) {
+  public BatchQueryOperation(final BatchStreamReader reader, final boolean isStrict) {
     this.isStrict = isStrict;
-    this.message = message;
+    this.reader = reader;
   }
 
-  public BatchQueryOperation parse() throws BatchDeserializerException {
-    httpStatusLine = consumeHttpStatusLine(message);
-    headers = BatchParserCommon.consumeHeaders(message);
-    BatchParserCommon.consumeBlankLine(message, isStrict);
-    body = message;
+  public BatchQueryOperation parse() throws IOException, BatchDeserializerException {
+    httpStatusLine = consumeHttpStatusLine(reader);
+    headers = BatchParserCommon.consumeHeaders(reader);
+    BatchParserCommon.consumeBlankLine(reader, isStrict);
+    consumeBody(reader);
 
     return this;
   }
 
-  protected Line consumeHttpStatusLine(final List<Line> message) throws BatchDeserializerException {
-    if (!message.isEmpty() && !"".equals(message.get(0).toString().trim())) {
-      final Line method = message.get(0);
-      message.remove(0);
+  protected Line consumeHttpStatusLine(final BatchStreamReader reader)
+      throws IOException, BatchDeserializerException {
+    if (reader.hasLine() && reader.getBoundaryDepth() == -1 && !reader.isBlank()) {
+      final Line method = reader.getLine();
+      reader.consume();
 
       return method;
     } else {
-      final int line = (!message.isEmpty()) ? message.get(0).getLineNumber() : 0;
+      final int line = reader.hasLine() ? reader.getLineNumber() : 0;
       throw new BatchDeserializerException("Missing http request line",
           BatchDeserializerException.MessageKeys.INVALID_STATUS_LINE, "" + line);
     }
   }
 
+  /**
+   * Copies all lines up to the next boundary delimiter into the body.
+   * The line break preceding the delimiter belongs to the delimiter and is therefore removed.
+   */
+  private void consumeBody(final BatchStreamReader reader) throws IOException {
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    while (reader.hasLine() && reader.getBoundaryDepth() == -1) {
+      reader.writeLine(out);
+      bodyLineCount++;
+      reader.consume();
+    }
+    final byte[] content = out.toByteArray();
+    final int length = content.length;
+    if (length >= 2 && content[length - 2] == '\r' && content[length - 1] == '\n') {
+      body = new byte[length - 2];
+      System.arraycopy(content, 0, body, 0, length - 2);
+    } else {
+      body = content;
+    }
+  }
+
   public Line getHttpStatusLine() {
     return httpStatusLine;
   }
 
-  public List<Line> getBody() {
+  public byte[] getBody() {
     return body;
   }
 
-  public int getBodySize() {
-    return bodySize;
+  public int getBodyLineCount() {
+    return bodyLineCount;
   }
 
   @Override
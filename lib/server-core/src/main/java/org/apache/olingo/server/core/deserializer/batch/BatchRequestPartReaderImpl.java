@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.deserializer.batch;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.apache.olingo.commons.api.ex.ODataRuntimeException;
+import org.apache.olingo.server.api.deserializer.batch.BatchDeserializerException;
+import org.apache.olingo.server.api.deserializer.batch.BatchOptions;
+import org.apache.olingo.server.api.deserializer.batch.BatchRequestPart;
+import org.apache.olingo.server.api.deserializer.batch.BatchRequestPartReader;
+
+/**
+ * Reads the body parts of a batch request one after the other directly from the input stream.
+ * Only the part currently read is held in memory.
+ */
+public class BatchRequestPartReaderImpl implements BatchRequestPartReader {
+  private final BatchStreamReader reader;
+  private final String boundary;
+  private final boolean isStrict;
+  private final BatchRequestTransformator transformator;
+  private boolean started = false;
+  private boolean finished = false;
+
+  public BatchRequestPartReaderImpl(final InputStream content, final String boundary, final BatchOptions options) {
+    reader = new BatchStreamReader(content);
+    this.boundary = boundary;
+    isStrict = options.isStrict();
+    transformator = new BatchRequestTransformator(options.getRawBaseUri(), options.getRawServiceResolutionUri());
+    reader.pushBoundary(boundary);
+  }
+
+  @Override
+  public BatchRequestPart next() throws BatchDeserializerException {
+    try {
+      return readPart();
+    } catch (final IOException e) {
+      throw new ODataRuntimeException(e);
+    }
+  }
+
+  private BatchRequestPart readPart() throws IOException, BatchDeserializerException {
+    if (finished) {
+      return null;
+    }
+    if (!started) {
+      // Skip the preamble.
+      while (reader.hasLine() && reader.getBoundaryDepth() == -1) {
+        reader.consume();
+      }
+      started = true;
+      if (isEndOfMessage()) {
+        return null;
+      }
+      reader.consume();
+    }
+
+    final BatchBodyPart bodyPart = new BatchBodyPart(reader, boundary, isStrict).parse();
+    if (!isEndOfMessage()) {
+      reader.consume();
+    }
+    return transformator.transform(bodyPart).get(0);
+  }
+
+  /**
+   * Checks whether the reader is positioned at the close delimiter; the epilogue behind it is ignored.
+   * Reaching the end of the stream without seeing a close delimiter is an error.
+   */
+  private boolean isEndOfMessage() throws IOException, BatchDeserializerException {
+    if (!reader.hasLine()) {
+      finished = true;
+      close();
+      throw new BatchDeserializerException("Missing close boundary delimiter",
+          BatchDeserializerException.MessageKeys.MISSING_CLOSE_DELIMITER,
+          Integer.toString(reader.getLineNumber()));
+    } else if (reader.isCloseDelimiter()) {
+      finished = true;
+      close();
+      return true;
+    } else {
+      return false;
+    }
+  }
+
+  @Override
+  public void close() {
+    finished = true;
+    try {
+      reader.close();
+    } catch (final IOException e) {
+      throw new ODataRuntimeException(e);
+    }
+  }
+}
@@ -0,0 +1,216 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.deserializer.batch;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.LinkedList;
+
+/**
+ * Reads a multipart message line by line directly on the byte level.
+ * <p>
+ * The reader always holds at most one line (the <em>current</em> line) in a reusable buffer. Callers decide
+ * whether the current line is a boundary delimiter, has to be interpreted as text (status line, header),
+ * or is copied unchanged into a body; in the latter case no String is created for it.
+ * Boundaries are maintained as a stack, so that delimiters of enclosing multipart messages are recognized
+ * while a nested change set is read.
+ */
+public class BatchStreamReader {
+  private static final byte CR = '\r';
+  private static final byte LF = '\n';
+  private static final byte DASH = '-';
+  private static final int EOF = -1;
+  private static final int BUFFER_SIZE = 8192;
+  private static final int INITIAL_LINE_SIZE = 256;
+  private static final Charset DEFAULT_CHARSET = Charset.forName("ISO-8859-1");
+
+  private final InputStream in;
+  private final byte[] buffer;
+  private final LinkedList<byte[]> boundaries = new LinkedList<byte[]>();
+  private int offset = 0;
+  private int limit = 0;
+  private byte[] line = new byte[INITIAL_LINE_SIZE];
+  private int lineLength = 0;
+  private boolean lineAvailable = false;
+  private int lineNumber = 0;
+
+  public BatchStreamReader(final InputStream in) {
+    this(in, BUFFER_SIZE);
+  }
+
+  public BatchStreamReader(final InputStream in, final int bufferSize) {
+    if (bufferSize <= 0) {
+      throw new IllegalArgumentException("Buffer size must be greater than zero.");
+    }
+    this.in = in;
+    buffer = new byte[bufferSize];
+  }
+
+  public void close() throws IOException {
+    in.close();
+  }
+
+  /**
+   * Pushes a boundary onto the boundary stack; lines matching it are reported as delimiters.
+   * @param boundary the boundary (without leading hyphens)
+   */
+  public void pushBoundary(final String boundary) {
+    boundaries.addFirst(("--" + boundary).getBytes(DEFAULT_CHARSET));
+  }
+
+  /** Removes the innermost boundary from the boundary stack. */
+  public void popBoundary() {
+    boundaries.removeFirst();
+  }
+
+  /**
+   * Makes sure that the current line is loaded.
+   * @return <code>false</code> if the end of the stream has been reached
+   */
+  public boolean hasLine() throws IOException {
+    if (!lineAvailable) {
+      lineAvailable = readLine();
+    }
+    return lineAvailable;
+  }
+
+  /** Marks the current line as processed; the next call to {@link #hasLine()} reads the following line. */
+  public void consume() {
+    lineAvailable = false;
+  }
+
+  /** Returns the number of the current line, or of the last line read if the end of the stream is reached. */
+  public int getLineNumber() {
+    return lineNumber;
+  }
+
+  /** Returns the current line as text, including its line terminator. */
+  public Line getLine() {
+    return new Line(new String(line, 0, lineLength, DEFAULT_CHARSET), lineNumber);
+  }
+
+  /** Returns whether the current line consists of whitespace only. */
+  public boolean isBlank() {
+    return isWhitespace(0);
+  }
+
+  /** Appends the current line unchanged to the given output stream. */
+  public void writeLine(final ByteArrayOutputStream out) {
+    out.write(line, 0, lineLength);
+  }
+
+  /**
+   * Checks whether the current line is a delimiter of one of the boundaries on the boundary stack.
+   * @return the depth of the matching boundary (0 is the innermost one) or -1 if the line is no delimiter
+   */
+  public int getBoundaryDepth() {
+    int depth = 0;
+    for (final byte[] boundary : boundaries) {
+      if (startsWith(boundary)
+          && (isWhitespace(boundary.length) || isCloseDelimiterSuffix(boundary.length))) {
+        return depth;
+      }
+      depth++;
+    }
+    return -1;
+  }
+
+  /** Returns whether the current line is a close delimiter, i.e., the boundary is followed by two hyphens. */
+  public boolean isCloseDelimiter() {
+    final int depth = getBoundaryDepth();
+    return depth >= 0 && isCloseDelimiterSuffix(boundaries.get(depth).length);
+  }
+
+  private boolean isCloseDelimiterSuffix(final int start) {
+    return lineLength >= start + 2 && line[start] == DASH && line[start + 1] == DASH && isWhitespace(start + 2);
+  }
+
+  private boolean startsWith(final byte[] prefix) {
+    if (lineLength < prefix.length) {
+      return false;
+    }
+    for (int i = 0; i < prefix.length; i++) {
+      if (line[i] != prefix[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private boolean isWhitespace(final int start) {
+    for (int i = start; i < lineLength; i++) {
+      if (!Character.isWhitespace(line[i])) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private boolean readLine() throws IOException {
+    if (limit == EOF) {
+      return false;
+    }
+    lineLength = 0;
+    // EOF will be considered as line ending
+    boolean foundLineEnd = false;
+    while (!foundLineEnd) {
+      if (limit == offset && fillBuffer() == EOF) {
+        foundLineEnd = true;
+      } else {
+        final byte currentChar = buffer[offset++];
+        append(currentChar);
+        if (currentChar == LF) {
+          foundLineEnd = true;
+        } else if (currentChar == CR) {
+          foundLineEnd = true;
+          // Consume \n if available
+          if (limit == offset) {
+            fillBuffer();
+          }
+          if (limit != EOF && buffer[offset] == LF) {
+            append(LF);
+            offset++;
+          }
+        }
+      }
+    }
+    if (lineLength == 0) {
+      return false;
+    }
+    lineNumber++;
+    return true;
+  }
+
+  private void append(final byte value) {
+    if (lineLength == line.length) {
+      final byte[] newLine = new byte[line.length * 2];
+      System.arraycopy(line, 0, newLine, 0, lineLength);
+      line = newLine;
+    }
+    line[lineLength++] = value;
+  }
+
+  private int fillBuffer() throws IOException {
+    limit = in.read(buffer, 0, buffer.length);
+    offset = 0;
+    return limit;
+  }
+}
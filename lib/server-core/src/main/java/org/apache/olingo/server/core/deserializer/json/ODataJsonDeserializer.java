@@ -83,7 +83,6 @@ import org.apache.olingo.server.core.deserializer.helper.ExpandTreeBuilder;
 import org.apache.olingo.server.core.deserializer.helper.ExpandTreeBuilderImpl;
 import org.apache.olingo.server.core.serializer.utils.ContentTypeHelper;
 
-import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonParseException;
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.databind.DeserializationFeature;
@@ -91,6 +90,7 @@ import com.fasterxml.jackson.databind.JsonMappingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeType;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 
 public class ODataJsonDeserializer implements ODataDeserializer {
@@ -108,9 +108,13 @@ public class ODataJsonDeserializer implements ODataDeserializer {
     jsonNameToGeoDataType = Collections.unmodifiableMap(temp);
   }
 
-  private static final String ODATA_ANNOTATION_MARKER = "@";
-  private static final String ODATA_CONTROL_INFORMATION_PREFIX = "@odata.";
-  private static final String REASON = "reason";
+  static final String ODATA_ANNOTATION_MARKER = "@";
+  static final String ODATA_CONTROL_INFORMATION_PREFIX = "@odata.";
+  static final String REASON = "reason";
+
+  /** Shared, thread-safe mapper used to read JSON trees; it also provides the parser factory. */
+  static final ObjectMapper MAPPER =
+      new ObjectMapper().configure(DeserializationFeature.FAIL_ON_READING_DUP_TREE_KEY, true);
 
   private final boolean isIEEE754Compatible;
   private ServiceMetadata serviceMetadata;
@@ -320,9 +324,7 @@ public class ODataJsonDeserializer implements ODataDeserializer {
   }
 
   private ObjectNode parseJsonTree(final InputStream stream) throws IOException, DeserializerException {
-    ObjectMapper objectMapper = new ObjectMapper();
-    objectMapper.configure(DeserializationFeature.FAIL_ON_READING_DUP_TREE_KEY, true);
-    JsonParser parser = new JsonFactory(objectMapper).createParser(stream);
+    JsonParser parser = MAPPER.getFactory().createParser(stream);
     final JsonNode tree = parser.getCodec().readTree(parser);
     if (tree == null || !tree.isObject()) {
       throw new DeserializerException("Invalid JSON syntax.",
@@ -399,9 +401,7 @@ public class ODataJsonDeserializer implements ODataDeserializer {
   /** Reads a parameter value from a String. */
   public Parameter parameter(final String content, final EdmParameter parameter) throws DeserializerException {
     try {
-      JsonParser parser = new JsonFactory(new ObjectMapper()
-          .configure(DeserializationFeature.FAIL_ON_READING_DUP_TREE_KEY, true))
-              .createParser(content);
+      JsonParser parser = MAPPER.getFactory().createParser(content);
       JsonNode node = parser.getCodec().readTree(parser);
       if (node == null) {
         throw new DeserializerException("Invalid JSON syntax.",
@@ -727,7 +727,7 @@ public class ODataJsonDeserializer implements ODataDeserializer {
     if (!isGeoType) {
       checkForValueNode(name, jsonNode);
     }
-    checkJsonTypeBasedOnPrimitiveType(name, type, jsonNode);
+    checkJsonTypeBasedOnPrimitiveType(name, type, jsonNode.getNodeType());
     try {
       if (isGeoType) {
         return readPrimitiveGeoValue(name, type, (ObjectNode) jsonNode);
@@ -761,7 +761,7 @@ public class ODataJsonDeserializer implements ODataDeserializer {
    * @param type EDM type of the value
    *             (can be <code>null</code> for recursive calls while parsing a GeometryCollection)
    */
-  private Geospatial readPrimitiveGeoValue(final String name, final EdmPrimitiveType type, ObjectNode jsonNode)
+  Geospatial readPrimitiveGeoValue(final String name, final EdmPrimitiveType type, ObjectNode jsonNode)
       throws DeserializerException, EdmPrimitiveTypeException {
     JsonNode typeNode = jsonNode.remove(Constants.ATTR_TYPE);
     if (typeNode != null && typeNode.isTextual()) {
@@ -891,7 +891,7 @@ public class ODataJsonDeserializer implements ODataDeserializer {
    * @param edmPrimitiveType
    * @return the java class to be used during deserialization
    */
-  private Class<?> getJavaClassForPrimitiveType(final EdmMapping mapping, final EdmPrimitiveType type) {
+  Class<?> getJavaClassForPrimitiveType(final EdmMapping mapping, final EdmPrimitiveType type) {
     final EdmPrimitiveType edmPrimitiveType =
         type.getKind() == EdmTypeKind.ENUM ? ((EdmEnumType) type).getUnderlyingType() : type
             .getKind() == EdmTypeKind.DEFINITION ? ((EdmTypeDefinition) type).getUnderlyingType() : type;
@@ -948,15 +948,15 @@ public class ODataJsonDeserializer implements ODataDeserializer {
     }
   }
 
-  private void checkJsonTypeBasedOnPrimitiveType(final String propertyName, final EdmPrimitiveType edmPrimitiveType,
-      final JsonNode jsonNode) throws DeserializerException {
+  void checkJsonTypeBasedOnPrimitiveType(final String propertyName, final EdmPrimitiveType edmPrimitiveType,
+      final JsonNodeType jsonNodeType) throws DeserializerException {
     boolean valid = true;
     if (edmPrimitiveType.getKind() == EdmTypeKind.DEFINITION) {
       checkJsonTypeBasedOnPrimitiveType(propertyName,
-          ((EdmTypeDefinition) edmPrimitiveType).getUnderlyingType(), jsonNode);
+          ((EdmTypeDefinition) edmPrimitiveType).getUnderlyingType(), jsonNodeType);
     } else if (edmPrimitiveType.getKind() == EdmTypeKind.ENUM) {
       // Enum values must be strings.
-      valid = jsonNode.isTextual();
+      valid = jsonNodeType == JsonNodeType.STRING;
     } else {
       final String name = edmPrimitiveType.getName();
       EdmPrimitiveTypeKind primKind;
@@ -966,30 +966,30 @@ public class ODataJsonDeserializer implements ODataDeserializer {
         throw new DeserializerException("Unknown Primitive Type: " + name, e,
             DeserializerException.MessageKeys.UNKNOWN_PRIMITIVE_TYPE, name, propertyName);
       }
-      valid = matchTextualCase(jsonNode, primKind)
-          || matchNumberCase(jsonNode, primKind)
-          || matchBooleanCase(jsonNode, primKind)
-          || matchIEEENumberCase(jsonNode, primKind)
-          || jsonNode.isObject() && name.startsWith("Geo");
+      valid = matchTextualCase(jsonNodeType, primKind)
+          || matchNumberCase(jsonNodeType, primKind)
+          || matchBooleanCase(jsonNodeType, primKind)
+          || matchIEEENumberCase(jsonNodeType, primKind)
+          || jsonNodeType == JsonNodeType.OBJECT && name.startsWith("Geo");
     }
     if (!valid) {
       throw new DeserializerException(
-          "Invalid json type: " + jsonNode.getNodeType() + " for " + edmPrimitiveType + " property: " + propertyName,
+          "Invalid json type: " + jsonNodeType + " for " + edmPrimitiveType + " property: " + propertyName,
           DeserializerException.MessageKeys.INVALID_VALUE_FOR_PROPERTY, propertyName);
     }
   }
 
-  private boolean matchIEEENumberCase(final JsonNode node, final EdmPrimitiveTypeKind primKind) {
-    return (isIEEE754Compatible ? node.isTextual() : node.isNumber())
+  private boolean matchIEEENumberCase(final JsonNodeType nodeType, final EdmPrimitiveTypeKind primKind) {
+    return (isIEEE754Compatible ? nodeType == JsonNodeType.STRING : nodeType == JsonNodeType.NUMBER)
         && (primKind == EdmPrimitiveTypeKind.Int64 || primKind == EdmPrimitiveTypeKind.Decimal);
   }
 
-  private boolean matchBooleanCase(final JsonNode node, final EdmPrimitiveTypeKind primKind) {
-    return node.isBoolean() && primKind == EdmPrimitiveTypeKind.Boolean;
+  private boolean matchBooleanCase(final JsonNodeType nodeType, final EdmPrimitiveTypeKind primKind) {
+    return nodeType == JsonNodeType.BOOLEAN && primKind == EdmPrimitiveTypeKind.Boolean;
   }
 
-  private boolean matchNumberCase(final JsonNode node, final EdmPrimitiveTypeKind primKind) {
-    return node.isNumber() &&
+  private boolean matchNumberCase(final JsonNodeType nodeType, final EdmPrimitiveTypeKind primKind) {
+    return nodeType == JsonNodeType.NUMBER &&
         (primKind == EdmPrimitiveTypeKind.Int16
             || primKind == EdmPrimitiveTypeKind.Int32
             || primKind == EdmPrimitiveTypeKind.Byte
@@ -998,8 +998,8 @@ public class ODataJsonDeserializer implements ODataDeserializer {
             || primKind == EdmPrimitiveTypeKind.Double);
   }
 
-  private boolean matchTextualCase(final JsonNode node, final EdmPrimitiveTypeKind primKind) {
-    return node.isTextual() &&
+  private boolean matchTextualCase(final JsonNodeType nodeType, final EdmPrimitiveTypeKind primKind) {
+    return nodeType == JsonNodeType.STRING &&
         (primKind == EdmPrimitiveTypeKind.String
             || primKind == EdmPrimitiveTypeKind.Binary
             || primKind == EdmPrimitiveTypeKind.Date
@@ -1074,7 +1074,7 @@ public class ODataJsonDeserializer implements ODataDeserializer {
     }
   }
 
-  private DeserializerException wrapParseException(final IOException e) {
+  DeserializerException wrapParseException(final IOException e) {
     if (e instanceof JsonParseException) {
       return new DeserializerException("A JsonParseException occurred.", e,
           DeserializerException.MessageKeys.JSON_SYNTAX_EXCEPTION);
@@ -1090,29 +1090,37 @@ public class ODataJsonDeserializer implements ODataDeserializer {
   private EdmType getDerivedType(final EdmStructuredType edmType, final JsonNode jsonNode)
       throws DeserializerException {
     JsonNode odataTypeNode = jsonNode.get(constants.getType());
-    if (odataTypeNode != null) {
-      String odataType = odataTypeNode.asText();
-      if (!odataType.isEmpty()) {
-        odataType = odataType.substring(1);
-
-        if (odataType.equalsIgnoreCase(edmType.getFullQualifiedName().getFullQualifiedNameAsString())) {
-          return edmType;
-        } else if (this.serviceMetadata == null) {
-          throw new DeserializerException(
-              "Failed to resolve Odata type " + odataType + " due to metadata is not available",
-              DeserializerException.MessageKeys.UNKNOWN_CONTENT);
-        }
+    return odataTypeNode == null ? edmType : getDerivedType(edmType, odataTypeNode.asText());
+  }
 
-        final EdmStructuredType currentEdmType = edmType.getKind() == EdmTypeKind.ENTITY ?
-            serviceMetadata.getEdm().getEntityType(new FullQualifiedName(odataType)) :
-            serviceMetadata.getEdm().getComplexType(new FullQualifiedName(odataType));
-        if (!isAssignable(edmType, currentEdmType)) {
-          throw new DeserializerException("Odata type " + odataType + " not allowed here",
-              DeserializerException.MessageKeys.UNKNOWN_CONTENT);
-        }
+  /**
+   * Resolves the type given in a type annotation (with leading '#') to a type derived from the given type.
+   * @param edmType the expected type
+   * @param odataType value of the type annotation
+   * @return the resolved type or the expected type if the annotation value is empty
+   * @throws DeserializerException if the type cannot be resolved or is not assignable to the expected type
+   */
+  EdmType getDerivedType(final EdmStructuredType edmType, final String odataType) throws DeserializerException {
+    if (!odataType.isEmpty()) {
+      final String typeName = odataType.substring(1);
 
-        return currentEdmType;
+      if (typeName.equalsIgnoreCase(edmType.getFullQualifiedName().getFullQualifiedNameAsString())) {
+        return edmType;
+      } else if (this.serviceMetadata == null) {
+        throw new DeserializerException(
+            "Failed to resolve Odata type " + typeName + " due to metadata is not available",
+            DeserializerException.MessageKeys.UNKNOWN_CONTENT);
+      }
+
+      final EdmStructuredType currentEdmType = edmType.getKind() == EdmTypeKind.ENTITY ?
+          serviceMetadata.getEdm().getEntityType(new FullQualifiedName(typeName)) :
+          serviceMetadata.getEdm().getComplexType(new FullQualifiedName(typeName));
+      if (!isAssignable(edmType, currentEdmType)) {
+        throw new DeserializerException("Odata type " + typeName + " not allowed here",
+            DeserializerException.MessageKeys.UNKNOWN_CONTENT);
       }
+
+      return currentEdmType;
     }
     return edmType;
   }
@@ -0,0 +1,612 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.deserializer.json;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.olingo.commons.api.Constants;
+import org.apache.olingo.commons.api.IConstants;
+import org.apache.olingo.commons.api.constants.Constantsv00;
+import org.apache.olingo.commons.api.constants.Constantsv01;
+import org.apache.olingo.commons.api.data.ComplexValue;
+import org.apache.olingo.commons.api.data.DeletedEntity;
+import org.apache.olingo.commons.api.data.DeletedEntity.Reason;
+import org.apache.olingo.commons.api.data.Delta;
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.commons.api.data.EntityCollection;
+import org.apache.olingo.commons.api.data.Link;
+import org.apache.olingo.commons.api.data.Property;
+import org.apache.olingo.commons.api.data.ValueType;
+import org.apache.olingo.commons.api.edm.EdmComplexType;
+import org.apache.olingo.commons.api.edm.EdmEntityType;
+import org.apache.olingo.commons.api.edm.EdmNavigationProperty;
+import org.apache.olingo.commons.api.edm.EdmPrimitiveType;
+import org.apache.olingo.commons.api.edm.EdmPrimitiveTypeException;
+import org.apache.olingo.commons.api.edm.EdmProperty;
+import org.apache.olingo.commons.api.edm.EdmStructuredType;
+import org.apache.olingo.commons.api.edm.constants.EdmTypeKind;
+import org.apache.olingo.commons.api.format.ContentType;
+import org.apache.olingo.server.api.ServiceMetadata;
+import org.apache.olingo.server.api.deserializer.DeserializerException;
+import org.apache.olingo.server.api.deserializer.DeserializerException.MessageKeys;
+import org.apache.olingo.server.api.deserializer.DeserializerResult;
+import org.apache.olingo.server.api.serializer.SerializerException;
+import org.apache.olingo.server.core.deserializer.DeserializerResultImpl;
+import org.apache.olingo.server.core.deserializer.helper.ExpandTreeBuilder;
+import org.apache.olingo.server.core.deserializer.helper.ExpandTreeBuilderImpl;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeType;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * JSON deserializer that maps entities and entity collections directly from the JSON token stream
+ * to {@link Entity}, {@link Property}, and {@link Link} objects, guided by the EDM type,
+ * without reading the whole payload into a JSON tree first.
+ * <p>
+ * Only small parts of the payload are materialized as trees: geospatial values, delta entries, and
+ * fields that are unknown to the expected type but appear before the type annotation of a derived type.
+ * Properties and navigation links are added in payload order.
+ * All other payload kinds are read by {@link ODataJsonDeserializer}.
+ * </p>
+ */
+public class ODataJsonStreamDeserializer extends ODataJsonDeserializer {
+
+  private final IConstants constants;
+
+  public ODataJsonStreamDeserializer(final ContentType contentType) {
+    this(contentType, null, new Constantsv00());
+  }
+
+  public ODataJsonStreamDeserializer(final ContentType contentType, final ServiceMetadata serviceMetadata) {
+    this(contentType, serviceMetadata, new Constantsv00());
+  }
+
+  public ODataJsonStreamDeserializer(final ContentType contentType, final IConstants constants) {
+    this(contentType, null, constants);
+  }
+
+  public ODataJsonStreamDeserializer(final ContentType contentType, final ServiceMetadata serviceMetadata,
+      final IConstants constants) {
+    super(contentType, serviceMetadata, constants);
+    this.constants = constants;
+  }
+
+  @Override
+  public DeserializerResult entityCollection(final InputStream stream, final EdmEntityType edmEntityType)
+      throws DeserializerException {
+    JsonParser parser = null;
+    try {
+      parser = createParser(stream);
+      EntityCollection entitySet = null;
+      final Set<String> names = new HashSet<String>();
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        final String name = parser.getCurrentName();
+        checkDuplicate(names, name);
+        parser.nextToken();
+        if (Constants.VALUE.equals(name)) {
+          if (parser.getCurrentToken() != JsonToken.START_ARRAY) {
+            throw new DeserializerException("The content of the value tag must be an Array but is not.",
+                DeserializerException.MessageKeys.VALUE_TAG_MUST_BE_AN_ARRAY);
+          }
+          entitySet = new EntityCollection();
+          consumeEntitySetArray(edmEntityType, parser, null, entitySet.getEntities());
+        } else {
+          consumeAnnotation(name, parser);
+        }
+      }
+      if (entitySet == null) {
+        throw new DeserializerException("Could not find value array.",
+            DeserializerException.MessageKeys.VALUE_ARRAY_NOT_PRESENT);
+      }
+      return DeserializerResultImpl.with().entityCollection(entitySet).build();
+    } catch (final IOException e) {
+      throw wrapParseException(e);
+    } finally {
+      closeParser(parser);
+    }
+  }
+
+  @Override
+  public DeserializerResult entity(final InputStream stream, final EdmEntityType edmEntityType)
+      throws DeserializerException {
+    JsonParser parser = null;
+    try {
+      parser = createParser(stream);
+      final ExpandTreeBuilder expandBuilder = ExpandTreeBuilderImpl.create();
+      final Entity entity = consumeEntityObject(edmEntityType, parser, expandBuilder);
+      return DeserializerResultImpl.with().entity(entity)
+          .expandOption(expandBuilder.build())
+          .build();
+    } catch (final IOException e) {
+      throw wrapParseException(e);
+    } finally {
+      closeParser(parser);
+    }
+  }
+
+  /**
+   * Creates a parser for the given stream and moves it to the start of the root object.
+   * The stream itself is not closed when the parser is closed.
+   */
+  private JsonParser createParser(final InputStream stream) throws IOException, DeserializerException {
+    final JsonParser parser = MAPPER.getFactory().createParser(stream);
+    parser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+    if (parser.nextToken() != JsonToken.START_OBJECT) {
+      throw new DeserializerException("Invalid JSON syntax.",
+          DeserializerException.MessageKeys.JSON_SYNTAX_EXCEPTION);
+    }
+    return parser;
+  }
+
+  private void closeParser(final JsonParser parser) {
+    if (parser != null) {
+      try {
+        parser.close();
+      } catch (final IOException e) {
+        // Nothing left to do; the parser only releases its buffers.
+      }
+    }
+  }
+
+  private void consumeEntitySetArray(final EdmEntityType edmEntityType, final JsonParser parser,
+      final ExpandTreeBuilder expandBuilder, final List<Entity> entities) throws IOException, DeserializerException {
+    while (parser.nextToken() != JsonToken.END_ARRAY) {
+      if (parser.getCurrentToken() != JsonToken.START_OBJECT) {
+        throw new DeserializerException("Nested Arrays and primitive values are not allowed for an entity value.",
+            DeserializerException.MessageKeys.INVALID_ENTITY);
+      }
+      entities.add(consumeEntityObject(edmEntityType, parser, expandBuilder));
+    }
+  }
+
+  /**
+   * Consumes a JSON object representing an entity; the parser must be positioned at its start
+   * and is positioned at its end afterwards.
+   */
+  private Entity consumeEntityObject(final EdmEntityType edmEntityType, final JsonParser parser,
+      final ExpandTreeBuilder expandBuilder) throws IOException, DeserializerException {
+    Entity entity = new Entity();
+    EdmEntityType currentType = edmEntityType;
+    Map<String, JsonNode> pending = null;
+    final Set<String> names = new HashSet<String>();
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      final String name = parser.getCurrentName();
+      checkDuplicate(names, name);
+      parser.nextToken();
+      if (name.equals(constants.getType())) {
+        currentType = (EdmEntityType) consumeDerivedType(edmEntityType, parser);
+      } else if (!consumeEntityField(currentType, name, parser, entity, expandBuilder)) {
+        // The field could belong to a derived type announced later.
+        if (pending == null) {
+          pending = new LinkedHashMap<String, JsonNode>();
+        }
+        pending.put(name, parser.<JsonNode> readValueAsTree());
+      }
+    }
+    if (pending != null) {
+      for (final Map.Entry<String, JsonNode> field : pending.entrySet()) {
+        final JsonParser fieldParser = field.getValue().traverse(MAPPER);
+        fieldParser.nextToken();
+        if (!consumeEntityField(currentType, field.getKey(), fieldParser, entity, expandBuilder)) {
+          throw unknownContent(field.getKey());
+        }
+      }
+    }
+    entity.setType(currentType.getFullQualifiedName().getFullQualifiedNameAsString());
+    return entity;
+  }
+
+  /**
+   * Consumes the value of an entity field.
+   * @return <code>false</code> if the field is unknown for the given type (and the value has not been consumed)
+   */
+  private boolean consumeEntityField(final EdmEntityType edmEntityType, final String name, final JsonParser parser,
+      final Entity entity, final ExpandTreeBuilder expandBuilder) throws IOException, DeserializerException {
+    final EdmProperty edmProperty = edmEntityType.getStructuralProperty(name);
+    if (edmProperty != null) {
+      entity.addProperty(consumeProperty(edmProperty, parser));
+      return true;
+    }
+    EdmNavigationProperty edmNavigationProperty = edmEntityType.getNavigationProperty(name);
+    if (edmNavigationProperty != null) {
+      entity.getNavigationLinks().add(consumeNavigationLink(edmNavigationProperty, parser, expandBuilder));
+      return true;
+    }
+    if (constants instanceof Constantsv01) {
+      if (name.equals(constants.getId())) {
+        try {
+          entity.setId(new URI(parser.getText()));
+        } catch (final URISyntaxException e) {
+          throw new DeserializerException("Could not form Id", e,
+              DeserializerException.MessageKeys.UNKNOWN_CONTENT);
+        }
+        return true;
+      }
+      final String deltaSuffix = Constants.AT + Constants.DELTAVALUE;
+      if (name.endsWith(deltaSuffix)) {
+        edmNavigationProperty =
+            edmEntityType.getNavigationProperty(name.substring(0, name.length() - deltaSuffix.length()));
+        if (edmNavigationProperty != null && edmNavigationProperty.isCollection()
+            && parser.getCurrentToken() == JsonToken.START_ARRAY) {
+          entity.getNavigationLinks().add(consumeDelta(edmNavigationProperty, parser, expandBuilder));
+          return true;
+        }
+      }
+    }
+    if (name.contains(constants.getBind())) {
+      edmNavigationProperty = edmEntityType.getNavigationProperty(name.split(ODATA_ANNOTATION_MARKER)[0]);
+      if (edmNavigationProperty == null) {
+        return false;
+      }
+      entity.getNavigationBindings().add(consumeBindingLink(name, edmNavigationProperty, parser));
+      return true;
+    }
+    if (name.contains(ODATA_ANNOTATION_MARKER)) {
+      consumeAnnotation(name, parser);
+      return true;
+    }
+    return false;
+  }
+
+  /** Consumes the value of a type annotation and returns the type it denotes. */
+  private EdmStructuredType consumeDerivedType(final EdmStructuredType edmType, final JsonParser parser)
+      throws IOException, DeserializerException {
+    if (parser.getCurrentToken().isScalarValue()) {
+      return (EdmStructuredType) getDerivedType(edmType, getText(parser));
+    } else {
+      parser.skipChildren();
+      return edmType;
+    }
+  }
+
+  /**
+   * Skips the value of an annotation.
+   * Control information is ignored for requests as per specification chapter "4.5 Control Information";
+   * other fields are either custom annotations (ignored only for version 4.01) or unknown.
+   */
+  private void consumeAnnotation(final String name, final JsonParser parser)
+      throws IOException, DeserializerException {
+    if (name.contains(ODATA_CONTROL_INFORMATION_PREFIX)
+        || name.contains(ODATA_ANNOTATION_MARKER) && constants instanceof Constantsv01) {
+      parser.skipChildren();
+    } else if (name.contains(ODATA_ANNOTATION_MARKER)) {
+      throw new DeserializerException("Custom annotation with field name: " + name + " not supported",
+          DeserializerException.MessageKeys.NOT_IMPLEMENTED);
+    } else {
+      throw unknownContent(name);
+    }
+  }
+
+  private Link consumeNavigationLink(final EdmNavigationProperty edmNavigationProperty, final JsonParser parser,
+      final ExpandTreeBuilder expandBuilder) throws IOException, DeserializerException {
+    final String navigationPropertyName = edmNavigationProperty.getName();
+    final JsonToken token = parser.getCurrentToken();
+    if (token == JsonToken.VALUE_NULL
+        && (!edmNavigationProperty.isNullable() || edmNavigationProperty.isCollection())) {
+      throw new DeserializerException("Property: " + navigationPropertyName + " must not be null.",
+          MessageKeys.INVALID_NULL_PROPERTY, navigationPropertyName);
+    }
+    Link link = new Link();
+    link.setTitle(navigationPropertyName);
+    final ExpandTreeBuilder childExpandBuilder = expandBuilder == null ? null :
+        expandBuilder.expand(edmNavigationProperty);
+    if (token == JsonToken.START_ARRAY && edmNavigationProperty.isCollection()) {
+      link.setType(Constants.ENTITY_SET_NAVIGATION_LINK_TYPE);
+      EntityCollection inlineEntitySet = new EntityCollection();
+      consumeEntitySetArray(edmNavigationProperty.getType(), parser, childExpandBuilder,
+          inlineEntitySet.getEntities());
+      link.setInlineEntitySet(inlineEntitySet);
+    } else if ((token == JsonToken.START_OBJECT || token == JsonToken.VALUE_NULL)
+        && !edmNavigationProperty.isCollection()) {
+      link.setType(Constants.ENTITY_NAVIGATION_LINK_TYPE);
+      if (token == JsonToken.START_OBJECT) {
+        link.setInlineEntity(consumeEntityObject(edmNavigationProperty.getType(), parser, childExpandBuilder));
+      }
+    } else {
+      throw new DeserializerException("Invalid value: " + token
+          + " for expanded navigation property: " + navigationPropertyName,
+          MessageKeys.INVALID_VALUE_FOR_NAVIGATION_PROPERTY, navigationPropertyName);
+    }
+    return link;
+  }
+
+  private Link consumeDelta(final EdmNavigationProperty edmNavigationProperty, final JsonParser parser,
+      final ExpandTreeBuilder expandBuilder) throws IOException, DeserializerException {
+    Link link = new Link();
+    link.setType(Constants.ENTITY_SET_NAVIGATION_LINK_TYPE);
+    link.setTitle(edmNavigationProperty.getName());
+    Delta deltaValue = new Delta();
+    final String removed = Constants.AT + Constants.REMOVED;
+    while (parser.nextToken() != JsonToken.END_ARRAY) {
+      if (parser.getCurrentToken() != JsonToken.START_OBJECT) {
+        throw new DeserializerException("Nested Arrays and primitive values are not allowed for an entity value.",
+            DeserializerException.MessageKeys.INVALID_ENTITY);
+      }
+      // Entries are small and the kind of entry is only known after reading the removed annotation.
+      final ObjectNode arrayElement = parser.readValueAsTree();
+      final JsonNode reasonNode = arrayElement.get(removed);
+      if (reasonNode != null) {
+        DeletedEntity deletedEntity = new DeletedEntity();
+        final JsonNode reasonValue = reasonNode.get(REASON);
+        if (reasonValue == null) {
+          throw new DeserializerException("DeletedEntity reason is null.",
+              SerializerException.MessageKeys.MISSING_DELTA_PROPERTY, Constants.REASON);
+        }
+        if (reasonValue.asText().equals(Reason.changed.name())) {
+          deletedEntity.setReason(Reason.changed);
+        } else if (reasonValue.asText().equals(Reason.deleted.name())) {
+          deletedEntity.setReason(Reason.deleted);
+        }
+        final JsonNode idNode = arrayElement.get(constants.getId());
+        if (idNode == null) {
+          throw new DeserializerException("Could not set Id for deleted Entity",
+              DeserializerException.MessageKeys.UNKNOWN_CONTENT);
+        }
+        try {
+          deletedEntity.setId(new URI(idNode.asText()));
+        } catch (final URISyntaxException e) {
+          throw new DeserializerException("Could not set Id for deleted Entity", e,
+              DeserializerException.MessageKeys.UNKNOWN_CONTENT);
+        }
+        deltaValue.getDeletedEntities().add(deletedEntity);
+      } else {
+        final JsonParser elementParser = arrayElement.traverse(MAPPER);
+        elementParser.nextToken();
+        deltaValue.getEntities().add(consumeEntityObject(edmNavigationProperty.getType(), elementParser,
+            expandBuilder));
+      }
+    }
+    link.setInlineEntitySet(deltaValue);
+    return link;
+  }
+
+  private Link consumeBindingLink(final String key, final EdmNavigationProperty edmNavigationProperty,
+      final JsonParser parser) throws IOException, DeserializerException {
+    Link bindingLink = new Link();
+    bindingLink.setTitle(edmNavigationProperty.getName());
+    final JsonToken token = parser.getCurrentToken();
+    if (edmNavigationProperty.isCollection()) {
+      assertNotNull(key, token);
+      if (token != JsonToken.START_ARRAY) {
+        throw new DeserializerException("Binding annotation: " + key + " must be an array.",
+            DeserializerException.MessageKeys.INVALID_ANNOTATION_TYPE, key);
+      }
+      List<String> bindingLinkStrings = new ArrayList<String>();
+      while (parser.nextToken() != JsonToken.END_ARRAY) {
+        assertNotNull(key, parser.getCurrentToken());
+        if (parser.getCurrentToken() != JsonToken.VALUE_STRING) {
+          throw new DeserializerException("Binding annotation: " + key + " must have string valued array.",
+              DeserializerException.MessageKeys.INVALID_ANNOTATION_TYPE, key);
+        }
+        bindingLinkStrings.add(parser.getText());
+      }
+      bindingLink.setType(Constants.ENTITY_COLLECTION_BINDING_LINK_TYPE);
+      bindingLink.setBindingLinks(bindingLinkStrings);
+    } else {
+      if (!token.isScalarValue()) {
+        throw new DeserializerException("Binding annotation: " + key + " must be a string value.",
+            DeserializerException.MessageKeys.INVALID_ANNOTATION_TYPE, key);
+      }
+      if (edmNavigationProperty.isNullable() && token == JsonToken.VALUE_NULL) {
+        bindingLink.setBindingLink(null);
+      } else {
+        assertNotNull(key, token);
+        bindingLink.setBindingLink(getText(parser));
+      }
+      bindingLink.setType(Constants.ENTITY_BINDING_LINK_TYPE);
+    }
+    return bindingLink;
+  }
+
+  private void assertNotNull(final String key, final JsonToken token) throws DeserializerException {
+    if (token == JsonToken.VALUE_NULL) {
+      throw new DeserializerException("Annotation: " + key + "must not have a null value.",
+          DeserializerException.MessageKeys.INVALID_NULL_ANNOTATION, key);
+    }
+  }
+
+  private Property consumeProperty(final EdmProperty edmProperty, final JsonParser parser)
+      throws IOException, DeserializerException {
+    final String name = edmProperty.getName();
+    if (parser.getCurrentToken() == JsonToken.VALUE_NULL && !edmProperty.isNullable()) {
+      throw new DeserializerException("Property: " + name + " must not be null.",
+          DeserializerException.MessageKeys.INVALID_NULL_PROPERTY, name);
+    }
+    final EdmTypeKind kind = edmProperty.getType().getKind();
+    if (kind != EdmTypeKind.PRIMITIVE && kind != EdmTypeKind.DEFINITION && kind != EdmTypeKind.ENUM
+        && kind != EdmTypeKind.COMPLEX) {
+      throw new DeserializerException("Invalid Type Kind for a property found: " + kind,
+          DeserializerException.MessageKeys.INVALID_JSON_TYPE_FOR_PROPERTY, name);
+    }
+    Property property = new Property();
+    property.setName(name);
+    property.setType(edmProperty.getType().getFullQualifiedName().getFullQualifiedNameAsString());
+    if (edmProperty.isCollection()) {
+      if (parser.getCurrentToken() != JsonToken.START_ARRAY) {
+        throw new DeserializerException("Value for property: " + name + " must be an array but is not.",
+            DeserializerException.MessageKeys.INVALID_JSON_TYPE_FOR_PROPERTY, name);
+      }
+      List<Object> valueArray = new ArrayList<Object>();
+      while (parser.nextToken() != JsonToken.END_ARRAY) {
+        valueArray.add(kind == EdmTypeKind.COMPLEX ?
+            consumeComplexValue(name, (EdmComplexType) edmProperty.getType(), edmProperty.isNullable(), parser) :
+            consumePrimitiveValue(edmProperty, parser));
+      }
+      property.setValue(kind == EdmTypeKind.COMPLEX ? ValueType.COLLECTION_COMPLEX :
+          kind == EdmTypeKind.ENUM ? ValueType.COLLECTION_ENUM : ValueType.COLLECTION_PRIMITIVE,
+          valueArray);
+    } else if (kind == EdmTypeKind.COMPLEX) {
+      final ComplexValue value =
+          consumeComplexValue(name, (EdmComplexType) edmProperty.getType(), edmProperty.isNullable(), parser);
+      if (value != null) {
+        property.setType(value.getTypeName());
+      }
+      property.setValue(ValueType.COMPLEX, value);
+    } else {
+      property.setValue(kind == EdmTypeKind.ENUM ? ValueType.ENUM : ValueType.PRIMITIVE,
+          consumePrimitiveValue(edmProperty, parser));
+    }
+    return property;
+  }
+
+  private ComplexValue consumeComplexValue(final String name, final EdmComplexType edmComplexType,
+      final boolean isNullable, final JsonParser parser) throws IOException, DeserializerException {
+    final JsonToken token = parser.getCurrentToken();
+    if (token == JsonToken.VALUE_NULL) {
+      if (isNullable) {
+        return null;
+      }
+      throw new DeserializerException("Property: " + name + " must not be null.",
+          DeserializerException.MessageKeys.INVALID_NULL_PROPERTY, name);
+    }
+    if (token != JsonToken.START_OBJECT) {
+      throw new DeserializerException(
+          "Invalid value for property: " + name + " must not be an array or primitive value.",
+          DeserializerException.MessageKeys.INVALID_JSON_TYPE_FOR_PROPERTY, name);
+    }
+    ComplexValue complexValue = new ComplexValue();
+    EdmComplexType currentType = edmComplexType;
+    Map<String, JsonNode> pending = null;
+    final Set<String> names = new HashSet<String>();
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      final String fieldName = parser.getCurrentName();
+      checkDuplicate(names, fieldName);
+      parser.nextToken();
+      if (fieldName.equals(constants.getType())) {
+        currentType = (EdmComplexType) consumeDerivedType(edmComplexType, parser);
+      } else if (currentType.getStructuralProperty(fieldName) != null) {
+        complexValue.getValue().add(consumeProperty(currentType.getStructuralProperty(fieldName), parser));
+      } else if (fieldName.contains(ODATA_ANNOTATION_MARKER)) {
+        consumeAnnotation(fieldName, parser);
+      } else {
+        if (pending == null) {
+          pending = new LinkedHashMap<String, JsonNode>();
+        }
+        pending.put(fieldName, parser.<JsonNode> readValueAsTree());
+      }
+    }
+    if (pending != null) {
+      for (final Map.Entry<String, JsonNode> field : pending.entrySet()) {
+        final EdmProperty edmProperty = currentType.getStructuralProperty(field.getKey());
+        if (edmProperty == null) {
+          throw unknownContent(field.getKey());
+        }
+        final JsonParser fieldParser = field.getValue().traverse(MAPPER);
+        fieldParser.nextToken();
+        complexValue.getValue().add(consumeProperty(edmProperty, fieldParser));
+      }
+    }
+    complexValue.setTypeName(currentType.getFullQualifiedName().getFullQualifiedNameAsString());
+    return complexValue;
+  }
+
+  private Object consumePrimitiveValue(final EdmProperty edmProperty, final JsonParser parser)
+      throws IOException, DeserializerException {
+    final String name = edmProperty.getName();
+    final EdmPrimitiveType type = (EdmPrimitiveType) edmProperty.getType();
+    final JsonToken token = parser.getCurrentToken();
+    if (token == JsonToken.VALUE_NULL) {
+      if (edmProperty.isNullable()) {
+        return null;
+      }
+      throw new DeserializerException("Property: " + name + " must not be null.",
+          DeserializerException.MessageKeys.INVALID_NULL_PROPERTY, name);
+    }
+    final boolean isGeoType = type.getName().startsWith("Geo");
+    if (!isGeoType && !token.isScalarValue()) {
+      throw new DeserializerException("Invalid value for property: " + name + " must not be an object or array.",
+          DeserializerException.MessageKeys.INVALID_JSON_TYPE_FOR_PROPERTY, name);
+    }
+    checkJsonTypeBasedOnPrimitiveType(name, type, getNodeType(token));
+    String text = null;
+    try {
+      if (isGeoType) {
+        return readPrimitiveGeoValue(name, type, parser.<ObjectNode> readValueAsTree());
+      }
+      text = getText(parser);
+      return type.valueOfString(text,
+          edmProperty.isNullable(), edmProperty.getMaxLength(), edmProperty.getPrecision(), edmProperty.getScale(),
+          edmProperty.isUnicode(), getJavaClassForPrimitiveType(edmProperty.getMapping(), type));
+    } catch (final EdmPrimitiveTypeException e) {
+      throw new DeserializerException(
+          "Invalid value: " + text + " for property: " + name, e,
+          DeserializerException.MessageKeys.INVALID_VALUE_FOR_PROPERTY, name);
+    }
+  }
+
+  /**
+   * Returns the text of the current scalar value in the same form as a JSON tree node would do;
+   * in particular, floating-point numbers are read as double values.
+   */
+  private String getText(final JsonParser parser) throws IOException {
+    switch (parser.getCurrentToken()) {
+    case VALUE_NUMBER_INT:
+      return parser.getNumberValue().toString();
+    case VALUE_NUMBER_FLOAT:
+      return Double.toString(parser.getDoubleValue());
+    default:
+      return parser.getText();
+    }
+  }
+
+  private JsonNodeType getNodeType(final JsonToken token) {
+    switch (token) {
+    case START_OBJECT:
+      return JsonNodeType.OBJECT;
+    case START_ARRAY:
+      return JsonNodeType.ARRAY;
+    case VALUE_STRING:
+      return JsonNodeType.STRING;
+    case VALUE_NUMBER_INT:
+    case VALUE_NUMBER_FLOAT:
+      return JsonNodeType.NUMBER;
+    case VALUE_TRUE:
+    case VALUE_FALSE:
+      return JsonNodeType.BOOLEAN;
+    case VALUE_NULL:
+      return JsonNodeType.NULL;
+    default:
+      return JsonNodeType.MISSING;
+    }
+  }
+
+  private void checkDuplicate(final Set<String> names, final String name) throws DeserializerException {
+    if (!names.add(name)) {
+      throw new DeserializerException("Duplicate json property detected.",
+          DeserializerException.MessageKeys.DUPLICATE_PROPERTY);
+    }
+  }
+
+  private DeserializerException unknownContent(final String name) {
+    return new DeserializerException("Tree should be empty but still has content left: " + name,
+        DeserializerException.MessageKeys.UNKNOWN_CONTENT, name);
+  }
+}
@@ -27,7 +27,6 @@ import java.util.Map;
 
 import javax.xml.namespace.QName;
 import javax.xml.stream.XMLEventReader;
-import javax.xml.stream.XMLInputFactory;
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.events.Attribute;
 import javax.xml.stream.events.StartElement;
@@ -56,6 +55,7 @@ import org.apache.olingo.commons.api.edm.EdmStructuredType;
 import org.apache.olingo.commons.api.edm.EdmType;
 import org.apache.olingo.commons.api.edm.FullQualifiedName;
 import org.apache.olingo.commons.api.format.ContentType;
+import org.apache.olingo.commons.core.XmlFactoryProvider;
 import org.apache.olingo.commons.core.edm.EdmTypeInfo;
 import org.apache.olingo.commons.core.edm.primitivetype.AbstractGeospatialType;
 import org.apache.olingo.server.api.ServiceMetadata;
@@ -67,8 +67,6 @@ import org.apache.olingo.server.core.deserializer.DeserializerResultImpl;
 
 public class ODataXmlDeserializer implements ODataDeserializer {
 
-  private static final XMLInputFactory FACTORY = XMLInputFactory.newFactory();
-
   private static final QName propertiesQName = new QName(Constants.NS_METADATA, Constants.PROPERTIES);
   private static final QName propertyValueQName = new QName(Constants.NS_METADATA, Constants.VALUE);
   private static final QName contextQName = new QName(Constants.NS_METADATA, Constants.CONTEXT);
@@ -94,7 +92,7 @@ public class ODataXmlDeserializer implements ODataDeserializer {
   }
   
   protected XMLEventReader getReader(final InputStream input) throws XMLStreamException {
-    return FACTORY.createXMLEventReader(input);
+    return XmlFactoryProvider.getInputFactory().createXMLEventReader(input);
   }
 
   private Object primitive(final XMLEventReader reader, final StartElement start,
@@ -6,9 +6,9 @@
  * to you under the Apache License, Version 2.0 (the
  * "License"); you may not use this file except in compliance
  * with the License. You may obtain a copy of the License at
- *
+ * 
  * http://www.apache.org/licenses/LICENSE-2.0
- *
+ * 
  * Unless required by applicable law or agreed to in writing,
  * software distributed under the License is distributed on an
  * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
@@ -22,11 +22,11 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.nio.ByteBuffer;
+import java.io.OutputStream;
 import java.nio.channels.Channels;
-import java.nio.channels.ReadableByteChannel;
 import java.nio.channels.WritableByteChannel;
 import java.nio.charset.Charset;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -40,90 +40,109 @@ import org.apache.olingo.server.api.ODataResponse;
 import org.apache.olingo.server.api.deserializer.batch.ODataResponsePart;
 import org.apache.olingo.server.api.serializer.BatchSerializerException;
 import org.apache.olingo.server.api.serializer.BatchSerializerException.MessageKeys;
+import org.apache.olingo.server.api.serializer.SerializerStreamResult;
 import org.apache.olingo.server.core.deserializer.batch.BatchParserCommon;
 
 public class BatchResponseSerializer {
   private static final int BUFFER_SIZE = 4096;
+  /** Maximum size of a part body that is buffered by the streamed serialization to determine its length. */
+  static final int STREAMED_PART_BUFFER_SIZE = 64 * 1024;
   private static final String DOUBLE_DASH = "--";
   private static final String COLON = ":";
   private static final String SP = " ";
   private static final String CRLF = "\r\n";
+  private static final Charset CHARSET_ISO_8859_1 = Charset.forName("iso-8859-1");
 
   public InputStream serialize(final List<ODataResponsePart> responses, final String boundary)
       throws BatchSerializerException {
-    BodyBuilder builder = createBody(responses, boundary);
+    final ByteArrayOutputStream output = new ByteArrayOutputStream(BUFFER_SIZE);
+    try {
+      writeBody(responses.iterator(), boundary, output, true);
+    } catch (final IOException e) {
+      throw new ODataRuntimeException("Error on writing batch response", e);
+    }
 
-    return new ByteArrayInputStream(builder.getContent());
+    return new ByteArrayInputStream(output.toByteArray());
   }
 
-  private BodyBuilder createBody(final List<ODataResponsePart> batchResponses, final String boundary)
-      throws BatchSerializerException {
-    final BodyBuilder builder = new BodyBuilder();
+  /**
+   * Serializes the batch response while it is written to the output.
+   * The response parts are taken from the iterator one after the other and written to the output.
+   * The body of a part is buffered up to {@link #STREAMED_PART_BUFFER_SIZE} bytes, so that it gets
+   * a Content-Length header; a bigger body is copied to the output without one.
+   * @param responses the response parts; they may be produced lazily by the iterator
+   * @param boundary the boundary between the parts
+   * @return the streamed result
+   */
+  public SerializerStreamResult serializeStreamed(final Iterator<ODataResponsePart> responses,
+      final String boundary) {
+    return SerializerStreamResultImpl.with().content(new StreamedBatchContent(responses, boundary)).build();
+  }
 
-    for (final ODataResponsePart part : batchResponses) {
-      builder.append(getDashBoundary(boundary));
+  private void writeBody(final Iterator<ODataResponsePart> batchResponses, final String boundary,
+      final OutputStream output, final boolean isBuffered) throws IOException, BatchSerializerException {
+    while (batchResponses.hasNext()) {
+      final ODataResponsePart part = batchResponses.next();
+      append(getDashBoundary(boundary), output);
 
       if (part.isChangeSet()) {
-        appendChangeSet(part, builder);
+        appendChangeSet(part, output, isBuffered);
       } else {
-        appendBodyPart(part.getResponses().get(0), builder, false);
+        appendBodyPart(part.getResponses().get(0), output, false, isBuffered);
       }
     }
-    builder.append(getCloseDelimiter(boundary));
-
-    return builder;
+    append(getCloseDelimiter(boundary), output);
   }
 
-  private void appendChangeSet(final ODataResponsePart part, final BodyBuilder builder)
-      throws BatchSerializerException {
+  private void appendChangeSet(final ODataResponsePart part, final OutputStream output, final boolean isBuffered)
+      throws IOException, BatchSerializerException {
     final String changeSetBoundary = generateBoundary("changeset");
 
-    appendChangeSetHeader(builder, changeSetBoundary);
-    builder.append(CRLF);
+    appendChangeSetHeader(output, changeSetBoundary);
+    append(CRLF, output);
 
     for (final ODataResponse response : part.getResponses()) {
-      builder.append(getDashBoundary(changeSetBoundary));
-      appendBodyPart(response, builder, true);
+      append(getDashBoundary(changeSetBoundary), output);
+      appendBodyPart(response, output, true, isBuffered);
     }
 
-    builder.append(getCloseDelimiter(changeSetBoundary));
+    append(getCloseDelimiter(changeSetBoundary), output);
   }
 
-  private void appendBodyPart(final ODataResponse response, final BodyBuilder builder, final boolean isChangeSet)
-      throws BatchSerializerException {
-
-    appendBodyPartHeader(response, builder, isChangeSet);
-    builder.append(CRLF);
-
-    appendStatusLine(response, builder);
-    Body body = new Body(response);
-    appendResponseHeader(response, body.getLength(), builder);
-    builder.append(CRLF);
-
-    builder.append(body);
-    builder.append(CRLF);
+  private void appendBodyPart(final ODataResponse response, final OutputStream output, final boolean isChangeSet,
+      final boolean isBuffered) throws IOException, BatchSerializerException {
+
+    appendBodyPartHeader(response, output, isChangeSet);
+    append(CRLF, output);
+
+    appendStatusLine(response, output);
+    if (isBuffered) {
+      final byte[] body = getBody(response);
+      appendResponseHeader(response, output);
+      appendHeader(HttpHeader.CONTENT_LENGTH, Integer.toString(body.length), output);
+      append(CRLF, output);
+      output.write(body);
+    } else {
+      final PartBodyOutputStream body = new PartBodyOutputStream(response, output);
+      writeBody(response, body);
+      body.finish();
+    }
+    append(CRLF, output);
   }
 
-  private void appendChangeSetHeader(final BodyBuilder builder, final String changeSetBoundary) {
+  private void appendChangeSetHeader(final OutputStream output, final String changeSetBoundary)
+      throws IOException {
     appendHeader(HttpHeader.CONTENT_TYPE, ContentType.MULTIPART_MIXED
-        + "; boundary=" + changeSetBoundary, builder);
+        + "; boundary=" + changeSetBoundary, output);
   }
 
-  private void appendHeader(final String name, final String value, final BodyBuilder builder) {
-    builder.append(name)
-        .append(COLON)
-        .append(SP)
-        .append(value)
-        .append(CRLF);
+  private void appendHeader(final String name, final String value, final OutputStream output)
+      throws IOException {
+    append(name + COLON + SP + value + CRLF, output);
   }
 
-  private void appendStatusLine(final ODataResponse response, final BodyBuilder builder) {
-    builder.append("HTTP/1.1")
-        .append(SP)
-        .append(response.getStatusCode())
-        .append(SP)
-        .append(getStatusCodeInfo(response))
-        .append(CRLF);
+  private void appendStatusLine(final ODataResponse response, final OutputStream output) throws IOException {
+    append("HTTP/1.1" + SP + response.getStatusCode() + SP + getStatusCodeInfo(response) + CRLF, output);
   }
 
   private String getStatusCodeInfo(final ODataResponse response) {
@@ -134,34 +153,35 @@ public class BatchResponseSerializer {
     return status.getInfo();
   }
 
-  private void appendResponseHeader(final ODataResponse response, final int contentLength,
-      final BodyBuilder builder) {
+  private void appendResponseHeader(final ODataResponse response, final OutputStream output) throws IOException {
     final Map<String, List<String>> header = response.getAllHeaders();
 
     for (final Map.Entry<String, List<String>> entry : header.entrySet()) {
       // Requests never have a content id header.
       if (!entry.getKey().equalsIgnoreCase(HttpHeader.CONTENT_ID)) {
-        appendHeader(entry.getKey(), entry.getValue().get(0), builder);
+        appendHeader(entry.getKey(), entry.getValue().get(0), output);
       }
     }
-
-    appendHeader(HttpHeader.CONTENT_LENGTH, Integer.toString(contentLength), builder);
   }
 
-  private void appendBodyPartHeader(final ODataResponse response, final BodyBuilder builder,
-      final boolean isChangeSet) throws BatchSerializerException {
-    appendHeader(HttpHeader.CONTENT_TYPE, ContentType.APPLICATION_HTTP.toContentTypeString(), builder);
-    appendHeader(BatchParserCommon.CONTENT_TRANSFER_ENCODING, BatchParserCommon.BINARY_ENCODING, builder);
+  private void appendBodyPartHeader(final ODataResponse response, final OutputStream output,
+      final boolean isChangeSet) throws IOException, BatchSerializerException {
+    appendHeader(HttpHeader.CONTENT_TYPE, ContentType.APPLICATION_HTTP.toContentTypeString(), output);
+    appendHeader(BatchParserCommon.CONTENT_TRANSFER_ENCODING, BatchParserCommon.BINARY_ENCODING, output);
 
     if (isChangeSet) {
       if (response.getHeader(HttpHeader.CONTENT_ID) != null) {
-        appendHeader(HttpHeader.CONTENT_ID, response.getHeader(HttpHeader.CONTENT_ID), builder);
+        appendHeader(HttpHeader.CONTENT_ID, response.getHeader(HttpHeader.CONTENT_ID), output);
       } else {
         throw new BatchSerializerException("Missing content id", MessageKeys.MISSING_CONTENT_ID);
       }
     }
   }
 
+  private void append(final String value, final OutputStream output) throws IOException {
+    output.write(value.getBytes(CHARSET_ISO_8859_1));
+  }
+
   private String getDashBoundary(final String boundary) {
     return DOUBLE_DASH + boundary + CRLF;
   }
@@ -175,101 +195,157 @@ public class BatchResponseSerializer {
   }
 
   /**
-   * Builder class to create the body and the header.
+   * Reads the body of a response part as bytes (no charset conversion).
    */
-  private static class BodyBuilder {
-    private static final Charset CHARSET_ISO_8859_1 = Charset.forName("iso-8859-1");
-    private ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
-    private boolean isClosed = false;
-
-    public byte[] getContent() {
-      isClosed = true;
-      byte[] tmp = new byte[buffer.position()];
-      buffer.flip();
-      buffer.get(tmp, 0, buffer.limit());
-      return tmp;
+  private byte[] getBody(final ODataResponse response) {
+    final ByteArrayOutputStream output = new ByteArrayOutputStream();
+    try {
+      writeBody(response, output);
+    } catch (final IOException e) {
+      throw new ODataRuntimeException("Error on reading request content", e);
     }
+    return output.toByteArray();
+  }
 
-    public BodyBuilder append(final String string) {
-      byte[] b = string.getBytes(CHARSET_ISO_8859_1);
-      put(b);
-      return this;
+  /**
+   * Copies the body of a response part unchanged to the output.
+   */
+  private void writeBody(final ODataResponse response, final OutputStream output) throws IOException {
+    if (response == null) {
+      return;
     }
-
-    private void put(final byte[] b) {
-      if (isClosed) {
-        throw new ODataRuntimeException("BodyBuilder is closed.");
+    if (response.getContent() == null) {
+      final ODataContent content = response.getODataContent();
+      if (content != null) {
+        final WritableByteChannel channel = Channels.newChannel(new NonClosingOutputStream(output));
+        content.write(channel);
       }
-      if (buffer.remaining() < b.length) {
-        buffer.flip();
-        int newSize = (buffer.limit() * 2) + b.length;
-        ByteBuffer tmp = ByteBuffer.allocate(newSize);
-        tmp.put(buffer);
-        buffer = tmp;
+    } else {
+      final InputStream input = response.getContent();
+      final byte[] buffer = new byte[BUFFER_SIZE];
+      int count;
+      while ((count = input.read(buffer)) > 0) {
+        output.write(buffer, 0, count);
       }
-      buffer.put(b);
     }
+  }
 
-    public BodyBuilder append(final int statusCode) {
-      return append(String.valueOf(statusCode));
+  /**
+   * Content that writes the batch response directly into the output when requested.
+   */
+  private class StreamedBatchContent implements ODataContent {
+    private final Iterator<ODataResponsePart> responses;
+    private final String boundary;
+
+    StreamedBatchContent(final Iterator<ODataResponsePart> responses, final String boundary) {
+      this.responses = responses;
+      this.boundary = boundary;
     }
 
-    public BodyBuilder append(final Body body) {
-      put(body.getContent());
-      return this;
+    @Override
+    public void write(final WritableByteChannel channel) {
+      write(Channels.newOutputStream(channel));
     }
 
     @Override
-    public String toString() {
-      return new String(buffer.array(), 0, buffer.position(), CHARSET_ISO_8859_1);
+    public void write(final OutputStream stream) {
+      try {
+        writeBody(responses, boundary, stream, false);
+        stream.flush();
+      } catch (final IOException e) {
+        throw new ODataRuntimeException("Error on writing batch response", e);
+      } catch (final BatchSerializerException e) {
+        throw new ODataRuntimeException("Error on writing batch response", e);
+      }
     }
   }
 
   /**
-   * Body part which is read and stored as bytes (no charset conversion).
+   * Writes the headers and the body of a streamed response part.
+   * The body is held back until it either ends, so that its length is known,
+   * or exceeds {@link #STREAMED_PART_BUFFER_SIZE}; from then on it is passed through to the output.
    */
-  private static class Body {
-    private final byte[] content;
-
-    Body(final ODataResponse response) {
-      content = getBody(response);
+  private class PartBodyOutputStream extends OutputStream {
+    private final ODataResponse response;
+    private final OutputStream output;
+    private ByteArrayOutputStream buffer = new ByteArrayOutputStream(BUFFER_SIZE);
+
+    PartBodyOutputStream(final ODataResponse response, final OutputStream output) {
+      this.response = response;
+      this.output = output;
     }
 
-    private int getLength() {
-      return content.length;
+    @Override
+    public void write(final int b) throws IOException {
+      write(new byte[] { (byte) b }, 0, 1);
     }
 
-    private byte[] getContent() {
-      return content; //NOSONAR
+    @Override
+    public void write(final byte[] b, final int off, final int len) throws IOException {
+      if (buffer != null) {
+        if (buffer.size() + len <= STREAMED_PART_BUFFER_SIZE) {
+          buffer.write(b, off, len);
+          return;
+        }
+        appendResponseHeader(response, output);
+        append(CRLF, output);
+        buffer.writeTo(output);
+        buffer = null;
+      }
+      output.write(b, off, len);
     }
 
-    private byte[] getBody(final ODataResponse response) {
-      if (response == null || (response.getContent() == null && 
-          response.getODataContent() == null)) {
-        return new byte[0];
+    @Override
+    public void flush() throws IOException {
+      if (buffer == null) {
+        output.flush();
       }
+    }
 
-      try {
-        ByteArrayOutputStream output = new ByteArrayOutputStream();
-        ByteBuffer inBuffer = ByteBuffer.allocate(BUFFER_SIZE);
-        if (response.getContent() == null) {
-          if (response.getODataContent() != null) {
-            ODataContent res = response.getODataContent();
-            res.write(Channels.newChannel(output));
-            }
-        } else {
-          ReadableByteChannel ic = Channels.newChannel(response.getContent());
-          WritableByteChannel oc = Channels.newChannel(output);
-          while (ic.read(inBuffer) > 0) {
-            inBuffer.flip();
-            oc.write(inBuffer);
-            inBuffer.rewind();
-          }
+    /**
+     * Writes the headers and the body if the body has been buffered completely.
+     */
+    void finish() throws IOException {
+      if (buffer != null) {
+        appendResponseHeader(response, output);
+        if (response.getHeader(HttpHeader.CONTENT_LENGTH) == null) {
+          appendHeader(HttpHeader.CONTENT_LENGTH, Integer.toString(buffer.size()), output);
         }
-        return output.toByteArray();
-      } catch (IOException e) {
-        throw new ODataRuntimeException("Error on reading request content", e);
+        append(CRLF, output);
+        buffer.writeTo(output);
+        buffer = null;
       }
     }
   }
-}
\ No newline at end of file
+
+  /**
+   * Protects the batch output from being closed by the content of a single response part.
+   */
+  private static class NonClosingOutputStream extends OutputStream {
+    private final OutputStream output;
+
+    NonClosingOutputStream(final OutputStream output) {
+      this.output = output;
+    }
+
+    @Override
+    public void write(final int b) throws IOException {
+      output.write(b);
+    }
+
+    @Override
+    public void write(final byte[] b, final int off, final int len) throws IOException {
+      output.write(b, off, len);
+    }
+
+    @Override
+    public void flush() throws IOException {
+      output.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+      output.flush();
+    }
+  }
+}
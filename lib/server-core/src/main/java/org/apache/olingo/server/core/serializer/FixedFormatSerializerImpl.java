@@ -21,6 +21,7 @@ package org.apache.olingo.server.core.serializer;
 import java.io.ByteArrayInputStream;
 import java.io.InputStream;
 import java.io.UnsupportedEncodingException;
+import java.util.Iterator;
 import java.util.List;
 
 import org.apache.olingo.commons.api.edm.EdmPrimitiveType;
@@ -31,6 +32,7 @@ import org.apache.olingo.server.api.serializer.BatchSerializerException;
 import org.apache.olingo.server.api.serializer.FixedFormatSerializer;
 import org.apache.olingo.server.api.serializer.PrimitiveValueSerializerOptions;
 import org.apache.olingo.server.api.serializer.SerializerException;
+import org.apache.olingo.server.api.serializer.SerializerStreamResult;
 
 public class FixedFormatSerializerImpl implements FixedFormatSerializer {
 
@@ -80,4 +82,10 @@ public class FixedFormatSerializerImpl implements FixedFormatSerializer {
 
     return serializer.serialize(batchResponses, boundary);
   }
+
+  @Override
+  public SerializerStreamResult batchResponseStreamed(final Iterator<ODataResponsePart> batchResponses,
+      final String boundary) {
+    return new BatchResponseSerializer().serializeStreamed(batchResponses, boundary);
+  }
 }
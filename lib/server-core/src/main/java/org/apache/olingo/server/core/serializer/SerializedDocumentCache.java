@@ -0,0 +1,150 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.serializer;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.olingo.server.api.ServiceMetadata;
+import org.apache.olingo.server.api.etag.ServiceMetadataETagSupport;
+import org.apache.olingo.server.core.ServiceMetadataImpl;
+
+/**
+ * <p>Keeps the serialized metadata and service documents of a service.</p>
+ * <p>A document is only cached if the application delivers an ETag for it
+ * (see {@link ServiceMetadataETagSupport}); a cached document is used as long as the ETag does not change.
+ * For each kind and format of document, only the content for the most recent ETag is kept.
+ * The content is delivered without copying it.</p>
+ * <p>Keys may contain request-dependent parts like the service root, so at most {@link #MAX_DOCUMENTS}
+ * documents are kept; the least recently used one is dropped first.</p>
+ */
+public class SerializedDocumentCache {
+
+  /** Maximum number of cached documents. */
+  public static final int MAX_DOCUMENTS = 16;
+
+  private static final int BUFFER_SIZE = 8192;
+
+  private final Map<List<Object>, Document> documents =
+      new LinkedHashMap<List<Object>, Document>(MAX_DOCUMENTS * 4 / 3 + 1, 0.75F, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<List<Object>, Document> eldest) {
+          return size() > MAX_DOCUMENTS;
+        }
+      };
+
+  /**
+   * Gets the document cache of the given service metadata.
+   * @param serviceMetadata service metadata
+   * @return the cache, or <code>null</code> if the service metadata has none
+   */
+  public static SerializedDocumentCache of(final ServiceMetadata serviceMetadata) {
+    return serviceMetadata instanceof ServiceMetadataImpl ?
+        ((ServiceMetadataImpl) serviceMetadata).getSerializedDocumentCache() : null;
+  }
+
+  /**
+   * Gets the ETag of the metadata document.
+   * @param serviceMetadata service metadata
+   * @return the ETag or <code>null</code>
+   */
+  public static String getMetadataETag(final ServiceMetadata serviceMetadata) {
+    final ServiceMetadataETagSupport eTagSupport = serviceMetadata.getServiceMetadataETagSupport();
+    return eTagSupport == null ? null : eTagSupport.getMetadataETag();
+  }
+
+  /**
+   * Gets the ETag of the service document.
+   * @param serviceMetadata service metadata
+   * @return the ETag or <code>null</code>
+   */
+  public static String getServiceDocumentETag(final ServiceMetadata serviceMetadata) {
+    final ServiceMetadataETagSupport eTagSupport = serviceMetadata.getServiceMetadataETagSupport();
+    return eTagSupport == null ? null : eTagSupport.getServiceDocumentETag();
+  }
+
+  /**
+   * Gets the content of a cached document.
+   * @param key the kind and the format of the document; the key elements are compared with <code>equals</code>
+   * @param eTag the current ETag of the document
+   * @return the content, or <code>null</code> if no document with this ETag has been cached
+   */
+  public InputStream get(final List<Object> key, final String eTag) {
+    if (eTag == null) {
+      return null;
+    }
+    Document document;
+    synchronized (documents) {
+      document = documents.get(key);
+    }
+    return document != null && document.eTag.equals(eTag) ? new ByteArrayInputStream(document.content) : null;
+  }
+
+  /**
+   * Caches the content of a document.
+   * @param key the kind and the format of the document; the key elements are compared with <code>equals</code>
+   * @param eTag the current ETag of the document; if <code>null</code>, nothing is cached
+   * @param content the serialized content; it is read completely
+   * @return the content
+   * @throws IOException if the content cannot be read
+   */
+  public InputStream put(final List<Object> key, final String eTag, final InputStream content) throws IOException {
+    if (eTag == null) {
+      return content;
+    }
+    final ByteArrayOutputStream output = new ByteArrayOutputStream(BUFFER_SIZE);
+    final byte[] buffer = new byte[BUFFER_SIZE];
+    int count;
+    while ((count = content.read(buffer)) >= 0) {
+      output.write(buffer, 0, count);
+    }
+    content.close();
+    final byte[] bytes = output.toByteArray();
+    synchronized (documents) {
+      documents.put(key, new Document(eTag, bytes));
+    }
+    return new ByteArrayInputStream(bytes);
+  }
+
+  /**
+   * Removes all cached documents.
+   */
+  public void clear() {
+    synchronized (documents) {
+      documents.clear();
+    }
+  }
+
+  private static final class Document {
+    private final String eTag;
+    private final byte[] content;
+
+    private Document(final String eTag, final byte[] content) {
+      this.eTag = eTag;
+      this.content = content;
+    }
+  }
+}
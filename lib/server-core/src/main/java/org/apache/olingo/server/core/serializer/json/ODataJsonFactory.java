@@ -0,0 +1,66 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.serializer.json;
+
+import java.util.Map;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+/**
+ * Holder of the {@link JsonFactory} instances used by the JSON serializers.
+ * <p>
+ * A {@link JsonFactory} is thread-safe once it has been configured and keeps its buffer recyclers
+ * per thread, so creating one per serialization call only produces garbage.
+ * All serializers therefore share one default instance unless a differently configured factory
+ * is handed over explicitly.
+ */
+public final class ODataJsonFactory {
+
+  private static final JsonFactory DEFAULT = new JsonFactory();
+
+  private ODataJsonFactory() {
+    // Private constructor for utility classes
+  }
+
+  /**
+   * Returns the shared factory with the default Jackson generator features.
+   * The returned instance must not be reconfigured.
+   * @return the shared {@link JsonFactory}
+   */
+  public static JsonFactory getDefault() {
+    return DEFAULT;
+  }
+
+  /**
+   * Creates a new factory with the given generator features enabled or disabled.
+   * The result is meant to be created once and then shared in the same way as the default factory.
+   * @param generatorFeatures generator features mapped to their desired state
+   * @return a new configured {@link JsonFactory}
+   */
+  public static JsonFactory create(final Map<JsonGenerator.Feature, Boolean> generatorFeatures) {
+    final JsonFactory factory = new JsonFactory();
+    if (generatorFeatures != null) {
+      for (final Map.Entry<JsonGenerator.Feature, Boolean> entry : generatorFeatures.entrySet()) {
+        factory.configure(entry.getKey(), Boolean.TRUE.equals(entry.getValue()));
+      }
+    }
+    return factory;
+  }
+}
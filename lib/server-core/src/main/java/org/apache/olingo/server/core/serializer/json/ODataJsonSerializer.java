@@ -19,8 +19,10 @@
 package org.apache.olingo.server.core.serializer.json;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.URI;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.EnumMap;
 import java.util.HashSet;
@@ -42,6 +44,7 @@ import org.apache.olingo.commons.api.data.Link;
 import org.apache.olingo.commons.api.data.Linked;
 import org.apache.olingo.commons.api.data.Operation;
 import org.apache.olingo.commons.api.data.Property;
+import org.apache.olingo.commons.api.data.PropertyList;
 import org.apache.olingo.commons.api.edm.EdmComplexType;
 import org.apache.olingo.commons.api.edm.EdmEntitySet;
 import org.apache.olingo.commons.api.edm.EdmEntityType;
@@ -85,6 +88,7 @@ import org.apache.olingo.server.api.uri.queryoption.LevelsExpandOption;
 import org.apache.olingo.server.api.uri.queryoption.SelectOption;
 import org.apache.olingo.server.core.ODataWritableContent;
 import org.apache.olingo.server.core.serializer.AbstractODataSerializer;
+import org.apache.olingo.server.core.serializer.SerializedDocumentCache;
 import org.apache.olingo.server.core.serializer.SerializerResultImpl;
 import org.apache.olingo.server.core.serializer.utils.CircleStreamBuffer;
 import org.apache.olingo.server.core.serializer.utils.ContentTypeHelper;
@@ -115,36 +119,50 @@ public class ODataJsonSerializer extends AbstractODataSerializer {
   private final boolean isODataMetadataNone;
   private final boolean isODataMetadataFull;
   private IConstants constants;
+  private final JsonFactory jsonFactory;
 
   public ODataJsonSerializer(final ContentType contentType, final IConstants constants) {
+    this(contentType, constants, ODataJsonFactory.getDefault());
+  }
+
+  public ODataJsonSerializer(final ContentType contentType, final IConstants constants,
+      final JsonFactory jsonFactory) {
     isIEEE754Compatible = ContentTypeHelper.isODataIEEE754Compatible(contentType);
     isODataMetadataNone = ContentTypeHelper.isODataMetadataNone(contentType);
     isODataMetadataFull = ContentTypeHelper.isODataMetadataFull(contentType);
     this.constants = constants;
+    this.jsonFactory = jsonFactory;
   }
 
   public ODataJsonSerializer(final ContentType contentType) {
-    isIEEE754Compatible = ContentTypeHelper.isODataIEEE754Compatible(contentType);
-    isODataMetadataNone = ContentTypeHelper.isODataMetadataNone(contentType);
-    isODataMetadataFull = ContentTypeHelper.isODataMetadataFull(contentType);
-    this.constants = new Constantsv00();
+    this(contentType, new Constantsv00());
   }
 
   @Override
   public SerializerResult serviceDocument(final ServiceMetadata metadata, final String serviceRoot)
       throws SerializerException {
+    final SerializedDocumentCache documentCache = SerializedDocumentCache.of(metadata);
+    final String eTag = documentCache == null ? null : SerializedDocumentCache.getServiceDocumentETag(metadata);
+    final List<Object> documentKey =
+        Arrays.<Object> asList("serviceDocument", jsonFactory, isODataMetadataNone, serviceRoot);
+    final InputStream cachedContent = documentCache == null ? null : documentCache.get(documentKey, eTag);
+    if (cachedContent != null) {
+      return SerializerResultImpl.with().content(cachedContent).build();
+    }
+
     OutputStream outputStream = null;
     SerializerException cachedException = null;
 
     try {
       CircleStreamBuffer buffer = new CircleStreamBuffer();
       outputStream = buffer.getOutputStream();
-      JsonGenerator json = new JsonFactory().createGenerator(outputStream);
+      JsonGenerator json = jsonFactory.createGenerator(outputStream);
       new ServiceDocumentJsonSerializer(metadata, serviceRoot, isODataMetadataNone).writeServiceDocument(json);
 
       json.close();
       outputStream.close();
-      return SerializerResultImpl.with().content(buffer.getInputStream()).build();
+      return SerializerResultImpl.with().content(documentCache == null ? buffer.getInputStream() :
+          documentCache.put(documentKey, eTag, buffer.getInputStream())).build();
     } catch (final IOException e) {
       cachedException =
           new SerializerException(IO_EXCEPTION_TEXT, e, SerializerException.MessageKeys.IO_EXCEPTION);
@@ -156,18 +174,27 @@ public class ODataJsonSerializer extends AbstractODataSerializer {
 
   @Override
   public SerializerResult metadataDocument(final ServiceMetadata serviceMetadata) throws SerializerException {
+    final SerializedDocumentCache documentCache = SerializedDocumentCache.of(serviceMetadata);
+    final String eTag = documentCache == null ? null : SerializedDocumentCache.getMetadataETag(serviceMetadata);
+    final List<Object> documentKey = Arrays.<Object> asList("metadataDocument", jsonFactory);
+    final InputStream cachedContent = documentCache == null ? null : documentCache.get(documentKey, eTag);
+    if (cachedContent != null) {
+      return SerializerResultImpl.with().content(cachedContent).build();
+    }
+
     OutputStream outputStream = null;
     SerializerException cachedException = null;
 
     try {
       CircleStreamBuffer buffer = new CircleStreamBuffer();
       outputStream = buffer.getOutputStream();
-      JsonGenerator json = new JsonFactory().createGenerator(outputStream);
+      JsonGenerator json = jsonFactory.createGenerator(outputStream);
       new MetadataDocumentJsonSerializer(serviceMetadata).writeMetadataDocument(json);
 
       json.close();
       outputStream.close();
-      return SerializerResultImpl.with().content(buffer.getInputStream()).build();
+      return SerializerResultImpl.with().content(documentCache == null ? buffer.getInputStream() :
+          documentCache.put(documentKey, eTag, buffer.getInputStream())).build();
     } catch (final IOException e) {
       cachedException =
           new SerializerException(IO_EXCEPTION_TEXT, e, SerializerException.MessageKeys.IO_EXCEPTION);
@@ -184,7 +211,7 @@ public class ODataJsonSerializer extends AbstractODataSerializer {
     try {
       CircleStreamBuffer buffer = new CircleStreamBuffer();
       outputStream = buffer.getOutputStream();
-      JsonGenerator json = new JsonFactory().createGenerator(outputStream);
+      JsonGenerator json = jsonFactory.createGenerator(outputStream);
       new ODataErrorSerializer().writeErrorDocument(json, error);
 
       json.close();
@@ -209,7 +236,7 @@ public class ODataJsonSerializer extends AbstractODataSerializer {
     try {
       CircleStreamBuffer buffer = new CircleStreamBuffer();
       outputStream = buffer.getOutputStream();
-      JsonGenerator json = new JsonFactory().createGenerator(outputStream);
+      JsonGenerator json = jsonFactory.createGenerator(outputStream);
       json.writeStartObject();
 
       final ContextURL contextURL = checkContextURL(options == null ? null : options.getContextURL());
@@ -263,7 +290,7 @@ public class ODataJsonSerializer extends AbstractODataSerializer {
     SerializerException cachedException;
     boolean pagination = false;
     try {
-      JsonGenerator json = new JsonFactory().createGenerator(outputStream);
+      JsonGenerator json = jsonFactory.createGenerator(outputStream);
       json.writeStartObject();
 
       final ContextURL contextURL = checkContextURL(options == null ? null : options.getContextURL());
@@ -306,7 +333,7 @@ public class ODataJsonSerializer extends AbstractODataSerializer {
       final ContextURL contextURL = checkContextURL(options == null ? null : options.getContextURL());
       CircleStreamBuffer buffer = new CircleStreamBuffer();
       outputStream = buffer.getOutputStream();
-      JsonGenerator json = new JsonFactory().createGenerator(outputStream);
+      JsonGenerator json = jsonFactory.createGenerator(outputStream);
       String name =  contextURL == null ? null:contextURL.getEntitySetOrSingletonOrType();
       writeEntity(metadata, entityType, entity, contextURL,
           options == null ? null : options.getExpand(),
@@ -1109,12 +1136,7 @@ public class ODataJsonSerializer extends AbstractODataSerializer {
     
 
   private Property findProperty(final String propertyName, final List<Property> properties) {
-    for (final Property property : properties) {
-      if (propertyName.equals(property.getName())) {
-        return property;
-      }
-    }
-    return null;
+    return PropertyList.getProperty(properties, propertyName);
   }
 
   @Override
@@ -1126,7 +1148,7 @@ public class ODataJsonSerializer extends AbstractODataSerializer {
       final ContextURL contextURL = checkContextURL(options == null ? null : options.getContextURL());
       CircleStreamBuffer buffer = new CircleStreamBuffer();
       outputStream = buffer.getOutputStream();
-      JsonGenerator json = new JsonFactory().createGenerator(outputStream);
+      JsonGenerator json = jsonFactory.createGenerator(outputStream);
       json.writeStartObject();
       writeContextURL(contextURL, json);
       writeMetadataETag(metadata, json);
@@ -1172,7 +1194,7 @@ public class ODataJsonSerializer extends AbstractODataSerializer {
         contextURL.getEntitySetOrSingletonOrType();
       CircleStreamBuffer buffer = new CircleStreamBuffer();
       outputStream = buffer.getOutputStream();
-      JsonGenerator json = new JsonFactory().createGenerator(outputStream);
+      JsonGenerator json = jsonFactory.createGenerator(outputStream);
       json.writeStartObject();
       writeContextURL(contextURL, json);
       writeMetadataETag(metadata, json);      
@@ -1231,7 +1253,7 @@ public class ODataJsonSerializer extends AbstractODataSerializer {
       final ContextURL contextURL = checkContextURL(options == null ? null : options.getContextURL());
       CircleStreamBuffer buffer = new CircleStreamBuffer();
       outputStream = buffer.getOutputStream();
-      JsonGenerator json = new JsonFactory().createGenerator(outputStream);
+      JsonGenerator json = jsonFactory.createGenerator(outputStream);
       json.writeStartObject();
       writeContextURL(contextURL, json);
       writeMetadataETag(metadata, json);
@@ -1269,7 +1291,7 @@ public class ODataJsonSerializer extends AbstractODataSerializer {
       final ContextURL contextURL = checkContextURL(options == null ? null : options.getContextURL());
       CircleStreamBuffer buffer = new CircleStreamBuffer();
       outputStream = buffer.getOutputStream();
-      JsonGenerator json = new JsonFactory().createGenerator(outputStream);
+      JsonGenerator json = jsonFactory.createGenerator(outputStream);
       json.writeStartObject();
       writeContextURL(contextURL, json);
       writeMetadataETag(metadata, json);
@@ -1316,7 +1338,7 @@ public class ODataJsonSerializer extends AbstractODataSerializer {
       CircleStreamBuffer buffer = new CircleStreamBuffer();
       final UriHelper uriHelper = new UriHelperImpl();
       outputStream = buffer.getOutputStream();
-      final JsonGenerator json = new JsonFactory().createGenerator(outputStream);
+      final JsonGenerator json = jsonFactory.createGenerator(outputStream);
 
       json.writeStartObject();
       writeContextURL(contextURL, json);
@@ -1348,7 +1370,7 @@ public class ODataJsonSerializer extends AbstractODataSerializer {
       CircleStreamBuffer buffer = new CircleStreamBuffer();
       final UriHelper uriHelper = new UriHelperImpl();
       outputStream = buffer.getOutputStream();
-      final JsonGenerator json = new JsonFactory().createGenerator(outputStream);
+      final JsonGenerator json = jsonFactory.createGenerator(outputStream);
       json.writeStartObject();
 
       writeContextURL(contextURL, json);
@@ -19,15 +19,16 @@
 package org.apache.olingo.server.core.serializer.xml;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.URI;
+import java.util.Arrays;
 import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
-import javax.xml.stream.XMLOutputFactory;
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamWriter;
 
@@ -42,6 +43,7 @@ import org.apache.olingo.commons.api.data.Link;
 import org.apache.olingo.commons.api.data.Linked;
 import org.apache.olingo.commons.api.data.Operation;
 import org.apache.olingo.commons.api.data.Property;
+import org.apache.olingo.commons.api.data.PropertyList;
 import org.apache.olingo.commons.api.edm.EdmComplexType;
 import org.apache.olingo.commons.api.edm.EdmEntitySet;
 import org.apache.olingo.commons.api.edm.EdmEntityType;
@@ -55,6 +57,7 @@ import org.apache.olingo.commons.api.edm.EdmType;
 import org.apache.olingo.commons.api.edm.FullQualifiedName;
 import org.apache.olingo.commons.api.edm.constants.EdmTypeKind;
 import org.apache.olingo.commons.api.ex.ODataErrorDetail;
+import org.apache.olingo.commons.core.XmlFactoryProvider;
 import org.apache.olingo.commons.core.edm.primitivetype.EdmPrimitiveTypeFactory;
 import org.apache.olingo.commons.core.edm.primitivetype.EdmString;
 import org.apache.olingo.server.api.ODataServerError;
@@ -76,6 +79,7 @@ import org.apache.olingo.server.api.uri.queryoption.LevelsExpandOption;
 import org.apache.olingo.server.api.uri.queryoption.SelectOption;
 import org.apache.olingo.server.core.ODataWritableContent;
 import org.apache.olingo.server.core.serializer.AbstractODataSerializer;
+import org.apache.olingo.server.core.serializer.SerializedDocumentCache;
 import org.apache.olingo.server.core.serializer.SerializerResultImpl;
 import org.apache.olingo.server.core.serializer.utils.CircleStreamBuffer;
 import org.apache.olingo.server.core.serializer.utils.ContextURLBuilder;
@@ -96,12 +100,21 @@ public class ODataXmlSerializer extends AbstractODataSerializer {
   @Override
   public SerializerResult serviceDocument(final ServiceMetadata metadata, final String serviceRoot)
       throws SerializerException {
+    final SerializedDocumentCache documentCache = SerializedDocumentCache.of(metadata);
+    final String eTag = documentCache == null ? null : SerializedDocumentCache.getServiceDocumentETag(metadata);
+    final List<Object> documentKey = Arrays.<Object> asList("serviceDocument", serviceRoot);
+    final InputStream cachedContent = documentCache == null ? null : documentCache.get(documentKey, eTag);
+    if (cachedContent != null) {
+      return SerializerResultImpl.with().content(cachedContent).build();
+    }
+
     OutputStream outputStream = null;
     SerializerException cachedException = null;
     try {
       CircleStreamBuffer buffer = new CircleStreamBuffer();
       outputStream = buffer.getOutputStream();
-      XMLStreamWriter writer = XMLOutputFactory.newInstance().createXMLStreamWriter(outputStream, DEFAULT_CHARSET);
+      XMLStreamWriter writer =
+          XmlFactoryProvider.getOutputFactory().createXMLStreamWriter(outputStream, DEFAULT_CHARSET);
       ServiceDocumentXmlSerializer serializer = new ServiceDocumentXmlSerializer(metadata, serviceRoot);
       serializer.writeServiceDocument(writer);
 
@@ -109,7 +122,8 @@ public class ODataXmlSerializer extends AbstractODataSerializer {
       writer.close();
       outputStream.close();
 
-      return SerializerResultImpl.with().content(buffer.getInputStream()).build();
+      return SerializerResultImpl.with().content(documentCache == null ? buffer.getInputStream() :
+          documentCache.put(documentKey, eTag, buffer.getInputStream())).build();
     } catch (final XMLStreamException e) {
       cachedException =
           new SerializerException(IO_EXCEPTION_TEXT, e, SerializerException.MessageKeys.IO_EXCEPTION);
@@ -125,12 +139,21 @@ public class ODataXmlSerializer extends AbstractODataSerializer {
 
   @Override
   public SerializerResult metadataDocument(final ServiceMetadata serviceMetadata) throws SerializerException {
+    final SerializedDocumentCache documentCache = SerializedDocumentCache.of(serviceMetadata);
+    final String eTag = documentCache == null ? null : SerializedDocumentCache.getMetadataETag(serviceMetadata);
+    final List<Object> documentKey = Arrays.<Object> asList("metadataDocument");
+    final InputStream cachedContent = documentCache == null ? null : documentCache.get(documentKey, eTag);
+    if (cachedContent != null) {
+      return SerializerResultImpl.with().content(cachedContent).build();
+    }
+
     OutputStream outputStream = null;
     SerializerException cachedException = null;
     try {
       CircleStreamBuffer buffer = new CircleStreamBuffer();
       outputStream = buffer.getOutputStream();
-      XMLStreamWriter writer = XMLOutputFactory.newInstance().createXMLStreamWriter(outputStream, DEFAULT_CHARSET);
+      XMLStreamWriter writer =
+          XmlFactoryProvider.getOutputFactory().createXMLStreamWriter(outputStream, DEFAULT_CHARSET);
       MetadataDocumentXmlSerializer serializer = new MetadataDocumentXmlSerializer(serviceMetadata);
       serializer.writeMetadataDocument(writer);
 
@@ -138,7 +161,8 @@ public class ODataXmlSerializer extends AbstractODataSerializer {
       writer.close();
       outputStream.close();
 
-      return SerializerResultImpl.with().content(buffer.getInputStream()).build();
+      return SerializerResultImpl.with().content(documentCache == null ? buffer.getInputStream() :
+          documentCache.put(documentKey, eTag, buffer.getInputStream())).build();
     } catch (final XMLStreamException e) {
       cachedException =
           new SerializerException(IO_EXCEPTION_TEXT, e, SerializerException.MessageKeys.IO_EXCEPTION);
@@ -164,7 +188,8 @@ public class ODataXmlSerializer extends AbstractODataSerializer {
     try {
       CircleStreamBuffer buffer = new CircleStreamBuffer();
       outputStream = buffer.getOutputStream();
-      XMLStreamWriter writer = XMLOutputFactory.newInstance().createXMLStreamWriter(outputStream, DEFAULT_CHARSET);
+      XMLStreamWriter writer =
+          XmlFactoryProvider.getOutputFactory().createXMLStreamWriter(outputStream, DEFAULT_CHARSET);
       writer.writeStartDocument(DEFAULT_CHARSET, "1.0");
 
       writer.writeStartElement("error");
@@ -236,7 +261,8 @@ public class ODataXmlSerializer extends AbstractODataSerializer {
     try {
       CircleStreamBuffer buffer = new CircleStreamBuffer();
       outputStream = buffer.getOutputStream();
-      XMLStreamWriter writer = XMLOutputFactory.newInstance().createXMLStreamWriter(outputStream, DEFAULT_CHARSET);
+      XMLStreamWriter writer =
+          XmlFactoryProvider.getOutputFactory().createXMLStreamWriter(outputStream, DEFAULT_CHARSET);
       writer.writeStartDocument(DEFAULT_CHARSET, "1.0");
       writer.writeStartElement(ATOM, Constants.ATOM_ELEM_FEED, NS_ATOM);
       writer.writeNamespace(ATOM, NS_ATOM);
@@ -298,7 +324,8 @@ public class ODataXmlSerializer extends AbstractODataSerializer {
     final String name = contextURL == null ? null : contextURL.getEntitySetOrSingletonOrType();
     SerializerException cachedException;
     try {
-      XMLStreamWriter writer = XMLOutputFactory.newInstance().createXMLStreamWriter(outputStream, DEFAULT_CHARSET);
+      XMLStreamWriter writer =
+          XmlFactoryProvider.getOutputFactory().createXMLStreamWriter(outputStream, DEFAULT_CHARSET);
       writer.writeStartDocument(DEFAULT_CHARSET, "1.0");
       writer.writeStartElement(ATOM, Constants.ATOM_ELEM_FEED, NS_ATOM);
       writer.writeNamespace(ATOM, NS_ATOM);
@@ -363,7 +390,8 @@ public class ODataXmlSerializer extends AbstractODataSerializer {
     try {
       CircleStreamBuffer buffer = new CircleStreamBuffer();
       outputStream = buffer.getOutputStream();
-      XMLStreamWriter writer = XMLOutputFactory.newInstance().createXMLStreamWriter(outputStream, DEFAULT_CHARSET);
+      XMLStreamWriter writer =
+          XmlFactoryProvider.getOutputFactory().createXMLStreamWriter(outputStream, DEFAULT_CHARSET);
       writer.writeStartDocument(DEFAULT_CHARSET, "1.0");
       writeEntity(metadata, entityType, entity, contextURL,
           options == null ? null : options.getExpand(),
@@ -1031,12 +1059,7 @@ public class ODataXmlSerializer extends AbstractODataSerializer {
   }
 
   private Property findProperty(final String propertyName, final List<Property> properties) {
-    for (final Property property : properties) {
-      if (propertyName.equals(property.getName())) {
-        return property;
-      }
-    }
-    return null;
+    return PropertyList.getProperty(properties, propertyName);
   }
 
   @Override
@@ -1049,7 +1072,8 @@ public class ODataXmlSerializer extends AbstractODataSerializer {
     try {
       CircleStreamBuffer buffer = new CircleStreamBuffer();
       outputStream = buffer.getOutputStream();
-      XMLStreamWriter writer = XMLOutputFactory.newInstance().createXMLStreamWriter(outputStream, DEFAULT_CHARSET);
+      XMLStreamWriter writer =
+          XmlFactoryProvider.getOutputFactory().createXMLStreamWriter(outputStream, DEFAULT_CHARSET);
 
       writer.writeStartDocument(DEFAULT_CHARSET, "1.0");
       writer.writeStartElement(METADATA, Constants.VALUE, NS_METADATA);
@@ -1120,7 +1144,8 @@ public class ODataXmlSerializer extends AbstractODataSerializer {
       }
       CircleStreamBuffer buffer = new CircleStreamBuffer();
       outputStream = buffer.getOutputStream();
-      XMLStreamWriter writer = XMLOutputFactory.newInstance().createXMLStreamWriter(outputStream, DEFAULT_CHARSET);
+      XMLStreamWriter writer =
+          XmlFactoryProvider.getOutputFactory().createXMLStreamWriter(outputStream, DEFAULT_CHARSET);
       writer.writeStartDocument(DEFAULT_CHARSET, "1.0");
       writer.writeStartElement(METADATA, Constants.VALUE, NS_METADATA);
       writer.writeNamespace(METADATA, NS_METADATA);
@@ -1169,7 +1194,8 @@ public class ODataXmlSerializer extends AbstractODataSerializer {
     try {
       CircleStreamBuffer buffer = new CircleStreamBuffer();
       outputStream = buffer.getOutputStream();
-      XMLStreamWriter writer = XMLOutputFactory.newInstance().createXMLStreamWriter(outputStream, DEFAULT_CHARSET);
+      XMLStreamWriter writer =
+          XmlFactoryProvider.getOutputFactory().createXMLStreamWriter(outputStream, DEFAULT_CHARSET);
 
       writer.writeStartDocument(DEFAULT_CHARSET, "1.0");
       writer.writeStartElement(METADATA, Constants.VALUE, NS_METADATA);
@@ -1223,7 +1249,8 @@ public class ODataXmlSerializer extends AbstractODataSerializer {
     try {
       CircleStreamBuffer buffer = new CircleStreamBuffer();
       outputStream = buffer.getOutputStream();
-      XMLStreamWriter writer = XMLOutputFactory.newInstance().createXMLStreamWriter(outputStream, DEFAULT_CHARSET);
+      XMLStreamWriter writer =
+          XmlFactoryProvider.getOutputFactory().createXMLStreamWriter(outputStream, DEFAULT_CHARSET);
       writer.writeStartDocument(DEFAULT_CHARSET, "1.0");
       writer.writeStartElement(METADATA, Constants.VALUE, NS_METADATA);
       writer.writeNamespace(METADATA, NS_METADATA);
@@ -1279,7 +1306,8 @@ public class ODataXmlSerializer extends AbstractODataSerializer {
     try {
       CircleStreamBuffer buffer = new CircleStreamBuffer();
       outputStream = buffer.getOutputStream();
-      XMLStreamWriter writer = XMLOutputFactory.newInstance().createXMLStreamWriter(outputStream, DEFAULT_CHARSET);
+      XMLStreamWriter writer =
+          XmlFactoryProvider.getOutputFactory().createXMLStreamWriter(outputStream, DEFAULT_CHARSET);
       writer.writeStartDocument(DEFAULT_CHARSET, "1.0");
       writeReference(entity, options == null ? null : options.getContextURL(), writer, true);
       writer.writeEndDocument();
@@ -1330,7 +1358,8 @@ public class ODataXmlSerializer extends AbstractODataSerializer {
     try {
       CircleStreamBuffer buffer = new CircleStreamBuffer();
       outputStream = buffer.getOutputStream();
-      XMLStreamWriter writer = XMLOutputFactory.newInstance().createXMLStreamWriter(outputStream, DEFAULT_CHARSET);
+      XMLStreamWriter writer =
+          XmlFactoryProvider.getOutputFactory().createXMLStreamWriter(outputStream, DEFAULT_CHARSET);
       writer.writeStartDocument(DEFAULT_CHARSET, "1.0");
       writer.writeStartElement(ATOM, Constants.ATOM_ELEM_FEED, NS_ATOM);
       writer.writeNamespace(ATOM, NS_ATOM);
@@ -0,0 +1,139 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.uri;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.olingo.commons.api.edm.Edm;
+import org.apache.olingo.server.api.uri.UriInfo;
+import org.apache.olingo.server.api.uri.UriInfoCache;
+
+/**
+ * Least-recently-used cache of parsed URIs, keyed by the raw OData path, the raw query,
+ * the base URI, and the identity of the EDM the URI has been parsed against.
+ */
+public class UriInfoCacheImpl implements UriInfoCache {
+
+  private final Map<Key, UriInfo> entries;
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+
+  public UriInfoCacheImpl(final int maximumSize) {
+    if (maximumSize < 1) {
+      throw new IllegalArgumentException("The maximum size of the cache must be positive.");
+    }
+    entries = new LinkedHashMap<Key, UriInfo>(16, 0.75F, true) {
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected boolean removeEldestEntry(final Map.Entry<Key, UriInfo> eldest) {
+        return size() > maximumSize;
+      }
+    };
+  }
+
+  /**
+   * Gets the cached result of parsing the given URI parts and counts the lookup as hit or miss.
+   * @return the cached {@link UriInfo} or <code>null</code>
+   */
+  public UriInfo get(final Edm edm, final String path, final String query, final String baseUri) {
+    final UriInfo uriInfo;
+    synchronized (entries) {
+      uriInfo = entries.get(new Key(edm, path, query, baseUri));
+    }
+    (uriInfo == null ? misses : hits).incrementAndGet();
+    return uriInfo;
+  }
+
+  public void put(final Edm edm, final String path, final String query, final String baseUri,
+      final UriInfo uriInfo) {
+    synchronized (entries) {
+      entries.put(new Key(edm, path, query, baseUri), uriInfo);
+    }
+  }
+
+  @Override
+  public long getHitCount() {
+    return hits.get();
+  }
+
+  @Override
+  public long getMissCount() {
+    return misses.get();
+  }
+
+  @Override
+  public int size() {
+    synchronized (entries) {
+      return entries.size();
+    }
+  }
+
+  @Override
+  public void clear() {
+    synchronized (entries) {
+      entries.clear();
+    }
+  }
+
+  private static final class Key {
+    private final Edm edm;
+    private final String path;
+    private final String query;
+    private final String baseUri;
+    private final int hashCode;
+
+    Key(final Edm edm, final String path, final String query, final String baseUri) {
+      this.edm = edm;
+      this.path = path;
+      this.query = query;
+      this.baseUri = baseUri;
+      hashCode = 31 * (31 * (31 * System.identityHashCode(edm) + hashCode(path)) + hashCode(query))
+          + hashCode(baseUri);
+    }
+
+    private static int hashCode(final String value) {
+      return value == null ? 0 : value.hashCode();
+    }
+
+    private static boolean equals(final String value, final String other) {
+      return value == null ? other == null : value.equals(other);
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (!(obj instanceof Key)) {
+        return false;
+      }
+      final Key other = (Key) obj;
+      return edm == other.edm && hashCode == other.hashCode
+          && equals(path, other.path) && equals(query, other.query) && equals(baseUri, other.baseUri);
+    }
+  }
+}
@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.netty.server.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
+public class NettyRequestBodyInputStreamTest {
+
+  @Test
+  public void readWhileReceiving() throws Exception {
+    final NettyRequestBodyInputStream body = new NettyRequestBodyInputStream(1024);
+    final Thread producer = new Thread() {
+      @Override
+      public void run() {
+        for (int index = 0; index < 10; index++) {
+          body.offer(Unpooled.copiedBuffer(new byte[] { (byte) index, (byte) index }));
+        }
+        body.end();
+      }
+    };
+    producer.start();
+    for (int index = 0; index < 10; index++) {
+      assertEquals(index, body.read());
+      assertEquals(index, body.read());
+    }
+    assertEquals(-1, body.read());
+    producer.join();
+  }
+
+  @Test
+  public void suspendAndResume() throws Exception {
+    final AtomicInteger resumed = new AtomicInteger();
+    final NettyRequestBodyInputStream body = new NettyRequestBodyInputStream(4);
+    body.setResumeTask(new Runnable() {
+      @Override
+      public void run() {
+        resumed.incrementAndGet();
+      }
+    });
+    final ByteBuf first = Unpooled.copiedBuffer(new byte[] { 1, 2, 3 });
+    body.offer(first);
+    assertFalse(body.isFull());
+    final ByteBuf second = Unpooled.copiedBuffer(new byte[] { 4, 5 });
+    body.offer(second);
+    assertTrue(body.isFull());
+
+    final byte[] bytes = new byte[3];
+    assertEquals(3, body.read(bytes, 0, 3));
+    assertEquals(0, first.refCnt());
+    assertEquals(0, resumed.get());
+    assertEquals(4, body.read());
+    assertEquals(1, resumed.get());
+    assertFalse(body.isFull());
+
+    body.close();
+    assertEquals(0, second.refCnt());
+    final ByteBuf third = Unpooled.copiedBuffer(new byte[] { 6 });
+    body.offer(third);
+    assertEquals(0, third.refCnt());
+  }
+
+  @Test
+  public void failure() throws Exception {
+    final NettyRequestBodyInputStream body = new NettyRequestBodyInputStream(1024);
+    body.fail(new IOException("closed"));
+    try {
+      body.read();
+      fail("Expected exception not thrown.");
+    } catch (final IOException e) {
+      assertEquals("closed", e.getMessage());
+    }
+  }
+}
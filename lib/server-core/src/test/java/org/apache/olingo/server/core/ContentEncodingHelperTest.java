@@ -0,0 +1,209 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.olingo.commons.api.format.ContentType;
+import org.apache.olingo.commons.api.http.HttpHeader;
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.server.api.ODataRequest;
+import org.apache.olingo.server.api.ODataResponse;
+import org.apache.olingo.server.api.encoding.DefaultContentEncodingSupport;
+import org.junit.Test;
+
+public class ContentEncodingHelperTest {
+
+  private static final DefaultContentEncodingSupport SUPPORT = new DefaultContentEncodingSupport(10);
+
+  @Test
+  public void negotiate() {
+    assertNull(ContentEncodingHelper.negotiate(null));
+    assertNull(negotiate("identity"));
+    assertNull(negotiate("gzip;q=0, deflate;q=0"));
+    assertNull(negotiate("*;q=0"));
+    assertEquals(ContentEncodingHelper.GZIP, negotiate("gzip"));
+    assertEquals(ContentEncodingHelper.GZIP, negotiate("deflate, gzip"));
+    assertEquals(ContentEncodingHelper.GZIP, negotiate("x-gzip"));
+    assertEquals(ContentEncodingHelper.GZIP, negotiate("*"));
+    assertEquals(ContentEncodingHelper.DEFLATE, negotiate("deflate"));
+    assertEquals(ContentEncodingHelper.DEFLATE, negotiate("gzip;q=0.5, deflate"));
+    assertEquals(ContentEncodingHelper.DEFLATE, negotiate("GZIP;Q=0, *"));
+    assertEquals(ContentEncodingHelper.DEFLATE,
+        ContentEncodingHelper.negotiate(Arrays.asList("gzip;q=0.2", "deflate;q=0.8")));
+  }
+
+  @Test
+  public void compressLargeContent() throws Exception {
+    final byte[] content = "{\"value\":[{\"PropertyInt16\":1},{\"PropertyInt16\":2}]}".getBytes("UTF-8");
+    final ODataResponse response = createResponse(ContentType.JSON, content);
+    assertEquals(ContentEncodingHelper.GZIP,
+        ContentEncodingHelper.prepareResponse(response, acceptEncoding("gzip"), SUPPORT));
+    assertEquals(ContentEncodingHelper.GZIP, response.getHeader(HttpHeader.CONTENT_ENCODING));
+    assertEquals(HttpHeader.ACCEPT_ENCODING, response.getHeader(HttpHeader.VARY));
+    assertArrayEquals(content, IOUtils.toByteArray(response.getContent()));
+  }
+
+  @Test
+  public void keepSmallContent() throws Exception {
+    final byte[] content = "small".getBytes("UTF-8");
+    final ODataResponse response = createResponse(ContentType.JSON, content);
+    assertNull(ContentEncodingHelper.prepareResponse(response, acceptEncoding("gzip"), SUPPORT));
+    assertNull(response.getHeader(HttpHeader.CONTENT_ENCODING));
+    assertEquals(HttpHeader.ACCEPT_ENCODING, response.getHeader(HttpHeader.VARY));
+    assertArrayEquals(content, IOUtils.toByteArray(response.getContent()));
+  }
+
+  @Test
+  public void keepNotCompressibleContent() throws Exception {
+    final byte[] content = new byte[100];
+    ODataResponse response = createResponse(ContentType.APPLICATION_OCTET_STREAM, content);
+    assertNull(ContentEncodingHelper.prepareResponse(response, acceptEncoding("gzip"), SUPPORT));
+    assertNull(response.getHeader(HttpHeader.VARY));
+
+    response = createResponse(ContentType.JSON, content);
+    response.setHeader(HttpHeader.CONTENT_ENCODING, "br");
+    assertNull(ContentEncodingHelper.prepareResponse(response, acceptEncoding("gzip"), SUPPORT));
+    assertEquals("br", response.getHeader(HttpHeader.CONTENT_ENCODING));
+
+    response = createResponse(ContentType.JSON, content);
+    response.setStatusCode(HttpStatusCode.NOT_MODIFIED.getStatusCode());
+    assertNull(ContentEncodingHelper.prepareResponse(response, acceptEncoding("gzip"), SUPPORT));
+
+    response = createResponse(ContentType.JSON, content);
+    assertNull(ContentEncodingHelper.prepareResponse(response, acceptEncoding("identity"), SUPPORT));
+    assertNull(response.getHeader(HttpHeader.CONTENT_ENCODING));
+  }
+
+  @Test
+  public void encodeAndDecode() throws Exception {
+    final byte[] content = createContent();
+    for (final String encoding : new String[] { ContentEncodingHelper.GZIP, ContentEncodingHelper.DEFLATE }) {
+      final byte[] encoded = encode(content, encoding);
+      assertEquals(true, encoded.length < content.length / 10);
+
+      final InputStream decoded =
+          ContentEncodingHelper.decode(new ByteArrayInputStream(encoded), " " + encoding.toUpperCase(), 0);
+      assertArrayEquals(encoding, content, IOUtils.toByteArray(decoded));
+    }
+    final ByteArrayOutputStream plain = new ByteArrayOutputStream();
+    assertSame(plain, ContentEncodingHelper.encode(plain, null, 9));
+    final InputStream body = new ByteArrayInputStream(content);
+    assertSame(body, ContentEncodingHelper.decode(body, null, 0));
+    assertSame(body, ContentEncodingHelper.decode(body, "identity", 10));
+  }
+
+  @Test
+  public void decodeWithMaximumSize() throws Exception {
+    final byte[] content = createContent();
+    for (final String encoding : new String[] { ContentEncodingHelper.GZIP, ContentEncodingHelper.DEFLATE }) {
+      final byte[] encoded = encode(content, encoding);
+      assertArrayEquals(encoding, content, IOUtils.toByteArray(
+          ContentEncodingHelper.decode(new ByteArrayInputStream(encoded), encoding, content.length)));
+
+      final InputStream decoded =
+          ContentEncodingHelper.decode(new ByteArrayInputStream(encoded), encoding, content.length - 1);
+      try {
+        IOUtils.toByteArray(decoded);
+        fail("Expected a DecodedSizeExceededException.");
+      } catch (final ContentEncodingHelper.DecodedSizeExceededException e) {
+        assertEquals(content.length - 1, e.getMaximumSize());
+      }
+    }
+  }
+
+  @Test
+  public void setDecodedBody() throws Exception {
+    final byte[] content = createContent();
+    final byte[] encoded = encode(content, ContentEncodingHelper.GZIP);
+    ODataRequest request = createRequest(ContentEncodingHelper.GZIP, encoded.length);
+    ContentEncodingHelper.setDecodedBody(request, new ByteArrayInputStream(encoded), SUPPORT);
+    assertArrayEquals(content, IOUtils.toByteArray(request.getBody()));
+    assertNull(request.getHeader(HttpHeader.CONTENT_ENCODING));
+    assertNull(request.getHeader(HttpHeader.CONTENT_LENGTH));
+    assertEquals(ContentType.APPLICATION_OCTET_STREAM.toContentTypeString(),
+        request.getHeader(HttpHeader.CONTENT_TYPE));
+
+    // Bodies that are not decoded keep their headers.
+    final InputStream body = new ByteArrayInputStream(encoded);
+    request = createRequest("br", encoded.length);
+    ContentEncodingHelper.setDecodedBody(request, body, SUPPORT);
+    assertSame(body, request.getBody());
+    assertEquals("br", request.getHeader(HttpHeader.CONTENT_ENCODING));
+    assertEquals(String.valueOf(encoded.length), request.getHeader(HttpHeader.CONTENT_LENGTH));
+
+    request = createRequest(ContentEncodingHelper.GZIP, encoded.length);
+    ContentEncodingHelper.setDecodedBody(request, body, null);
+    assertSame(body, request.getBody());
+    assertEquals(ContentEncodingHelper.GZIP, request.getHeader(HttpHeader.CONTENT_ENCODING));
+  }
+
+  private static byte[] createContent() {
+    final byte[] content = new byte[20000];
+    for (int i = 0; i < content.length; i++) {
+      content[i] = (byte) ('a' + i % 7);
+    }
+    return content;
+  }
+
+  private static byte[] encode(final byte[] content, final String encoding) throws Exception {
+    final ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+    final OutputStream output = ContentEncodingHelper.encode(encoded, encoding, 9);
+    output.write(content);
+    output.close();
+    return encoded.toByteArray();
+  }
+
+  private static ODataRequest createRequest(final String contentEncoding, final int contentLength) {
+    final ODataRequest request = new ODataRequest();
+    request.setHeader(HttpHeader.CONTENT_TYPE, ContentType.APPLICATION_OCTET_STREAM.toContentTypeString());
+    request.setHeader(HttpHeader.CONTENT_ENCODING, contentEncoding);
+    request.setHeader(HttpHeader.CONTENT_LENGTH, String.valueOf(contentLength));
+    return request;
+  }
+
+  private static String negotiate(final String acceptEncoding) {
+    return ContentEncodingHelper.negotiate(acceptEncoding(acceptEncoding));
+  }
+
+  private static List<String> acceptEncoding(final String value) {
+    return Collections.singletonList(value);
+  }
+
+  private static ODataResponse createResponse(final ContentType contentType, final byte[] content) {
+    final ODataResponse response = new ODataResponse();
+    response.setStatusCode(HttpStatusCode.OK.getStatusCode());
+    response.setHeader(HttpHeader.CONTENT_TYPE, contentType.toContentTypeString());
+    response.setContent(new ByteArrayInputStream(content));
+    return response;
+  }
+}
@@ -343,4 +343,39 @@ public class ContentNegotiatorTest {
         RepresentationType.BATCH);
   }
   
+  @Test
+  public void repeatedNegotiationWithCustomSupport() throws Exception {
+    final ODataRequest request = new ODataRequest();
+    request.addHeader(HttpHeader.ACCEPT, Arrays.asList("a/a"));
+
+    // A negotiation without custom support must not hide the custom types from later requests.
+    try {
+      ContentNegotiator.doContentNegotiation(null, request, null, RepresentationType.ENTITY);
+      fail("Exception expected!");
+    } catch (final ContentNegotiatorException e) {
+      // Expected Exception
+    }
+    assertEquals(ContentType.create("a/a"), ContentNegotiator.doContentNegotiation(null, request,
+        createCustomContentTypeSupport("a/a"), RepresentationType.ENTITY));
+  }
+
+  @Test
+  public void repeatedNegotiation() throws Exception {
+    final ODataRequest request = new ODataRequest();
+    request.addHeader(HttpHeader.ACCEPT, Arrays.asList(ACCEPT_CASE_MIN_UTF8));
+    final ContentType first = ContentNegotiator.doContentNegotiation(null, request, null,
+        RepresentationType.ENTITY);
+    assertEquals(first, ContentNegotiator.doContentNegotiation(null, request, null, RepresentationType.ENTITY));
+  }
+
+  @Test
+  public void manyDistinctNegotiations() throws Exception {
+    for (int i = 1; i < 1000; i++) {
+      final ODataRequest request = new ODataRequest();
+      request.addHeader(HttpHeader.ACCEPT, Arrays.asList("application/json;q=0." + String.format("%03d", i)));
+      assertEquals(ContentType.JSON, ContentNegotiator.doContentNegotiation(null, request, null,
+          RepresentationType.ENTITY));
+    }
+  }
+
 }
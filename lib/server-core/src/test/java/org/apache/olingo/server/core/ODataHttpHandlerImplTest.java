@@ -18,17 +18,56 @@
  */
 package org.apache.olingo.server.core;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.fail;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.ServletInputStream;
+import javax.servlet.ServletOutputStream;
 import javax.servlet.http.HttpServletRequest;
-
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.olingo.commons.api.edm.provider.CsdlAbstractEdmProvider;
+import org.apache.olingo.commons.api.edmx.EdmxReference;
+import org.apache.olingo.commons.api.ex.ODataRuntimeException;
+import org.apache.olingo.commons.api.format.ContentType;
+import org.apache.olingo.commons.api.http.HttpHeader;
 import org.apache.olingo.commons.api.http.HttpMethod;
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.server.api.DeferredResponse;
+import org.apache.olingo.server.api.OData;
+import org.apache.olingo.server.api.ODataApplicationException;
 import org.apache.olingo.server.api.ODataLibraryException;
 import org.apache.olingo.server.api.ODataRequest;
+import org.apache.olingo.server.api.ODataResponse;
+import org.apache.olingo.server.api.ServiceMetadata;
+import org.apache.olingo.server.api.encoding.DefaultContentEncodingSupport;
+import org.apache.olingo.server.api.processor.MetadataProcessor;
+import org.apache.olingo.server.api.uri.UriInfo;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 
 public class ODataHttpHandlerImplTest {
 
@@ -224,4 +263,250 @@ public class ODataHttpHandlerImplTest {
     
     }
   }
+
+  @Test
+  public void convertToHttpWithCompression() throws Exception {
+    final byte[] content = new byte[4096];
+    final ODataResponse odResponse = new ODataResponse();
+    odResponse.setStatusCode(HttpStatusCode.OK.getStatusCode());
+    odResponse.setHeader(HttpHeader.CONTENT_TYPE, ContentType.APPLICATION_XML.toContentTypeString());
+    odResponse.setHeader(HttpHeader.CONTENT_LENGTH, String.valueOf(content.length));
+    odResponse.setContent(new ByteArrayInputStream(content));
+
+    final ByteArrayOutputStream output = new ByteArrayOutputStream();
+    HttpServletResponse response = mock(HttpServletResponse.class);
+    when(response.getOutputStream()).thenReturn(new ServletOutputStream() {
+      @Override
+      public void write(final int b) throws IOException {
+        output.write(b);
+      }
+    });
+
+    ODataHttpHandlerImpl.convertToHttp(response, odResponse,
+        Collections.singletonList("gzip, deflate"), new DefaultContentEncodingSupport());
+
+    verify(response).setStatus(HttpStatusCode.OK.getStatusCode());
+    verify(response).addHeader(HttpHeader.CONTENT_ENCODING, "gzip");
+    verify(response).addHeader(HttpHeader.VARY, HttpHeader.ACCEPT_ENCODING);
+    verify(response, never()).addHeader(eq(HttpHeader.CONTENT_LENGTH), anyString());
+    assertArrayEquals(content,
+        IOUtils.toByteArray(new GZIPInputStream(new ByteArrayInputStream(output.toByteArray()))));
+  }
+  @Test
+  public void processAsyncWithDeferredResponse() throws Exception {
+    final DeferringMetadataProcessor processor = new DeferringMetadataProcessor();
+    final HttpServletRequest request = mockMetadataRequest();
+    final HttpServletResponse response = mock(HttpServletResponse.class);
+    final ByteArrayOutputStream output = new ByteArrayOutputStream();
+    when(response.getOutputStream()).thenReturn(new ServletOutputStream() {
+      @Override
+      public void write(final int b) throws IOException {
+        output.write(b);
+      }
+    });
+    final AsyncContext asyncContext = mock(AsyncContext.class);
+    when(asyncContext.getResponse()).thenReturn(response);
+    when(request.isAsyncSupported()).thenReturn(true);
+    when(request.startAsync(request, response)).thenReturn(asyncContext);
+
+    final ODataHttpHandlerImpl handler = createHandler();
+    handler.register(processor);
+    handler.processAsync(request, response);
+
+    verify(request).startAsync(request, response);
+    verify(response, never()).setStatus(anyInt());
+    verify(asyncContext, never()).complete();
+
+    processor.response.setStatusCode(HttpStatusCode.OK.getStatusCode());
+    processor.response.setContent(new ByteArrayInputStream(new byte[] { 1, 2, 3 }));
+    processor.response.getDeferredResponse().complete();
+
+    verify(response).setStatus(HttpStatusCode.OK.getStatusCode());
+    verify(asyncContext).complete();
+    assertArrayEquals(new byte[] { 1, 2, 3 }, output.toByteArray());
+  }
+
+  @Test
+  public void processAsyncTimeout() throws Exception {
+    final DeferringMetadataProcessor processor = new DeferringMetadataProcessor();
+    final HttpServletRequest request = mockMetadataRequest();
+    final HttpServletResponse response = mock(HttpServletResponse.class);
+    final ByteArrayOutputStream output = new ByteArrayOutputStream();
+    when(response.getOutputStream()).thenReturn(new ServletOutputStream() {
+      @Override
+      public void write(final int b) throws IOException {
+        output.write(b);
+      }
+    });
+    final AsyncContext asyncContext = mock(AsyncContext.class);
+    when(asyncContext.getResponse()).thenReturn(response);
+    when(request.isAsyncSupported()).thenReturn(true);
+    when(request.startAsync(request, response)).thenReturn(asyncContext);
+
+    final ODataHttpHandlerImpl handler = createHandler();
+    handler.register(processor);
+    handler.setAsyncTimeout(1000);
+    handler.processAsync(request, response);
+
+    verify(asyncContext).setTimeout(1000);
+    final ArgumentCaptor<AsyncListener> listener = ArgumentCaptor.forClass(AsyncListener.class);
+    verify(asyncContext).addListener(listener.capture());
+
+    listener.getValue().onTimeout(mock(AsyncEvent.class));
+
+    verify(response).setStatus(HttpStatusCode.SERVICE_UNAVAILABLE.getStatusCode());
+    verify(asyncContext).complete();
+    final int errorLength = output.size();
+
+    // Neither a late completion nor a container error changes the response any more.
+    processor.response.setStatusCode(HttpStatusCode.OK.getStatusCode());
+    processor.response.setContent(new ByteArrayInputStream(new byte[] { 1, 2, 3 }));
+    processor.response.getDeferredResponse().complete();
+    listener.getValue().onError(mock(AsyncEvent.class));
+
+    verify(response, never()).setStatus(HttpStatusCode.OK.getStatusCode());
+    verify(response, never()).setStatus(HttpStatusCode.INTERNAL_SERVER_ERROR.getStatusCode());
+    verify(asyncContext).complete();
+    assertEquals(errorLength, output.size());
+  }
+
+  @Test
+  public void processWaitsForDeferredFailure() throws Exception {
+    final DeferringMetadataProcessor processor = new DeferringMetadataProcessor();
+    processor.failure = new ODataApplicationException("Not available",
+        HttpStatusCode.SERVICE_UNAVAILABLE.getStatusCode(), Locale.ROOT);
+    final HttpServletRequest request = mockMetadataRequest();
+    final HttpServletResponse response = mock(HttpServletResponse.class);
+    when(response.getOutputStream()).thenReturn(new ServletOutputStream() {
+      @Override
+      public void write(final int b) throws IOException {
+        // The content is not relevant here.
+      }
+    });
+
+    final ODataHttpHandlerImpl handler = createHandler();
+    handler.register(processor);
+    handler.process(request, response);
+
+    verify(request, never()).startAsync(request, response);
+    verify(response).setStatus(HttpStatusCode.SERVICE_UNAVAILABLE.getStatusCode());
+  }
+
+  @Test
+  public void processTimesOutWaitingForDeferredResponse() throws Exception {
+    final HttpServletRequest request = mockMetadataRequest();
+    final HttpServletResponse response = mock(HttpServletResponse.class);
+    when(response.getOutputStream()).thenReturn(new ServletOutputStream() {
+      @Override
+      public void write(final int b) throws IOException {
+        // The content is not relevant here.
+      }
+    });
+
+    final ODataHttpHandlerImpl handler = createHandler();
+    // The processor never completes its response.
+    handler.register(new DeferringMetadataProcessor());
+    handler.setAsyncTimeout(50);
+    handler.process(request, response);
+
+    verify(response).setStatus(HttpStatusCode.SERVICE_UNAVAILABLE.getStatusCode());
+  }
+
+  @Test
+  public void processRejectsTooLargeDecodedBody() throws Exception {
+    final ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+    final GZIPOutputStream gzip = new GZIPOutputStream(encoded);
+    gzip.write(new byte[1000]);
+    gzip.close();
+    final InputStream body = new ByteArrayInputStream(encoded.toByteArray());
+    final HttpServletRequest request = mockMetadataRequest();
+    when(request.getHeaderNames()).thenReturn(Collections.enumeration(
+        Arrays.asList(HttpHeader.CONTENT_ENCODING, HttpHeader.CONTENT_LENGTH)));
+    when(request.getHeaders(HttpHeader.CONTENT_ENCODING)).thenReturn(
+        Collections.enumeration(Collections.singletonList("gzip")));
+    when(request.getHeaders(HttpHeader.CONTENT_LENGTH)).thenReturn(
+        Collections.enumeration(Collections.singletonList(String.valueOf(encoded.size()))));
+    when(request.getInputStream()).thenReturn(new ServletInputStream() {
+      @Override
+      public int read() throws IOException {
+        return body.read();
+      }
+    });
+    final HttpServletResponse response = mock(HttpServletResponse.class);
+    when(response.getOutputStream()).thenReturn(new ServletOutputStream() {
+      @Override
+      public void write(final int b) throws IOException {
+        // The content is not relevant here.
+      }
+    });
+    final ODataRequest[] processedRequest = new ODataRequest[1];
+
+    final ODataHttpHandlerImpl handler = createHandler();
+    handler.register(new DefaultContentEncodingSupport(1024, 100));
+    handler.register(new MetadataProcessor() {
+      @Override
+      public void init(final OData odata, final ServiceMetadata serviceMetadata) {
+        // Not needed.
+      }
+
+      @Override
+      public void readMetadata(final ODataRequest request, final ODataResponse response, final UriInfo uriInfo,
+          final ContentType responseFormat) {
+        processedRequest[0] = request;
+        try {
+          IOUtils.toByteArray(request.getBody());
+        } catch (final IOException e) {
+          throw new ODataRuntimeException(e);
+        }
+      }
+    });
+    handler.process(request, response);
+
+    assertNull(processedRequest[0].getHeader(HttpHeader.CONTENT_ENCODING));
+    assertNull(processedRequest[0].getHeader(HttpHeader.CONTENT_LENGTH));
+    verify(response).setStatus(HttpStatusCode.PAYLOAD_TOO_LARGE.getStatusCode());
+  }
+
+  private ODataHttpHandlerImpl createHandler() {
+    final OData odata = OData.newInstance();
+    return new ODataHttpHandlerImpl(odata, odata.createServiceMetadata(new CsdlAbstractEdmProvider() {},
+        Collections.<EdmxReference> emptyList()));
+  }
+
+  private HttpServletRequest mockMetadataRequest() {
+    final HttpServletRequest request = mock(HttpServletRequest.class);
+    when(request.getMethod()).thenReturn("GET");
+    when(request.getRequestURL()).thenReturn(new StringBuffer("http://localhost/odata.svc/$metadata"));
+    when(request.getRequestURI()).thenReturn("/odata.svc/$metadata");
+    when(request.getServletPath()).thenReturn("/odata.svc");
+    when(request.getContextPath()).thenReturn("");
+    when(request.getHeaderNames()).thenReturn(Collections.enumeration(Collections.<String> emptyList()));
+    return request;
+  }
+
+  /** Defers its response; a failure is reported from another thread. */
+  private static class DeferringMetadataProcessor implements MetadataProcessor {
+    private ODataResponse response;
+    private Exception failure;
+
+    @Override
+    public void init(final OData odata, final ServiceMetadata serviceMetadata) {
+      // Not needed.
+    }
+
+    @Override
+    public void readMetadata(final ODataRequest request, final ODataResponse response, final UriInfo uriInfo,
+        final ContentType responseFormat) {
+      this.response = response;
+      final DeferredResponse deferredResponse = response.defer();
+      if (failure != null) {
+        new Thread() {
+          @Override
+          public void run() {
+            deferredResponse.fail(failure);
+          }
+        }.start();
+      }
+    }
+  }
 }
@@ -0,0 +1,204 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.batchhandler;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.olingo.commons.api.edm.provider.CsdlAbstractEdmProvider;
+import org.apache.olingo.commons.api.edmx.EdmxReference;
+import org.apache.olingo.commons.api.format.ContentType;
+import org.apache.olingo.commons.api.http.HttpHeader;
+import org.apache.olingo.commons.api.http.HttpMethod;
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.server.api.OData;
+import org.apache.olingo.server.api.ODataRequest;
+import org.apache.olingo.server.api.ODataResponse;
+import org.apache.olingo.server.api.ODataServerError;
+import org.apache.olingo.server.api.ServiceMetadata;
+import org.apache.olingo.server.api.batch.BatchFacade;
+import org.apache.olingo.server.api.batch.ParallelBatchExecutionSupport;
+import org.apache.olingo.server.api.deserializer.batch.BatchRequestPart;
+import org.apache.olingo.server.api.deserializer.batch.ODataResponsePart;
+import org.apache.olingo.server.api.processor.BatchProcessor;
+import org.apache.olingo.server.api.processor.ErrorProcessor;
+import org.apache.olingo.server.core.ODataHandlerImpl;
+import org.apache.olingo.server.core.debug.ServerCoreDebugger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+public class ParallelBatchPartExecutorTest {
+  private static final int MAX_PARALLELISM = 4;
+
+  private ExecutorService executor;
+  private ODataHandlerImpl oDataHandler;
+  private final AtomicInteger running = new AtomicInteger();
+  private final AtomicInteger maxRunning = new AtomicInteger();
+
+  @Before
+  public void setup() {
+    executor = Executors.newFixedThreadPool(8);
+    oDataHandler = mock(ODataHandlerImpl.class);
+    when(oDataHandler.copy()).thenReturn(oDataHandler);
+    when(oDataHandler.process(any(ODataRequest.class))).then(new Answer<ODataResponse>() {
+      @Override
+      public ODataResponse answer(final InvocationOnMock invocation) throws Throwable {
+        final int current = running.incrementAndGet();
+        synchronized (maxRunning) {
+          maxRunning.set(Math.max(maxRunning.get(), current));
+        }
+        final ODataRequest request = (ODataRequest) invocation.getArguments()[0];
+        // Later requests finish earlier to check that the order of the responses is preserved.
+        Thread.sleep(Math.max(0, 50 - 2 * Integer.parseInt(request.getRawODataPath())));
+        running.decrementAndGet();
+        final ODataResponse response = new ODataResponse();
+        response.setStatusCode(request.getRawODataPath().equals("5") ?
+            HttpStatusCode.NOT_FOUND.getStatusCode() : HttpStatusCode.OK.getStatusCode());
+        response.setHeader(HttpHeader.CONTENT_ID, request.getRawODataPath());
+        return response;
+      }
+    });
+  }
+
+  @After
+  public void shutdown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void responsesInRequestOrder() throws Exception {
+    final List<ODataResponsePart> responseParts = createFacade().handleBatchRequests(createParts(20), true);
+
+    assertEquals(20, responseParts.size());
+    for (int index = 0; index < 20; index++) {
+      assertEquals(Integer.toString(index), responseParts.get(index).getResponses().get(0)
+          .getHeader(HttpHeader.CONTENT_ID));
+    }
+    assertEquals(HttpStatusCode.NOT_FOUND.getStatusCode(), responseParts.get(5).getResponses().get(0)
+        .getStatusCode());
+    assertTrue(maxRunning.get() > 1);
+    assertTrue(maxRunning.get() <= MAX_PARALLELISM);
+  }
+
+  @Test
+  public void stopAtFirstError() throws Exception {
+    final List<ODataResponsePart> responseParts = createFacade().handleBatchRequests(createParts(20), false);
+
+    assertEquals(6, responseParts.size());
+    assertEquals(HttpStatusCode.NOT_FOUND.getStatusCode(), responseParts.get(5).getResponses().get(0)
+        .getStatusCode());
+  }
+
+  @Test
+  public void changeSetsInOrder() throws Exception {
+    final List<BatchRequestPart> parts = createParts(3);
+    final ODataRequest changeRequest = createRequest(HttpMethod.PATCH, "7");
+    parts.add(1, new BatchRequestPart(true, Collections.singletonList(changeRequest)));
+    final BatchProcessor batchProcessor = mock(BatchProcessor.class);
+    final ODataResponsePart changeSetResponse = new ODataResponsePart(new ODataResponse(), true);
+    when(batchProcessor.processChangeSet(any(BatchFacade.class), anyListOf(ODataRequest.class)))
+        .thenReturn(changeSetResponse);
+
+    final List<ODataResponsePart> responseParts = createFacade(batchProcessor).handleBatchRequests(parts, true);
+
+    assertEquals(4, responseParts.size());
+    assertEquals("0", responseParts.get(0).getResponses().get(0).getHeader(HttpHeader.CONTENT_ID));
+    assertTrue(changeSetResponse == responseParts.get(1));
+    assertEquals("1", responseParts.get(2).getResponses().get(0).getHeader(HttpHeader.CONTENT_ID));
+    assertEquals("2", responseParts.get(3).getResponses().get(0).getHeader(HttpHeader.CONTENT_ID));
+  }
+
+  @Test
+  public void processorsInitializedBeforeParallelExecution() throws Exception {
+    final OData odata = OData.newInstance();
+    final ServiceMetadata serviceMetadata = odata.createServiceMetadata(new CsdlAbstractEdmProvider() {},
+        Collections.<EdmxReference> emptyList());
+    final ODataHandlerImpl handler = new ODataHandlerImpl(odata, serviceMetadata, new ServerCoreDebugger(odata));
+    final Set<Thread> initThreads = Collections.synchronizedSet(new HashSet<Thread>());
+    // Every request fails in the URI parser, so the error processor handles all of them.
+    handler.register(new ErrorProcessor() {
+      @Override
+      public void init(final OData odata, final ServiceMetadata serviceMetadata) {
+        initThreads.add(Thread.currentThread());
+      }
+
+      @Override
+      public void processError(final ODataRequest request, final ODataResponse response,
+          final ODataServerError serverError, final ContentType responseFormat) {
+        response.setStatusCode(serverError.getStatusCode());
+      }
+    });
+    oDataHandler = handler;
+
+    final List<ODataResponsePart> responseParts = createFacade().handleBatchRequests(createParts(20), true);
+
+    assertEquals(20, responseParts.size());
+    assertEquals(Collections.singleton(Thread.currentThread()), initThreads);
+  }
+
+  private BatchFacade createFacade() {
+    return createFacade(mock(BatchProcessor.class));
+  }
+
+  private BatchFacade createFacade(final BatchProcessor batchProcessor) {
+    return new BatchFacadeImpl(oDataHandler, batchProcessor, true, new ParallelBatchExecutionSupport() {
+      @Override
+      public Executor getExecutor() {
+        return executor;
+      }
+
+      @Override
+      public int getMaxParallelism() {
+        return MAX_PARALLELISM;
+      }
+    });
+  }
+
+  private List<BatchRequestPart> createParts(final int count) {
+    final List<BatchRequestPart> parts = new ArrayList<BatchRequestPart>();
+    for (int index = 0; index < count; index++) {
+      parts.add(new BatchRequestPart(false, createRequest(HttpMethod.GET, Integer.toString(index))));
+    }
+    return parts;
+  }
+
+  private ODataRequest createRequest(final HttpMethod method, final String path) {
+    final ODataRequest request = new ODataRequest();
+    request.setMethod(method);
+    request.setRawODataPath(path);
+    return request;
+  }
+}
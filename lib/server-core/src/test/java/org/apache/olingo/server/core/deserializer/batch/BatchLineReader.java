@@ -28,6 +28,10 @@ import java.util.List;
 import org.apache.olingo.commons.api.format.ContentType;
 import org.apache.olingo.commons.api.http.HttpHeader;
 
+/**
+ * Splits a batch message into lines, decoding bodies with the charset of their content type.
+ * The tests use it to check serialized batch responses; the batch parser reads with {@link BatchStreamReader}.
+ */
 public class BatchLineReader {
   private static final byte CR = '\r';
   private static final byte LF = '\n';
@@ -22,9 +22,11 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.SequenceInputStream;
 import java.util.List;
 
 import org.apache.commons.io.IOUtils;
+import org.apache.olingo.commons.api.ex.ODataRuntimeException;
 import org.apache.olingo.commons.api.http.HttpHeader;
 import org.apache.olingo.commons.api.http.HttpMethod;
 import org.apache.olingo.server.api.ODataRequest;
@@ -32,6 +34,7 @@ import org.apache.olingo.server.api.deserializer.batch.BatchDeserializerExceptio
 import org.apache.olingo.server.api.deserializer.batch.BatchDeserializerException.MessageKeys;
 import org.apache.olingo.server.api.deserializer.batch.BatchOptions;
 import org.apache.olingo.server.api.deserializer.batch.BatchRequestPart;
+import org.apache.olingo.server.api.deserializer.batch.BatchRequestPartReader;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -1096,6 +1099,50 @@ public class BatchRequestParserTest {
     parse(readFile("/batchLarge.batch"), true);
   }
 
+  @Test
+  public void partsAreReadIncrementally() throws Exception {
+    final String firstPart = "--" + BOUNDARY + CRLF
+        + GET_REQUEST
+        + "--" + BOUNDARY + CRLF;
+    final InputStream notYetReceived = new InputStream() {
+      @Override
+      public int read() throws IOException {
+        throw new IOException("Not yet received.");
+      }
+    };
+    final BatchRequestPartReader reader = new BatchParser().createReader(
+        new SequenceInputStream(IOUtils.toInputStream(firstPart), notYetReceived), BOUNDARY,
+        BatchOptions.with().rawBaseUri(SERVICE_ROOT).build());
+
+    final BatchRequestPart part = reader.next();
+    Assert.assertNotNull(part);
+    Assert.assertFalse(part.isChangeSet());
+    Assert.assertEquals(HttpMethod.GET, part.getRequests().get(0).getMethod());
+    try {
+      reader.next();
+      Assert.fail("Expected exception not thrown.");
+    } catch (final ODataRuntimeException e) {
+      Assert.assertTrue(e.getCause() instanceof IOException);
+    }
+  }
+
+  @Test
+  public void readerStopsAtCloseDelimiter() throws Exception {
+    final String batch = "--" + BOUNDARY + CRLF
+        + GET_REQUEST
+        + "--" + BOUNDARY + CRLF
+        + GET_REQUEST
+        + "--" + BOUNDARY + "--" + CRLF
+        + "epilogue";
+    final BatchRequestPartReader reader = new BatchParser().createReader(IOUtils.toInputStream(batch), BOUNDARY,
+        BatchOptions.with().rawBaseUri(SERVICE_ROOT).build());
+
+    Assert.assertNotNull(reader.next());
+    Assert.assertNotNull(reader.next());
+    Assert.assertNull(reader.next());
+    Assert.assertNull(reader.next());
+  }
+
   @Test
   public void forbiddenHeaderWWWAuthenticate() throws Exception {
     parseBatchWithForbiddenHeader(HttpHeader.WWW_AUTHENTICATE + ": Basic realm=\"simple\"");
@@ -29,6 +29,7 @@ import java.io.ByteArrayOutputStream;
 import java.io.InputStream;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Random;
@@ -552,6 +553,105 @@ public class BatchResponseSerializerTest {
     assertEquals("--" + BOUNDARY + "--" + CRLF, body.get(line++));
   }
   
+  @Test
+  public void streamedResponse() throws Exception {
+    List<ODataResponsePart> parts = new ArrayList<ODataResponsePart>();
+    ServiceMetadata serviceMetadata = mock(ServiceMetadata.class);
+    final EdmEntityType edmEntityType = mock(EdmEntityType.class);
+    EntityIterator entityCollection = new EntityIterator() {
+
+      @Override
+      public Entity next() {
+        return null;
+      }
+
+      @Override
+      public boolean hasNext() {
+        return false;
+      }
+    };
+
+    SerializerStreamResult serializerResult = OData.newInstance().
+        createSerializer(ContentType.APPLICATION_JSON).entityCollectionStreamed(
+        serviceMetadata,
+        edmEntityType,
+        entityCollection,
+        EntityCollectionSerializerOptions.with().contextURL
+        (ContextURL.with().oDataPath("http://host/svc").build()).build());
+    ODataResponse response = new ODataResponse();
+    response.setODataContent(serializerResult.getODataContent());
+    response.setStatusCode(HttpStatusCode.OK.getStatusCode());
+    parts.add(new ODataResponsePart(response, false));
+
+    ODataResponse changeSetResponse = new ODataResponse();
+    changeSetResponse.setStatusCode(HttpStatusCode.NO_CONTENT.getStatusCode());
+    changeSetResponse.setHeader(HttpHeader.CONTENT_ID, "1");
+    parts.add(new ODataResponsePart(Collections.singletonList(changeSetResponse), true));
+
+    final ByteArrayOutputStream output = new ByteArrayOutputStream();
+    new BatchResponseSerializer().serializeStreamed(parts.iterator(), BOUNDARY).getODataContent().write(output);
+
+    final BatchLineReader reader = new BatchLineReader(new ByteArrayInputStream(output.toByteArray()));
+    final List<String> body = reader.toList();
+    reader.close();
+
+    int line = 0;
+    assertEquals(22, body.size());
+    assertEquals("--" + BOUNDARY + CRLF, body.get(line++));
+    assertEquals("Content-Type: application/http" + CRLF, body.get(line++));
+    assertEquals("Content-Transfer-Encoding: binary" + CRLF, body.get(line++));
+    assertEquals(CRLF, body.get(line++));
+    assertEquals("HTTP/1.1 200 OK" + CRLF, body.get(line++));
+    assertEquals("Content-Length: 47" + CRLF, body.get(line++));
+    assertEquals(CRLF, body.get(line++));
+    assertEquals("{\"@odata.context\":\"../../$metadata\",\"value\":[]}" + CRLF, body.get(line++));
+    assertEquals("--" + BOUNDARY + CRLF, body.get(line++));
+    assertTrue(body.get(line++).contains("Content-Type: multipart/mixed; boundary=changeset_"));
+    assertEquals(CRLF, body.get(line++));
+    assertTrue(body.get(line++).contains("--changeset_"));
+    assertEquals("Content-Type: application/http" + CRLF, body.get(line++));
+    assertEquals("Content-Transfer-Encoding: binary" + CRLF, body.get(line++));
+    assertEquals("Content-ID: 1" + CRLF, body.get(line++));
+    assertEquals(CRLF, body.get(line++));
+    assertEquals("HTTP/1.1 204 No Content" + CRLF, body.get(line++));
+    assertEquals("Content-Length: 0" + CRLF, body.get(line++));
+    assertEquals(CRLF, body.get(line++));
+    assertEquals(CRLF, body.get(line++));
+    assertTrue(body.get(line++).contains("--changeset_"));
+    assertEquals("--" + BOUNDARY + "--" + CRLF, body.get(line++));
+  }
+
+  @Test
+  public void streamedResponseWithBigBody() throws Exception {
+    final byte[] content = new byte[BatchResponseSerializer.STREAMED_PART_BUFFER_SIZE + 1];
+    Arrays.fill(content, (byte) 'a');
+    ODataResponse response = new ODataResponse();
+    response.setStatusCode(HttpStatusCode.OK.getStatusCode());
+    response.setHeader(HttpHeader.CONTENT_TYPE, ContentType.TEXT_PLAIN.toContentTypeString());
+    response.setContent(new ByteArrayInputStream(content));
+
+    final ByteArrayOutputStream output = new ByteArrayOutputStream();
+    new BatchResponseSerializer().serializeStreamed(
+        Collections.singletonList(new ODataResponsePart(response, false)).iterator(), BOUNDARY)
+        .getODataContent().write(output);
+
+    final BatchLineReader reader = new BatchLineReader(new ByteArrayInputStream(output.toByteArray()));
+    final List<String> body = reader.toList();
+    reader.close();
+
+    int line = 0;
+    assertEquals(9, body.size());
+    assertEquals("--" + BOUNDARY + CRLF, body.get(line++));
+    assertEquals("Content-Type: application/http" + CRLF, body.get(line++));
+    assertEquals("Content-Transfer-Encoding: binary" + CRLF, body.get(line++));
+    assertEquals(CRLF, body.get(line++));
+    assertEquals("HTTP/1.1 200 OK" + CRLF, body.get(line++));
+    assertEquals("Content-Type: text/plain" + CRLF, body.get(line++));
+    assertEquals(CRLF, body.get(line++));
+    assertEquals(new String(content, "ISO-8859-1") + CRLF, body.get(line++));
+    assertEquals("--" + BOUNDARY + "--" + CRLF, body.get(line++));
+  }
+
   @Test
   public void changeSetODataContentResponse() throws Exception {
     List<ODataResponsePart> parts = new ArrayList<ODataResponsePart>();
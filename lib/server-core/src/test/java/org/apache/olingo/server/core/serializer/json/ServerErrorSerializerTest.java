@@ -24,7 +24,9 @@ import static org.junit.Assert.assertNotNull;
 import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.commons.io.IOUtils;
 import org.apache.olingo.commons.api.ex.ODataErrorDetail;
@@ -33,8 +35,10 @@ import org.apache.olingo.server.api.OData;
 import org.apache.olingo.server.api.ODataServerError;
 import org.apache.olingo.server.api.serializer.ODataSerializer;
 import org.apache.olingo.server.api.serializer.SerializerException;
+import org.apache.olingo.server.core.ODataImpl;
 import org.junit.Test;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.JsonNodeType;
@@ -74,6 +78,24 @@ public class ServerErrorSerializerTest {
     assertEquals("{\"error\":{\"code\":\"Code\",\"message\":\"ErrorMessage\",\"target\":\"Target\"}}", jsonString);
   }
 
+  @Test
+  public void configuredJsonFactory() throws Exception {
+    Map<JsonGenerator.Feature, Boolean> features =
+        new EnumMap<JsonGenerator.Feature, Boolean>(JsonGenerator.Feature.class);
+    features.put(JsonGenerator.Feature.ESCAPE_NON_ASCII, true);
+    ODataImpl odata = new ODataImpl();
+    odata.setJsonFactory(ODataJsonFactory.create(features));
+
+    ODataServerError error = new ODataServerError();
+    error.setCode("Code").setMessage("Fehler \u00e4");
+    InputStream stream = odata.createSerializer(ContentType.JSON).error(error).getContent();
+    String jsonString = IOUtils.toString(stream);
+    assertEquals("{\"error\":{\"code\":\"Code\",\"message\":\"Fehler \\u00E4\"}}", jsonString);
+
+    stream = ser.error(error).getContent();
+    assertEquals("{\"error\":{\"code\":\"Code\",\"message\":\"Fehler \u00e4\"}}", IOUtils.toString(stream, "UTF-8"));
+  }
+
   @Test(expected = SerializerException.class)
   public void nullErrorResultsInException() throws Exception {
     ser.error(null);
@@ -19,10 +19,13 @@
 package org.apache.olingo.server.core.serializer.xml;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
 import java.io.InputStream;
+import java.util.Arrays;
 import java.util.Collections;
 
 import org.apache.commons.io.IOUtils;
@@ -37,9 +40,11 @@ import org.apache.olingo.commons.api.edmx.EdmxReference;
 import org.apache.olingo.commons.api.format.ContentType;
 import org.apache.olingo.server.api.OData;
 import org.apache.olingo.server.api.ServiceMetadata;
+import org.apache.olingo.server.api.etag.ServiceMetadataETagSupport;
 import org.apache.olingo.server.api.serializer.ODataSerializer;
 import org.apache.olingo.server.api.serializer.SerializerException;
 import org.apache.olingo.server.core.ServiceMetadataImpl;
+import org.apache.olingo.server.core.serializer.SerializedDocumentCache;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
@@ -103,4 +108,41 @@ public class ServiceDocumentXmlSerializerTest {
         + "</app:service>",
         metadata);
   }
+
+  @Test
+  public void cacheServiceDocumentPerETag() throws Exception {
+    ServiceMetadataETagSupport eTagSupport = mock(ServiceMetadataETagSupport.class);
+    when(eTagSupport.getServiceDocumentETag()).thenReturn(null, "W/\"1\"", "W/\"1\"", "W/\"2\"");
+    ServiceMetadataImpl serviceMetadata = new ServiceMetadataImpl(new MetadataDocumentXmlSerializerTest.LocalProvider(),
+        Collections.<EdmxReference> emptyList(), eTagSupport);
+    final SerializedDocumentCache cache = serviceMetadata.getSerializedDocumentCache();
+    final String root = "http://host/svc";
+    final String expected = IOUtils.toString(serializer.serviceDocument(serviceMetadata, root).getContent());
+    assertNull(cache.get(Arrays.<Object> asList("serviceDocument", root), "W/\"1\""));
+
+    assertEquals(expected, IOUtils.toString(serializer.serviceDocument(serviceMetadata, root).getContent()));
+    assertNotNull(cache.get(Arrays.<Object> asList("serviceDocument", root), "W/\"1\""));
+    assertNull(cache.get(Arrays.<Object> asList("serviceDocument", "http://other/svc"), "W/\"1\""));
+    assertEquals(expected, IOUtils.toString(serializer.serviceDocument(serviceMetadata, root).getContent()));
+
+    assertEquals(expected, IOUtils.toString(serializer.serviceDocument(serviceMetadata, root).getContent()));
+    assertNull(cache.get(Arrays.<Object> asList("serviceDocument", root), "W/\"1\""));
+    assertNotNull(cache.get(Arrays.<Object> asList("serviceDocument", root), "W/\"2\""));
+  }
+
+  @Test
+  public void cacheIsBounded() throws Exception {
+    ServiceMetadataETagSupport eTagSupport = mock(ServiceMetadataETagSupport.class);
+    when(eTagSupport.getServiceDocumentETag()).thenReturn("W/\"1\"");
+    ServiceMetadataImpl serviceMetadata = new ServiceMetadataImpl(new MetadataDocumentXmlSerializerTest.LocalProvider(),
+        Collections.<EdmxReference> emptyList(), eTagSupport);
+    final SerializedDocumentCache cache = serviceMetadata.getSerializedDocumentCache();
+    for (int i = 0; i <= SerializedDocumentCache.MAX_DOCUMENTS; i++) {
+      serializer.serviceDocument(serviceMetadata, "http://host" + i + "/svc").getContent().close();
+    }
+    assertNull(cache.get(Arrays.<Object> asList("serviceDocument", "http://host0/svc"), "W/\"1\""));
+    assertNotNull(cache.get(Arrays.<Object> asList("serviceDocument", "http://host1/svc"), "W/\"1\""));
+    assertNotNull(cache.get(Arrays.<Object> asList("serviceDocument",
+        "http://host" + SerializedDocumentCache.MAX_DOCUMENTS + "/svc"), "W/\"1\""));
+  }
 }
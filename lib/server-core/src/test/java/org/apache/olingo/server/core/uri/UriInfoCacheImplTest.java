@@ -0,0 +1,75 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.uri;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+
+import org.apache.olingo.commons.api.edm.Edm;
+import org.apache.olingo.server.api.uri.UriInfo;
+import org.junit.Test;
+
+public class UriInfoCacheImplTest {
+
+  private static final String BASE_URI = "http://localhost/odata";
+
+  private final Edm edm = mock(Edm.class);
+
+  @Test
+  public void hitsAndMisses() {
+    final UriInfoCacheImpl cache = new UriInfoCacheImpl(10);
+    final UriInfo uriInfo = mock(UriInfo.class);
+
+    assertNull(cache.get(edm, "/ESAllPrim", "$top=1", BASE_URI));
+    cache.put(edm, "/ESAllPrim", "$top=1", BASE_URI, uriInfo);
+    assertSame(uriInfo, cache.get(edm, "/ESAllPrim", "$top=1", BASE_URI));
+    assertNull(cache.get(edm, "/ESAllPrim", "$top=2", BASE_URI));
+    assertNull(cache.get(edm, "/ESAllPrim", null, BASE_URI));
+    assertNull(cache.get(mock(Edm.class), "/ESAllPrim", "$top=1", BASE_URI));
+
+    assertEquals(1, cache.getHitCount());
+    assertEquals(4, cache.getMissCount());
+    assertEquals(1, cache.size());
+
+    cache.clear();
+    assertEquals(0, cache.size());
+    assertNull(cache.get(edm, "/ESAllPrim", "$top=1", BASE_URI));
+  }
+
+  @Test
+  public void leastRecentlyUsedEntryIsRemoved() {
+    final UriInfoCacheImpl cache = new UriInfoCacheImpl(2);
+    final UriInfo first = mock(UriInfo.class);
+    cache.put(edm, "/First", null, BASE_URI, first);
+    cache.put(edm, "/Second", null, BASE_URI, mock(UriInfo.class));
+    assertSame(first, cache.get(edm, "/First", null, BASE_URI));
+    cache.put(edm, "/Third", null, BASE_URI, mock(UriInfo.class));
+
+    assertEquals(2, cache.size());
+    assertSame(first, cache.get(edm, "/First", null, BASE_URI));
+    assertNull(cache.get(edm, "/Second", null, BASE_URI));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void invalidSize() {
+    new UriInfoCacheImpl(0);
+  }
+}
@@ -69,6 +69,8 @@ import org.apache.olingo.server.api.uri.UriInfoResource;
 import org.apache.olingo.server.api.uri.UriParameter;
 import org.apache.olingo.server.api.uri.UriResourceEntitySet;
 import org.apache.olingo.server.api.uri.queryoption.expression.Literal;
+import org.apache.olingo.server.tecsvc.processor.queryoptions.search.InMemorySearchIndex;
+import org.apache.olingo.server.tecsvc.processor.queryoptions.search.SearchIndex;
 
 public class DataProvider {
 
@@ -79,6 +81,7 @@ public class DataProvider {
   private AtomicLong KEY_STRING = new AtomicLong(0);
 
   private Map<String, EntityCollection> data;
+  private final Map<String, SearchIndex> searchIndexes = new HashMap<String, SearchIndex>();
   private final OData odata;
   private final Edm edm;
 
@@ -97,6 +100,39 @@ public class DataProvider {
     return entityCollection;
   }
 
+  /**
+   * Returns the search index for the entities of an entity set; it is built on first use
+   * and kept up-to-date by the modifying methods of this data provider.
+   */
+  public SearchIndex getSearchIndex(final EdmEntitySet edmEntitySet) throws DataProviderException {
+    SearchIndex searchIndex = searchIndexes.get(edmEntitySet.getName());
+    if (searchIndex == null) {
+      searchIndex = new InMemorySearchIndex(readAll(edmEntitySet).getEntities());
+      searchIndexes.put(edmEntitySet.getName(), searchIndex);
+    }
+    return searchIndex;
+  }
+
+  private void addToSearchIndex(final String entitySetName, final Entity entity) {
+    final SearchIndex searchIndex = searchIndexes.get(entitySetName);
+    if (searchIndex != null) {
+      searchIndex.add(entity);
+    }
+  }
+
+  private void updateSearchIndexes(final Entity entity) {
+    for (final SearchIndex searchIndex : searchIndexes.values()) {
+      if (searchIndex.contains(entity)) {
+        searchIndex.update(entity);
+      }
+    }
+  }
+
+  /** Drops all search indexes after changes that cannot be attributed to an entity. */
+  private void invalidateSearchIndexes() {
+    searchIndexes.clear();
+  }
+
   public Entity read(final EdmEntitySet edmEntitySet, final List<UriParameter> keys) throws DataProviderException {
     final EntityCollection entitySet = readAll(edmEntitySet);
     return entitySet == null ? null : read(edmEntitySet.getEntityType(), entitySet, keys);
@@ -166,6 +202,10 @@ public class DataProvider {
   public void delete(final EdmEntitySet edmEntitySet, final Entity entity) throws DataProviderException {
     deleteLinksTo(entity);
     readAll(edmEntitySet).getEntities().remove(entity);
+    final SearchIndex searchIndex = searchIndexes.get(edmEntitySet.getName());
+    if (searchIndex != null) {
+      searchIndex.remove(entity);
+    }
   }
 
   public void deleteLinksTo(final Entity to) throws DataProviderException {
@@ -208,6 +248,7 @@ public class DataProvider {
       throw new DataProviderException("Unable to set entity ID!", HttpStatusCode.INTERNAL_SERVER_ERROR, e);
     }
     entities.add(newEntity);
+    addToSearchIndex(edmEntitySet.getName(), newEntity);
 
     return newEntity;
   }
@@ -323,7 +364,7 @@ public class DataProvider {
     // Update Properties
     for (final String propertyName : entityType.getPropertyNames()) {
       if (!keyNames.contains(propertyName)) {
-        updateProperty(entityType.getStructuralProperty(propertyName),
+        applyPropertyUpdate(entityType.getStructuralProperty(propertyName),
             entity.getProperty(propertyName),
             changedEntity.getProperty(propertyName),
             patch);
@@ -347,6 +388,7 @@ public class DataProvider {
 
     // Update the ETag if present.
     updateETag(entity);
+    updateSearchIndexes(entity);
   }
 
   public void updateETag(Entity entity) {
@@ -470,9 +512,15 @@ public class DataProvider {
     }
   }
 
-  @SuppressWarnings("unchecked")
   public void updateProperty(final EdmProperty edmProperty, Property property, final Property newProperty,
       final boolean patch) throws DataProviderException {
+    invalidateSearchIndexes();
+    applyPropertyUpdate(edmProperty, property, newProperty, patch);
+  }
+
+  @SuppressWarnings("unchecked")
+  private void applyPropertyUpdate(final EdmProperty edmProperty, Property property, final Property newProperty,
+      final boolean patch) throws DataProviderException {
     if(property == null){
       throw new DataProviderException("Cannot update type of the entity",
           HttpStatusCode.BAD_REQUEST);
@@ -497,7 +545,7 @@ public class DataProvider {
       for (final String propertyName : ((EdmComplexType) type).getPropertyNames()) {
         final List<Property> newProperties = newProperty == null || newProperty.asComplex() == null ? null :
             newProperty.asComplex().getValue();
-        updateProperty(((EdmComplexType) type).getStructuralProperty(propertyName),
+        applyPropertyUpdate(((EdmComplexType) type).getStructuralProperty(propertyName),
             findProperty(propertyName, property.asComplex().getValue()),
             newProperties == null ? null : findProperty(propertyName, newProperties),
             patch);
@@ -505,12 +553,13 @@ public class DataProvider {
     } else {
       if (newProperty != null || !patch) {
         final Object value = newProperty == null ? null : newProperty.getValue();
-        updatePropertyValue(property, value);
+        property.setValue(property.getValueType(), value);
       }
     }
   }
 
   public void updatePropertyValue(Property property, final Object value) {
+    invalidateSearchIndexes();
     property.setValue(property.getValueType(), value);
   }
 
@@ -534,12 +583,12 @@ public class DataProvider {
       result.getValue().add(newProperty);
 
       if (currentProperty != null) {
-        updateProperty(innerEdmProperty, newProperty, currentProperty, patch);
+        applyPropertyUpdate(innerEdmProperty, newProperty, currentProperty, patch);
       } else {
         if (innerEdmProperty.isNullable()) {
           // Check complex properties ... may be null is not allowed
           if (edmProperty.getType().getKind() == EdmTypeKind.COMPLEX) {
-            updateProperty(innerEdmProperty, newProperty, null, patch);
+            applyPropertyUpdate(innerEdmProperty, newProperty, null, patch);
           }
         }
       }
@@ -566,6 +615,7 @@ public class DataProvider {
     entity.addProperty(DataCreator.createPrimitive(MEDIA_PROPERTY_NAME, media));
     entity.setMediaContentType(type);
     entity.setMediaETag("W/\"" + UUID.randomUUID() + "\"");
+    updateSearchIndexes(entity);
   }
   
   public List<DeletedEntity> readDeletedEntities(final EdmEntitySet edmEntitySet) throws DataProviderException {
@@ -668,6 +718,7 @@ public class DataProvider {
   public Property processBoundActionPrimitive(final String name, final Map<String, Parameter> actionParameters, 
       final EdmEntitySet edmEntitySet, final List<UriParameter> keyList)
       throws DataProviderException {
+    invalidateSearchIndexes();
     return ActionData.primitiveBoundAction(name, actionParameters, data, edmEntitySet, keyList);
   }
   
@@ -680,6 +731,7 @@ public class DataProvider {
       final EdmEntitySet edmEntitySet, 
       final List<UriParameter> keyList)
       throws DataProviderException {
+    invalidateSearchIndexes();
     return ActionData.complexBoundAction(name, actionParameters, data, edmEntitySet, keyList);
   }
   
@@ -692,6 +744,7 @@ public class DataProvider {
       final Map<String, Parameter> actionParameters, final EdmEntitySet edmEntitySet, 
       final List<UriParameter> keyList)
       throws DataProviderException {
+    invalidateSearchIndexes();
     return ActionData.complexCollectionBoundAction(name, actionParameters, data, edmEntitySet, keyList);
   }
   
@@ -704,17 +757,20 @@ public class DataProvider {
       final Map<String, Parameter> actionParameters, final EdmEntitySet edmEntitySet, 
       final List<UriParameter> keyList)
       throws DataProviderException {
+    invalidateSearchIndexes();
     return ActionData.primitiveCollectionBoundAction(name, actionParameters, data, edmEntitySet, keyList, odata);
   }
   
   public EntityActionResult processActionEntity(final String name, final Map<String, Parameter> actionParameters)
       throws DataProviderException {
+    invalidateSearchIndexes();
     return ActionData.entityAction(name, actionParameters, data, odata, edm);
   }
 
   public EntityActionResult processBoundActionEntity(final String name, final Map<String, Parameter> actionParameters, 
       List<UriParameter> keyList, EdmEntitySet edmEntitySet)
       throws DataProviderException {
+    invalidateSearchIndexes();
     return ActionData.entityBoundAction(name, actionParameters, data, odata, edm, keyList, edmEntitySet);
   }
   
@@ -722,6 +778,7 @@ public class DataProvider {
       final Map<String, Parameter> actionParameters, 
       List<UriParameter> keyList, EdmEntitySet edmEntitySet, EdmNavigationProperty navProperty)
       throws DataProviderException {
+    invalidateSearchIndexes();
     return ActionData.entityBoundActionWithNavigation(name, actionParameters, data, keyList, 
         edmEntitySet, navProperty);
   }
@@ -733,12 +790,14 @@ public class DataProvider {
 
   public EntityCollection processBoundActionEntityCollection(final String name,
       final Map<String, Parameter> actionParameters, EdmEntitySet edmEntitySet) throws DataProviderException {
+    invalidateSearchIndexes();
     return ActionData.entityCollectionBoundAction(name, actionParameters, data, odata, edm, edmEntitySet);
   }
   
   public EntityCollection processBoundActionWithNavEntityCollection(final String name,
       final Map<String, Parameter> actionParameters, EdmEntitySet edmEntitySet, EdmNavigationProperty navProperty) 
           throws DataProviderException {
+    invalidateSearchIndexes();
     return ActionData.entityCollectionBoundActionWithNav(name, actionParameters, data, odata, edm, 
         edmEntitySet, navProperty);
   }
@@ -877,6 +936,7 @@ public class DataProvider {
     List<Entity> rootEntity = data.get(edmEntitySet.getName()).getEntities();
     EntityCollection entitySet = data.get(edmEntityType.getName());
     entitySet.getEntities().add(newEntity);
+    addToSearchIndex(edmEntityType.getName(), newEntity);
     
     
     
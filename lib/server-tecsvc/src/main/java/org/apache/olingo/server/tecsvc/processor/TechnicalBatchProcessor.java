@@ -18,7 +18,6 @@
  */
 package org.apache.olingo.server.tecsvc.processor;
 
-import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
@@ -28,14 +27,20 @@ import org.apache.olingo.commons.api.http.HttpHeader;
 import org.apache.olingo.commons.api.http.HttpStatusCode;
 import org.apache.olingo.server.api.ODataApplicationException;
 import org.apache.olingo.server.api.ODataLibraryException;
+import org.apache.olingo.server.api.ODataLibraryException.ODataErrorMessage;
 import org.apache.olingo.server.api.ODataRequest;
 import org.apache.olingo.server.api.ODataResponse;
+import org.apache.olingo.server.api.ODataServerError;
 import org.apache.olingo.server.api.batch.BatchFacade;
+import org.apache.olingo.server.api.deserializer.batch.BatchDeserializerException;
 import org.apache.olingo.server.api.deserializer.batch.BatchOptions;
 import org.apache.olingo.server.api.deserializer.batch.BatchRequestPart;
+import org.apache.olingo.server.api.deserializer.batch.BatchRequestPartReader;
 import org.apache.olingo.server.api.deserializer.batch.ODataResponsePart;
 import org.apache.olingo.server.api.prefer.PreferencesApplied;
 import org.apache.olingo.server.api.processor.BatchProcessor;
+import org.apache.olingo.server.api.serializer.SerializerException;
+import org.apache.olingo.server.api.serializer.SerializerStreamResult;
 import org.apache.olingo.server.tecsvc.async.AsyncProcessor;
 import org.apache.olingo.server.tecsvc.async.TechnicalAsyncService;
 import org.apache.olingo.server.tecsvc.data.DataProvider;
@@ -71,29 +76,36 @@ public class TechnicalBatchProcessor extends TechnicalProcessor implements Batch
     final BatchOptions options = BatchOptions.with()
         .rawBaseUri(request.getRawBaseUri())
         .rawServiceResolutionUri(request.getRawServiceResolutionUri()).build();
-    final List<BatchRequestPart> parts = odata.createFixedFormatDeserializer().parseBatchRequest(request.getBody(),
-        boundary, options);
+    // The parts are read one after the other, so each part is processed as soon as it has been received.
+    final BatchRequestPartReader parts = odata.createFixedFormatDeserializer().batchRequestPartReader(
+        request.getBody(), boundary, options);
     final List<ODataResponsePart> responseParts = new ArrayList<ODataResponsePart>();
 
-    for (BatchRequestPart part : parts) {
-      final ODataResponsePart responsePart = facade.handleBatchRequest(part);
-      responseParts.add(responsePart); // Also add failed responses.
-      final int statusCode = responsePart.getResponses().get(0).getStatusCode();
+    try {
+      BatchRequestPart part;
+      while ((part = readPart(parts, responseParts)) != null) {
+        final ODataResponsePart responsePart = facade.handleBatchRequest(part);
+        responseParts.add(responsePart); // Also add failed responses.
+        final int statusCode = responsePart.getResponses().get(0).getStatusCode();
 
-      if ((statusCode >= 400 && statusCode <= 600) && !continueOnError) {
+        if ((statusCode >= 400 && statusCode <= 600) && !continueOnError) {
 
-        // Perform some additional actions.
-        // ...
+          // Perform some additional actions.
+          // ...
 
-        break; // Stop processing, but serialize responses to all recent requests.
+          break; // Stop processing, but serialize responses to all recent requests.
+        }
       }
+    } finally {
+      parts.close();
     }
 
     final String responseBoundary = "batch_" + UUID.randomUUID().toString();
-    final InputStream responseContent =
-        odata.createFixedFormatSerializer().batchResponse(responseParts, responseBoundary);
+    // The response parts are written directly to the output, without buffering the whole batch response.
+    final SerializerStreamResult responseContent =
+        odata.createFixedFormatSerializer().batchResponseStreamed(responseParts.iterator(), responseBoundary);
     response.setHeader(HttpHeader.CONTENT_TYPE, ContentType.MULTIPART_MIXED + ";boundary=" + responseBoundary);
-    response.setContent(responseContent);
+    response.setODataContent(responseContent.getODataContent());
     response.setStatusCode(HttpStatusCode.OK.getStatusCode());
     if (continueOnError) {
       response.setHeader(HttpHeader.PREFERENCE_APPLIED,
@@ -101,6 +113,34 @@ public class TechnicalBatchProcessor extends TechnicalProcessor implements Batch
     }
   }
 
+  /**
+   * Reads the next part of the batch request.
+   * The parts before a malformed part have already been processed, so their responses must not get lost.
+   * In that case an error response for the malformed part is added and <code>null</code> is returned;
+   * only a malformed first part lets the whole batch request fail.
+   */
+  private BatchRequestPart readPart(final BatchRequestPartReader parts, final List<ODataResponsePart> responseParts)
+      throws BatchDeserializerException, SerializerException {
+    try {
+      return parts.next();
+    } catch (final BatchDeserializerException e) {
+      if (responseParts.isEmpty()) {
+        throw e;
+      }
+      final ODataErrorMessage message = e.getTranslatedMessage(null);
+      final ODataServerError error = new ODataServerError()
+          .setStatusCode(HttpStatusCode.BAD_REQUEST.getStatusCode())
+          .setMessage(message.getMessage())
+          .setLocale(message.getLocale());
+      final ODataResponse errorResponse = new ODataResponse();
+      errorResponse.setStatusCode(error.getStatusCode());
+      errorResponse.setHeader(HttpHeader.CONTENT_TYPE, ContentType.JSON.toContentTypeString());
+      errorResponse.setContent(odata.createSerializer(ContentType.JSON).error(error).getContent());
+      responseParts.add(new ODataResponsePart(errorResponse, false));
+      return null;
+    }
+  }
+
   @Override
   public ODataResponsePart processChangeSet(final BatchFacade facade, final List<ODataRequest> requests)
       throws ODataApplicationException, ODataLibraryException {
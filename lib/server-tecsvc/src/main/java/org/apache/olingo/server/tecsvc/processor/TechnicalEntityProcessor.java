@@ -75,21 +75,23 @@ import org.apache.olingo.server.api.uri.UriResourceSingleton;
 import org.apache.olingo.server.api.uri.queryoption.CountOption;
 import org.apache.olingo.server.api.uri.queryoption.ExpandOption;
 import org.apache.olingo.server.api.uri.queryoption.IdOption;
+import org.apache.olingo.server.api.uri.queryoption.SearchOption;
 import org.apache.olingo.server.api.uri.queryoption.SelectOption;
 import org.apache.olingo.server.api.uri.queryoption.SystemQueryOption;
 import org.apache.olingo.server.tecsvc.async.AsyncProcessor;
 import org.apache.olingo.server.tecsvc.async.TechnicalAsyncService;
 import org.apache.olingo.server.tecsvc.data.DataProvider;
+import org.apache.olingo.server.tecsvc.data.DataProvider.DataProviderException;
 import org.apache.olingo.server.tecsvc.data.RequestValidator;
 import org.apache.olingo.server.tecsvc.processor.queryoptions.ExpandSystemQueryOptionHandler;
+import org.apache.olingo.server.tecsvc.processor.queryoptions.options.ApplyHandler;
 import org.apache.olingo.server.tecsvc.processor.queryoptions.options.CountHandler;
 import org.apache.olingo.server.tecsvc.processor.queryoptions.options.DeltaTokenHandler;
 import org.apache.olingo.server.tecsvc.processor.queryoptions.options.FilterHandler;
 import org.apache.olingo.server.tecsvc.processor.queryoptions.options.OrderByHandler;
 import org.apache.olingo.server.tecsvc.processor.queryoptions.options.SearchHandler;
 import org.apache.olingo.server.tecsvc.processor.queryoptions.options.ServerSidePagingHandler;
-import org.apache.olingo.server.tecsvc.processor.queryoptions.options.SkipHandler;
-import org.apache.olingo.server.tecsvc.processor.queryoptions.options.TopHandler;
+import org.apache.olingo.server.tecsvc.processor.queryoptions.search.SearchIndex;
 import org.apache.olingo.server.tecsvc.provider.ContainerProvider;
 
 /**
@@ -108,7 +110,7 @@ public class TechnicalEntityProcessor extends TechnicalProcessor
   @Override
   public void readEntityCollection(final ODataRequest request, final ODataResponse response, final UriInfo uriInfo,
       final ContentType requestedContentType) throws ODataApplicationException, ODataLibraryException {
-    validateOptions(uriInfo.asUriInfoResource());
+    validateCollectionOptions(uriInfo.asUriInfoResource());
 
     readEntityCollection(request, response, uriInfo, requestedContentType, false);
   }
@@ -117,12 +119,13 @@ public class TechnicalEntityProcessor extends TechnicalProcessor
   public void countEntityCollection(final ODataRequest request, final ODataResponse response,
       final UriInfo uriInfo) throws ODataApplicationException, ODataLibraryException {
     validateOptions(uriInfo.asUriInfoResource());
-    getEdmEntitySet(uriInfo); // including checks
+    final EdmEntitySet edmEntitySet = getEdmEntitySet(uriInfo); // including checks
     final EntityCollection entitySetInitial = readEntityCollection(uriInfo);
     EntityCollection entitySet = new EntityCollection();
     entitySet.getEntities().addAll(entitySetInitial.getEntities());
     FilterHandler.applyFilterSystemQuery(uriInfo.getFilterOption(), entitySet, uriInfo, serviceMetadata.getEdm());
-    SearchHandler.applySearchSystemQueryOption(uriInfo.getSearchOption(), entitySet);
+    SearchHandler.applySearchSystemQueryOption(uriInfo.getSearchOption(), entitySet,
+        getSearchIndex(uriInfo.getSearchOption(), edmEntitySet));
     int count =  entitySet.getEntities().size();
     for (SystemQueryOption systemQueryOption : uriInfo.getSystemQueryOptions()) {
       if (systemQueryOption.getName().contains(DELTATOKEN)) {
@@ -604,13 +607,19 @@ public class TechnicalEntityProcessor extends TechnicalProcessor
     entitySet.getEntities().addAll(entitySetInitial.getEntities());
     entitySet.getOperations().addAll(entitySetInitial.getOperations());
 
-    // Apply system query options.
-    SearchHandler.applySearchSystemQueryOption(uriInfo.getSearchOption(), entitySet);
+    // Apply system query options; $apply is evaluated first.
+    if (uriInfo.getApplyOption() != null) {
+      final EntityCollection applied = ApplyHandler.applyApplySystemQuery(uriInfo.getApplyOption(), entitySet,
+          uriInfo, serviceMetadata.getEdm());
+      entitySet.getEntities().clear();
+      entitySet.getEntities().addAll(applied.getEntities());
+    }
+    SearchHandler.applySearchSystemQueryOption(uriInfo.getSearchOption(), entitySet,
+        getSearchIndex(uriInfo.getSearchOption(), edmEntitySet));
     FilterHandler.applyFilterSystemQuery(uriInfo.getFilterOption(), entitySet, uriInfo, serviceMetadata.getEdm());
     CountHandler.applyCountSystemQueryOption(uriInfo.getCountOption(), entitySet);
-    OrderByHandler.applyOrderByOption(uriInfo.getOrderByOption(), entitySet, uriInfo, serviceMetadata.getEdm());
-    SkipHandler.applySkipSystemQueryHandler(uriInfo.getSkipOption(), entitySet);
-    TopHandler.applyTopSystemQueryOption(uriInfo.getTopOption(), entitySet);
+    OrderByHandler.applyOrderBySkipTopOptions(uriInfo.getOrderByOption(), uriInfo.getSkipOption(),
+        uriInfo.getTopOption(), entitySet, uriInfo, serviceMetadata.getEdm());
 
     final Integer pageSize = odata.createPreferences(request.getHeaders(HttpHeader.PREFER)).getMaxPageSize();
     final Integer serverPageSize = ServerSidePagingHandler.applyServerSidePaging(uriInfo.getSkipTokenOption(),
@@ -746,6 +755,11 @@ public class TechnicalEntityProcessor extends TechnicalProcessor
    
   }
 
+  private SearchIndex getSearchIndex(final SearchOption searchOption, final EdmEntitySet edmEntitySet)
+      throws DataProviderException {
+    return searchOption == null || edmEntitySet == null ? null : dataProvider.getSearchIndex(edmEntitySet);
+  }
+
   /**
    * Check is streaming is enabled for this entity set in combination with the given content type.
    * <code>TRUE</code> if the technical scenario supports streaming for this combination,
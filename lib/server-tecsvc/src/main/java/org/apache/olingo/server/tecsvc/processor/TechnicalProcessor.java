@@ -48,6 +48,9 @@ import org.apache.olingo.server.api.uri.UriResourceEntitySet;
 import org.apache.olingo.server.api.uri.UriResourceFunction;
 import org.apache.olingo.server.api.uri.UriResourceNavigation;
 import org.apache.olingo.server.api.uri.UriResourceSingleton;
+import org.apache.olingo.server.api.uri.queryoption.ApplyItem;
+import org.apache.olingo.server.api.uri.queryoption.ApplyOption;
+import org.apache.olingo.server.api.uri.queryoption.apply.Concat;
 import org.apache.olingo.server.api.uri.queryoption.expression.Binary;
 import org.apache.olingo.server.api.uri.queryoption.expression.Member;
 import org.apache.olingo.server.tecsvc.data.DataProvider;
@@ -342,6 +345,40 @@ public abstract class TechnicalProcessor implements Processor {
     }
   }
 
+  /**
+   * Validates the options of a request for an entity collection.
+   * The option $apply is supported as long as its result still consists of entities of the requested type,
+   * i.e., only with the transformations filter, identity, topcount, bottomcount, topsum, bottomsum,
+   * toppercent, bottompercent, and concat of these.
+   */
+  protected void validateCollectionOptions(final UriInfoResource uriInfo) throws ODataApplicationException {
+    if (uriInfo.getApplyOption() != null && !keepsEntityStructure(uriInfo.getApplyOption())) {
+      throw new ODataApplicationException("Not all of the specified options are supported.",
+          HttpStatusCode.NOT_IMPLEMENTED.getStatusCode(), Locale.ROOT);
+    }
+  }
+
+  private boolean keepsEntityStructure(final ApplyOption applyOption) {
+    for (final ApplyItem item : applyOption.getApplyItems()) {
+      switch (item.getKind()) {
+      case IDENTITY:
+      case FILTER:
+      case BOTTOM_TOP:
+        break;
+      case CONCAT:
+        for (final ApplyOption option : ((Concat) item).getApplyOptions()) {
+          if (!keepsEntityStructure(option)) {
+            return false;
+          }
+        }
+        break;
+      default:
+        return false;
+      }
+    }
+    return true;
+  }
+
   protected void blockBoundActions(final UriInfo uriInfo) throws ODataApplicationException {
     final List<UriResource> uriResourceParts = uriInfo.asUriInfoResource().getUriResourceParts();
     if (uriResourceParts.size() > 1
@@ -0,0 +1,411 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.tecsvc.processor.queryoptions.expression;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.commons.api.data.Property;
+import org.apache.olingo.commons.api.edm.Edm;
+import org.apache.olingo.commons.api.edm.EdmPrimitiveType;
+import org.apache.olingo.commons.api.edm.EdmPrimitiveTypeKind;
+import org.apache.olingo.commons.api.edm.EdmProperty;
+import org.apache.olingo.commons.api.edm.EdmType;
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.server.api.OData;
+import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.uri.UriInfoResource;
+import org.apache.olingo.server.api.uri.UriResource;
+import org.apache.olingo.server.api.uri.UriResourceKind;
+import org.apache.olingo.server.api.uri.UriResourceProperty;
+import org.apache.olingo.server.api.uri.queryoption.expression.Binary;
+import org.apache.olingo.server.api.uri.queryoption.expression.BinaryOperatorKind;
+import org.apache.olingo.server.api.uri.queryoption.expression.Expression;
+import org.apache.olingo.server.api.uri.queryoption.expression.ExpressionVisitException;
+import org.apache.olingo.server.api.uri.queryoption.expression.Literal;
+import org.apache.olingo.server.api.uri.queryoption.expression.Member;
+import org.apache.olingo.server.api.uri.queryoption.expression.Unary;
+import org.apache.olingo.server.api.uri.queryoption.expression.UnaryOperatorKind;
+import org.apache.olingo.server.tecsvc.processor.queryoptions.expression.operand.TypedOperand;
+import org.apache.olingo.server.tecsvc.processor.queryoptions.expression.operand.UntypedOperand;
+import org.apache.olingo.server.tecsvc.processor.queryoptions.expression.operand.VisitorOperand;
+import org.apache.olingo.server.tecsvc.processor.queryoptions.expression.primitive.EdmNull;
+
+/**
+ * Compiles a filter expression once into a {@link CompiledFilter} that can be applied to many entities.
+ * <p>Logical operators and comparisons of a primitive property with a literal are compiled
+ * into nodes with resolved property paths, converted literals, and comparisons specialized
+ * for integer, decimal, string, and boolean values.
+ * All other sub-expressions are evaluated per entity with the {@link ExpressionVisitorImpl},
+ * so the results are the same as those of the visitor.</p>
+ */
+public final class FilterCompiler {
+
+  private static final OData ODATA = OData.newInstance();
+  private static final EdmPrimitiveType PRIM_BOOLEAN = type(EdmPrimitiveTypeKind.Boolean);
+  private static final EdmPrimitiveType PRIM_STRING = type(EdmPrimitiveTypeKind.String);
+  private static final Set<EdmType> INTEGER_TYPES = new HashSet<EdmType>(Arrays.<EdmType> asList(
+      type(EdmPrimitiveTypeKind.SByte), type(EdmPrimitiveTypeKind.Byte), type(EdmPrimitiveTypeKind.Int16),
+      type(EdmPrimitiveTypeKind.Int32), type(EdmPrimitiveTypeKind.Int64)));
+  private static final Set<EdmType> DECIMAL_TYPES = new HashSet<EdmType>(Arrays.<EdmType> asList(
+      type(EdmPrimitiveTypeKind.Single), type(EdmPrimitiveTypeKind.Double), type(EdmPrimitiveTypeKind.Decimal)));
+
+  private FilterCompiler() {
+    // Private constructor for utility classes.
+  }
+
+  /**
+   * Compiles a filter expression.
+   * @param expression the expression of the filter option
+   * @param uriInfo the URI info, used for aliases and functions
+   * @param edm the EDM
+   * @return the compiled filter
+   */
+  public static CompiledFilter compile(final Expression expression, final UriInfoResource uriInfo, final Edm edm) {
+    final BooleanNode node = compileBoolean(expression, uriInfo, edm);
+    return new CompiledFilter() {
+      @Override
+      public boolean matches(final Entity entity) throws ODataApplicationException {
+        return !Boolean.FALSE.equals(node.evaluate(entity));
+      }
+    };
+  }
+
+  private static BooleanNode compileBoolean(final Expression expression, final UriInfoResource uriInfo,
+      final Edm edm) {
+    if (expression instanceof Binary) {
+      final Binary binary = (Binary) expression;
+      final BinaryOperatorKind operator = binary.getOperator();
+      if (operator == BinaryOperatorKind.AND || operator == BinaryOperatorKind.OR) {
+        return new LogicalNode(operator == BinaryOperatorKind.AND,
+            compileBoolean(binary.getLeftOperand(), uriInfo, edm),
+            compileBoolean(binary.getRightOperand(), uriInfo, edm));
+      }
+      final BooleanNode comparison = compileComparison(binary);
+      if (comparison != null) {
+        return comparison;
+      }
+    } else if (expression instanceof Unary && ((Unary) expression).getOperator() == UnaryOperatorKind.NOT) {
+      return new NotNode(compileBoolean(((Unary) expression).getOperand(), uriInfo, edm));
+    }
+    return new VisitorNode(expression, uriInfo, edm);
+  }
+
+  /** Compiles a comparison of a primitive property with a literal, or returns <code>null</code>. */
+  private static BooleanNode compileComparison(final Binary binary) {
+    final Comparison comparison = Comparison.of(binary.getOperator());
+    if (comparison == null) {
+      return null;
+    }
+    final Expression left = binary.getLeftOperand();
+    final Expression right = binary.getRightOperand();
+    if (left instanceof Member && right instanceof Literal) {
+      return compileComparison(comparison, (Member) left, (Literal) right);
+    } else if (left instanceof Literal && right instanceof Member) {
+      return compileComparison(comparison.reverse(), (Member) right, (Literal) left);
+    }
+    return null;
+  }
+
+  private static BooleanNode compileComparison(final Comparison comparison, final Member member,
+      final Literal literal) {
+    final PropertyPath path = PropertyPath.of(member);
+    if (path == null) {
+      return null;
+    }
+    final TypedOperand value;
+    try {
+      value = new UntypedOperand(literal.getText()).asTypedOperand();
+    } catch (final ODataApplicationException e) {
+      // The visitor reports the error for each entity.
+      return null;
+    }
+    final EdmType propertyType = path.getType();
+    final EdmType literalType = value.getType();
+    if (literalType == EdmNull.getInstance()) {
+      return new ComparisonNode(comparison, path, ValueKind.NULL, null);
+    } else if (INTEGER_TYPES.contains(propertyType) && INTEGER_TYPES.contains(literalType)) {
+      final BigInteger integer = value.getTypedValue(BigInteger.class);
+      return integer.bitLength() < Long.SIZE ?
+          new ComparisonNode(comparison, path, ValueKind.INTEGER, integer.longValue()) :
+          null;
+    } else if (DECIMAL_TYPES.contains(propertyType)
+        && (INTEGER_TYPES.contains(literalType) || DECIMAL_TYPES.contains(literalType))) {
+      return new ComparisonNode(comparison, path, ValueKind.DECIMAL, new BigDecimal(value.getValue().toString()));
+    } else if (propertyType == PRIM_STRING && literalType == PRIM_STRING
+        || propertyType == PRIM_BOOLEAN && literalType == PRIM_BOOLEAN) {
+      return new ComparisonNode(comparison, path, ValueKind.COMPARABLE, value.getValue());
+    }
+    return null;
+  }
+
+  private static EdmPrimitiveType type(final EdmPrimitiveTypeKind kind) {
+    return ODATA.createPrimitiveTypeInstance(kind);
+  }
+
+  /** Node of a compiled expression with a Boolean result; <code>null</code> stands for the null value. */
+  private abstract static class BooleanNode {
+    abstract Boolean evaluate(Entity entity) throws ODataApplicationException;
+  }
+
+  private static final class LogicalNode extends BooleanNode {
+    private final boolean and;
+    private final BooleanNode left;
+    private final BooleanNode right;
+
+    LogicalNode(final boolean and, final BooleanNode left, final BooleanNode right) {
+      this.and = and;
+      this.left = left;
+      this.right = right;
+    }
+
+    @Override
+    Boolean evaluate(final Entity entity) throws ODataApplicationException {
+      // The decisive value makes the evaluation of the other operand unnecessary.
+      final Boolean decisive = Boolean.valueOf(!and);
+      final Boolean leftValue = left.evaluate(entity);
+      if (decisive.equals(leftValue)) {
+        return decisive;
+      }
+      final Boolean rightValue = right.evaluate(entity);
+      if (decisive.equals(rightValue)) {
+        return decisive;
+      }
+      return leftValue == null || rightValue == null ? null : Boolean.valueOf(and);
+    }
+  }
+
+  private static final class NotNode extends BooleanNode {
+    private final BooleanNode operand;
+
+    NotNode(final BooleanNode operand) {
+      this.operand = operand;
+    }
+
+    @Override
+    Boolean evaluate(final Entity entity) throws ODataApplicationException {
+      final Boolean value = operand.evaluate(entity);
+      return value == null ? null : Boolean.valueOf(!value);
+    }
+  }
+
+  /** Evaluates a sub-expression with the visitor. */
+  private static final class VisitorNode extends BooleanNode {
+    private final Expression expression;
+    private final UriInfoResource uriInfo;
+    private final Edm edm;
+
+    VisitorNode(final Expression expression, final UriInfoResource uriInfo, final Edm edm) {
+      this.expression = expression;
+      this.uriInfo = uriInfo;
+      this.edm = edm;
+    }
+
+    @Override
+    Boolean evaluate(final Entity entity) throws ODataApplicationException {
+      try {
+        final VisitorOperand operand = expression.accept(new ExpressionVisitorImpl(entity, uriInfo, edm));
+        final TypedOperand typedOperand = operand.asTypedOperand();
+        if (typedOperand.is(PRIM_BOOLEAN)) {
+          return typedOperand.getTypedValue(Boolean.class);
+        }
+        throw new ODataApplicationException(
+            "Invalid filter expression. Filter expressions must return a value of type Edm.Boolean",
+            HttpStatusCode.BAD_REQUEST.getStatusCode(), Locale.ROOT);
+      } catch (final ExpressionVisitException e) {
+        throw new ODataApplicationException("Exception in filter evaluation",
+            HttpStatusCode.INTERNAL_SERVER_ERROR.getStatusCode(), Locale.ROOT);
+      }
+    }
+  }
+
+  private enum ValueKind {
+    NULL, INTEGER, DECIMAL, COMPARABLE
+  }
+
+  private enum Comparison {
+    EQ, NE, LT, LE, GT, GE;
+
+    static Comparison of(final BinaryOperatorKind operator) {
+      switch (operator) {
+      case EQ:
+        return EQ;
+      case NE:
+        return NE;
+      case LT:
+        return LT;
+      case LE:
+        return LE;
+      case GT:
+        return GT;
+      case GE:
+        return GE;
+      default:
+        return null;
+      }
+    }
+
+    /** The comparison with swapped operands. */
+    Comparison reverse() {
+      switch (this) {
+      case LT:
+        return GT;
+      case LE:
+        return GE;
+      case GT:
+        return LT;
+      case GE:
+        return LE;
+      default:
+        return this;
+      }
+    }
+
+    boolean matches(final int result) {
+      switch (this) {
+      case EQ:
+        return result == 0;
+      case NE:
+        return result != 0;
+      case LT:
+        return result < 0;
+      case LE:
+        return result <= 0;
+      case GT:
+        return result > 0;
+      default:
+        return result >= 0;
+      }
+    }
+  }
+
+  /**
+   * Comparison of a property value with a converted literal.
+   * As in the visitor, a null value is equal only to null, and not less or greater than anything.
+   */
+  private static final class ComparisonNode extends BooleanNode {
+    private final Comparison comparison;
+    private final PropertyPath path;
+    private final ValueKind kind;
+    private final long integer;
+    private final Object value;
+
+    ComparisonNode(final Comparison comparison, final PropertyPath path, final ValueKind kind,
+        final Object value) {
+      this.comparison = comparison;
+      this.path = path;
+      this.kind = kind;
+      integer = kind == ValueKind.INTEGER ? (Long) value : 0;
+      this.value = value;
+    }
+
+    @Override
+    Boolean evaluate(final Entity entity) throws ODataApplicationException {
+      final Object propertyValue = path.getValue(entity);
+      if (propertyValue == null || kind == ValueKind.NULL) {
+        final boolean bothNull = propertyValue == null && kind == ValueKind.NULL;
+        return Boolean.valueOf(bothNull ? comparison.matches(0) : comparison == Comparison.NE);
+      }
+      return Boolean.valueOf(comparison.matches(compare(propertyValue)));
+    }
+
+    @SuppressWarnings("unchecked")
+    private int compare(final Object propertyValue) throws ODataApplicationException {
+      switch (kind) {
+      case INTEGER:
+        final long number = ((Number) propertyValue).longValue();
+        return number < integer ? -1 : number == integer ? 0 : 1;
+      case DECIMAL:
+        try {
+          return (propertyValue instanceof BigDecimal ?
+              (BigDecimal) propertyValue :
+              new BigDecimal(propertyValue.toString())).compareTo((BigDecimal) value);
+        } catch (final NumberFormatException e) {
+          throw new ODataApplicationException("Cast failed", HttpStatusCode.BAD_REQUEST.getStatusCode(),
+              Locale.ROOT);
+        }
+      default:
+        return propertyValue.getClass() == value.getClass() ?
+            ((Comparable<Object>) propertyValue).compareTo(value) :
+            propertyValue.equals(value) ? 0 : 1;
+      }
+    }
+  }
+
+  /** Path of property names from the entity to a single primitive property, possibly within complex properties. */
+  private static final class PropertyPath {
+    private final String[] names;
+    private final EdmType type;
+
+    private PropertyPath(final String[] names, final EdmType type) {
+      this.names = names;
+      this.type = type;
+    }
+
+    /** Resolves the path of a member expression, or returns <code>null</code> if it is not a simple path. */
+    static PropertyPath of(final Member member) {
+      if (member.getStartTypeFilter() != null || member.isCollection()) {
+        return null;
+      }
+      final List<UriResource> parts = member.getResourcePath().getUriResourceParts();
+      final String[] names = new String[parts.size()];
+      EdmProperty property = null;
+      for (int index = 0; index < parts.size(); index++) {
+        final UriResource part = parts.get(index);
+        final boolean last = index == parts.size() - 1;
+        if (part.getKind() != (last ? UriResourceKind.primitiveProperty : UriResourceKind.complexProperty)) {
+          return null;
+        }
+        property = ((UriResourceProperty) part).getProperty();
+        if (property.isCollection()) {
+          return null;
+        }
+        names[index] = property.getName();
+      }
+      return property == null ? null : new PropertyPath(names, property.getType());
+    }
+
+    EdmType getType() {
+      return type;
+    }
+
+    Object getValue(final Entity entity) {
+      Property property = entity.getProperty(names[0]);
+      for (int index = 1; index < names.length && property != null; index++) {
+        property = findProperty(property.asComplex().getValue(), names[index]);
+      }
+      return property == null ? null : property.getValue();
+    }
+
+    private static Property findProperty(final List<Property> properties, final String name) {
+      for (final Property property : properties) {
+        if (property.getName().equals(name)) {
+          return property;
+        }
+      }
+      return null;
+    }
+  }
+}
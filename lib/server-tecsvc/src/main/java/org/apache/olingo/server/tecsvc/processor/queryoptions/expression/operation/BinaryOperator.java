@@ -198,7 +198,8 @@ public class BinaryOperator {
         result = left.getTypedValue(BigDecimal.class).compareTo(right.getTypedValue(BigDecimal.class));
       } else if(left.getValue().getClass() == right.getValue().getClass()
           && left.getValue() instanceof Comparable<?>) {
-        result = ((Comparable<Object>) left.getValue()).compareTo(right.getValue());
+        // Only the sign of the result is specified, e.g., for strings.
+        result = Integer.signum(((Comparable<Object>) left.getValue()).compareTo(right.getValue()));
       } else {
         result = left.getValue().equals(right.getValue()) ? 0 : 1;
       }
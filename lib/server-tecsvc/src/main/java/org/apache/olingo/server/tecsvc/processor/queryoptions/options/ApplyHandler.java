@@ -0,0 +1,1009 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.tecsvc.processor.queryoptions.options;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+import org.apache.olingo.commons.api.data.AbstractEntityCollection;
+import org.apache.olingo.commons.api.data.ComplexValue;
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.commons.api.data.EntityCollection;
+import org.apache.olingo.commons.api.data.Property;
+import org.apache.olingo.commons.api.data.ValueType;
+import org.apache.olingo.commons.api.edm.Edm;
+import org.apache.olingo.commons.api.edm.EdmProperty;
+import org.apache.olingo.commons.api.edm.EdmType;
+import org.apache.olingo.commons.api.edm.constants.EdmTypeKind;
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.uri.UriInfoResource;
+import org.apache.olingo.server.api.uri.UriResource;
+import org.apache.olingo.server.api.uri.UriResourceKind;
+import org.apache.olingo.server.api.uri.UriResourceProperty;
+import org.apache.olingo.server.api.uri.queryoption.ApplyItem;
+import org.apache.olingo.server.api.uri.queryoption.ApplyOption;
+import org.apache.olingo.server.api.uri.queryoption.apply.Aggregate;
+import org.apache.olingo.server.api.uri.queryoption.apply.AggregateExpression;
+import org.apache.olingo.server.api.uri.queryoption.apply.AggregateExpression.StandardMethod;
+import org.apache.olingo.server.api.uri.queryoption.apply.BottomTop;
+import org.apache.olingo.server.api.uri.queryoption.apply.Compute;
+import org.apache.olingo.server.api.uri.queryoption.apply.ComputeExpression;
+import org.apache.olingo.server.api.uri.queryoption.apply.Concat;
+import org.apache.olingo.server.api.uri.queryoption.apply.Filter;
+import org.apache.olingo.server.api.uri.queryoption.apply.GroupBy;
+import org.apache.olingo.server.api.uri.queryoption.apply.GroupByItem;
+import org.apache.olingo.server.api.uri.queryoption.expression.Expression;
+import org.apache.olingo.server.api.uri.queryoption.expression.ExpressionVisitException;
+import org.apache.olingo.server.api.uri.queryoption.expression.Member;
+import org.apache.olingo.server.tecsvc.processor.queryoptions.expression.CompiledFilter;
+import org.apache.olingo.server.tecsvc.processor.queryoptions.expression.ExpressionVisitorImpl;
+import org.apache.olingo.server.tecsvc.processor.queryoptions.expression.FilterCompiler;
+import org.apache.olingo.server.tecsvc.processor.queryoptions.expression.operand.TypedOperand;
+
+/**
+ * Evaluates the system query option $apply.
+ * <p>The transformations are compiled once into a pipeline through which the entities are pushed one by one,
+ * so an {@link org.apache.olingo.commons.api.data.EntityIterator EntityIterator} is consumed in a single pass.
+ * Only stages that need all of their input keep it: groupby keeps one nested pipeline per group,
+ * topcount and bottomcount keep the requested number of entities, and topsum, toppercent, bottomsum,
+ * and bottompercent keep their whole input.</p>
+ * <p>Custom aggregates, custom aggregation methods, aggregation along navigation paths, rollup,
+ * search, expand, and custom functions are not supported.</p>
+ * <p>This class is part of the technical service and not a public API of the library;
+ * it may change incompatibly at any time.</p>
+ */
+public class ApplyHandler {
+
+  private static final String DECIMAL_TYPE_NAME = "Edm.Decimal";
+  private static final String DOUBLE_TYPE_NAME = "Edm.Double";
+  private static final String INT64_TYPE_NAME = "Edm.Int64";
+
+  /**
+   * Applies the $apply option to the entities.
+   * @param applyOption the $apply option, may be <code>null</code>
+   * @param entities the entities, either a collection or an iterator
+   * @param uriInfo the URI info, used for aliases and functions
+   * @param edm the EDM
+   * @return a new collection with the result of the transformations
+   */
+  public static EntityCollection applyApplySystemQuery(final ApplyOption applyOption,
+      final AbstractEntityCollection entities, final UriInfoResource uriInfo, final Edm edm)
+      throws ODataApplicationException {
+    final List<Transformation> transformations = applyOption == null ?
+        Collections.<Transformation> emptyList() :
+        compile(applyOption, uriInfo, edm);
+    final EntityCollection result = new EntityCollection();
+    final Stage stage = open(transformations, new Collector(result.getEntities()));
+    for (final Entity entity : entities) {
+      stage.accept(entity);
+    }
+    stage.end();
+    return result;
+  }
+
+  private static List<Transformation> compile(final ApplyOption applyOption, final UriInfoResource uriInfo,
+      final Edm edm) throws ODataApplicationException {
+    List<Transformation> transformations = new ArrayList<Transformation>();
+    for (final ApplyItem item : applyOption.getApplyItems()) {
+      switch (item.getKind()) {
+      case IDENTITY:
+        break;
+      case FILTER:
+        transformations.add(new FilterTransformation(FilterCompiler.compile(
+            ((Filter) item).getFilterOption().getExpression(), uriInfo, edm)));
+        break;
+      case COMPUTE:
+        transformations.add(new ComputeTransformation((Compute) item, uriInfo, edm));
+        break;
+      case AGGREGATE:
+        transformations.add(new AggregateTransformation((Aggregate) item, uriInfo, edm));
+        break;
+      case GROUP_BY:
+        transformations.add(new GroupByTransformation((GroupBy) item, uriInfo, edm));
+        break;
+      case BOTTOM_TOP:
+        transformations.add(compileBottomTop((BottomTop) item, uriInfo, edm));
+        break;
+      case CONCAT:
+        transformations.add(new ConcatTransformation((Concat) item, uriInfo, edm));
+        break;
+      default:
+        throw notImplemented("The transformation '" + item.getKind() + "' is not supported.");
+      }
+    }
+    return transformations;
+  }
+
+  private static Transformation compileBottomTop(final BottomTop bottomTop, final UriInfoResource uriInfo,
+      final Edm edm) throws ODataApplicationException {
+    final Object number = new VisitorValue(bottomTop.getNumber(), uriInfo, edm).getValue(null);
+    if (!(number instanceof Number) || ((Number) number).doubleValue() < 0) {
+      throw new ODataApplicationException("The first parameter of '" + bottomTop.getMethod()
+          + "' must be a non-negative number.", HttpStatusCode.BAD_REQUEST.getStatusCode(), Locale.ROOT);
+    }
+    final ValueSource value = ValueSource.of(bottomTop.getValue(), uriInfo, edm);
+    switch (bottomTop.getMethod()) {
+    case TOP_COUNT:
+      return new CountRankTransformation(true, ((Number) number).intValue(), value);
+    case BOTTOM_COUNT:
+      return new CountRankTransformation(false, ((Number) number).intValue(), value);
+    case TOP_SUM:
+      return new SumRankTransformation(true, toBigDecimal(number), false, value);
+    case BOTTOM_SUM:
+      return new SumRankTransformation(false, toBigDecimal(number), false, value);
+    case TOP_PERCENT:
+      return new SumRankTransformation(true, toBigDecimal(number), true, value);
+    default:
+      return new SumRankTransformation(false, toBigDecimal(number), true, value);
+    }
+  }
+
+  /** Opens the stages of the transformations in front of the given downstream stage. */
+  private static Stage open(final List<Transformation> transformations, final Stage downstream) {
+    Stage stage = downstream;
+    for (int index = transformations.size() - 1; index >= 0; index--) {
+      stage = transformations.get(index).open(stage);
+    }
+    return stage;
+  }
+
+  private static ODataApplicationException notImplemented(final String message) {
+    return new ODataApplicationException(message, HttpStatusCode.NOT_IMPLEMENTED.getStatusCode(), Locale.ROOT);
+  }
+
+  private static String getTypeName(final EdmType type) {
+    return type == null ? null : type.getFullQualifiedName().getFullQualifiedNameAsString();
+  }
+
+  private static boolean isIntegral(final Object value) {
+    return value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte;
+  }
+
+  private static BigDecimal toBigDecimal(final Object value) {
+    return value instanceof BigDecimal ? (BigDecimal) value :
+        value instanceof BigInteger ? new BigDecimal((BigInteger) value) :
+        isIntegral(value) ? BigDecimal.valueOf(((Number) value).longValue()) :
+        BigDecimal.valueOf(((Number) value).doubleValue());
+  }
+
+  /** Compares two non-null values; numbers of different types are compared by their numeric values. */
+  @SuppressWarnings("unchecked")
+  private static int compareValues(final Object value1, final Object value2) throws ODataApplicationException {
+    if (value1 instanceof Number && value2 instanceof Number) {
+      if (isIntegral(value1) && isIntegral(value2)) {
+        final long long1 = ((Number) value1).longValue();
+        final long long2 = ((Number) value2).longValue();
+        return long1 < long2 ? -1 : long1 == long2 ? 0 : 1;
+      } else if (value1 instanceof BigDecimal || value1 instanceof BigInteger
+          || value2 instanceof BigDecimal || value2 instanceof BigInteger) {
+        return toBigDecimal(value1).compareTo(toBigDecimal(value2));
+      } else {
+        return Double.compare(((Number) value1).doubleValue(), ((Number) value2).doubleValue());
+      }
+    } else if (value1 instanceof Comparable && value1.getClass() == value2.getClass()) {
+      return ((Comparable<Object>) value1).compareTo(value2);
+    }
+    throw new ODataApplicationException("The values '" + value1 + "' and '" + value2 + "' are not comparable.",
+        HttpStatusCode.BAD_REQUEST.getStatusCode(), Locale.ROOT);
+  }
+
+  /** Creates a copy of the entity that shares the properties and links of the original. */
+  private static Entity copy(final Entity entity) {
+    Entity copy = new Entity();
+    copy.setType(entity.getType());
+    copy.setId(entity.getId());
+    copy.getProperties().addAll(entity.getProperties());
+    copy.getNavigationLinks().addAll(entity.getNavigationLinks());
+    return copy;
+  }
+
+  /** Compiled transformation; it can be opened several times, e.g., once for each group. */
+  private abstract static class Transformation {
+    abstract Stage open(Stage downstream);
+  }
+
+  /** Stage of an opened pipeline; the entities are pushed into it and the end of the input is signaled. */
+  private abstract static class Stage {
+    abstract void accept(Entity entity) throws ODataApplicationException;
+
+    abstract void end() throws ODataApplicationException;
+  }
+
+  private static final class Collector extends Stage {
+    private final List<Entity> entities;
+
+    Collector(final List<Entity> entities) {
+      this.entities = entities;
+    }
+
+    @Override
+    void accept(final Entity entity) {
+      entities.add(entity);
+    }
+
+    @Override
+    void end() {
+      // Nothing to do.
+    }
+  }
+
+  /** Source of a value of an entity. */
+  private abstract static class ValueSource {
+    abstract Object getValue(Entity entity) throws ODataApplicationException;
+
+    /** The type of the values, possibly known only after a non-null value has been read. */
+    abstract EdmType getType();
+
+    static ValueSource of(final Expression expression, final UriInfoResource uriInfo, final Edm edm) {
+      final PathValue path = expression instanceof Member && ((Member) expression).getStartTypeFilter() == null
+          && !((Member) expression).isCollection() ?
+          PathValue.of(((Member) expression).getResourcePath().getUriResourceParts()) :
+          null;
+      return path == null ? new VisitorValue(expression, uriInfo, edm) : path;
+    }
+  }
+
+  /** Value of a single primitive property, possibly within complex properties, resolved once. */
+  private static final class PathValue extends ValueSource {
+    private final String[] names;
+    private final EdmProperty[] properties;
+
+    private PathValue(final String[] names, final EdmProperty[] properties) {
+      this.names = names;
+      this.properties = properties;
+    }
+
+    /** Resolves the path, or returns <code>null</code> if it is not a path to a single primitive property. */
+    static PathValue of(final List<UriResource> parts) {
+      if (parts.isEmpty()) {
+        return null;
+      }
+      final String[] names = new String[parts.size()];
+      final EdmProperty[] properties = new EdmProperty[parts.size()];
+      for (int index = 0; index < parts.size(); index++) {
+        final UriResource part = parts.get(index);
+        final boolean last = index == parts.size() - 1;
+        if (part.getKind() != (last ? UriResourceKind.primitiveProperty : UriResourceKind.complexProperty)
+            || ((UriResourceProperty) part).getProperty().isCollection()) {
+          return null;
+        }
+        properties[index] = ((UriResourceProperty) part).getProperty();
+        names[index] = properties[index].getName();
+      }
+      return new PathValue(names, properties);
+    }
+
+    @Override
+    Object getValue(final Entity entity) {
+      Property property = entity.getProperty(names[0]);
+      for (int index = 1; index < names.length && property != null; index++) {
+        property = findProperty(property.asComplex().getValue(), names[index]);
+      }
+      return property == null ? null : property.getValue();
+    }
+
+    @Override
+    EdmType getType() {
+      return properties[properties.length - 1].getType();
+    }
+
+    /** Sets the value in a list of properties, creating the complex properties along the path if needed. */
+    void setValue(final List<Property> target, final Object value) {
+      List<Property> current = target;
+      for (int index = 0; index < names.length - 1; index++) {
+        Property property = findProperty(current, names[index]);
+        if (property == null) {
+          property = new Property(getTypeName(properties[index].getType()), names[index], ValueType.COMPLEX,
+              new ComplexValue());
+          current.add(property);
+        }
+        current = property.asComplex().getValue();
+      }
+      final EdmType type = getType();
+      current.add(new Property(getTypeName(type), names[names.length - 1],
+          type != null && type.getKind() == EdmTypeKind.ENUM ? ValueType.ENUM : ValueType.PRIMITIVE, value));
+    }
+
+    private static Property findProperty(final List<Property> properties, final String name) {
+      for (final Property property : properties) {
+        if (property.getName().equals(name)) {
+          return property;
+        }
+      }
+      return null;
+    }
+  }
+
+  /** Value of an arbitrary expression, evaluated with the {@link ExpressionVisitorImpl}. */
+  private static final class VisitorValue extends ValueSource {
+    private final Expression expression;
+    private final UriInfoResource uriInfo;
+    private final Edm edm;
+    private EdmType type;
+
+    VisitorValue(final Expression expression, final UriInfoResource uriInfo, final Edm edm) {
+      this.expression = expression;
+      this.uriInfo = uriInfo;
+      this.edm = edm;
+    }
+
+    @Override
+    Object getValue(final Entity entity) throws ODataApplicationException {
+      try {
+        final TypedOperand operand =
+            expression.accept(new ExpressionVisitorImpl(entity, uriInfo, edm)).asTypedOperand();
+        if (operand.isNull()) {
+          return null;
+        }
+        type = operand.getType();
+        return operand.getValue();
+      } catch (final ExpressionVisitException e) {
+        throw new ODataApplicationException("Exception in apply evaluation",
+            HttpStatusCode.INTERNAL_SERVER_ERROR.getStatusCode(), Locale.ROOT);
+      }
+    }
+
+    @Override
+    EdmType getType() {
+      return type;
+    }
+  }
+
+  private static final class FilterTransformation extends Transformation {
+    private final CompiledFilter filter;
+
+    FilterTransformation(final CompiledFilter filter) {
+      this.filter = filter;
+    }
+
+    @Override
+    Stage open(final Stage downstream) {
+      return new Stage() {
+        @Override
+        void accept(final Entity entity) throws ODataApplicationException {
+          if (filter.matches(entity)) {
+            downstream.accept(entity);
+          }
+        }
+
+        @Override
+        void end() throws ODataApplicationException {
+          downstream.end();
+        }
+      };
+    }
+  }
+
+  /** Adds the computed properties to a copy of each entity. */
+  private static final class ComputeTransformation extends Transformation {
+    private final String[] aliases;
+    private final ValueSource[] values;
+
+    ComputeTransformation(final Compute compute, final UriInfoResource uriInfo, final Edm edm) {
+      final List<ComputeExpression> expressions = compute.getExpressions();
+      aliases = new String[expressions.size()];
+      values = new ValueSource[expressions.size()];
+      for (int index = 0; index < expressions.size(); index++) {
+        aliases[index] = expressions.get(index).getAlias();
+        values[index] = ValueSource.of(expressions.get(index).getExpression(), uriInfo, edm);
+      }
+    }
+
+    @Override
+    Stage open(final Stage downstream) {
+      return new Stage() {
+        @Override
+        void accept(final Entity entity) throws ODataApplicationException {
+          // All expressions are evaluated on the input entity, so they cannot refer to each other.
+          final Object[] results = new Object[values.length];
+          for (int index = 0; index < values.length; index++) {
+            results[index] = values[index].getValue(entity);
+          }
+          Entity result = copy(entity);
+          for (int index = 0; index < values.length; index++) {
+            result.addProperty(new Property(results[index] == null ? null : getTypeName(values[index].getType()),
+                aliases[index], ValueType.PRIMITIVE, results[index]));
+          }
+          downstream.accept(result);
+        }
+
+        @Override
+        void end() throws ODataApplicationException {
+          downstream.end();
+        }
+      };
+    }
+  }
+
+  /** Aggregates all entities into a single entity with one property per aggregate expression. */
+  private static final class AggregateTransformation extends Transformation {
+    private final List<AggregateItem> items = new ArrayList<AggregateItem>();
+
+    AggregateTransformation(final Aggregate aggregate, final UriInfoResource uriInfo, final Edm edm)
+        throws ODataApplicationException {
+      for (final AggregateExpression expression : aggregate.getExpressions()) {
+        items.add(new AggregateItem(expression, uriInfo, edm));
+      }
+    }
+
+    @Override
+    Stage open(final Stage downstream) {
+      final Accumulator[] accumulators = new Accumulator[items.size()];
+      for (int index = 0; index < accumulators.length; index++) {
+        accumulators[index] = items.get(index).createAccumulator();
+      }
+      return new Stage() {
+        @Override
+        void accept(final Entity entity) throws ODataApplicationException {
+          for (int index = 0; index < accumulators.length; index++) {
+            final ValueSource value = items.get(index).value;
+            accumulators[index].add(value == null ? null : value.getValue(entity));
+          }
+        }
+
+        @Override
+        void end() throws ODataApplicationException {
+          Entity result = new Entity();
+          for (int index = 0; index < accumulators.length; index++) {
+            final AggregateItem item = items.get(index);
+            final Object value = accumulators[index].getResult();
+            result.addProperty(new Property(value == null ? null : item.getTypeName(value), item.alias,
+                ValueType.PRIMITIVE, value));
+          }
+          downstream.accept(result);
+          downstream.end();
+        }
+      };
+    }
+  }
+
+  private static final class AggregateItem {
+    private final String alias;
+    /** The aggregated value, or <code>null</code> for the virtual property $count. */
+    private final ValueSource value;
+    private final StandardMethod method;
+
+    AggregateItem(final AggregateExpression expression, final UriInfoResource uriInfo, final Edm edm)
+        throws ODataApplicationException {
+      alias = expression.getAlias();
+      if (expression.getExpression() != null && expression.getStandardMethod() != null
+          && expression.getFrom().isEmpty()) {
+        value = ValueSource.of(expression.getExpression(), uriInfo, edm);
+        method = expression.getStandardMethod();
+      } else if (expression.getExpression() == null && expression.getInlineAggregateExpression() == null
+          && !expression.getPath().isEmpty()
+          && expression.getPath().get(expression.getPath().size() - 1).getKind() == UriResourceKind.count) {
+        value = null;
+        method = null;
+      } else {
+        throw notImplemented("Only standard aggregation methods and $count are supported.");
+      }
+    }
+
+    Accumulator createAccumulator() {
+      if (method == null) {
+        return new CountAccumulator();
+      }
+      switch (method) {
+      case SUM:
+        return new SumAccumulator(false);
+      case AVERAGE:
+        return new SumAccumulator(true);
+      case MIN:
+        return new MinMaxAccumulator(false);
+      case MAX:
+        return new MinMaxAccumulator(true);
+      default:
+        return new CountDistinctAccumulator();
+      }
+    }
+
+    /**
+     * Gets the type of the aggregated value: minimum and maximum have the type of the aggregated property;
+     * counts and integral sums are Int64, floating-point sums and averages Double, all other results Decimal.
+     */
+    String getTypeName(final Object result) {
+      if (method == StandardMethod.MIN || method == StandardMethod.MAX) {
+        return ApplyHandler.getTypeName(value.getType());
+      } else if (result instanceof Long) {
+        return INT64_TYPE_NAME;
+      } else if (result instanceof Double) {
+        return DOUBLE_TYPE_NAME;
+      } else {
+        return DECIMAL_TYPE_NAME;
+      }
+    }
+  }
+
+  private abstract static class Accumulator {
+    abstract void add(Object value) throws ODataApplicationException;
+
+    abstract Object getResult();
+  }
+
+  private static final class CountAccumulator extends Accumulator {
+    private long count;
+
+    @Override
+    void add(final Object value) {
+      count++;
+    }
+
+    @Override
+    Object getResult() {
+      return count;
+    }
+  }
+
+  private static final class CountDistinctAccumulator extends Accumulator {
+    private final Set<Object> values = new HashSet<Object>();
+
+    @Override
+    void add(final Object value) {
+      if (value != null) {
+        values.add(value);
+      }
+    }
+
+    @Override
+    Object getResult() {
+      return (long) values.size();
+    }
+  }
+
+  /**
+   * Sum or average of numeric values.
+   * Integral values are summed as <code>long</code> until the sum overflows,
+   * floating-point values as <code>double</code>, and all other values as {@link BigDecimal}.
+   */
+  private static final class SumAccumulator extends Accumulator {
+    private final boolean average;
+    private long count;
+    private long longSum;
+    private double doubleSum;
+    private BigDecimal decimalSum;
+    private boolean isDouble;
+
+    SumAccumulator(final boolean average) {
+      this.average = average;
+    }
+
+    @Override
+    void add(final Object value) throws ODataApplicationException {
+      if (value == null) {
+        return;
+      }
+      if (!(value instanceof Number)) {
+        throw new ODataApplicationException("Only numeric values can be summed.",
+            HttpStatusCode.BAD_REQUEST.getStatusCode(), Locale.ROOT);
+      }
+      count++;
+      if (isDouble) {
+        doubleSum += ((Number) value).doubleValue();
+      } else if (value instanceof Double || value instanceof Float) {
+        doubleSum = (decimalSum == null ? longSum : decimalSum.doubleValue()) + ((Number) value).doubleValue();
+        isDouble = true;
+      } else if (decimalSum == null && isIntegral(value)) {
+        final long summand = ((Number) value).longValue();
+        final long sum = longSum + summand;
+        // The sum overflows if both summands have the same sign and the sum has a different one.
+        if (((longSum ^ sum) & (summand ^ sum)) < 0) {
+          decimalSum = BigDecimal.valueOf(longSum).add(BigDecimal.valueOf(summand));
+        } else {
+          longSum = sum;
+        }
+      } else {
+        decimalSum = (decimalSum == null ? BigDecimal.valueOf(longSum) : decimalSum).add(toBigDecimal(value));
+      }
+    }
+
+    @Override
+    Object getResult() {
+      if (count == 0) {
+        return null;
+      } else if (isDouble) {
+        return average ? doubleSum / count : doubleSum;
+      } else if (decimalSum == null && !average) {
+        return longSum;
+      }
+      final BigDecimal sum = decimalSum == null ? BigDecimal.valueOf(longSum) : decimalSum;
+      return average ? sum.divide(BigDecimal.valueOf(count), MathContext.DECIMAL128) : sum;
+    }
+  }
+
+  private static final class MinMaxAccumulator extends Accumulator {
+    private final boolean max;
+    private Object result;
+
+    MinMaxAccumulator(final boolean max) {
+      this.max = max;
+    }
+
+    @Override
+    void add(final Object value) throws ODataApplicationException {
+      if (value == null) {
+        return;
+      } else if (result == null) {
+        result = value;
+      } else {
+        final int comparison = compareValues(value, result);
+        if (max ? comparison > 0 : comparison < 0) {
+          result = value;
+        }
+      }
+    }
+
+    @Override
+    Object getResult() {
+      return result;
+    }
+  }
+
+  /**
+   * Groups the entities by the values of the grouping properties.
+   * Each group gets its own opened nested pipeline, into which its entities are pushed as they arrive;
+   * at the end, the grouping properties are added to the results of each group.
+   */
+  private static final class GroupByTransformation extends Transformation {
+    private final PathValue[] paths;
+    private final List<Transformation> nested;
+
+    GroupByTransformation(final GroupBy groupBy, final UriInfoResource uriInfo, final Edm edm)
+        throws ODataApplicationException {
+      final List<GroupByItem> items = groupBy.getGroupByItems();
+      paths = new PathValue[items.size()];
+      for (int index = 0; index < paths.length; index++) {
+        final GroupByItem item = items.get(index);
+        if (item.isRollupAll() || !item.getRollup().isEmpty()) {
+          throw notImplemented("Rollup is not supported.");
+        }
+        paths[index] = PathValue.of(item.getPath());
+        if (paths[index] == null) {
+          throw notImplemented("Only single primitive properties are supported as grouping properties.");
+        }
+      }
+      nested = groupBy.getApplyOption() == null ?
+          Collections.<Transformation> emptyList() :
+          compile(groupBy.getApplyOption(), uriInfo, edm);
+    }
+
+    @Override
+    Stage open(final Stage downstream) {
+      final Map<List<Object>, Group> groups = new LinkedHashMap<List<Object>, Group>();
+      return new Stage() {
+        @Override
+        void accept(final Entity entity) throws ODataApplicationException {
+          final Object[] key = new Object[paths.length];
+          for (int index = 0; index < paths.length; index++) {
+            key[index] = paths[index].getValue(entity);
+          }
+          final List<Object> keyList = Arrays.asList(key);
+          Group group = groups.get(keyList);
+          if (group == null) {
+            group = new Group(key, nested);
+            groups.put(keyList, group);
+          }
+          group.stage.accept(entity);
+        }
+
+        @Override
+        void end() throws ODataApplicationException {
+          for (final Group group : groups.values()) {
+            group.stage.end();
+            if (nested.isEmpty()) {
+              // Without nested transformations, each group results in an entity with only the grouping properties.
+              group.results.add(new Entity());
+            }
+            for (final Entity result : group.results) {
+              downstream.accept(createResult(group.key, result));
+            }
+          }
+          downstream.end();
+        }
+      };
+    }
+
+    /**
+     * Creates an entity with the grouping properties and the other properties of the result
+     * of the nested transformations; the result itself may be an input entity and is therefore not changed.
+     */
+    private Entity createResult(final Object[] key, final Entity nestedResult) {
+      Entity result = new Entity();
+      for (int index = 0; index < paths.length; index++) {
+        paths[index].setValue(result.getProperties(), key[index]);
+      }
+      for (final Property property : nestedResult.getProperties()) {
+        if (result.getProperty(property.getName()) == null) {
+          result.addProperty(property);
+        }
+      }
+      return result;
+    }
+
+    private static final class Group {
+      private final Object[] key;
+      private final List<Entity> results = new ArrayList<Entity>();
+      private final Stage stage;
+
+      Group(final Object[] key, final List<Transformation> nested) {
+        this.key = key;
+        // The entities themselves are not needed without nested transformations.
+        stage = nested.isEmpty() ? new Stage() {
+          @Override
+          void accept(final Entity entity) {
+            // Nothing to do.
+          }
+
+          @Override
+          void end() {
+            // Nothing to do.
+          }
+        } : ApplyHandler.open(nested, new Collector(results));
+      }
+    }
+  }
+
+  /**
+   * Pushes each entity into all branches; the results of the first branch are passed on immediately,
+   * the results of the other branches at the end, in the order of the branches.
+   */
+  private static final class ConcatTransformation extends Transformation {
+    private final List<List<Transformation>> branches = new ArrayList<List<Transformation>>();
+
+    ConcatTransformation(final Concat concat, final UriInfoResource uriInfo, final Edm edm)
+        throws ODataApplicationException {
+      for (final ApplyOption option : concat.getApplyOptions()) {
+        branches.add(compile(option, uriInfo, edm));
+      }
+    }
+
+    @Override
+    Stage open(final Stage downstream) {
+      final Stage[] stages = new Stage[branches.size()];
+      final List<List<Entity>> buffers = new ArrayList<List<Entity>>();
+      stages[0] = ApplyHandler.open(branches.get(0), new Stage() {
+        @Override
+        void accept(final Entity entity) throws ODataApplicationException {
+          downstream.accept(entity);
+        }
+
+        @Override
+        void end() {
+          // The end is passed on after all branches have ended.
+        }
+      });
+      for (int index = 1; index < stages.length; index++) {
+        final List<Entity> buffer = new ArrayList<Entity>();
+        buffers.add(buffer);
+        stages[index] = ApplyHandler.open(branches.get(index), new Collector(buffer));
+      }
+      return new Stage() {
+        @Override
+        void accept(final Entity entity) throws ODataApplicationException {
+          for (final Stage stage : stages) {
+            stage.accept(entity);
+          }
+        }
+
+        @Override
+        void end() throws ODataApplicationException {
+          for (final Stage stage : stages) {
+            stage.end();
+          }
+          for (final List<Entity> buffer : buffers) {
+            for (final Entity entity : buffer) {
+              downstream.accept(entity);
+            }
+          }
+          downstream.end();
+        }
+      };
+    }
+  }
+
+  /** Entity with its ranking value and its position in the input, used to keep the input order for ties. */
+  private static final class Ranked {
+    private final Entity entity;
+    private final Object value;
+    private final long position;
+
+    Ranked(final Entity entity, final Object value, final long position) {
+      this.entity = entity;
+      this.value = value;
+      this.position = position;
+    }
+  }
+
+  /**
+   * Orders ranked entities from the best to the worst: by descending values for top,
+   * by ascending values for bottom, and by input position for equal values.
+   */
+  private static final class RankComparator implements Comparator<Ranked> {
+    private final boolean top;
+
+    RankComparator(final boolean top) {
+      this.top = top;
+    }
+
+    @Override
+    public int compare(final Ranked ranked1, final Ranked ranked2) {
+      int result;
+      try {
+        result = compareValues(ranked1.value, ranked2.value);
+      } catch (final ODataApplicationException e) {
+        throw new SystemQueryOptionsRuntimeException(e);
+      }
+      if (result == 0) {
+        return ranked1.position < ranked2.position ? -1 : ranked1.position == ranked2.position ? 0 : 1;
+      }
+      return top ? -result : result;
+    }
+  }
+
+  /** Common base of the top and bottom transformations; entities with a null value are not ranked. */
+  private abstract static class RankTransformation extends Transformation {
+    protected final RankComparator comparator;
+    private final ValueSource value;
+
+    RankTransformation(final boolean top, final ValueSource value) {
+      comparator = new RankComparator(top);
+      this.value = value;
+    }
+
+    @Override
+    Stage open(final Stage downstream) {
+      final RankState state = createState();
+      return new Stage() {
+        private long position;
+
+        @Override
+        void accept(final Entity entity) throws ODataApplicationException {
+          final Object rankValue = value.getValue(entity);
+          if (rankValue != null) {
+            try {
+              state.add(new Ranked(entity, rankValue, position++));
+            } catch (final SystemQueryOptionsRuntimeException e) {
+              throw (ODataApplicationException) e.getCause();
+            }
+          }
+        }
+
+        @Override
+        void end() throws ODataApplicationException {
+          final List<Ranked> results;
+          try {
+            results = state.getResults();
+          } catch (final SystemQueryOptionsRuntimeException e) {
+            throw (ODataApplicationException) e.getCause();
+          }
+          for (final Ranked result : results) {
+            downstream.accept(result.entity);
+          }
+          downstream.end();
+        }
+      };
+    }
+
+    abstract RankState createState();
+  }
+
+  private abstract static class RankState {
+    abstract void add(Ranked ranked) throws ODataApplicationException;
+
+    /** The selected entities, from the best to the worst. */
+    abstract List<Ranked> getResults() throws ODataApplicationException;
+  }
+
+  /** Keeps the best entities of the given number in a bounded heap with the worst of them at its head. */
+  private static final class CountRankTransformation extends RankTransformation {
+    private final int count;
+
+    CountRankTransformation(final boolean top, final int count, final ValueSource value) {
+      super(top, value);
+      this.count = count;
+    }
+
+    @Override
+    RankState createState() {
+      final PriorityQueue<Ranked> heap =
+          new PriorityQueue<Ranked>(Math.max(1, Math.min(count, 1024)), Collections.reverseOrder(comparator));
+      return new RankState() {
+        @Override
+        void add(final Ranked ranked) {
+          if (heap.size() < count) {
+            heap.add(ranked);
+          } else if (count > 0 && comparator.compare(ranked, heap.peek()) < 0) {
+            heap.poll();
+            heap.add(ranked);
+          }
+        }
+
+        @Override
+        List<Ranked> getResults() {
+          List<Ranked> results = new ArrayList<Ranked>(heap);
+          Collections.sort(results, comparator);
+          return results;
+        }
+      };
+    }
+  }
+
+  /**
+   * Keeps all entities and selects the best ones until their sum reaches the given sum
+   * or the given percentage of the sum of all values.
+   */
+  private static final class SumRankTransformation extends RankTransformation {
+    private final BigDecimal limit;
+    private final boolean percent;
+
+    SumRankTransformation(final boolean top, final BigDecimal limit, final boolean percent,
+        final ValueSource value) {
+      super(top, value);
+      this.limit = limit;
+      this.percent = percent;
+    }
+
+    @Override
+    RankState createState() {
+      final List<Ranked> all = new ArrayList<Ranked>();
+      return new RankState() {
+        private BigDecimal total = BigDecimal.ZERO;
+
+        @Override
+        void add(final Ranked ranked) throws ODataApplicationException {
+          if (!(ranked.value instanceof Number)) {
+            throw new ODataApplicationException("Only numeric values can be summed.",
+                HttpStatusCode.BAD_REQUEST.getStatusCode(), Locale.ROOT);
+          }
+          all.add(ranked);
+          total = total.add(toBigDecimal(ranked.value));
+        }
+
+        @Override
+        List<Ranked> getResults() {
+          final BigDecimal target = percent ? total.multiply(limit).movePointLeft(2) : limit;
+          Collections.sort(all, comparator);
+          List<Ranked> results = new ArrayList<Ranked>();
+          BigDecimal sum = BigDecimal.ZERO;
+          for (final Ranked ranked : all) {
+            if (sum.compareTo(target) >= 0) {
+              break;
+            }
+            results.add(ranked);
+            sum = sum.add(toBigDecimal(ranked.value));
+          }
+          return results;
+        }
+      };
+    }
+  }
+}
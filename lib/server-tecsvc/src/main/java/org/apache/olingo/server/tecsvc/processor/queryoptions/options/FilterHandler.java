@@ -18,23 +18,20 @@
  */
 package org.apache.olingo.server.tecsvc.processor.queryoptions.options;
 
-import java.util.Iterator;
-import java.util.Locale;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.apache.olingo.commons.api.data.Entity;
 import org.apache.olingo.commons.api.data.EntityCollection;
 import org.apache.olingo.commons.api.edm.Edm;
 import org.apache.olingo.commons.api.edm.EdmPrimitiveType;
 import org.apache.olingo.commons.api.edm.EdmPrimitiveTypeKind;
-import org.apache.olingo.commons.api.http.HttpStatusCode;
 import org.apache.olingo.server.api.OData;
 import org.apache.olingo.server.api.ODataApplicationException;
 import org.apache.olingo.server.api.uri.UriInfoResource;
 import org.apache.olingo.server.api.uri.queryoption.FilterOption;
-import org.apache.olingo.server.api.uri.queryoption.expression.ExpressionVisitException;
-import org.apache.olingo.server.tecsvc.processor.queryoptions.expression.ExpressionVisitorImpl;
-import org.apache.olingo.server.tecsvc.processor.queryoptions.expression.operand.TypedOperand;
-import org.apache.olingo.server.tecsvc.processor.queryoptions.expression.operand.VisitorOperand;
+import org.apache.olingo.server.tecsvc.processor.queryoptions.expression.CompiledFilter;
+import org.apache.olingo.server.tecsvc.processor.queryoptions.expression.FilterCompiler;
 
 public class FilterHandler {
 
@@ -48,28 +45,18 @@ public class FilterHandler {
       return;
     }
 
-    try {
-      final Iterator<Entity> iter = entitySet.getEntities().iterator();
-
-      while (iter.hasNext()) {
-        final VisitorOperand operand = filterOption.getExpression()
-            .accept(new ExpressionVisitorImpl(iter.next(), uriInfo, edm));
-        final TypedOperand typedOperand = operand.asTypedOperand();
-
-        if (typedOperand.is(primBoolean)) {
-          if (Boolean.FALSE.equals(typedOperand.getTypedValue(Boolean.class))) {
-            iter.remove();
-          }
-        } else {
-          throw new ODataApplicationException(
-              "Invalid filter expression. Filter expressions must return a value of type Edm.Boolean",
-              HttpStatusCode.BAD_REQUEST.getStatusCode(), Locale.ROOT);
-        }
+    final CompiledFilter filter = FilterCompiler.compile(filterOption.getExpression(), uriInfo, edm);
+    final List<Entity> entities = entitySet.getEntities();
+    // Collecting the matches avoids shifting the remaining entities on every removal.
+    final List<Entity> matches = new ArrayList<Entity>(entities.size());
+    for (final Entity entity : entities) {
+      if (filter.matches(entity)) {
+        matches.add(entity);
       }
-
-    } catch (ExpressionVisitException e) {
-      throw new ODataApplicationException("Exception in filter evaluation",
-          HttpStatusCode.INTERNAL_SERVER_ERROR.getStatusCode(), Locale.ROOT);
+    }
+    if (matches.size() < entities.size()) {
+      entities.clear();
+      entities.addAll(matches);
     }
   }
 }
@@ -18,9 +18,12 @@
  */
 package org.apache.olingo.server.tecsvc.processor.queryoptions.options;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.List;
 import java.util.Locale;
+import java.util.PriorityQueue;
 
 import org.apache.olingo.commons.api.data.Entity;
 import org.apache.olingo.commons.api.data.EntityCollection;
@@ -30,6 +33,8 @@ import org.apache.olingo.server.api.ODataApplicationException;
 import org.apache.olingo.server.api.uri.UriInfoResource;
 import org.apache.olingo.server.api.uri.queryoption.OrderByItem;
 import org.apache.olingo.server.api.uri.queryoption.OrderByOption;
+import org.apache.olingo.server.api.uri.queryoption.SkipOption;
+import org.apache.olingo.server.api.uri.queryoption.TopOption;
 import org.apache.olingo.server.api.uri.queryoption.expression.ExpressionVisitException;
 import org.apache.olingo.server.tecsvc.processor.queryoptions.expression.ExpressionVisitorImpl;
 import org.apache.olingo.server.tecsvc.processor.queryoptions.expression.operand.TypedOperand;
@@ -42,8 +47,36 @@ public class OrderByHandler {
       return;
     }
 
+    applyOrderByOption(orderByOption, entitySet, entitySet.getEntities().size(), uriInfo, edm);
+  }
+
+  /**
+   * Applies the options $orderby, $skip, and $top together.
+   * If $top is given, only the first $skip + $top entities in the requested order are selected,
+   * with a bounded heap, instead of sorting all entities.
+   */
+  public static void applyOrderBySkipTopOptions(final OrderByOption orderByOption, final SkipOption skipOption,
+      final TopOption topOption, final EntityCollection entitySet, final UriInfoResource uriInfo, final Edm edm)
+      throws ODataApplicationException {
+
+    if (orderByOption != null) {
+      final int size = entitySet.getEntities().size();
+      int limit = size;
+      final int skip = skipOption == null ? 0 : skipOption.getValue();
+      if (topOption != null && topOption.getValue() >= 0 && skip >= 0) {
+        limit = (int) Math.min((long) skip + topOption.getValue(), size);
+      }
+      applyOrderByOption(orderByOption, entitySet, limit, uriInfo, edm);
+    }
+    // Invalid values are reported here; the entities have been sorted completely in that case.
+    SkipHandler.applySkipSystemQueryHandler(skipOption, entitySet);
+    TopHandler.applyTopSystemQueryOption(topOption, entitySet);
+  }
+
+  private static void applyOrderByOption(final OrderByOption orderByOption, final EntityCollection entitySet,
+      final int limit, final UriInfoResource uriInfo, final Edm edm) throws ODataApplicationException {
     try {
-      applyOrderByOptionInternal(orderByOption, entitySet, uriInfo, edm);
+      applyOrderByOptionInternal(orderByOption, entitySet, limit, uriInfo, edm);
     } catch (SystemQueryOptionsRuntimeException e) {
       if (e.getCause() instanceof ODataApplicationException) {
         // Throw the nested exception, to send the correct HTTP status code in the HTTP response
@@ -55,51 +88,116 @@ public class OrderByHandler {
     }
   }
 
+  /**
+   * Orders the entities and keeps the first <code>limit</code> of them.
+   * The order items of each entity are evaluated at most once; ties are broken by the original position,
+   * so the result is the same as that of a stable sort.
+   */
   private static void applyOrderByOptionInternal(final OrderByOption orderByOption, final EntityCollection entitySet,
-      final UriInfoResource uriInfo, final Edm edm) throws ODataApplicationException {
-    Collections.sort(entitySet.getEntities(), new Comparator<Entity>() {
-      @Override
-      @SuppressWarnings("unchecked")
-      public int compare(final Entity e1, final Entity e2) {
-        // Evaluate the first order option for both entities.
-        // If and only if the result of the previous order option is equal to 0
-        // evaluate the next order option until all options are evaluated or they are not equal.
-        int result = 0;
-
-        for (int i = 0; i < orderByOption.getOrders().size() && result == 0; i++) {
-          try {
-            final OrderByItem item = orderByOption.getOrders().get(i);
-            final TypedOperand op1 =
-                item.getExpression().accept(new ExpressionVisitorImpl(e1, uriInfo, edm)).asTypedOperand();
-            final TypedOperand op2 =
-                item.getExpression().accept(new ExpressionVisitorImpl(e2, uriInfo, edm)).asTypedOperand();
-
-            if (op1.isNull() || op2.isNull()) {
-              if (op1.isNull() && op2.isNull()) {
-                result = 0; // null is equals to null
-              } else {
-                result = op1.isNull() ? -1 : 1;
-              }
-            } else {
-              Object o1 = op1.getValue();
-              Object o2 = op2.getValue();
-
-              if (o1.getClass() == o2.getClass() && o1 instanceof Comparable) {
-                result = ((Comparable<Object>) o1).compareTo(o2);
-              } else {
-                result = 0;
-              }
-            }
-
-            result = item.isDescending() ? result * -1 : result;
-          } catch (ODataApplicationException e) {
-            throw new SystemQueryOptionsRuntimeException(e);
-          } catch (ExpressionVisitException e) {
-            throw new SystemQueryOptionsRuntimeException(e);
+      final int limit, final UriInfoResource uriInfo, final Edm edm) {
+    final List<Entity> entities = entitySet.getEntities();
+    final List<SortKey> keys = new ArrayList<SortKey>(entities.size());
+    for (final Entity entity : entities) {
+      keys.add(new SortKey(entity, keys.size(), orderByOption.getOrders().size()));
+    }
+    final Comparator<SortKey> comparator = new SortKeyComparator(orderByOption.getOrders(), uriInfo, edm);
+
+    List<SortKey> sorted;
+    if (limit < keys.size()) {
+      // The heap has the worst of the best entities found so far at its head.
+      final PriorityQueue<SortKey> heap =
+          new PriorityQueue<SortKey>(Math.max(1, limit), Collections.reverseOrder(comparator));
+      for (final SortKey key : keys) {
+        if (heap.size() < limit) {
+          heap.add(key);
+        } else if (limit > 0 && comparator.compare(key, heap.peek()) < 0) {
+          heap.poll();
+          heap.add(key);
+        }
+      }
+      sorted = new ArrayList<SortKey>(heap);
+    } else {
+      sorted = keys;
+    }
+    Collections.sort(sorted, comparator);
+
+    entities.clear();
+    for (final SortKey key : sorted) {
+      entities.add(key.entity);
+    }
+  }
+
+  /** An entity with its position and the lazily evaluated values of its order items. */
+  private static final class SortKey {
+    private static final Object NOT_EVALUATED = new Object();
+
+    private final Entity entity;
+    private final int position;
+    private final Object[] values;
+
+    SortKey(final Entity entity, final int position, final int size) {
+      this.entity = entity;
+      this.position = position;
+      values = new Object[size];
+      for (int i = 0; i < size; i++) {
+        values[i] = NOT_EVALUATED;
+      }
+    }
+  }
+
+  private static final class SortKeyComparator implements Comparator<SortKey> {
+    private final List<OrderByItem> items;
+    private final UriInfoResource uriInfo;
+    private final Edm edm;
+
+    SortKeyComparator(final List<OrderByItem> items, final UriInfoResource uriInfo, final Edm edm) {
+      this.items = items;
+      this.uriInfo = uriInfo;
+      this.edm = edm;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public int compare(final SortKey k1, final SortKey k2) {
+      // Compare the values of the first order item for both entities.
+      // If and only if the result of the previous order item is equal to 0
+      // compare the next order item until all items are compared or they are not equal.
+      int result = 0;
+
+      for (int i = 0; i < items.size() && result == 0; i++) {
+        final Object o1 = getValue(k1, i);
+        final Object o2 = getValue(k2, i);
+
+        if (o1 == null || o2 == null) {
+          if (o1 == null && o2 == null) {
+            result = 0; // null is equals to null
+          } else {
+            result = o1 == null ? -1 : 1;
           }
+        } else if (o1.getClass() == o2.getClass() && o1 instanceof Comparable) {
+          result = ((Comparable<Object>) o1).compareTo(o2);
+        } else {
+          result = 0;
+        }
+
+        result = items.get(i).isDescending() ? result * -1 : result;
+      }
+      return result == 0 ? k1.position - k2.position : result;
+    }
+
+    private Object getValue(final SortKey key, final int index) {
+      if (key.values[index] == SortKey.NOT_EVALUATED) {
+        try {
+          final TypedOperand operand = items.get(index).getExpression()
+              .accept(new ExpressionVisitorImpl(key.entity, uriInfo, edm)).asTypedOperand();
+          key.values[index] = operand.isNull() ? null : operand.getValue();
+        } catch (ODataApplicationException e) {
+          throw new SystemQueryOptionsRuntimeException(e);
+        } catch (ExpressionVisitException e) {
+          throw new SystemQueryOptionsRuntimeException(e);
         }
-        return result;
       }
-    });
+      return key.values[index];
+    }
   }
 }
@@ -18,191 +18,51 @@
  */
 package org.apache.olingo.server.tecsvc.processor.queryoptions.options;
 
-import java.util.Calendar;
 import java.util.Iterator;
-import java.util.ListIterator;
-import java.util.Locale;
-
-import javax.xml.bind.DatatypeConverter;
+import java.util.Set;
 
 import org.apache.olingo.commons.api.data.Entity;
 import org.apache.olingo.commons.api.data.EntityCollection;
-import org.apache.olingo.commons.api.data.Property;
-import org.apache.olingo.commons.api.http.HttpStatusCode;
 import org.apache.olingo.server.api.ODataApplicationException;
 import org.apache.olingo.server.api.uri.queryoption.SearchOption;
-import org.apache.olingo.server.api.uri.queryoption.search.SearchBinary;
-import org.apache.olingo.server.api.uri.queryoption.search.SearchBinaryOperatorKind;
 import org.apache.olingo.server.api.uri.queryoption.search.SearchExpression;
-import org.apache.olingo.server.api.uri.queryoption.search.SearchTerm;
+import org.apache.olingo.server.tecsvc.processor.queryoptions.search.InMemorySearchIndex;
+import org.apache.olingo.server.tecsvc.processor.queryoptions.search.SearchIndex;
 
 public class SearchHandler {
 
   public static void applySearchSystemQueryOption(final SearchOption searchOption, EntityCollection entitySet)
       throws ODataApplicationException {
-    if (searchOption != null) {
-      SearchExpression se = searchOption.getSearchExpression();
-      Iterator<Entity> it = entitySet.getEntities().iterator();
-      while (it.hasNext()) {
-        boolean keep = false;
-        Entity entity = it.next();
-        keep = isTrue(se, entity);
-        if (!keep) {
-          it.remove();
-        }
-      }
-    }
-  }
-
-  private static boolean isTrue(final SearchTerm term, final Property property) {
-    if (property.isNull()) {
-      return false;
-    } else if (property.isPrimitive()) {
-      if (property.isCollection()) {
-        for (final Object primitive : property.asCollection()) {
-          final String propertyString = asString(primitive);
-          if (propertyString != null && propertyString.contains(term.getSearchTerm())) {
-            return true;
-          }
-        }
-        return false;
-      } else {
-        final String propertyString = asString(property.asPrimitive());
-        return propertyString != null && propertyString.contains(term.getSearchTerm());
-      }
-    } else if (property.isComplex()) {
-      if (property.isCollection()) {
-        for (final Object member : property.asCollection()) {
-          if (isTrue(term, (Property) member)) {
-            return true;
-          }
-        }
-        return false;
-      } else {
-        for (final Property innerProperty : property.asComplex().getValue()) {
-          if (isTrue(term, innerProperty)) {
-            return true;
-          }
-        }
-        return false;
-      }
-    } else {
-      return false;
-    }
-  }
-
-  private static String asString(final Object primitive) {
-    // TODO: improve 'string' conversion; maybe consider only String properties
-    if (primitive instanceof String) {
-      return (String) primitive;
-    } else if (primitive instanceof Calendar) {
-      return DatatypeConverter.printDateTime((Calendar) primitive);
-    } else if (primitive instanceof byte[]) {
-      return DatatypeConverter.printBase64Binary((byte[]) primitive);
-    } else {
-      return primitive.toString();
-    }
+    applySearchSystemQueryOption(searchOption, entitySet, null);
   }
 
-  private static boolean isTrue(final SearchBinary binary, final Entity entity) throws ODataApplicationException {
-    SearchExpression left = binary.getLeftOperand();
-    SearchExpression right = binary.getRightOperand();
-    if (binary.getOperator() == SearchBinaryOperatorKind.AND) {
-      if (left.isSearchBinary() && right.isSearchBinary()) {
-        return isTrue(left, entity) && isTrue(right, entity);
-      } else if (left.isSearchUnary() && right.isSearchBinary()) {
-        return isTrue(left, entity) && isTrue(right, entity);
-      } else if (left.isSearchBinary() && right.isSearchUnary()) {
-        return isTrue(left, entity) && isTrue(right, entity);
-      } else if (left.isSearchUnary() && right.isSearchUnary()) {
-        return isTrue(left, entity) && isTrue(right, entity);
-      }
-      ListIterator<Property> properties = entity.getProperties().listIterator();
-      boolean leftValid = false;
-      boolean rightValid = false;
-      while (properties.hasNext()) {
-        Property property = properties.next();
-        if (!leftValid) {
-          leftValid = isTrue(left, property);
-        }
-        if (!rightValid) {
-          rightValid = isTrue(right, property);
+  /**
+   * Removes all entities not matching the search expression from the entity collection.
+   * @param searchOption the $search option; nothing is done if it is <code>null</code>
+   * @param entitySet the entity collection
+   * @param searchIndex an index maintained for the entities, may be <code>null</code>;
+   *                    entities not contained in it are indexed for this request only
+   */
+  public static void applySearchSystemQueryOption(final SearchOption searchOption, EntityCollection entitySet,
+      final SearchIndex searchIndex) throws ODataApplicationException {
+    if (searchOption != null) {
+      final SearchExpression expression = searchOption.getSearchExpression();
+      InMemorySearchIndex unindexed = new InMemorySearchIndex();
+      for (final Entity entity : entitySet.getEntities()) {
+        if (searchIndex == null || !searchIndex.contains(entity)) {
+          unindexed.add(entity);
         }
       }
-      return leftValid && rightValid;
-    } else if (binary.getOperator() == SearchBinaryOperatorKind.OR) {
-      if (left.isSearchBinary() && right.isSearchBinary()) {
-        return isTrue(left, entity) || isTrue(right, entity);
-      } else if (left.isSearchUnary() && right.isSearchBinary()) {
-        return isTrue(left, entity) || isTrue(right, entity);
-      } else if (left.isSearchBinary() && right.isSearchUnary()) {
-        return isTrue(left, entity) || isTrue(right, entity);
-      } else if (left.isSearchUnary() && right.isSearchUnary()) {
-        return isTrue(left, entity) || isTrue(right, entity);
+      Set<Entity> matches = unindexed.search(expression);
+      if (searchIndex != null && unindexed.size() < entitySet.getEntities().size()) {
+        matches.addAll(searchIndex.search(expression));
       }
-      ListIterator<Property> properties = entity.getProperties().listIterator();
-      boolean leftValid = false;
-      boolean rightValid = false;
-      while (properties.hasNext()) {
-        Property property = properties.next();
-        if (!leftValid) {
-          leftValid = isTrue(left, property);
-        }
-        if (!rightValid) {
-          rightValid = isTrue(right, property);
-        }
-      }
-      return leftValid || rightValid;
-    } else {
-      throw new ODataApplicationException("Found unknown SearchBinaryOperatorKind: " + binary.getOperator(),
-          HttpStatusCode.INTERNAL_SERVER_ERROR.getStatusCode(), Locale.ROOT);
-    }
-  }
-
-  private static boolean isTrue(final SearchBinary binary, final Property property) throws ODataApplicationException {
-    SearchExpression left = binary.getLeftOperand();
-    SearchExpression right = binary.getRightOperand();
-    if (binary.getOperator() == SearchBinaryOperatorKind.AND) {
-      return isTrue(left, property) && isTrue(right, property);
-    } else if (binary.getOperator() == SearchBinaryOperatorKind.OR) {
-      return isTrue(left, property) || isTrue(right, property);
-    } else {
-      throw new ODataApplicationException("Found unknown SearchBinaryOperatorKind: " + binary.getOperator(),
-          HttpStatusCode.INTERNAL_SERVER_ERROR.getStatusCode(), Locale.ROOT);
-    }
-  }
-  
-  private static boolean isTrue(final SearchExpression searchExpression, final Entity entity)
-      throws ODataApplicationException {
-    if (searchExpression.isSearchBinary()) {
-      return isTrue(searchExpression.asSearchBinary(), entity);
-    } else if (searchExpression.isSearchTerm()) {
-      ListIterator<Property> properties = entity.getProperties().listIterator();
-      boolean keep = false;
-      while (properties.hasNext()) {
-        Property property = properties.next();
-        if (!keep) {
-          keep = isTrue(searchExpression.asSearchTerm(), property);
+      Iterator<Entity> it = entitySet.getEntities().iterator();
+      while (it.hasNext()) {
+        if (!matches.contains(it.next())) {
+          it.remove();
         }
       }
-      return keep;
-    } else if (searchExpression.isSearchUnary()) {
-      return !isTrue(searchExpression.asSearchUnary().getOperand(), entity);
-    }
-    throw new ODataApplicationException("Found unknown SearchExpression: " + searchExpression,
-        HttpStatusCode.INTERNAL_SERVER_ERROR.getStatusCode(), Locale.ROOT);
-  }
-  
-  private static boolean isTrue(final SearchExpression searchExpression, final Property property)
-      throws ODataApplicationException {
-    if (searchExpression.isSearchBinary()) {
-      return isTrue(searchExpression.asSearchBinary(), property);
-    } else if (searchExpression.isSearchTerm()) {
-      return isTrue(searchExpression.asSearchTerm(), property);
-    } else if (searchExpression.isSearchUnary()) {
-      return !isTrue(searchExpression.asSearchUnary().getOperand(), property);
     }
-    throw new ODataApplicationException("Found unknown SearchExpression: " + searchExpression,
-        HttpStatusCode.INTERNAL_SERVER_ERROR.getStatusCode(), Locale.ROOT);
   }
 }
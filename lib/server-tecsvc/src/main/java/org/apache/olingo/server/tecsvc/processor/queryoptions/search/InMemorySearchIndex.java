@@ -0,0 +1,279 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.tecsvc.processor.queryoptions.search;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Calendar;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import javax.xml.bind.DatatypeConverter;
+
+import org.apache.olingo.commons.api.data.ComplexValue;
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.commons.api.data.Property;
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.uri.queryoption.search.SearchBinary;
+import org.apache.olingo.server.api.uri.queryoption.search.SearchBinaryOperatorKind;
+import org.apache.olingo.server.api.uri.queryoption.search.SearchExpression;
+
+/**
+ * <p>Inverted index held in memory.</p>
+ * <p>The string representations of all primitive property values (including those nested
+ * in complex values and collections) are split into words the same way the $search parser
+ * recognizes words, i.e., into maximal runs of characters valid at the start of a Unicode identifier.
+ * Each lower-cased word is mapped to the set of entities containing it.
+ * A search word matches an entity that contains the word, ignoring case.
+ * A search phrase matches an entity where the phrase is part of the value of a property, ignoring case;
+ * the words of the phrase are used to narrow down the candidates.</p>
+ */
+public class InMemorySearchIndex implements SearchIndex {
+
+  /** Separates the texts of the single values so that a phrase cannot span two of them. */
+  private static final char VALUE_SEPARATOR = '\u0000';
+
+  private final Map<Entity, Integer> ids = new IdentityHashMap<Entity, Integer>();
+  private final List<Entity> entities = new ArrayList<Entity>();
+  private final List<Set<String>> words = new ArrayList<Set<String>>();
+  private final List<String> texts = new ArrayList<String>();
+  private final Map<String, BitSet> postings = new HashMap<String, BitSet>();
+  private final BitSet used = new BitSet();
+
+  public InMemorySearchIndex() {}
+
+  public InMemorySearchIndex(final Collection<Entity> entities) {
+    for (final Entity entity : entities) {
+      add(entity);
+    }
+  }
+
+  @Override
+  public void add(final Entity entity) {
+    if (ids.containsKey(entity)) {
+      update(entity);
+    } else {
+      // Re-use the smallest free id to keep the bit sets small.
+      final int id = used.nextClearBit(0);
+      ids.put(entity, id);
+      index(id, entity);
+    }
+  }
+
+  @Override
+  public void update(final Entity entity) {
+    final Integer id = ids.get(entity);
+    if (id == null) {
+      add(entity);
+    } else {
+      unindex(id);
+      index(id, entity);
+    }
+  }
+
+  @Override
+  public void remove(final Entity entity) {
+    final Integer id = ids.remove(entity);
+    if (id != null) {
+      unindex(id);
+    }
+  }
+
+  @Override
+  public boolean contains(final Entity entity) {
+    return ids.containsKey(entity);
+  }
+
+  public int size() {
+    return ids.size();
+  }
+
+  @Override
+  public Set<Entity> search(final SearchExpression expression) throws ODataApplicationException {
+    final BitSet matches = evaluate(expression);
+    Set<Entity> result = Collections.newSetFromMap(new IdentityHashMap<Entity, Boolean>());
+    for (int id = matches.nextSetBit(0); id >= 0; id = matches.nextSetBit(id + 1)) {
+      result.add(entities.get(id));
+    }
+    return result;
+  }
+
+  private void index(final int id, final Entity entity) {
+    List<String> values = new ArrayList<String>();
+    collectValues(entity.getProperties(), values);
+    Set<String> entityWords = new HashSet<String>();
+    StringBuilder text = new StringBuilder();
+    for (final String value : values) {
+      final String normalized = normalize(value);
+      collectWords(normalized, entityWords);
+      text.append(normalized).append(VALUE_SEPARATOR);
+    }
+    for (final String word : entityWords) {
+      BitSet posting = postings.get(word);
+      if (posting == null) {
+        posting = new BitSet();
+        postings.put(word, posting);
+      }
+      posting.set(id);
+    }
+    set(entities, id, entity);
+    set(words, id, entityWords);
+    set(texts, id, text.toString());
+    used.set(id);
+  }
+
+  private void unindex(final int id) {
+    for (final String word : words.get(id)) {
+      final BitSet posting = postings.get(word);
+      posting.clear(id);
+      if (posting.isEmpty()) {
+        postings.remove(word);
+      }
+    }
+    entities.set(id, null);
+    words.set(id, null);
+    texts.set(id, null);
+    used.clear(id);
+  }
+
+  private static <T> void set(final List<T> list, final int index, final T value) {
+    if (index == list.size()) {
+      list.add(value);
+    } else {
+      list.set(index, value);
+    }
+  }
+
+  private BitSet evaluate(final SearchExpression expression) throws ODataApplicationException {
+    if (expression.isSearchBinary()) {
+      final SearchBinary binary = expression.asSearchBinary();
+      BitSet result = evaluate(binary.getLeftOperand());
+      final BitSet right = evaluate(binary.getRightOperand());
+      if (binary.getOperator() == SearchBinaryOperatorKind.AND) {
+        result.and(right);
+      } else if (binary.getOperator() == SearchBinaryOperatorKind.OR) {
+        result.or(right);
+      } else {
+        throw new ODataApplicationException("Found unknown SearchBinaryOperatorKind: " + binary.getOperator(),
+            HttpStatusCode.INTERNAL_SERVER_ERROR.getStatusCode(), Locale.ROOT);
+      }
+      return result;
+    } else if (expression.isSearchUnary()) {
+      BitSet result = (BitSet) used.clone();
+      result.andNot(evaluate(expression.asSearchUnary().getOperand()));
+      return result;
+    } else if (expression.isSearchTerm()) {
+      return evaluate(expression.asSearchTerm().getSearchTerm());
+    }
+    throw new ODataApplicationException("Found unknown SearchExpression: " + expression,
+        HttpStatusCode.INTERNAL_SERVER_ERROR.getStatusCode(), Locale.ROOT);
+  }
+
+  private BitSet evaluate(final String term) {
+    final String normalized = normalize(term);
+    Set<String> termWords = new HashSet<String>();
+    collectWords(normalized, termWords);
+
+    if (termWords.size() == 1 && termWords.contains(normalized)) {
+      // A single word can be answered by the index alone.
+      final BitSet posting = postings.get(normalized);
+      return posting == null ? new BitSet() : (BitSet) posting.clone();
+    }
+
+    BitSet result = (BitSet) used.clone();
+    for (final String word : termWords) {
+      final BitSet posting = postings.get(word);
+      if (posting == null) {
+        return new BitSet();
+      }
+      result.and(posting);
+    }
+    for (int id = result.nextSetBit(0); id >= 0; id = result.nextSetBit(id + 1)) {
+      if (texts.get(id).indexOf(normalized) < 0) {
+        result.clear(id);
+      }
+    }
+    return result;
+  }
+
+  private static String normalize(final String value) {
+    return value.toLowerCase(Locale.ROOT);
+  }
+
+  /** Splits the text into words as recognized by the $search parser. */
+  private static void collectWords(final String text, final Set<String> result) {
+    int start = -1;
+    for (int i = 0; i < text.length(); i++) {
+      if (Character.isUnicodeIdentifierStart(text.charAt(i))) {
+        if (start < 0) {
+          start = i;
+        }
+      } else if (start >= 0) {
+        result.add(text.substring(start, i));
+        start = -1;
+      }
+    }
+    if (start >= 0) {
+      result.add(text.substring(start));
+    }
+  }
+
+  private static void collectValues(final List<Property> properties, final List<String> result) {
+    for (final Property property : properties) {
+      if (!property.isNull()) {
+        if (property.isCollection()) {
+          for (final Object value : property.asCollection()) {
+            collectValue(value, result);
+          }
+        } else {
+          collectValue(property.getValue(), result);
+        }
+      }
+    }
+  }
+
+  private static void collectValue(final Object value, final List<String> result) {
+    if (value instanceof ComplexValue) {
+      collectValues(((ComplexValue) value).getValue(), result);
+    } else if (value != null) {
+      result.add(asString(value));
+    }
+  }
+
+  private static String asString(final Object primitive) {
+    // TODO: improve 'string' conversion; maybe consider only String properties
+    if (primitive instanceof String) {
+      return (String) primitive;
+    } else if (primitive instanceof Calendar) {
+      return DatatypeConverter.printDateTime((Calendar) primitive);
+    } else if (primitive instanceof byte[]) {
+      return DatatypeConverter.printBase64Binary((byte[]) primitive);
+    } else {
+      return primitive.toString();
+    }
+  }
+}
@@ -0,0 +1,65 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.tecsvc.processor.queryoptions.search;
+
+import java.util.Set;
+
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.uri.queryoption.search.SearchExpression;
+
+/**
+ * Index over the entities of an entity set against which $search expressions can be evaluated.
+ * The owner of the data has to report every change of the indexed entities.
+ */
+public interface SearchIndex {
+
+  /**
+   * Adds an entity to the index.
+   * @param entity the entity
+   */
+  void add(Entity entity);
+
+  /**
+   * Indexes the current property values of an entity again; unknown entities are added.
+   * @param entity the changed entity
+   */
+  void update(Entity entity);
+
+  /**
+   * Removes an entity from the index; unknown entities are ignored.
+   * @param entity the entity
+   */
+  void remove(Entity entity);
+
+  /**
+   * Checks whether an entity is part of the index.
+   * @param entity the entity
+   * @return <code>true</code> if the entity is indexed
+   */
+  boolean contains(Entity entity);
+
+  /**
+   * Evaluates a search expression.
+   * @param expression the search expression
+   * @return the matching indexed entities, compared by identity
+   * @throws ODataApplicationException if the expression cannot be evaluated
+   */
+  Set<Entity> search(SearchExpression expression) throws ODataApplicationException;
+}
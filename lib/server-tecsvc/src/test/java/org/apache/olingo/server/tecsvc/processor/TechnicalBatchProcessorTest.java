@@ -0,0 +1,124 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.tecsvc.processor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.Collections;
+
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.commons.api.edm.EdmEntitySet;
+import org.apache.olingo.commons.api.edmx.EdmxReference;
+import org.apache.olingo.commons.api.format.ContentType;
+import org.apache.olingo.commons.api.http.HttpHeader;
+import org.apache.olingo.commons.api.http.HttpMethod;
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.server.api.OData;
+import org.apache.olingo.server.api.ODataHandler;
+import org.apache.olingo.server.api.ODataRequest;
+import org.apache.olingo.server.api.ODataResponse;
+import org.apache.olingo.server.api.ServiceMetadata;
+import org.apache.olingo.server.tecsvc.data.DataProvider;
+import org.apache.olingo.server.tecsvc.provider.EdmTechProvider;
+import org.junit.Test;
+
+public class TechnicalBatchProcessorTest {
+
+  private static final String BASE_URI = "http://localhost/odata";
+  private static final String CRLF = "\r\n";
+
+  private final OData odata = OData.newInstance();
+  private final ServiceMetadata serviceMetadata =
+      odata.createServiceMetadata(new EdmTechProvider(), Collections.<EdmxReference> emptyList());
+  private final DataProvider dataProvider = new DataProvider(odata, serviceMetadata.getEdm());
+
+  @Test
+  public void malformedPartAfterChangeSet() throws Exception {
+    final String body = "--batch_1" + CRLF
+        + "Content-Type: multipart/mixed; boundary=changeset_1" + CRLF
+        + CRLF
+        + "--changeset_1" + CRLF
+        + "Content-Type: application/http" + CRLF
+        + "Content-Transfer-Encoding: binary" + CRLF
+        + "Content-Id: 1" + CRLF
+        + CRLF
+        + "PATCH ESAllPrim(32767) HTTP/1.1" + CRLF
+        + "Content-Type: application/json" + CRLF
+        + CRLF
+        + "{\"PropertyString\":\"Changed\"}" + CRLF
+        + "--changeset_1--" + CRLF
+        + CRLF
+        + "--batch_1" + CRLF
+        + "Content-Type: application/http" + CRLF
+        + "Content-Transfer-Encoding: base64" + CRLF
+        + CRLF
+        + "GET ESAllPrim HTTP/1.1" + CRLF
+        + CRLF
+        + CRLF
+        + "--batch_1--";
+
+    final ODataResponse response = dispatchBatch(body);
+
+    assertEquals(HttpStatusCode.OK.getStatusCode(), response.getStatusCode());
+    final ByteArrayOutputStream output = new ByteArrayOutputStream();
+    response.getODataContent().write(output);
+    final String content = output.toString("UTF-8");
+    assertTrue(content, content.contains("HTTP/1.1 " + HttpStatusCode.OK.getStatusCode()));
+    assertTrue(content, content.contains("HTTP/1.1 " + HttpStatusCode.BAD_REQUEST.getStatusCode()));
+
+    // The change set has been committed.
+    final EdmEntitySet entitySet = serviceMetadata.getEdm().getEntityContainer().getEntitySet("ESAllPrim");
+    final Entity entity = dataProvider.readAll(entitySet).getEntities().get(0);
+    assertEquals((short) 32767, entity.getProperty("PropertyInt16").getValue());
+    assertEquals("Changed", entity.getProperty("PropertyString").getValue());
+  }
+
+  @Test
+  public void malformedFirstPart() throws Exception {
+    final String body = "--batch_1" + CRLF
+        + "Content-Type: application/http" + CRLF
+        + "Content-Transfer-Encoding: base64" + CRLF
+        + CRLF
+        + "GET ESAllPrim HTTP/1.1" + CRLF
+        + CRLF
+        + CRLF
+        + "--batch_1--";
+
+    assertEquals(HttpStatusCode.BAD_REQUEST.getStatusCode(), dispatchBatch(body).getStatusCode());
+  }
+
+  private ODataResponse dispatchBatch(final String body) {
+    final ODataRequest request = new ODataRequest();
+    request.setMethod(HttpMethod.POST);
+    request.setRawBaseUri(BASE_URI);
+    request.setRawODataPath("/$batch");
+    request.addHeader(HttpHeader.CONTENT_TYPE,
+        ContentType.MULTIPART_MIXED.toContentTypeString() + ";boundary=batch_1");
+    request.setBody(new ByteArrayInputStream(body.getBytes()));
+
+    final ODataHandler handler = odata.createRawHandler(serviceMetadata);
+    handler.register(new TechnicalEntityProcessor(dataProvider, serviceMetadata));
+    handler.register(new TechnicalPrimitiveComplexProcessor(dataProvider, serviceMetadata));
+    handler.register(new TechnicalBatchProcessor(dataProvider));
+    return handler.process(request);
+  }
+}
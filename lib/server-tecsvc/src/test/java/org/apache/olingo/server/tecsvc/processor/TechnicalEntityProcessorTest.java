@@ -0,0 +1,101 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.tecsvc.processor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.olingo.commons.api.edmx.EdmxReference;
+import org.apache.olingo.commons.api.format.ContentType;
+import org.apache.olingo.commons.api.http.HttpHeader;
+import org.apache.olingo.commons.api.http.HttpMethod;
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.server.api.OData;
+import org.apache.olingo.server.api.ODataHandler;
+import org.apache.olingo.server.api.ODataRequest;
+import org.apache.olingo.server.api.ODataResponse;
+import org.apache.olingo.server.api.ServiceMetadata;
+import org.apache.olingo.server.tecsvc.data.DataProvider;
+import org.apache.olingo.server.tecsvc.provider.EdmTechProvider;
+import org.junit.Test;
+
+public class TechnicalEntityProcessorTest {
+
+  private static final String BASE_URI = "http://localhost/odata";
+
+  private final OData odata = OData.newInstance();
+  private final ServiceMetadata serviceMetadata =
+      odata.createServiceMetadata(new EdmTechProvider(), Collections.<EdmxReference> emptyList());
+  private final DataProvider dataProvider = new DataProvider(odata, serviceMetadata.getEdm());
+
+  @Test
+  public void applyFilter() throws Exception {
+    final ODataResponse response = dispatch("/ESAllPrim",
+        "$apply=filter(PropertyInt16%20gt%200)&$select=PropertyInt16");
+
+    assertEquals(HttpStatusCode.OK.getStatusCode(), response.getStatusCode());
+    final String content = IOUtils.toString(response.getContent());
+    assertTrue(content, content.contains("\"value\":[{\"PropertyInt16\":32767},{\"PropertyInt16\":10}]"));
+  }
+
+  @Test
+  public void applyBeforeOtherOptions() throws Exception {
+    final ODataResponse response = dispatch("/ESAllPrim",
+        "$apply=topcount(2,PropertyInt16)&$orderby=PropertyInt16&$top=1&$select=PropertyInt16");
+
+    assertEquals(HttpStatusCode.OK.getStatusCode(), response.getStatusCode());
+    final String content = IOUtils.toString(response.getContent());
+    assertTrue(content, content.contains("\"value\":[{\"PropertyInt16\":10}]"));
+  }
+
+  @Test
+  public void applyConcat() throws Exception {
+    final ODataResponse response = dispatch("/ESAllPrim",
+        "$apply=concat(topcount(1,PropertyInt16),bottomcount(1,PropertyInt16))&$select=PropertyInt16");
+
+    assertEquals(HttpStatusCode.OK.getStatusCode(), response.getStatusCode());
+    final String content = IOUtils.toString(response.getContent());
+    assertTrue(content, content.contains("\"value\":[{\"PropertyInt16\":32767},{\"PropertyInt16\":-32768}]"));
+  }
+
+  @Test
+  public void applyAggregateNotSupported() throws Exception {
+    assertEquals(HttpStatusCode.NOT_IMPLEMENTED.getStatusCode(),
+        dispatch("/ESAllPrim", "$apply=aggregate(PropertyInt16%20with%20sum%20as%20Total)").getStatusCode());
+    assertEquals(HttpStatusCode.NOT_IMPLEMENTED.getStatusCode(),
+        dispatch("/ESAllPrim", "$apply=concat(identity,groupby((PropertyString)))").getStatusCode());
+  }
+
+  private ODataResponse dispatch(final String path, final String query) {
+    final ODataRequest request = new ODataRequest();
+    request.setMethod(HttpMethod.GET);
+    request.setRawBaseUri(BASE_URI);
+    request.setRawODataPath(path);
+    request.setRawQueryPath(query);
+    request.setRawRequestUri(BASE_URI + path + "?" + query);
+    request.addHeader(HttpHeader.ACCEPT, ContentType.JSON_NO_METADATA.toContentTypeString());
+
+    final ODataHandler handler = odata.createRawHandler(serviceMetadata);
+    handler.register(new TechnicalEntityProcessor(dataProvider, serviceMetadata));
+    return handler.process(request);
+  }
+}
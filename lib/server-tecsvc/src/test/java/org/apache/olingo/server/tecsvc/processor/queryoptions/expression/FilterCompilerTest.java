@@ -0,0 +1,114 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.tecsvc.processor.queryoptions.expression;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.commons.api.edm.Edm;
+import org.apache.olingo.commons.api.edm.EdmEntitySet;
+import org.apache.olingo.commons.api.edmx.EdmxReference;
+import org.apache.olingo.server.api.OData;
+import org.apache.olingo.server.api.uri.UriInfo;
+import org.apache.olingo.server.api.uri.queryoption.expression.Expression;
+import org.apache.olingo.server.core.uri.parser.Parser;
+import org.apache.olingo.server.tecsvc.data.DataProvider;
+import org.apache.olingo.server.tecsvc.processor.queryoptions.expression.operand.TypedOperand;
+import org.apache.olingo.server.tecsvc.provider.EdmTechProvider;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class FilterCompilerTest {
+
+  private final OData oData = OData.newInstance();
+  private final Edm edm =
+      oData.createServiceMetadata(new EdmTechProvider(), Collections.<EdmxReference> emptyList())
+      .getEdm();
+  private final DataProvider dataProvider = new DataProvider(oData, edm);
+
+  @Test
+  public void sameResultsAsVisitor() throws Exception {
+    final String[] filters = {
+        "PropertyInt16 eq 32767",
+        "PropertyInt16 ne 32767",
+        "PropertyInt16 lt 0",
+        "0 lt PropertyInt16",
+        "PropertyInt32 ge -2147483648 and PropertyInt64 le 0",
+        "PropertyByte gt 200 or PropertySByte lt 0",
+        "PropertyDouble gt -1.79E+20",
+        "PropertyDecimal le 34",
+        "PropertySingle eq 1.79E+20",
+        "PropertyString eq 'First Resource - positive values'",
+        "PropertyString gt 'A'",
+        "PropertyString le 'Second'",
+        "PropertyBoolean eq false",
+        "not (PropertyBoolean eq true)",
+        "PropertyString eq null",
+        "PropertyString ne null",
+        "PropertyDate eq 2012-12-03",
+        "PropertyInt16 eq 1.5",
+        "startswith(PropertyString,'First') or PropertyInt16 eq 0",
+        "PropertyInt16 add 1 gt 0" };
+    for (final String filter : filters) {
+      assertSameResults("ESAllPrim", filter);
+    }
+    assertSameResults("ESCompAllPrim", "PropertyComp/PropertyInt16 eq 32767");
+    assertSameResults("ESCompAllPrim", "PropertyComp/PropertyString ne 'First Resource - first'");
+  }
+
+  @Test
+  public void stringOrdering() throws Exception {
+    final List<Entity> entities =
+        dataProvider.readAll(edm.getEntityContainer().getEntitySet("ESAllPrim")).getEntities();
+    final CompiledFilter filter = FilterCompiler.compile(parse("ESAllPrim", "PropertyString lt 'Second'"), null, edm);
+    Assert.assertTrue(filter.matches(entities.get(0)));
+    Assert.assertFalse(filter.matches(entities.get(1)));
+  }
+
+  @Test
+  public void stringOrderingOfFunctionResult() throws Exception {
+    // Functions are not compiled, so the comparison is evaluated by the visitor.
+    final List<Entity> entities =
+        dataProvider.readAll(edm.getEntityContainer().getEntitySet("ESAllPrim")).getEntities();
+    final CompiledFilter filter = FilterCompiler.compile(parse("ESAllPrim", "tolower(PropertyString) gt 'a'"),
+        null, edm);
+    for (final Entity entity : entities) {
+      final String value = (String) entity.getProperty("PropertyString").getValue();
+      Assert.assertEquals(value, value.toLowerCase(Locale.ROOT).compareTo("a") > 0, filter.matches(entity));
+    }
+  }
+
+  private void assertSameResults(final String entitySetName, final String filter) throws Exception {
+    final EdmEntitySet entitySet = edm.getEntityContainer().getEntitySet(entitySetName);
+    final List<Entity> entities = dataProvider.readAll(entitySet).getEntities();
+    final Expression expression = parse(entitySetName, filter);
+    final CompiledFilter compiled = FilterCompiler.compile(expression, null, edm);
+    for (final Entity entity : entities) {
+      final TypedOperand operand = expression.accept(new ExpressionVisitorImpl(entity, null, edm)).asTypedOperand();
+      Assert.assertEquals(filter, !Boolean.FALSE.equals(operand.getValue()), compiled.matches(entity));
+    }
+  }
+
+  private Expression parse(final String entitySetName, final String filter) throws Exception {
+    final UriInfo uriInfo = new Parser(edm, oData).parseUri(entitySetName, "$filter=" + filter, null, null);
+    return uriInfo.getFilterOption().getExpression();
+  }
+}
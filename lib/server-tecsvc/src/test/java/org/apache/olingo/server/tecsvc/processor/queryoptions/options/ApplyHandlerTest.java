@@ -0,0 +1,210 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.tecsvc.processor.queryoptions.options;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.commons.api.data.EntityCollection;
+import org.apache.olingo.commons.api.data.EntityIterator;
+import org.apache.olingo.commons.api.data.Property;
+import org.apache.olingo.commons.api.data.ValueType;
+import org.apache.olingo.commons.api.edm.Edm;
+import org.apache.olingo.commons.api.edmx.EdmxReference;
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.server.api.OData;
+import org.apache.olingo.server.api.ODataApplicationException;
+import org.apache.olingo.server.api.uri.queryoption.ApplyOption;
+import org.apache.olingo.server.core.uri.parser.Parser;
+import org.apache.olingo.server.tecsvc.data.DataProvider;
+import org.apache.olingo.server.tecsvc.provider.EdmTechProvider;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ApplyHandlerTest {
+
+  private final OData oData = OData.newInstance();
+  private final Edm edm =
+      oData.createServiceMetadata(new EdmTechProvider(), Collections.<EdmxReference> emptyList())
+      .getEdm();
+  private final DataProvider dataProvider = new DataProvider(oData, edm);
+
+  @Test
+  public void aggregate() throws Exception {
+    final List<Entity> entities = readAllPrim();
+    final List<Entity> result = apply("aggregate(PropertyInt32 with sum as Total,"
+        + "PropertyInt16 with max as Max,PropertyString with countdistinct as Distinct,$count as Count)", entities);
+    Assert.assertEquals(1, result.size());
+    long total = 0;
+    short max = Short.MIN_VALUE;
+    for (final Entity entity : entities) {
+      total += (Integer) entity.getProperty("PropertyInt32").getValue();
+      max = (short) Math.max(max, (Short) entity.getProperty("PropertyInt16").getValue());
+    }
+    Assert.assertEquals(total, result.get(0).getProperty("Total").getValue());
+    Assert.assertEquals(max, result.get(0).getProperty("Max").getValue());
+    Assert.assertEquals((long) entities.size(), result.get(0).getProperty("Distinct").getValue());
+    Assert.assertEquals((long) entities.size(), result.get(0).getProperty("Count").getValue());
+  }
+
+  @Test
+  public void groupBy() throws Exception {
+    final List<Entity> entities = readAllPrim();
+    final List<Entity> result = apply("groupby((PropertyBoolean),aggregate(PropertyInt64 with sum as Total))",
+        entities);
+    Map<Object, BigDecimal> expected = new HashMap<Object, BigDecimal>();
+    for (final Entity entity : entities) {
+      final Object key = entity.getProperty("PropertyBoolean").getValue();
+      final BigDecimal value = BigDecimal.valueOf((Long) entity.getProperty("PropertyInt64").getValue());
+      expected.put(key, expected.containsKey(key) ? expected.get(key).add(value) : value);
+    }
+    Assert.assertEquals(expected.size(), result.size());
+    for (final Entity entity : result) {
+      Assert.assertEquals(2, entity.getProperties().size());
+      final BigDecimal total = new BigDecimal(entity.getProperty("Total").getValue().toString());
+      Assert.assertEquals(0, expected.get(entity.getProperty("PropertyBoolean").getValue()).compareTo(total));
+    }
+  }
+
+  @Test
+  public void aggregateTypes() throws Exception {
+    final List<Entity> result = apply("aggregate(PropertyInt16 with sum as Sum,PropertyDouble with sum as DoubleSum,"
+        + "PropertyDecimal with average as Average,$count as Count,PropertyInt16 with countdistinct as Distinct,"
+        + "PropertyInt16 with max as Max)", readAllPrim());
+    Assert.assertEquals(1, result.size());
+    final Entity entity = result.get(0);
+    assertType("Edm.Int64", Long.class, entity.getProperty("Sum"));
+    assertType("Edm.Double", Double.class, entity.getProperty("DoubleSum"));
+    assertType("Edm.Decimal", BigDecimal.class, entity.getProperty("Average"));
+    assertType("Edm.Int64", Long.class, entity.getProperty("Count"));
+    assertType("Edm.Int64", Long.class, entity.getProperty("Distinct"));
+    assertType("Edm.Int16", Short.class, entity.getProperty("Max"));
+  }
+
+  @Test
+  public void topAndBottomCount() throws Exception {
+    List<Entity> entities = readAllPrim();
+    final List<Entity> top = apply("topcount(2,PropertyInt16)", entities);
+    final List<Entity> bottom = apply("bottomcount(1,PropertyInt16)", entities);
+    Collections.sort(entities, new Comparator<Entity>() {
+      @Override
+      public int compare(final Entity entity1, final Entity entity2) {
+        return (Short) entity2.getProperty("PropertyInt16").getValue()
+            - (Short) entity1.getProperty("PropertyInt16").getValue();
+      }
+    });
+    Assert.assertEquals(entities.subList(0, 2), top);
+    Assert.assertEquals(Collections.singletonList(entities.get(entities.size() - 1)), bottom);
+  }
+
+  @Test
+  public void filterAndCompute() throws Exception {
+    final List<Entity> entities = readAllPrim();
+    final List<Entity> result = apply("filter(PropertyInt16 gt 0)/compute(PropertyInt16 add 1 as Next)", entities);
+    int index = 0;
+    for (final Entity entity : entities) {
+      final Short value = (Short) entity.getProperty("PropertyInt16").getValue();
+      if (value > 0) {
+        final Entity computed = result.get(index++);
+        Assert.assertEquals(value, computed.getProperty("PropertyInt16").getValue());
+        Assert.assertEquals(value + 1L, ((Number) computed.getProperty("Next").getValue()).longValue());
+        Assert.assertNull(entity.getProperty("Next"));
+      }
+    }
+    Assert.assertEquals(index, result.size());
+  }
+
+  @Test
+  public void entityIteratorInOnePass() throws Exception {
+    final int size = 10000;
+    final ApplyOption applyOption = parse("groupby((PropertyInt16),"
+        + "aggregate(PropertyInt64 with sum as Total,PropertyInt64 with average as Average,$count as Count))"
+        + "/topcount(3,Total)");
+    final EntityCollection result = ApplyHandler.applyApplySystemQuery(applyOption, new EntityIterator() {
+      private int index;
+
+      @Override
+      public boolean hasNext() {
+        return index < size;
+      }
+
+      @Override
+      public Entity next() {
+        final Entity entity = new Entity()
+            .addProperty(new Property(null, "PropertyInt16", ValueType.PRIMITIVE, (short) (index % 7)))
+            .addProperty(new Property(null, "PropertyInt64", ValueType.PRIMITIVE, Long.MAX_VALUE - index));
+        index++;
+        return entity;
+      }
+    }, null, edm);
+
+    // All sums overflow, the groups with the most entities have the highest sums.
+    Assert.assertEquals(3, result.getEntities().size());
+    for (int group = 0; group < 3; group++) {
+      final Entity entity = result.getEntities().get(group);
+      Assert.assertEquals((short) group, entity.getProperty("PropertyInt16").getValue());
+      BigDecimal expected = BigDecimal.ZERO;
+      long count = 0;
+      for (int index = group; index < size; index += 7) {
+        expected = expected.add(BigDecimal.valueOf(Long.MAX_VALUE - index));
+        count++;
+      }
+      Assert.assertEquals(expected, entity.getProperty("Total").getValue());
+      Assert.assertEquals(count, entity.getProperty("Count").getValue());
+      Assert.assertEquals(0, expected.divide(BigDecimal.valueOf(count))
+          .compareTo((BigDecimal) entity.getProperty("Average").getValue()));
+    }
+  }
+
+  @Test
+  public void unsupportedTransformation() throws Exception {
+    try {
+      apply("search(Second)", readAllPrim());
+      Assert.fail("Expected exception not thrown.");
+    } catch (final ODataApplicationException e) {
+      Assert.assertEquals(HttpStatusCode.NOT_IMPLEMENTED.getStatusCode(), e.getStatusCode());
+    }
+  }
+
+  private void assertType(final String typeName, final Class<?> valueClass, final Property property) {
+    Assert.assertEquals(property.getName(), typeName, property.getType());
+    Assert.assertEquals(property.getName(), valueClass, property.getValue().getClass());
+  }
+
+  private List<Entity> readAllPrim() throws Exception {
+    return new ArrayList<Entity>(
+        dataProvider.readAll(edm.getEntityContainer().getEntitySet("ESAllPrim")).getEntities());
+  }
+
+  private List<Entity> apply(final String apply, final List<Entity> entities) throws Exception {
+    EntityCollection collection = new EntityCollection();
+    collection.getEntities().addAll(entities);
+    return ApplyHandler.applyApplySystemQuery(parse(apply), collection, null, edm).getEntities();
+  }
+
+  private ApplyOption parse(final String apply) throws Exception {
+    return new Parser(edm, oData).parseUri("ESAllPrim", "$apply=" + apply, null, null).getApplyOption();
+  }
+}
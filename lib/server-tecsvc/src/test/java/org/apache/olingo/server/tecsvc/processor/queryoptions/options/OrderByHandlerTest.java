@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.tecsvc.processor.queryoptions.options;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.commons.api.data.EntityCollection;
+import org.apache.olingo.commons.api.edm.Edm;
+import org.apache.olingo.commons.api.edmx.EdmxReference;
+import org.apache.olingo.server.api.OData;
+import org.apache.olingo.server.api.uri.UriInfo;
+import org.apache.olingo.server.core.uri.parser.Parser;
+import org.apache.olingo.server.tecsvc.data.DataProvider;
+import org.apache.olingo.server.tecsvc.provider.EdmTechProvider;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class OrderByHandlerTest {
+
+  private final OData oData = OData.newInstance();
+  private final Edm edm =
+      oData.createServiceMetadata(new EdmTechProvider(), Collections.<EdmxReference> emptyList())
+      .getEdm();
+  private final DataProvider dataProvider = new DataProvider(oData, edm);
+
+  @Test
+  public void boundedSelectionSameAsFullSort() throws Exception {
+    final String[] orders = { "PropertyInt16", "PropertyInt16 desc", "PropertyBoolean",
+        "PropertyBoolean desc,PropertyString", "PropertyString desc,PropertyInt16" };
+    for (final String entitySetName : new String[] { "ESAllPrim", "ESTwoKeyNav" }) {
+      final int size = readAll(entitySetName).size();
+      for (final String order : orders) {
+        if (!"ESAllPrim".equals(entitySetName) && order.contains("Boolean")) {
+          continue;
+        }
+        for (int skip = 0; skip <= size; skip++) {
+          for (int top = 0; top <= size; top++) {
+            final String query = "$orderby=" + order + "&$skip=" + skip + "&$top=" + top;
+            Assert.assertEquals(query, sortAll(entitySetName, query), apply(entitySetName, query));
+          }
+        }
+      }
+    }
+  }
+
+  @Test
+  public void stableForEqualValues() throws Exception {
+    final List<Entity> entities = readAll("ESAllPrim");
+    final List<Entity> expected = new ArrayList<Entity>();
+    for (final Boolean value : new Boolean[] { Boolean.FALSE, Boolean.TRUE }) {
+      for (final Entity entity : entities) {
+        if (value.equals(entity.getProperty("PropertyBoolean").getValue())) {
+          expected.add(entity);
+        }
+      }
+    }
+    Assert.assertEquals(expected, apply("ESAllPrim", "$orderby=PropertyBoolean"));
+    Assert.assertEquals(expected.subList(0, 2), apply("ESAllPrim", "$orderby=PropertyBoolean&$top=2"));
+  }
+
+  private List<Entity> apply(final String entitySetName, final String query) throws Exception {
+    final UriInfo uriInfo = new Parser(edm, oData).parseUri(entitySetName, query, null, null);
+    EntityCollection entitySet = copy(entitySetName);
+    OrderByHandler.applyOrderBySkipTopOptions(uriInfo.getOrderByOption(), uriInfo.getSkipOption(),
+        uriInfo.getTopOption(), entitySet, uriInfo, edm);
+    return entitySet.getEntities();
+  }
+
+  private List<Entity> sortAll(final String entitySetName, final String query) throws Exception {
+    final UriInfo uriInfo = new Parser(edm, oData).parseUri(entitySetName, query, null, null);
+    EntityCollection entitySet = copy(entitySetName);
+    OrderByHandler.applyOrderByOption(uriInfo.getOrderByOption(), entitySet, uriInfo, edm);
+    SkipHandler.applySkipSystemQueryHandler(uriInfo.getSkipOption(), entitySet);
+    TopHandler.applyTopSystemQueryOption(uriInfo.getTopOption(), entitySet);
+    return entitySet.getEntities();
+  }
+
+  private EntityCollection copy(final String entitySetName) throws Exception {
+    EntityCollection entitySet = new EntityCollection();
+    entitySet.getEntities().addAll(readAll(entitySetName));
+    return entitySet;
+  }
+
+  private List<Entity> readAll(final String entitySetName) throws Exception {
+    return dataProvider.readAll(edm.getEntityContainer().getEntitySet(entitySetName)).getEntities();
+  }
+}
@@ -0,0 +1,149 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.tecsvc.processor.queryoptions.search;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.commons.api.data.EntityCollection;
+import org.apache.olingo.commons.api.data.Property;
+import org.apache.olingo.commons.api.data.ValueType;
+import org.apache.olingo.commons.api.edm.Edm;
+import org.apache.olingo.commons.api.edm.EdmEntitySet;
+import org.apache.olingo.commons.api.edmx.EdmxReference;
+import org.apache.olingo.server.api.OData;
+import org.apache.olingo.server.api.uri.queryoption.SearchOption;
+import org.apache.olingo.server.api.uri.queryoption.search.SearchExpression;
+import org.apache.olingo.server.core.uri.parser.Parser;
+import org.apache.olingo.server.tecsvc.data.DataProvider;
+import org.apache.olingo.server.tecsvc.processor.queryoptions.options.SearchHandler;
+import org.apache.olingo.server.tecsvc.provider.EdmTechProvider;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class InMemorySearchIndexTest {
+
+  private final OData oData = OData.newInstance();
+  private final Edm edm =
+      oData.createServiceMetadata(new EdmTechProvider(), Collections.<EdmxReference> emptyList())
+      .getEdm();
+  private final EdmEntitySet entitySet = edm.getEntityContainer().getEntitySet("ESAllPrim");
+  private final DataProvider dataProvider = new DataProvider(oData, edm);
+
+  @Test
+  public void words() throws Exception {
+    final List<Entity> entities = dataProvider.readAll(entitySet).getEntities();
+    final InMemorySearchIndex index = new InMemorySearchIndex(entities);
+    final Entity first = entities.get(0);
+    final Entity second = entities.get(1);
+
+    assertResult(index, "Second", second);
+    assertResult(index, "second", second);
+    assertResult(index, "Resource", first, second);
+    assertResult(index, "Resource AND NOT negative", first);
+    assertResult(index, "Second OR positive", first, second);
+    assertResult(index, "Second positive");
+    assertResult(index, "Sec");
+    Assert.assertEquals(entities.size() - 2, index.search(parse("NOT Resource")).size());
+  }
+
+  @Test
+  public void phrases() throws Exception {
+    final List<Entity> entities = dataProvider.readAll(entitySet).getEntities();
+    final InMemorySearchIndex index = new InMemorySearchIndex(entities);
+    final Entity first = entities.get(0);
+    final Entity second = entities.get(1);
+
+    assertResult(index, "\"resource - NEGATIVE\"", second);
+    assertResult(index, "\"Resource - positive\" OR \"Resource - negative\"", first, second);
+    assertResult(index, "\"negative Resource\"");
+    final Set<Entity> result = index.search(parse("\"32767\""));
+    Assert.assertTrue(result.contains(first));
+    Assert.assertFalse(result.contains(second));
+  }
+
+  @Test
+  public void incrementalUpdates() throws Exception {
+    final List<Entity> entities = dataProvider.readAll(entitySet).getEntities();
+    final InMemorySearchIndex index = new InMemorySearchIndex(entities);
+    final Entity first = entities.get(0);
+    final Entity second = entities.get(1);
+
+    first.getProperty("PropertyString").setValue(ValueType.PRIMITIVE, "Changed Resource");
+    assertResult(index, "positive", first);
+    index.update(first);
+    assertResult(index, "positive");
+    assertResult(index, "changed", first);
+
+    index.remove(second);
+    Assert.assertFalse(index.contains(second));
+    assertResult(index, "Resource", first);
+    assertResult(index, "NOT changed AND \"Resource\"");
+
+    index.add(second);
+    Assert.assertEquals(entities.size(), index.size());
+    assertResult(index, "Resource", first, second);
+  }
+
+  @Test
+  public void dataProviderKeepsIndexUpToDate() throws Exception {
+    final SearchIndex index = dataProvider.getSearchIndex(entitySet);
+    final Entity created = dataProvider.create(entitySet);
+    Assert.assertTrue(index.contains(created));
+
+    Entity changed = new Entity();
+    changed.addProperty(new Property(null, "PropertyString", ValueType.PRIMITIVE, "Created"));
+    dataProvider.update(null, entitySet, created, changed, true, false);
+    assertResult(index, "created", created);
+
+    dataProvider.delete(entitySet, created);
+    Assert.assertFalse(index.contains(created));
+    assertResult(index, "created");
+  }
+
+  @Test
+  public void handlerSearchesEntitiesMissingInIndex() throws Exception {
+    final List<Entity> entities = dataProvider.readAll(entitySet).getEntities();
+    final InMemorySearchIndex index = new InMemorySearchIndex(entities.subList(1, entities.size()));
+    EntityCollection collection = new EntityCollection();
+    collection.getEntities().addAll(entities);
+    SearchHandler.applySearchSystemQueryOption(getSearchOption("Resource"), collection, index);
+    Assert.assertEquals(entities.subList(0, 2), collection.getEntities());
+  }
+
+  private void assertResult(final SearchIndex index, final String search, final Entity... expected)
+      throws Exception {
+    List<Entity> expectedList = new ArrayList<Entity>();
+    Collections.addAll(expectedList, expected);
+    final Set<Entity> result = index.search(parse(search));
+    Assert.assertEquals(search, expectedList.size(), result.size());
+    Assert.assertTrue(search, result.containsAll(expectedList));
+  }
+
+  private SearchExpression parse(final String search) throws Exception {
+    return getSearchOption(search).getSearchExpression();
+  }
+
+  private SearchOption getSearchOption(final String search) throws Exception {
+    return new Parser(edm, oData).parseUri("ESAllPrim", "$search=" + search, null, null).getSearchOption();
+  }
+}
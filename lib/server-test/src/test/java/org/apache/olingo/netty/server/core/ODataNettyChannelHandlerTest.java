@@ -0,0 +1,218 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.netty.server.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.olingo.commons.api.edmx.EdmxReference;
+import org.apache.olingo.commons.api.format.ContentType;
+import org.apache.olingo.commons.api.http.HttpHeader;
+import org.apache.olingo.commons.api.http.HttpStatusCode;
+import org.apache.olingo.netty.server.api.ODataNetty;
+import org.apache.olingo.netty.server.api.ODataNettyHandler;
+import org.apache.olingo.server.api.ODataRequest;
+import org.apache.olingo.server.api.ODataResponse;
+import org.apache.olingo.server.api.ServiceMetadata;
+import org.apache.olingo.server.api.processor.EntityProcessor;
+import org.apache.olingo.server.api.uri.UriInfo;
+import org.apache.olingo.server.api.uri.UriResourceEntitySet;
+import org.apache.olingo.server.tecsvc.provider.EdmTechProvider;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.handler.codec.http.HttpServerCodec;
+
+public class ODataNettyChannelHandlerTest {
+
+  private EventLoopGroup group;
+  private ExecutorService executor;
+  private Channel serverChannel;
+  private ODataNettyHandler handler;
+
+  @Before
+  public void startServer() throws Exception {
+    final ODataNetty odata = ODataNetty.newInstance();
+    final ServiceMetadata metadata = odata.createServiceMetadata(
+        new EdmTechProvider(), Collections.<EdmxReference> emptyList());
+    handler = odata.createNettyHandler(metadata);
+    group = new NioEventLoopGroup(1);
+    executor = Executors.newCachedThreadPool();
+    serverChannel = new ServerBootstrap()
+        .group(group)
+        .channel(NioServerSocketChannel.class)
+        .childHandler(new ChannelInitializer<SocketChannel>() {
+          @Override
+          protected void initChannel(final SocketChannel channel) {
+            channel.pipeline().addLast(new HttpServerCodec(),
+                handler.createChannelHandler(Collections.singletonMap("contextPath", "/odata.svc"), executor));
+          }
+        })
+        .bind(new InetSocketAddress("localhost", 0)).sync().channel();
+  }
+
+  @After
+  public void stopServer() throws Exception {
+    serverChannel.close().sync();
+    group.shutdownGracefully(0, 1, TimeUnit.SECONDS).sync();
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void chunkedResponse() throws Exception {
+    for (int index = 0; index < 2; index++) {
+      final HttpURLConnection connection = open("$metadata");
+      connection.setRequestProperty(HttpHeader.ACCEPT, ContentType.APPLICATION_XML.toContentTypeString());
+      assertEquals(HttpStatusCode.OK.getStatusCode(), connection.getResponseCode());
+      assertEquals("chunked", connection.getHeaderField("Transfer-Encoding"));
+      assertNull(connection.getHeaderField(HttpHeader.CONTENT_LENGTH));
+      final String content = IOUtils.toString(connection.getInputStream(), "UTF-8");
+      assertTrue(content.startsWith("<?xml"));
+      assertTrue(content.endsWith("</edmx:Edmx>"));
+    }
+  }
+
+  @Test
+  public void streamedRequestBody() throws Exception {
+    final EntityProcessor processor = mock(EntityProcessor.class);
+    doAnswer(new Answer<Void>() {
+      @Override
+      public Void answer(final InvocationOnMock invocation) throws Throwable {
+        final ODataRequest request = (ODataRequest) invocation.getArguments()[0];
+        final ODataResponse response = (ODataResponse) invocation.getArguments()[1];
+        response.setContent(new ByteArrayInputStream(IOUtils.toByteArray(request.getBody())));
+        response.setStatusCode(HttpStatusCode.CREATED.getStatusCode());
+        response.setHeader(HttpHeader.CONTENT_TYPE, ContentType.JSON.toContentTypeString());
+        return null;
+      }
+    }).when(processor).createEntity(any(ODataRequest.class), any(ODataResponse.class), any(UriInfo.class),
+        any(ContentType.class), any(ContentType.class));
+    handler.register(processor);
+
+    final StringBuilder builder = new StringBuilder("{\"PropertyString\":\"");
+    for (int index = 0; index < 50000; index++) {
+      builder.append("0123456789");
+    }
+    final String body = builder.append("\"}").toString();
+
+    final HttpURLConnection connection = open("ESAllPrim");
+    connection.setRequestMethod("POST");
+    connection.setRequestProperty(HttpHeader.CONTENT_TYPE, ContentType.JSON.toContentTypeString());
+    connection.setRequestProperty(HttpHeader.ACCEPT, ContentType.JSON.toContentTypeString());
+    connection.setDoOutput(true);
+    connection.setChunkedStreamingMode(4096);
+    final OutputStream output = connection.getOutputStream();
+    output.write(body.getBytes("UTF-8"));
+    output.close();
+
+    assertEquals(HttpStatusCode.CREATED.getStatusCode(), connection.getResponseCode());
+    final InputStream input = connection.getInputStream();
+    assertEquals(body, IOUtils.toString(input, "UTF-8"));
+    input.close();
+  }
+
+  @Test
+  public void overlappingRequestsOnSeveralChannels() throws Exception {
+    final int requestCount = 8;
+    final CountDownLatch started = new CountDownLatch(requestCount);
+    final EntityProcessor processor = mock(EntityProcessor.class);
+    doAnswer(new Answer<Void>() {
+      @Override
+      public Void answer(final InvocationOnMock invocation) throws Throwable {
+        final ODataResponse response = (ODataResponse) invocation.getArguments()[1];
+        final UriInfo uriInfo = (UriInfo) invocation.getArguments()[2];
+        // All requests are in the processor at the same time before any of them reads its URI info.
+        started.countDown();
+        started.await(10, TimeUnit.SECONDS);
+        final String key = ((UriResourceEntitySet) uriInfo.getUriResourceParts().get(0))
+            .getKeyPredicates().get(0).getText();
+        response.setContent(new ByteArrayInputStream(key.getBytes("UTF-8")));
+        response.setStatusCode(HttpStatusCode.OK.getStatusCode());
+        response.setHeader(HttpHeader.CONTENT_TYPE, ContentType.JSON.toContentTypeString());
+        return null;
+      }
+    }).when(processor).readEntity(any(ODataRequest.class), any(ODataResponse.class), any(UriInfo.class),
+        any(ContentType.class));
+    handler.register(processor);
+
+    final ExecutorService clients = Executors.newFixedThreadPool(requestCount);
+    try {
+      List<Future<String>> responses = new ArrayList<Future<String>>();
+      for (int index = 0; index < requestCount; index++) {
+        final String key = Integer.toString(index);
+        responses.add(clients.submit(new Callable<String>() {
+          @Override
+          public String call() throws Exception {
+            final HttpURLConnection connection = open("ESAllPrim(" + key + ")");
+            connection.setRequestProperty(HttpHeader.ACCEPT, ContentType.JSON.toContentTypeString());
+            assertEquals(HttpStatusCode.OK.getStatusCode(), connection.getResponseCode());
+            final InputStream input = connection.getInputStream();
+            try {
+              return IOUtils.toString(input, "UTF-8");
+            } finally {
+              input.close();
+            }
+          }
+        }));
+      }
+      for (int index = 0; index < requestCount; index++) {
+        assertEquals(Integer.toString(index), responses.get(index).get(20, TimeUnit.SECONDS));
+      }
+    } finally {
+      clients.shutdownNow();
+    }
+  }
+
+  private HttpURLConnection open(final String path) throws Exception {
+    final InetSocketAddress address = (InetSocketAddress) serverChannel.localAddress();
+    return (HttpURLConnection) new URL("http", address.getHostName(), address.getPort(), "/odata.svc/" + path)
+        .openConnection();
+  }
+}
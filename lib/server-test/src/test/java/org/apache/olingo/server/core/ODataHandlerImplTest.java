@@ -83,11 +83,13 @@ import org.apache.olingo.server.api.processor.ReferenceCollectionProcessor;
 import org.apache.olingo.server.api.processor.ReferenceProcessor;
 import org.apache.olingo.server.api.processor.ServiceDocumentProcessor;
 import org.apache.olingo.server.api.uri.UriInfo;
+import org.apache.olingo.server.api.uri.UriInfoCache;
 import org.apache.olingo.server.core.debug.ServerCoreDebugger;
 import org.apache.olingo.server.tecsvc.processor.TechnicalActionProcessor;
 import org.apache.olingo.server.tecsvc.provider.ContainerProvider;
 import org.apache.olingo.server.tecsvc.provider.EdmTechProvider;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 
 public class ODataHandlerImplTest {
 
@@ -1115,6 +1117,91 @@ public class ODataHandlerImplTest {
         any(ContentType.class));
   }
 
+  @Test
+  public void metadataWithPreloadedEdm() throws Exception {
+    final OData odata = OData.newInstance();
+    final String expected = IOUtils.toString(dispatchMetadata(odata,
+        odata.createServiceMetadata(new EdmTechProvider(), Collections.<EdmxReference> emptyList()))
+        .getContent());
+    final ODataResponse response = dispatchMetadata(odata,
+        odata.createServiceMetadata(new EdmTechProvider(), Collections.<EdmxReference> emptyList(), null, true));
+    assertEquals(HttpStatusCode.OK.getStatusCode(), response.getStatusCode());
+    assertEquals(expected, IOUtils.toString(response.getContent()));
+  }
+
+  private ODataResponse dispatchMetadata(final OData odata, final ServiceMetadata metadata) {
+    final ODataRequest request = new ODataRequest();
+    request.setMethod(HttpMethod.GET);
+    request.setRawBaseUri(BASE_URI);
+    request.setRawODataPath("$metadata");
+    return new ODataHandlerImpl(odata, metadata, new ServerCoreDebugger(odata)).process(request);
+  }
+
+  @Test
+  public void uriInfoCache() throws Exception {
+    final OData odata = OData.newInstance();
+    final ServiceMetadata metadata = odata.createServiceMetadata(
+        new EdmTechProvider(), Collections.<EdmxReference> emptyList());
+    final UriInfoCache cache = odata.createUriInfoCache(10);
+    final EntityCollectionProcessor processor = mock(EntityCollectionProcessor.class);
+
+    for (int index = 0; index < 2; index++) {
+      dispatchWithCache(odata, metadata, cache, "$top=1", processor);
+    }
+
+    final ArgumentCaptor<UriInfo> uriInfoCaptor = ArgumentCaptor.forClass(UriInfo.class);
+    verify(processor, times(2)).readEntityCollection(
+        any(ODataRequest.class), any(ODataResponse.class), uriInfoCaptor.capture(), any(ContentType.class));
+    assertTrue(uriInfoCaptor.getAllValues().get(0) == uriInfoCaptor.getAllValues().get(1));
+    assertEquals(1, uriInfoCaptor.getValue().getTopOption().getValue());
+    assertEquals(1, cache.getHitCount());
+    assertEquals(1, cache.getMissCount());
+    assertEquals(1, cache.size());
+
+    // URIs with errors are not cached.
+    assertEquals(HttpStatusCode.BAD_REQUEST.getStatusCode(),
+        dispatchWithCache(odata, metadata, cache, "$top=-1", processor).getStatusCode());
+    assertEquals(1, cache.size());
+    assertEquals(2, cache.getMissCount());
+  }
+
+  @Test
+  public void processorRegisteredAfterDispatch() throws Exception {
+    final OData odata = OData.newInstance();
+    final ServiceMetadata metadata = odata.createServiceMetadata(
+        new EdmTechProvider(), Collections.<EdmxReference> emptyList());
+    final ODataHandlerImpl handler = new ODataHandlerImpl(odata, metadata, new ServerCoreDebugger(odata));
+    final EntityCollectionProcessor first = mock(EntityCollectionProcessor.class);
+    final EntityCollectionProcessor second = mock(EntityCollectionProcessor.class);
+    handler.register(first);
+
+    final ODataRequest request = new ODataRequest();
+    request.setMethod(HttpMethod.GET);
+    request.setRawBaseUri(BASE_URI);
+    request.setRawODataPath("ESAllPrim");
+    handler.process(request);
+    handler.register(second);
+    handler.process(request);
+
+    verify(first).readEntityCollection(
+        any(ODataRequest.class), any(ODataResponse.class), any(UriInfo.class), any(ContentType.class));
+    verify(second).readEntityCollection(
+        any(ODataRequest.class), any(ODataResponse.class), any(UriInfo.class), any(ContentType.class));
+  }
+
+  private ODataResponse dispatchWithCache(final OData odata, final ServiceMetadata metadata,
+      final UriInfoCache cache, final String query, final Processor processor) {
+    final ODataHandlerImpl handler = new ODataHandlerImpl(odata, metadata, new ServerCoreDebugger(odata));
+    handler.register(processor);
+    handler.register(cache);
+    final ODataRequest request = new ODataRequest();
+    request.setMethod(HttpMethod.GET);
+    request.setRawBaseUri(BASE_URI);
+    request.setRawODataPath("ESAllPrim");
+    request.setRawQueryPath(query);
+    return handler.process(request);
+  }
+
   private ODataResponse dispatch(final HttpMethod method, final String path, final String query,
       final String headerName, final String headerValue, final Processor processor) {
     ODataRequest request = new ODataRequest();
@@ -0,0 +1,303 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.olingo.server.core.deserializer.json;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.olingo.commons.api.data.ComplexValue;
+import org.apache.olingo.commons.api.data.Delta;
+import org.apache.olingo.commons.api.data.Entity;
+import org.apache.olingo.commons.api.data.EntityCollection;
+import org.apache.olingo.commons.api.data.Link;
+import org.apache.olingo.commons.api.data.Property;
+import org.apache.olingo.commons.api.edm.EdmEntityType;
+import org.apache.olingo.commons.api.edm.FullQualifiedName;
+import org.apache.olingo.commons.api.format.ContentType;
+import org.apache.olingo.server.api.OData;
+import org.apache.olingo.server.api.deserializer.DeserializerException;
+import org.apache.olingo.server.api.deserializer.DeserializerResult;
+import org.apache.olingo.server.api.deserializer.ODataDeserializer;
+import org.apache.olingo.server.core.ODataImpl;
+import org.apache.olingo.server.core.deserializer.AbstractODataDeserializerTest;
+import org.junit.Test;
+
+/**
+ * Checks that the token-streaming JSON deserializer produces the same results
+ * as the tree-based one.
+ */
+public class ODataJsonStreamDeserializerTest extends AbstractODataDeserializerTest {
+
+  @Test
+  public void createdByODataImpl() throws Exception {
+    ODataImpl odata = new ODataImpl();
+    odata.setJsonStreamDeserialization(true);
+    assertTrue(odata.createDeserializer(ContentType.JSON, metadata) instanceof ODataJsonStreamDeserializer);
+    assertTrue(odata.createDeserializer(ContentType.JSON_FULL_METADATA) instanceof ODataJsonStreamDeserializer);
+    assertTrue(OData.newInstance().createDeserializer(ContentType.JSON, metadata)
+        instanceof ODataJsonDeserializer);
+  }
+
+  @Test
+  public void entityCollections() throws Exception {
+    assertSameEntityCollection("ESAllPrim.json", "ETAllPrim");
+    assertSameEntityCollection("ESAllPrimWithODataAnnotations.json", "ETAllPrim");
+    assertSameEntityCollection("ESCompCollComp.json", "ETCompCollComp");
+  }
+
+  @Test
+  public void entities() throws Exception {
+    assertSameEntity("EntityESAllPrimExpandedNavPropertyETTwoPrimOne.json", "ETAllPrim");
+    assertSameEntity("EntityESAllPrimExpandedNavPropertyETTwoPrimMany.json", "ETAllPrim");
+    assertSameEntity("EntityESAllPrimExpandedNavPropertyETTwoPrimManyWithODataAnnotations.json", "ETAllPrim");
+    assertSameEntity("UnbalancedESAllPrimFeed.json", "ETAllPrim");
+    assertSameEntity("UnbalancedESAllPrimFeed2.json", "ETAllPrim");
+    assertSameEntity("EntityETMixEnumDefCollComp.json", "ETMixEnumDefCollComp");
+    assertSameEntity("EntityETMixEnumDefCollCompWithEnumStrings.json", "ETMixEnumDefCollComp");
+  }
+
+  @Test
+  public void inlineEntities() throws Exception {
+    assertSameEntityString("{\"PropertyInt16\":1,\"PropertyString\":\"a\","
+        + "\"NavPropertyETTwoPrimOne@odata.bind\":\"ESTwoPrim(2)\","
+        + "\"NavPropertyETTwoPrimMany@odata.bind\":[\"ESTwoPrim(3)\",\"ESTwoPrim(4)\"]}", "ETAllPrim");
+    assertSameEntityString("{\"PropertyInt16\":1,\"PropertyDouble\":-1.79E19,\"PropertySingle\":1.5,"
+        + "\"PropertyDecimal\":34,\"PropertyInt64\":9223372036854775807}", "ETAllPrim");
+  }
+
+  @Test
+  public void derivedType() throws Exception {
+    final String payload = "{\"@odata.type\":\"#" + NAMESPACE + ".ETTwoBase\","
+        + "\"PropertyInt16\":32767,\"PropertyString\":\"a\",\"AdditionalPropertyString_5\":\"b\","
+        + "\"AdditionalPropertyString_6\":\"c\"}";
+    assertSameEntityString(payload, "ETBase");
+    final String trailingType = "{\"PropertyInt16\":32767,\"AdditionalPropertyString_6\":\"c\","
+        + "\"PropertyString\":\"a\",\"@odata.type\":\"#" + NAMESPACE + ".ETTwoBase\"}";
+    assertSameEntityString(trailingType, "ETBase");
+  }
+
+  @Test
+  public void delta() throws Exception {
+    final EdmEntityType entityType = edm.getEntityType(new FullQualifiedName(NAMESPACE, "ETAllPrim"));
+    List<String> versions = new ArrayList<String>();
+    versions.add("4.01");
+    ODataImpl odata = new ODataImpl();
+    odata.setJsonStreamDeserialization(true);
+    final Entity entity = odata.createDeserializer(ContentType.JSON, metadata, versions)
+        .entity(getFileAsStream("EntityESAllPrimExpandedNavPropertyETTwoPrimManyDelta.json"), entityType)
+        .getEntity();
+    final Link link = entity.getNavigationLink("NavPropertyETTwoPrimMany");
+    assertNotNull(link);
+    assertNotNull(link.getInlineEntitySet());
+    assertEquals(3, link.getInlineEntitySet().getEntities().size());
+    assertEquals("ESAllPrim(5)", link.getInlineEntitySet().getEntities().get(0).getId().toString());
+    assertEquals("olingo.odata.test1.ETTwoPrim", link.getInlineEntitySet().getEntities().get(1).getType());
+    assertEquals("Test String2",
+        link.getInlineEntitySet().getEntities().get(1).getProperty("PropertyString").getValue());
+    assertNull(link.getInlineEntitySet().getEntities().get(2).getId());
+    assertEquals(2, ((Delta) link.getInlineEntitySet()).getDeletedEntities().size());
+  }
+
+  @Test
+  public void errors() throws Exception {
+    assertSameError("{\"PropertyInt16\":1,\"PropertyInt16\":2}", "ETAllPrim");
+    assertSameError("{\"PropertyInt16\":null}", "ETAllPrim");
+    assertSameError("{\"PropertyInt16\":1,\"Unknown\":2}", "ETAllPrim");
+    assertSameError("{\"PropertyInt16\":\"1\"}", "ETAllPrim");
+    assertSameError("{\"PropertyInt16\":1,\"PropertyString\":[\"a\"]}", "ETAllPrim");
+    assertSameError("{\"PropertyInt16\":1,\"@custom.annotation\":1}", "ETAllPrim");
+    assertSameError("{\"PropertyInt16\":1,\"NavPropertyETTwoPrimMany\":null}", "ETAllPrim");
+    assertSameError("{\"PropertyInt16\":1,\"NavPropertyETTwoPrimOne\":\"a\"}", "ETAllPrim");
+    assertSameError("{\"@odata.type\":\"#" + NAMESPACE + ".ETAllPrim\",\"PropertyInt16\":1}", "ETBase");
+
+    for (final String payload : new String[] { "{}", "{\"value\":{}}", "{\"value\":[1]}", "[]" }) {
+      assertSameCollectionError(payload, "ETAllPrim");
+    }
+  }
+
+  private void assertSameEntityCollection(final String resourceName, final String entityTypeName)
+      throws Exception {
+    final EdmEntityType entityType = edm.getEntityType(new FullQualifiedName(NAMESPACE, entityTypeName));
+    final EntityCollection expected =
+        treeDeserializer().entityCollection(getFileAsStream(resourceName), entityType).getEntityCollection();
+    final EntityCollection actual =
+        streamDeserializer().entityCollection(getFileAsStream(resourceName), entityType).getEntityCollection();
+    assertEquals(expected.getCount(), actual.getCount());
+    assertEquals(expected.getNext(), actual.getNext());
+    assertEquals(expected.getEntities().size(), actual.getEntities().size());
+    for (int i = 0; i < expected.getEntities().size(); i++) {
+      assertSame(expected.getEntities().get(i), actual.getEntities().get(i));
+    }
+  }
+
+  private void assertSameEntity(final String resourceName, final String entityTypeName) throws Exception {
+    final EdmEntityType entityType = edm.getEntityType(new FullQualifiedName(NAMESPACE, entityTypeName));
+    final DeserializerResult expected = treeDeserializer().entity(getFileAsStream(resourceName), entityType);
+    final DeserializerResult actual = streamDeserializer().entity(getFileAsStream(resourceName), entityType);
+    assertSame(expected.getEntity(), actual.getEntity());
+    if (expected.getExpandTree() == null) {
+      assertNull(actual.getExpandTree());
+    } else {
+      assertEquals(expected.getExpandTree().getExpandItems().size(),
+          actual.getExpandTree().getExpandItems().size());
+    }
+  }
+
+  private void assertSameEntityString(final String payload, final String entityTypeName) throws Exception {
+    final EdmEntityType entityType = edm.getEntityType(new FullQualifiedName(NAMESPACE, entityTypeName));
+    final Entity expected = treeDeserializer().entity(stream(payload), entityType).getEntity();
+    final Entity actual = streamDeserializer().entity(stream(payload), entityType).getEntity();
+    assertSame(expected, actual);
+  }
+
+  private void assertSameError(final String payload, final String entityTypeName) {
+    final EdmEntityType entityType = edm.getEntityType(new FullQualifiedName(NAMESPACE, entityTypeName));
+    DeserializerException.MessageKeys expected = null;
+    try {
+      treeDeserializer().entity(stream(payload), entityType);
+      fail("Expected exception not thrown.");
+    } catch (final DeserializerException e) {
+      expected = (DeserializerException.MessageKeys) e.getMessageKey();
+    }
+    try {
+      streamDeserializer().entity(stream(payload), entityType);
+      fail("Expected exception not thrown.");
+    } catch (final DeserializerException e) {
+      assertEquals(payload, expected, e.getMessageKey());
+    }
+  }
+
+  private void assertSameCollectionError(final String payload, final String entityTypeName) {
+    final EdmEntityType entityType = edm.getEntityType(new FullQualifiedName(NAMESPACE, entityTypeName));
+    DeserializerException.MessageKeys expected = null;
+    try {
+      treeDeserializer().entityCollection(stream(payload), entityType);
+      fail("Expected exception not thrown.");
+    } catch (final DeserializerException e) {
+      expected = (DeserializerException.MessageKeys) e.getMessageKey();
+    }
+    try {
+      streamDeserializer().entityCollection(stream(payload), entityType);
+      fail("Expected exception not thrown.");
+    } catch (final DeserializerException e) {
+      assertEquals(payload, expected, e.getMessageKey());
+    }
+  }
+
+  private static ODataDeserializer treeDeserializer() throws DeserializerException {
+    return OData.newInstance().createDeserializer(ContentType.JSON, metadata);
+  }
+
+  private static ODataDeserializer streamDeserializer() {
+    return new ODataJsonStreamDeserializer(ContentType.JSON, metadata);
+  }
+
+  private static InputStream stream(final String payload) {
+    return new ByteArrayInputStream(payload.getBytes());
+  }
+
+  /**
+   * Compares two entities structurally; properties and links are matched by name,
+   * since the streaming parser keeps payload order.
+   */
+  private static void assertSame(final Entity expected, final Entity actual) {
+    assertEquals(expected.getType(), actual.getType());
+    assertEquals(expected.getId(), actual.getId());
+    assertSameProperties(expected.getProperties(), actual.getProperties());
+    assertSameLinks(expected.getNavigationLinks(), actual.getNavigationLinks());
+    assertSameLinks(expected.getNavigationBindings(), actual.getNavigationBindings());
+  }
+
+  private static void assertSameProperties(final List<Property> expected, final List<Property> actual) {
+    assertEquals(expected.size(), actual.size());
+    for (final Property property : expected) {
+      final Property other = find(actual, property.getName());
+      assertNotNull(property.getName(), other);
+      assertEquals(property.getName(), property.getType(), other.getType());
+      assertEquals(property.getName(), property.getValueType(), other.getValueType());
+      assertSameValue(property.getName(), property.getValue(), other.getValue());
+    }
+  }
+
+  private static void assertSameValue(final String name, final Object expected, final Object actual) {
+    if (expected instanceof byte[]) {
+      assertTrue(name, actual instanceof byte[] && Arrays.equals((byte[]) expected, (byte[]) actual));
+    } else if (expected instanceof ComplexValue) {
+      assertTrue(name, actual instanceof ComplexValue);
+      assertSameProperties(((ComplexValue) expected).getValue(), ((ComplexValue) actual).getValue());
+      assertSameLinks(((ComplexValue) expected).getNavigationLinks(), ((ComplexValue) actual).getNavigationLinks());
+    } else if (expected instanceof List) {
+      assertTrue(name, actual instanceof List);
+      assertEquals(name, ((List<?>) expected).size(), ((List<?>) actual).size());
+      for (int i = 0; i < ((List<?>) expected).size(); i++) {
+        assertSameValue(name, ((List<?>) expected).get(i), ((List<?>) actual).get(i));
+      }
+    } else {
+      assertEquals(name, expected, actual);
+    }
+  }
+
+  private static void assertSameLinks(final List<Link> expected, final List<Link> actual) {
+    assertEquals(expected.size(), actual.size());
+    for (final Link link : expected) {
+      Link other = null;
+      for (final Link candidate : actual) {
+        if (candidate.getTitle().equals(link.getTitle())) {
+          other = candidate;
+        }
+      }
+      assertNotNull(link.getTitle(), other);
+      assertEquals(link.getTitle(), link.getType(), other.getType());
+      assertEquals(link.getTitle(), link.getBindingLink(), other.getBindingLink());
+      assertEquals(link.getTitle(), link.getBindingLinks(), other.getBindingLinks());
+      if (link.getInlineEntity() == null) {
+        assertNull(other.getInlineEntity());
+      } else {
+        assertSame(link.getInlineEntity(), other.getInlineEntity());
+      }
+      if (link.getInlineEntitySet() == null) {
+        assertNull(other.getInlineEntitySet());
+      } else {
+        final List<Entity> entities = link.getInlineEntitySet().getEntities();
+        assertEquals(entities.size(), other.getInlineEntitySet().getEntities().size());
+        for (int i = 0; i < entities.size(); i++) {
+          assertSame(entities.get(i), other.getInlineEntitySet().getEntities().get(i));
+        }
+      }
+    }
+  }
+
+  private static Property find(final List<Property> properties, final String name) {
+    for (final Property property : properties) {
+      if (property.getName().equals(name)) {
+        return property;
+      }
+    }
+    return null;
+  }
+}